@@ -0,0 +1,453 @@
+package com.googlecode.jsonrpc4j.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.ExecutableType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Generates a {@code JsonRpcDispatcher} and a {@code JsonRpcClientStub}
+ * for every interface annotated with {@code @JsonRpcService}, so that
+ * servers find and call its methods without reflection and clients call
+ * them without proxies.  The processor only depends on the JDK, the
+ * annotations of jsonrpc4j are recognized by name.
+ */
+@SupportedAnnotationTypes(JsonRpcServiceProcessor.JSON_RPC_SERVICE)
+public class JsonRpcServiceProcessor extends AbstractProcessor {
+
+	static final String PACKAGE = "com.googlecode.jsonrpc4j";
+	static final String JSON_RPC_SERVICE = PACKAGE + ".JsonRpcService";
+	static final String JSON_RPC_METHOD = PACKAGE + ".JsonRpcMethod";
+	static final String DISPATCHER_SUFFIX = "_JsonRpcDispatcher";
+	static final String CLIENT_STUB_SUFFIX = "_JsonRpcClientStub";
+
+	/**
+	 * The methods of {@code JsonRpcClientStub} the interfaces may not declare.
+	 */
+	private static final Set<String> CLIENT_STUB_METHODS = new HashSet<>(Arrays.asList("call", "getClient", "getServiceInterface"));
+
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+		for (TypeElement annotation : annotations) {
+			for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+				if (element.getKind() != ElementKind.INTERFACE) {
+					continue;
+				}
+				final TypeElement service = (TypeElement) element;
+				if (!isAccessible(service)) {
+					processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+							"No dispatcher and client stub generated for the private interface " + service.getQualifiedName(), service);
+					continue;
+				}
+				try {
+					generateDispatcher(service);
+				} catch (IOException e) {
+					processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+							"Could not generate the dispatcher of " + service.getQualifiedName() + ": " + e, service);
+				}
+				try {
+					generateClientStub(service);
+				} catch (IOException e) {
+					processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+							"Could not generate the client stub of " + service.getQualifiedName() + ": " + e, service);
+				}
+			}
+		}
+		// other processors may handle the annotation as well
+		return false;
+	}
+
+	private static boolean isAccessible(TypeElement type) {
+		Element element = type;
+		while (element != null && (element.getKind().isInterface() || element.getKind().isClass())) {
+			if (element.getModifiers().contains(Modifier.PRIVATE)) {
+				return false;
+			}
+			element = element.getEnclosingElement();
+		}
+		return true;
+	}
+
+	private void generateDispatcher(TypeElement service) throws IOException {
+		final List<ExecutableElement> methods = getServiceMethods(service);
+		final Map<String, List<Integer>> candidates = new LinkedHashMap<>();
+		for (int i = 0; i < methods.size(); i++) {
+			for (String name : getJsonRpcNames(methods.get(i))) {
+				List<Integer> indexes = candidates.get(name);
+				if (indexes == null) {
+					indexes = new ArrayList<>();
+					candidates.put(name, indexes);
+				}
+				indexes.add(i);
+			}
+		}
+
+		final String packageName = getPackageName(service);
+		final String simpleName = getFlatName(service) + DISPATCHER_SUFFIX;
+		final String serviceName = service.getQualifiedName().toString();
+		final StringBuilder out = new StringBuilder();
+		if (!packageName.isEmpty()) {
+			out.append("package ").append(packageName).append(";\n\n");
+		}
+		out.append("/**\n");
+		out.append(" * Dispatches the JSON-RPC calls of {@link ").append(serviceName).append("}.\n");
+		out.append(" * Generated by ").append(getClass().getName()).append(", do not edit.\n");
+		out.append(" */\n");
+		out.append("@SuppressWarnings({\"unchecked\", \"rawtypes\"})\n");
+		out.append("public final class ").append(simpleName).append(" extends ").append(PACKAGE).append(".JsonRpcDispatcher {\n\n");
+
+		out.append("\tpublic ").append(simpleName).append("(com.fasterxml.jackson.databind.ObjectMapper mapper) {\n");
+		out.append("\t\tsuper(").append(serviceName).append(".class, mapper, new java.lang.reflect.Method[]{");
+		for (int i = 0; i < methods.size(); i++) {
+			final ExecutableElement method = methods.get(i);
+			out.append(i == 0 ? "\n" : ",\n");
+			out.append("\t\t\t\tmethod(").append(serviceName).append(".class, ").append(literal(method.getSimpleName().toString()));
+			for (VariableElement parameter : method.getParameters()) {
+				out.append(", ").append(erasure(parameter.asType())).append(".class");
+			}
+			out.append(")");
+		}
+		out.append("\n\t\t}, new int[][]{");
+		boolean first = true;
+		for (List<Integer> indexes : candidates.values()) {
+			out.append(first ? "\n" : ",\n");
+			first = false;
+			out.append("\t\t\t\t{");
+			for (int i = 0; i < indexes.size(); i++) {
+				out.append(i == 0 ? "" : ", ").append(indexes.get(i));
+			}
+			out.append("}");
+		}
+		out.append("\n\t\t});\n");
+		out.append("\t}\n\n");
+
+		out.append("\t@Override\n");
+		out.append("\tpublic java.util.Set<java.lang.reflect.Method> findMethods(java.lang.String name) {\n");
+		out.append("\t\tswitch (name) {\n");
+		int group = 0;
+		for (String name : candidates.keySet()) {
+			out.append("\t\t\tcase ").append(literal(name)).append(":\n");
+			out.append("\t\t\t\treturn candidates(").append(group++).append(");\n");
+		}
+		out.append("\t\t\tdefault:\n");
+		out.append("\t\t\t\treturn java.util.Collections.emptySet();\n");
+		out.append("\t\t}\n");
+		out.append("\t}\n\n");
+
+		out.append("\t@Override\n");
+		out.append("\tprotected java.lang.Object invoke(java.lang.Object handler, int index, java.lang.Object[] arguments) throws java.lang.Throwable {\n");
+		out.append("\t\tfinal ").append(serviceName).append(" service = (").append(serviceName).append(") handler;\n");
+		out.append("\t\tswitch (index) {\n");
+		for (int i = 0; i < methods.size(); i++) {
+			final ExecutableElement method = methods.get(i);
+			final boolean isVoid = method.getReturnType().getKind() == TypeKind.VOID;
+			out.append("\t\t\tcase ").append(i).append(":\n");
+			out.append("\t\t\t\t").append(isVoid ? "" : "return ").append("service.").append(method.getSimpleName()).append("(");
+			final List<? extends VariableElement> parameters = method.getParameters();
+			for (int j = 0; j < parameters.size(); j++) {
+				out.append(j == 0 ? "" : ", ").append("(").append(castType(parameters.get(j).asType())).append(") arguments[").append(j).append("]");
+			}
+			out.append(");\n");
+			if (isVoid) {
+				out.append("\t\t\t\treturn null;\n");
+			}
+		}
+		out.append("\t\t\tdefault:\n");
+		out.append("\t\t\t\tthrow new java.lang.IllegalArgumentException(\"No method \" + index);\n");
+		out.append("\t\t}\n");
+		out.append("\t}\n");
+		out.append("}\n");
+
+		writeSource(service, packageName, simpleName, out);
+	}
+
+	private void generateClientStub(TypeElement service) throws IOException {
+		final String unsupported = getClientStubRestriction(service);
+		if (unsupported != null) {
+			processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE,
+					"No client stub generated for " + service.getQualifiedName() + ", " + unsupported + ", proxies are used instead", service);
+			return;
+		}
+		final List<ExecutableElement> methods = getServiceMethods(service);
+		final Types types = processingEnv.getTypeUtils();
+		final DeclaredType serviceType = (DeclaredType) service.asType();
+
+		final String packageName = getPackageName(service);
+		final String simpleName = getFlatName(service) + CLIENT_STUB_SUFFIX;
+		final String serviceName = service.getQualifiedName().toString();
+		final StringBuilder out = new StringBuilder();
+		if (!packageName.isEmpty()) {
+			out.append("package ").append(packageName).append(";\n\n");
+		}
+		out.append("/**\n");
+		out.append(" * Calls the JSON-RPC methods of {@link ").append(serviceName).append("}.\n");
+		out.append(" * Generated by ").append(getClass().getName()).append(", do not edit.\n");
+		out.append(" */\n");
+		out.append("@SuppressWarnings({\"unchecked\", \"rawtypes\"})\n");
+		out.append("public final class ").append(simpleName).append(" extends ").append(PACKAGE).append(".JsonRpcClientStub implements ")
+				.append(serviceName).append(" {\n\n");
+
+		out.append("\tpublic ").append(simpleName).append("(").append(PACKAGE)
+				.append(".IJsonRpcClient client, java.util.Map<java.lang.String, java.lang.String> extraHeaders) {\n");
+		out.append("\t\tsuper(").append(serviceName).append(".class, client, extraHeaders, new java.lang.reflect.Method[]{");
+		for (int i = 0; i < methods.size(); i++) {
+			final ExecutableElement method = methods.get(i);
+			out.append(i == 0 ? "\n" : ",\n");
+			out.append("\t\t\t\tmethod(").append(serviceName).append(".class, ").append(literal(method.getSimpleName().toString()));
+			for (VariableElement parameter : method.getParameters()) {
+				out.append(", ").append(erasure(parameter.asType())).append(".class");
+			}
+			out.append(")");
+		}
+		out.append("\n\t\t});\n");
+		out.append("\t}\n");
+
+		for (int i = 0; i < methods.size(); i++) {
+			final ExecutableElement method = methods.get(i);
+			final ExecutableType methodType = (ExecutableType) types.asMemberOf(serviceType, method);
+			final List<? extends TypeMirror> parameterTypes = methodType.getParameterTypes();
+			final TypeMirror returnType = methodType.getReturnType();
+			final boolean isVoid = returnType.getKind() == TypeKind.VOID;
+
+			out.append("\n\t@Override\n");
+			out.append("\tpublic ").append(returnType).append(" ").append(method.getSimpleName()).append("(");
+			for (int j = 0; j < parameterTypes.size(); j++) {
+				out.append(j == 0 ? "" : ", ");
+				if (method.isVarArgs() && j == parameterTypes.size() - 1) {
+					out.append(((ArrayType) parameterTypes.get(j)).getComponentType()).append("...");
+				} else {
+					out.append(parameterTypes.get(j));
+				}
+				out.append(" arg").append(j);
+			}
+			out.append(")");
+			final List<? extends TypeMirror> thrownTypes = methodType.getThrownTypes();
+			for (int j = 0; j < thrownTypes.size(); j++) {
+				out.append(j == 0 ? " throws " : ", ").append(thrownTypes.get(j));
+			}
+			out.append(" {\n");
+
+			out.append("\t\ttry {\n");
+			out.append("\t\t\t");
+			if (!isVoid) {
+				out.append("return (").append(castType(returnType)).append(") ");
+			}
+			out.append("call(").append(i).append(", ");
+			if (parameterTypes.isEmpty()) {
+				// the same arguments as the proxies get
+				out.append("null");
+			} else {
+				out.append("new java.lang.Object[]{");
+				for (int j = 0; j < parameterTypes.size(); j++) {
+					out.append(j == 0 ? "" : ", ").append("arg").append(j);
+				}
+				out.append("}");
+			}
+			out.append(");\n");
+			appendRethrow(out, thrownTypes);
+			out.append("\t}\n");
+		}
+		out.append("}\n");
+
+		writeSource(service, packageName, simpleName, out);
+	}
+
+	/**
+	 * @return why no client stub can be generated for the interface, null if one can
+	 */
+	private String getClientStubRestriction(TypeElement service) {
+		if (!service.getTypeParameters().isEmpty()) {
+			return "its type parameters are not supported";
+		}
+		for (ExecutableElement method : getServiceMethods(service)) {
+			if (!method.getTypeParameters().isEmpty()) {
+				return "the type parameters of " + method.getSimpleName() + " are not supported";
+			}
+			if (CLIENT_STUB_METHODS.contains(method.getSimpleName().toString())) {
+				return method.getSimpleName() + " is a method of JsonRpcClientStub";
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Rethrows the unchecked and the declared exceptions of a call as they
+	 * are, wraps the others the way proxies do.
+	 */
+	private void appendRethrow(StringBuilder out, List<? extends TypeMirror> thrownTypes) {
+		final Types types = processingEnv.getTypeUtils();
+		final TypeMirror throwable = getType("java.lang.Throwable");
+		final TypeMirror runtimeException = getType("java.lang.RuntimeException");
+		final TypeMirror error = getType("java.lang.Error");
+		out.append("\t\t} catch (java.lang.RuntimeException | java.lang.Error e) {\n");
+		out.append("\t\t\tthrow e;\n");
+		boolean throwsThrowable = false;
+		for (TypeMirror thrownType : thrownTypes) {
+			if (types.isSubtype(thrownType, runtimeException) || types.isSubtype(thrownType, error) || isSubsumed(thrownType, thrownTypes)) {
+				continue;
+			}
+			throwsThrowable |= types.isSameType(thrownType, throwable);
+			out.append("\t\t} catch (").append(types.erasure(thrownType)).append(" e) {\n");
+			out.append("\t\t\tthrow e;\n");
+		}
+		if (!throwsThrowable) {
+			out.append("\t\t} catch (java.lang.Throwable e) {\n");
+			out.append("\t\t\tthrow new java.lang.reflect.UndeclaredThrowableException(e);\n");
+		}
+		out.append("\t\t}\n");
+	}
+
+	/**
+	 * @return whether another of the thrown types is a supertype of the given one, or the same type declared before
+	 */
+	private boolean isSubsumed(TypeMirror thrownType, List<? extends TypeMirror> thrownTypes) {
+		final Types types = processingEnv.getTypeUtils();
+		final int index = thrownTypes.indexOf(thrownType);
+		for (int i = 0; i < thrownTypes.size(); i++) {
+			final TypeMirror other = thrownTypes.get(i);
+			if (i != index && types.isSubtype(thrownType, other) && (i < index || !types.isSameType(thrownType, other))) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private TypeMirror getType(String name) {
+		return processingEnv.getElementUtils().getTypeElement(name).asType();
+	}
+
+	private void writeSource(TypeElement service, String packageName, String simpleName, StringBuilder out) throws IOException {
+		final String qualifiedName = packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+		final JavaFileObject file = processingEnv.getFiler().createSourceFile(qualifiedName, service);
+		try (Writer writer = file.openWriter()) {
+			writer.write(out.toString());
+		}
+	}
+
+	/**
+	 * @return the public instance methods of the interface and of the interfaces it extends
+	 */
+	private List<ExecutableElement> getServiceMethods(TypeElement service) {
+		final List<ExecutableElement> methods = new ArrayList<>();
+		for (ExecutableElement method : ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(service))) {
+			final Set<Modifier> modifiers = method.getModifiers();
+			if (method.getEnclosingElement().getKind() != ElementKind.INTERFACE
+					|| modifiers.contains(Modifier.STATIC) || modifiers.contains(Modifier.PRIVATE)) {
+				continue;
+			}
+			methods.add(method);
+		}
+		return methods;
+	}
+
+	/**
+	 * @return the JSON-RPC names of the method, resolved like {@code ReflectionUtil.findCandidateMethods}
+	 */
+	private static List<String> getJsonRpcNames(ExecutableElement method) {
+		final List<String> names = new ArrayList<>();
+		final String javaName = method.getSimpleName().toString();
+		final AnnotationMirror annotation = getAnnotation(method, JSON_RPC_METHOD);
+		if (annotation == null) {
+			names.add(javaName);
+			return names;
+		}
+		final String value = (String) getAnnotationValue(annotation, "value", null);
+		final boolean required = (Boolean) getAnnotationValue(annotation, "required", false);
+		names.add(value);
+		if (!required && !javaName.equals(value)) {
+			names.add(javaName);
+		}
+		return names;
+	}
+
+	private static AnnotationMirror getAnnotation(Element element, String annotationName) {
+		for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+			if (((TypeElement) annotation.getAnnotationType().asElement()).getQualifiedName().contentEquals(annotationName)) {
+				return annotation;
+			}
+		}
+		return null;
+	}
+
+	private static Object getAnnotationValue(AnnotationMirror annotation, String name, Object defaultValue) {
+		for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : annotation.getElementValues().entrySet()) {
+			if (entry.getKey().getSimpleName().contentEquals(name)) {
+				return entry.getValue().getValue();
+			}
+		}
+		return defaultValue;
+	}
+
+	private String getPackageName(TypeElement type) {
+		return processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+	}
+
+	/**
+	 * @return the simple names of the type and of the types enclosing it, joined with underscores
+	 */
+	private static String getFlatName(TypeElement type) {
+		final StringBuilder name = new StringBuilder(type.getSimpleName());
+		Element enclosing = type.getEnclosingElement();
+		while (enclosing != null && (enclosing.getKind().isInterface() || enclosing.getKind().isClass())) {
+			name.insert(0, enclosing.getSimpleName() + "_");
+			enclosing = enclosing.getEnclosingElement();
+		}
+		return name.toString();
+	}
+
+	private String erasure(TypeMirror type) {
+		return processingEnv.getTypeUtils().erasure(type).toString();
+	}
+
+	private String castType(TypeMirror type) {
+		if (type.getKind().isPrimitive()) {
+			return processingEnv.getTypeUtils().boxedClass(processingEnv.getTypeUtils().getPrimitiveType(type.getKind())).getQualifiedName().toString();
+		}
+		return erasure(type);
+	}
+
+	private static String literal(String value) {
+		final StringBuilder literal = new StringBuilder("\"");
+		for (char c : value.toCharArray()) {
+			if (c == '"' || c == '\\') {
+				literal.append('\\').append(c);
+			} else if (c < 0x20 || c > 0x7e) {
+				literal.append(String.format("\\u%04x", (int) c));
+			} else {
+				literal.append(c);
+			}
+		}
+		return literal.append('"').toString();
+	}
+}
@@ -0,0 +1,94 @@
+package com.googlecode.jsonrpc4j.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.googlecode.jsonrpc4j.JsonRpcHttpClient;
+import com.googlecode.jsonrpc4j.JsonRpcServer;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.servlet.ServletContextHandler;
+import org.eclipse.jetty.servlet.ServletHolder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the calls per second of a {@link JsonRpcHttpClient} against a local
+ * Jetty server, with and without gzipped requests.
+ * Run with {@code gradle jmh}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class HttpClientBenchmark {
+	
+	@Param({"false", "true"})
+	public boolean gzipRequests;
+	
+	private Server jetty;
+	private JsonRpcHttpClient client;
+	
+	@Setup
+	public void setUp() throws Exception {
+		jetty = new Server(0);
+		ServletContextHandler context = new ServletContextHandler(ServletContextHandler.NO_SESSIONS);
+		context.setContextPath("/");
+		context.addServlet(new ServletHolder(new EchoServlet()), "/echo");
+		jetty.setHandler(context);
+		jetty.start();
+		int port = ((ServerConnector) jetty.getConnectors()[0]).getLocalPort();
+		
+		client = new JsonRpcHttpClient(new ObjectMapper(), new URL("http://127.0.0.1:" + port + "/echo"), new HashMap<String, String>(), gzipRequests, false);
+	}
+	
+	@TearDown
+	public void tearDown() throws Exception {
+		jetty.stop();
+	}
+	
+	@Benchmark
+	public String invoke() throws Throwable {
+		return client.invoke("echo", new Object[]{"hello"}, String.class);
+	}
+	
+	public interface Echo {
+		String echo(String value);
+	}
+	
+	public static class EchoServlet extends HttpServlet {
+		
+		static final long serialVersionUID = 1L;
+		private final transient JsonRpcServer jsonRpcServer = new JsonRpcServer(new ObjectMapper(), new Echo() {
+			@Override
+			public String echo(String value) {
+				return value;
+			}
+		}, Echo.class);
+		
+		@Override
+		protected void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
+			jsonRpcServer.handle(request, response);
+		}
+	}
+}
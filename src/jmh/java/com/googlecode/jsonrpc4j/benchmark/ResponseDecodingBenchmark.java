@@ -0,0 +1,125 @@
+package com.googlecode.jsonrpc4j.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.googlecode.jsonrpc4j.JsonRpcClient;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how long {@link JsonRpcClient} takes to decode a response
+ * holding a list of beans, either token by token straight into the
+ * return type or through a tree (which is what happens when a
+ * {@link JsonRpcClient.RequestListener} is set).
+ * Run with {@code gradle jmh}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseDecodingBenchmark {
+
+	private static final Type RESULT_TYPE = new TypeReference<List<Item>>() {}.getType();
+
+	@Param({"10", "1000", "10000"})
+	public int size;
+
+	@Param({"false", "true"})
+	public boolean tree;
+
+	private JsonRpcClient client;
+	private byte[] response;
+
+	@Setup
+	public void setUp() throws Exception {
+		ObjectMapper mapper = new ObjectMapper();
+		client = new JsonRpcClient(mapper);
+		if (tree) {
+			client.setRequestListener(new JsonRpcClient.RequestListener() {
+				@Override
+				public void onBeforeRequestSent(JsonRpcClient client, ObjectNode request) {
+				}
+
+				@Override
+				public void onBeforeResponseProcessed(JsonRpcClient client, ObjectNode response) {
+				}
+			});
+		}
+
+		List<Item> items = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			items.add(new Item(i, "item " + i, i * 0.5));
+		}
+		Map<String, Object> envelope = new HashMap<>();
+		envelope.put("jsonrpc", "2.0");
+		envelope.put("id", "1");
+		envelope.put("result", items);
+		response = mapper.writeValueAsBytes(envelope);
+	}
+
+	@Benchmark
+	public Object readResponse() throws Throwable {
+		return client.readResponse(RESULT_TYPE, new ByteArrayInputStream(response));
+	}
+
+	@SuppressWarnings("unused")
+	public static class Item {
+
+		private long id;
+		private String name;
+		private double price;
+
+		public Item() {
+		}
+
+		Item(long id, String name, double price) {
+			this.id = id;
+			this.name = name;
+			this.price = price;
+		}
+
+		public long getId() {
+			return id;
+		}
+
+		public void setId(long id) {
+			this.id = id;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+
+		public double getPrice() {
+			return price;
+		}
+
+		public void setPrice(double price) {
+			this.price = price;
+		}
+	}
+}
@@ -0,0 +1,201 @@
+package com.googlecode.jsonrpc4j;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limits the number of requests a server handles at once, the limit
+ * following the latency of the requests.  The invocation of each request
+ * is timed, leaving out the waits for a bulkhead or a thread; as long
+ * as the latency stays close to its long term average the limit grows,
+ * when the methods slow down, e.g. queuing up in a backend, the
+ * limit shrinks in proportion (a gradient, as opposed to a fixed step).
+ * Requests over the limit are rejected right away, so that a slow
+ * backend makes the server answer fewer requests instead of answering
+ * all of them late.
+ * <pre>
+ * AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter();
+ * limiter.register("orders");
+ * server.setConcurrencyLimiter(limiter);
+ * </pre>
+ * Rejected requests are answered with the
+ * {@link ErrorResolver.JsonError#SERVER_OVERLOADED} error, which the
+ * {@link DefaultHttpStatusCodeProvider} maps to 503.
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+public class AdaptiveConcurrencyLimiter implements AdaptiveConcurrencyLimiterMXBean {
+
+	public static final int DEFAULT_INITIAL_LIMIT = 20;
+	public static final int DEFAULT_MIN_LIMIT = 1;
+	public static final int DEFAULT_MAX_LIMIT = 1000;
+
+	/**
+	 * The latency may exceed its long term average by this factor before the limit shrinks.
+	 */
+	private static final double TOLERANCE = 1.5;
+	private static final double SMOOTHING = 0.2;
+	private static final int LONG_WINDOW = 600;
+	private static final double LONG_WINDOW_FACTOR = 2.0 / (LONG_WINDOW + 1);
+
+	private final int minLimit;
+	private final int maxLimit;
+	private final AtomicInteger inFlight = new AtomicInteger();
+	private final AtomicLong admitted = new AtomicLong();
+	private final AtomicLong rejected = new AtomicLong();
+	private volatile int limit;
+	private double estimatedLimit;
+	private double longLatency = -1;
+	private volatile ObjectName objectName = null;
+
+	/**
+	 * Creates the limiter with the default limits.
+	 */
+	public AdaptiveConcurrencyLimiter() {
+		this(DEFAULT_INITIAL_LIMIT, DEFAULT_MIN_LIMIT, DEFAULT_MAX_LIMIT);
+	}
+
+	/**
+	 * Creates the limiter.
+	 *
+	 * @param initialLimit the limit until latencies have been measured
+	 * @param minLimit     the lowest limit
+	 * @param maxLimit     the highest limit
+	 */
+	public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit) {
+		if (minLimit < 1 || maxLimit < minLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+			throw new IllegalArgumentException("Invalid limits " + minLimit + " <= " + initialLimit + " <= " + maxLimit);
+		}
+		this.minLimit = minLimit;
+		this.maxLimit = maxLimit;
+		this.limit = initialLimit;
+		this.estimatedLimit = initialLimit;
+	}
+
+	/**
+	 * Admits a request if the limit is not reached.  An admitted
+	 * request has to be {@link #release(long) released}.
+	 *
+	 * @return whether the request is admitted
+	 */
+	public boolean tryAcquire() {
+		while (true) {
+			final int current = inFlight.get();
+			if (current >= limit) {
+				rejected.incrementAndGet();
+				return false;
+			}
+			if (inFlight.compareAndSet(current, current + 1)) {
+				admitted.incrementAndGet();
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * Releases an admitted request and adjusts the limit to its latency.
+	 *
+	 * @param latencyNanos the time taken by the request, in nanoseconds
+	 */
+	public void release(long latencyNanos) {
+		final int current = inFlight.getAndDecrement();
+		if (latencyNanos > 0) {
+			update(latencyNanos, current);
+		}
+	}
+
+	private synchronized void update(long latencyNanos, int inFlightBefore) {
+		if (longLatency < 0) {
+			longLatency = latencyNanos;
+		} else {
+			longLatency += (latencyNanos - longLatency) * LONG_WINDOW_FACTOR;
+		}
+		// recover faster once a slow period is over
+		if (longLatency > 2 * latencyNanos) {
+			longLatency *= 0.95;
+		}
+		// a limit that is not used is not raised
+		if (inFlightBefore < estimatedLimit / 2) {
+			return;
+		}
+		final double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * longLatency / latencyNanos));
+		final double queueSize = Math.sqrt(estimatedLimit);
+		final double newLimit = estimatedLimit * gradient + queueSize;
+		estimatedLimit = Math.max(minLimit, Math.min(maxLimit, estimatedLimit * (1 - SMOOTHING) + newLimit * SMOOTHING));
+		limit = (int) estimatedLimit;
+	}
+
+	@Override
+	public int getLimit() {
+		return limit;
+	}
+
+	@Override
+	public int getInFlight() {
+		return inFlight.get();
+	}
+
+	@Override
+	public long getAdmittedCount() {
+		return admitted.get();
+	}
+
+	@Override
+	public long getRejectedCount() {
+		return rejected.get();
+	}
+
+	@Override
+	public synchronized double getLatencyMicros() {
+		return longLatency < 0 ? 0 : longLatency / TimeUnit.MICROSECONDS.toNanos(1);
+	}
+
+	@Override
+	public void reset() {
+		admitted.set(0);
+		rejected.set(0);
+	}
+
+	/**
+	 * Registers the limiter with the platform MBean server, as
+	 * {@code com.googlecode.jsonrpc4j:type=ConcurrencyLimiter,name=<name>}.
+	 *
+	 * @param name the name of the limiter
+	 * @return the name it is registered with
+	 * @throws IllegalStateException if the limiter could not be registered
+	 */
+	public synchronized ObjectName register(String name) {
+		unregister();
+		try {
+			final ObjectName named = new ObjectName("com.googlecode.jsonrpc4j:type=ConcurrencyLimiter,name=" + ObjectName.quote(name));
+			ManagementFactory.getPlatformMBeanServer().registerMBean(this, named);
+			objectName = named;
+			return named;
+		} catch (JMException e) {
+			throw new IllegalStateException("Could not register the limiter " + name, e);
+		}
+	}
+
+	/**
+	 * Unregisters the limiter from the platform MBean server, if registered.
+	 */
+	public synchronized void unregister() {
+		final ObjectName registered = objectName;
+		if (registered == null) {
+			return;
+		}
+		objectName = null;
+		final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		try {
+			if (server.isRegistered(registered)) {
+				server.unregisterMBean(registered);
+			}
+		} catch (JMException e) {
+			throw new IllegalStateException("Could not unregister the limiter " + registered, e);
+		}
+	}
+}
@@ -0,0 +1,38 @@
+package com.googlecode.jsonrpc4j;
+
+/**
+ * The JMX view of {@link AdaptiveConcurrencyLimiter}, see
+ * {@link AdaptiveConcurrencyLimiter#register(String)}.
+ */
+public interface AdaptiveConcurrencyLimiterMXBean {
+
+	/**
+	 * @return the number of requests currently admitted at once
+	 */
+	int getLimit();
+
+	/**
+	 * @return the number of requests being handled
+	 */
+	int getInFlight();
+
+	/**
+	 * @return the number of requests admitted
+	 */
+	long getAdmittedCount();
+
+	/**
+	 * @return the number of requests rejected because the limit was reached
+	 */
+	long getRejectedCount();
+
+	/**
+	 * @return the smoothed latency of the requests, in microseconds
+	 */
+	double getLatencyMicros();
+
+	/**
+	 * Resets the counts, the limit is kept.
+	 */
+	void reset();
+}
@@ -4,54 +4,105 @@ import com.fasterxml.jackson.databind.JsonNode;
 
 import java.lang.reflect.Method;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * {@link ErrorResolver} that uses annotations.
+ * The {@link JsonRpcErrors} of a method are read once, and the
+ * {@link JsonRpcError} matching an exception is found once per
+ * exception class.  The errors with a fixed message are created
+ * once as well.
  */
 public enum AnnotationsErrorResolver implements ErrorResolver {
 	INSTANCE;
 	
+	private final Map<Method, ErrorMapping> mappings = new ConcurrentHashMap<>();
+	
 	/**
 	 * {@inheritDoc}
 	 */
 	@Override
 	public JsonError resolveError(Throwable thrownException, Method method, List<JsonNode> arguments) {
-		JsonRpcError resolver = getResolverForException(thrownException, method);
-		if (notFoundResolver(resolver)) {
+		if (method == null) {
 			return null;
 		}
-		
-		String message = hasErrorMessage(resolver) ? resolver.message() : thrownException.getMessage();
-		return new JsonError(resolver.code(), message, new ErrorData(resolver.exception().getName(), message));
+		return getMapping(method).resolveError(thrownException);
 	}
 	
-	private JsonRpcError getResolverForException(Throwable thrownException, Method method) {
-		JsonRpcErrors errors = ReflectionUtil.getAnnotation(method, JsonRpcErrors.class);
-		if (hasAnnotations(errors)) {
-			for (JsonRpcError errorDefined : errors.value()) {
-				if (isExceptionInstanceOfError(thrownException, errorDefined)) {
-					return errorDefined;
-				}
-			}
+	private ErrorMapping getMapping(Method method) {
+		ErrorMapping mapping = mappings.get(method);
+		if (mapping == null) {
+			JsonRpcErrors errors = ReflectionUtil.getAnnotation(method, JsonRpcErrors.class);
+			mapping = new ErrorMapping(hasAnnotations(errors) ? errors.value() : new JsonRpcError[0]);
+			mappings.put(method, mapping);
 		}
-		return null;
+		return mapping;
 	}
 	
-	private boolean notFoundResolver(JsonRpcError resolver) {
-		return resolver == null;
-	}
-	
-	private boolean hasErrorMessage(JsonRpcError em) {
+	private static boolean hasErrorMessage(JsonRpcError em) {
 		// noinspection ConstantConditions
 		return em.message() != null && em.message().trim().length() > 0;
 	}
 	
-	private boolean hasAnnotations(JsonRpcErrors errors) {
+	private static boolean hasAnnotations(JsonRpcErrors errors) {
 		return errors != null;
 	}
 	
-	private boolean isExceptionInstanceOfError(Throwable target, JsonRpcError em) {
+	private static boolean isExceptionInstanceOfError(Throwable target, JsonRpcError em) {
 		return em.exception().isInstance(target);
 	}
 	
+	/**
+	 * The {@link JsonRpcError}s of a method, with the index of the one
+	 * matching each exception class thrown so far.
+	 */
+	private static class ErrorMapping {
+		
+		private static final Integer NOT_FOUND = -1;
+		
+		private final JsonRpcError[] errors;
+		private final JsonError[] fixedErrors;
+		private final Map<Class<?>, Integer> indexes = new ConcurrentHashMap<>();
+		
+		ErrorMapping(JsonRpcError[] errors) {
+			this.errors = errors;
+			this.fixedErrors = new JsonError[errors.length];
+			for (int i = 0; i < errors.length; i++) {
+				if (hasErrorMessage(errors[i])) {
+					String message = errors[i].message();
+					fixedErrors[i] = new JsonError(errors[i].code(), message, new ErrorData(errors[i].exception().getName(), message), true);
+				}
+			}
+		}
+		
+		JsonError resolveError(Throwable thrownException) {
+			if (errors.length == 0) {
+				return null;
+			}
+			Integer index = indexes.get(thrownException.getClass());
+			if (index == null) {
+				index = findError(thrownException);
+				indexes.put(thrownException.getClass(), index);
+			}
+			if (index < 0) {
+				return null;
+			}
+			if (fixedErrors[index] != null) {
+				return fixedErrors[index];
+			}
+			JsonRpcError resolver = errors[index];
+			String message = thrownException.getMessage();
+			return new JsonError(resolver.code(), message, new ErrorData(resolver.exception().getName(), message));
+		}
+		
+		private Integer findError(Throwable thrownException) {
+			for (int i = 0; i < errors.length; i++) {
+				if (isExceptionInstanceOfError(thrownException, errors[i])) {
+					return i;
+				}
+			}
+			return NOT_FOUND;
+		}
+	}
 }
@@ -0,0 +1,63 @@
+package com.googlecode.jsonrpc4j;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.lang.reflect.Type;
+
+/**
+ * Identifies the calls that are interchangeable: same method, same
+ * arguments once serialized and same return type.
+ */
+class CallKey {
+	
+	final String methodName;
+	final Object argument;
+	final Type returnType;
+	private final String serializedArgument;
+	
+	private CallKey(String methodName, Object argument, String serializedArgument, Type returnType) {
+		this.methodName = methodName;
+		this.argument = argument;
+		this.serializedArgument = serializedArgument;
+		this.returnType = returnType;
+	}
+	
+	/**
+	 * Creates the key of a call.
+	 *
+	 * @param mapper     the {@link ObjectMapper} used to serialize the argument
+	 * @param methodName the method name
+	 * @param argument   the argument
+	 * @param returnType the return type
+	 * @return the key
+	 * @throws JsonProcessingException if the argument can not be serialized
+	 */
+	static CallKey of(ObjectMapper mapper, String methodName, Object argument, Type returnType) throws JsonProcessingException {
+		return new CallKey(methodName, argument, mapper.writeValueAsString(argument), returnType);
+	}
+	
+	@Override
+	public int hashCode() {
+		int result = methodName.hashCode();
+		result = 31 * result + serializedArgument.hashCode();
+		result = 31 * result + (returnType == null ? 0 : returnType.hashCode());
+		return result;
+	}
+	
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (!(obj instanceof CallKey))
+			return false;
+		CallKey other = (CallKey) obj;
+		return methodName.equals(other.methodName) && serializedArgument.equals(other.serializedArgument)
+				&& (returnType == null ? other.returnType == null : returnType.equals(other.returnType));
+	}
+	
+	@Override
+	public String toString() {
+		return methodName + serializedArgument;
+	}
+}
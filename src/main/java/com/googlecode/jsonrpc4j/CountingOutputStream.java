@@ -0,0 +1,36 @@
+package com.googlecode.jsonrpc4j;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Counts the bytes written.
+ */
+class CountingOutputStream extends FilterOutputStream {
+
+	private long count = 0;
+
+	CountingOutputStream(OutputStream output) {
+		super(output);
+	}
+
+	@Override
+	public void write(int b) throws IOException {
+		out.write(b);
+		count++;
+	}
+
+	@Override
+	public void write(byte[] b, int off, int len) throws IOException {
+		out.write(b, off, len);
+		count += len;
+	}
+
+	/**
+	 * @return the number of bytes written
+	 */
+	long getCount() {
+		return count;
+	}
+}
@@ -0,0 +1,16 @@
+package com.googlecode.jsonrpc4j;
+
+/**
+ * Thrown by {@link JsonRpcDeadline#checkDeadline()} once the deadline of the
+ * request has passed.  The server answers the request with the
+ * {@link ErrorResolver.JsonError#DEADLINE_EXCEEDED} error.
+ */
+@SuppressWarnings("unused")
+public class DeadlineExceededException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	public DeadlineExceededException() {
+		super(ErrorResolver.JsonError.DEADLINE_EXCEEDED.message);
+	}
+}
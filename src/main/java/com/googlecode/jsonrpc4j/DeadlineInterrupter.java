@@ -0,0 +1,73 @@
+package com.googlecode.jsonrpc4j;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Interrupts the thread invoking a method when the deadline of the
+ * request passes.  The interruption is cleared once the invocation
+ * ends, so that the thread goes on handling requests.
+ */
+class DeadlineInterrupter implements Runnable {
+
+	private static final ScheduledThreadPoolExecutor timer = createTimer();
+
+	private final Thread thread = Thread.currentThread();
+	private ScheduledFuture<?> future;
+	private boolean active = true;
+	private boolean interrupted = false;
+
+	private DeadlineInterrupter() {
+	}
+
+	private static ScheduledThreadPoolExecutor createTimer() {
+		final ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable runnable) {
+				final Thread thread = new Thread(runnable, "jsonrpc4j-deadline");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		timer.setRemoveOnCancelPolicy(true);
+		return timer;
+	}
+
+	/**
+	 * Interrupts the current thread when the deadline of its request passes.
+	 *
+	 * @return the interrupter to {@link #cancel() cancel} once the invocation ends, or null without deadline
+	 */
+	static DeadlineInterrupter schedule() {
+		final Long deadline = JsonRpcDeadline.get();
+		if (deadline == null) {
+			return null;
+		}
+		final DeadlineInterrupter interrupter = new DeadlineInterrupter();
+		// not before the deadline, so that the interrupted invocation is seen as late
+		interrupter.future = timer.schedule(interrupter, Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+		return interrupter;
+	}
+
+	@Override
+	public synchronized void run() {
+		if (active) {
+			interrupted = true;
+			thread.interrupt();
+		}
+	}
+
+	/**
+	 * Stops the interrupter, clearing the interruption it caused if any.
+	 */
+	synchronized void cancel() {
+		active = false;
+		future.cancel(false);
+		if (interrupted) {
+			// noinspection ResultOfMethodCallIgnored
+			Thread.interrupted();
+		}
+	}
+}
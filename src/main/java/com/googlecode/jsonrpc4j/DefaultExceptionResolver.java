@@ -4,8 +4,12 @@ import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.lang.ref.WeakReference;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static com.googlecode.jsonrpc4j.Util.hasNonNullObjectData;
 import static com.googlecode.jsonrpc4j.Util.hasNonNullTextualData;
@@ -14,10 +18,26 @@ import static com.googlecode.jsonrpc4j.Util.hasNonNullTextualData;
  * Default implementation of the {@link ExceptionResolver} interface that attempts to re-throw the same exception
  * that was thrown by the server. This always returns a {@link Throwable}.
  * The exception class must be present on the classpath.
+ * <p>
+ * The classes and constructors of the exceptions are resolved once per type name and context class loader,
+ * the type names that can not be resolved being remembered as well.  The class loaders, classes and
+ * constructors are only held weakly, so that the cache does not keep an undeployed application loaded.
+ * With {@link #setCaptureStackTrace(boolean)}
+ * the exceptions can be created without the stack trace of the client, which says little about a remote error.
  */
+@SuppressWarnings({"WeakerAccess", "unused"})
 public class DefaultExceptionResolver implements ExceptionResolver {
 	private static final Logger logger = LoggerFactory.getLogger(DefaultExceptionResolver.class);
 	public static final DefaultExceptionResolver INSTANCE = new DefaultExceptionResolver();
+	
+	/**
+	 * The number of type names kept at most per class loader, the cache of the loader is cleared when it is exceeded.
+	 */
+	private static final int MAX_CACHED_TYPES = 1024;
+	private static final StackTraceElement[] NO_STACK_TRACE = new StackTraceElement[0];
+	
+	private final Map<ClassLoader, Map<String, ThrowableFactory>> factories = new WeakHashMap<>();
+	private volatile boolean captureStackTrace = true;
 
 	/**
 	 * {@inheritDoc}
@@ -33,14 +53,44 @@ public class DefaultExceptionResolver implements ExceptionResolver {
 		
 		try {
 			String exceptionTypeName = dataObject.get(JsonRpcBasicServer.EXCEPTION_TYPE_NAME).asText();
+			ThrowableFactory factory = getThrowableFactory(exceptionTypeName);
+			Class<? extends Throwable> clazz = factory.getThrowableClass();
+			if (clazz == null) {
+				return createJsonRpcClientException(errorObject);
+			}
 			String message = hasNonNullTextualData(dataObject, JsonRpcBasicServer.ERROR_MESSAGE) ? dataObject.get(JsonRpcBasicServer.ERROR_MESSAGE).asText() : null;
-			return createThrowable(exceptionTypeName, message);
+			Throwable throwable = createThrowable(factory, clazz, message);
+			if (throwable != null && !captureStackTrace) {
+				throwable.setStackTrace(NO_STACK_TRACE);
+			}
+			return throwable;
 		} catch (Exception e) {
 			logger.warn("Unable to create throwable", e);
 			return createJsonRpcClientException(errorObject);
 		}
 	}
 	
+	/**
+	 * Sets whether the exceptions created keep the stack trace of the client,
+	 * which they do by default.  Without it the {@link JsonRpcClientException}s
+	 * are created without walking the stack; the exceptions of the server types
+	 * still walk it in the constructor of {@link Throwable}, but do not keep it.
+	 *
+	 * @param captureStackTrace true or false
+	 */
+	public void setCaptureStackTrace(boolean captureStackTrace) {
+		this.captureStackTrace = captureStackTrace;
+	}
+	
+	/**
+	 * Clears the classes and constructors resolved so far.
+	 */
+	public void clearCache() {
+		synchronized (factories) {
+			factories.clear();
+		}
+	}
+	
 	/**
 	 * Creates a {@link JsonRpcClientException} from the given
 	 * {@link ObjectNode}.
@@ -50,48 +100,94 @@ public class DefaultExceptionResolver implements ExceptionResolver {
 	 */
 	private JsonRpcClientException createJsonRpcClientException(ObjectNode errorObject) {
 		int code = errorObject.has(JsonRpcBasicServer.ERROR_CODE) ? errorObject.get(JsonRpcBasicServer.ERROR_CODE).asInt() : 0;
-		return new JsonRpcClientException(code, errorObject.get(JsonRpcBasicServer.ERROR_MESSAGE).asText(), errorObject.get(JsonRpcBasicServer.DATA));
+		return new JsonRpcClientException(code, errorObject.get(JsonRpcBasicServer.ERROR_MESSAGE).asText(), errorObject.get(JsonRpcBasicServer.DATA), captureStackTrace);
+	}
+	
+	/**
+	 * Returns the classes and constructors of the given type, resolving them
+	 * on first use for the context class loader of the current thread, or
+	 * again once the class has been unloaded.
+	 *
+	 * @param typeName the java type name (class name)
+	 * @return the factory, with a null class if the type can not be created
+	 */
+	private ThrowableFactory getThrowableFactory(String typeName) {
+		final ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+		Map<String, ThrowableFactory> loaderFactories;
+		synchronized (factories) {
+			loaderFactories = factories.get(classLoader);
+			if (loaderFactories == null) {
+				loaderFactories = new ConcurrentHashMap<>();
+				factories.put(classLoader, loaderFactories);
+			}
+		}
+		ThrowableFactory factory = loaderFactories.get(typeName);
+		if (factory == null || factory.isUnloaded()) {
+			factory = resolveThrowableFactory(typeName);
+			if (loaderFactories.size() >= MAX_CACHED_TYPES) {
+				loaderFactories.clear();
+			}
+			loaderFactories.put(typeName, factory);
+		}
+		return factory;
+	}
+	
+	private ThrowableFactory resolveThrowableFactory(String typeName) {
+		Class<? extends Throwable> clazz;
+		try {
+			clazz = resolveThrowableClass(typeName);
+		} catch (ClassNotFoundException e) {
+			clazz = null;
+		}
+		if (clazz == null) {
+			return ThrowableFactory.UNRESOLVED;
+		}
+		Constructor<? extends Throwable> defaultCtr = getDefaultConstructor(clazz);
+		Constructor<? extends Throwable> messageCtr = getMessageConstructor(clazz);
+		if (defaultCtr == null && messageCtr == null) {
+			logger.error("Unable to find message or default constructor for {} have {}", clazz.getName(), clazz.getDeclaredConstructors());
+			return ThrowableFactory.UNRESOLVED;
+		}
+		return new ThrowableFactory(clazz, defaultCtr, messageCtr);
 	}
 	
 	/**
 	 * Attempts to create an {@link Throwable} of the given type  with the given message.  For this method to create a
 	 * {@link Throwable} it must have either a default (no-args) constructor or a  constructor that takes a {@code String}
-	 * as the message name.  null is returned if a {@link Throwable} can't be created.
+	 * as the message name.
 	 *
-	 * @param typeName the java type name (class name)
-	 * @param message  the message
+	 * @param factory the resolved type
+	 * @param clazz   the class of the type
+	 * @param message the message
 	 * @return the throwable
 	 * @throws InvocationTargetException
 	 * @throws IllegalAccessException
 	 * @throws InstantiationException
-	 * @throws IllegalArgumentException
 	 */
-	private Throwable createThrowable(String typeName, String message) throws IllegalAccessException, InvocationTargetException, InstantiationException, ClassNotFoundException {
-		Class<? extends Throwable> clazz = resolveThrowableClass(typeName);
-
-		Constructor<? extends Throwable> defaultCtr = getDefaultConstructor(clazz);
-		Constructor<? extends Throwable> messageCtr = getMessageConstructor(clazz);
+	private Throwable createThrowable(ThrowableFactory factory, Class<? extends Throwable> clazz, String message) throws IllegalAccessException, InvocationTargetException, InstantiationException {
+		Constructor<? extends Throwable> defaultCtr = factory.getDefaultConstructor(clazz);
+		Constructor<? extends Throwable> messageCtr = factory.getMessageConstructor(clazz);
 		
 		if (message != null && messageCtr != null) {
 			return messageCtr.newInstance(message);
-		} else if (message != null && defaultCtr != null) {
+		} else if (message != null) {
 			logger.warn("Unable to invoke message constructor for {}, fallback to default", clazz.getName());
 			return defaultCtr.newInstance();
-		} else if (message == null && defaultCtr != null) {
+		} else if (defaultCtr != null) {
 			return defaultCtr.newInstance();
-		} else if (message == null && messageCtr != null) {
+		} else {
 			logger.warn("Passing null message to message constructor for {}", clazz.getName());
 			return messageCtr.newInstance((String) null);
-		} else {
-			logger.error("Unable to find message or default constructor for {} have {}", clazz.getName(), clazz.getDeclaredConstructors());
-			return null;
 		}
 	}
 
 	/**
 	 * Resolves original exception type name into an actual {@link Class}.
 	 * Override this, if you want custom behaviour for handling exceptions,
-	 * i.e.: Default to RuntimeException.
+	 * i.e.: Default to RuntimeException.  It is called once per type name
+	 * and context class loader, the result being cached: an override is not
+	 * consulted again for a type name already resolved, unless the class
+	 * is unloaded or the cache {@link #clearCache() cleared}.
 	 *
 	 * @param typeName Original exception type name thrown on the server.
      * @return the resolved throwable
@@ -115,7 +211,7 @@ public class DefaultExceptionResolver implements ExceptionResolver {
 		return null;
 	}
 	
-	private Constructor<? extends Throwable> getDefaultConstructor(Class<? extends Throwable> clazz) {
+	private static Constructor<? extends Throwable> getDefaultConstructor(Class<? extends Throwable> clazz) {
 		Constructor<? extends Throwable> defaultCtr = null;
 		try {
 			defaultCtr = clazz.getConstructor();
@@ -125,7 +221,7 @@ public class DefaultExceptionResolver implements ExceptionResolver {
 		return defaultCtr;
 	}
 	
-	private Constructor<? extends Throwable> getMessageConstructor(Class<? extends Throwable> clazz) {
+	private static Constructor<? extends Throwable> getMessageConstructor(Class<? extends Throwable> clazz) {
 		Constructor<? extends Throwable> messageCtr = null;
 		try {
 			messageCtr = clazz.getConstructor(String.class);
@@ -136,7 +232,60 @@ public class DefaultExceptionResolver implements ExceptionResolver {
 	}
 	
 	@SuppressWarnings("UnusedParameters")
-	private void handleException(Exception e) {
+	private static void handleException(Exception e) {
 	      /* do nothing */
 	}
+	
+	/**
+	 * The class and constructors of an exception type, as resolved for a class
+	 * loader.  They are held weakly, as they hold their class loader, the
+	 * constructors being looked up again if collected while the class is not.
+	 */
+	private static class ThrowableFactory {
+		
+		static final ThrowableFactory UNRESOLVED = new ThrowableFactory(null, null, null);
+		
+		private final WeakReference<Class<? extends Throwable>> clazz;
+		private final boolean hasDefaultCtr;
+		private final boolean hasMessageCtr;
+		private volatile WeakReference<Constructor<? extends Throwable>> defaultCtr;
+		private volatile WeakReference<Constructor<? extends Throwable>> messageCtr;
+		
+		ThrowableFactory(Class<? extends Throwable> clazz, Constructor<? extends Throwable> defaultCtr, Constructor<? extends Throwable> messageCtr) {
+			this.clazz = clazz != null ? new WeakReference<Class<? extends Throwable>>(clazz) : null;
+			this.hasDefaultCtr = defaultCtr != null;
+			this.hasMessageCtr = messageCtr != null;
+			this.defaultCtr = new WeakReference<Constructor<? extends Throwable>>(defaultCtr);
+			this.messageCtr = new WeakReference<Constructor<? extends Throwable>>(messageCtr);
+		}
+		
+		/**
+		 * @return the class, or null if the type can not be created or has been unloaded
+		 */
+		Class<? extends Throwable> getThrowableClass() {
+			return clazz != null ? clazz.get() : null;
+		}
+		
+		boolean isUnloaded() {
+			return clazz != null && clazz.get() == null;
+		}
+		
+		Constructor<? extends Throwable> getDefaultConstructor(Class<? extends Throwable> throwableClass) {
+			Constructor<? extends Throwable> constructor = defaultCtr.get();
+			if (constructor == null && hasDefaultCtr) {
+				constructor = DefaultExceptionResolver.getDefaultConstructor(throwableClass);
+				defaultCtr = new WeakReference<Constructor<? extends Throwable>>(constructor);
+			}
+			return constructor;
+		}
+		
+		Constructor<? extends Throwable> getMessageConstructor(Class<? extends Throwable> throwableClass) {
+			Constructor<? extends Throwable> constructor = messageCtr.get();
+			if (constructor == null && hasMessageCtr) {
+				constructor = DefaultExceptionResolver.getMessageConstructor(throwableClass);
+				messageCtr = new WeakReference<Constructor<? extends Throwable>>(constructor);
+			}
+			return constructor;
+		}
+	}
 }
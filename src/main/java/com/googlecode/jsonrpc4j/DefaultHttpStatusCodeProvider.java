@@ -8,12 +8,14 @@ import java.util.Map;
 import static com.googlecode.jsonrpc4j.ErrorResolver.JsonError.BULK_ERROR;
 import static com.googlecode.jsonrpc4j.ErrorResolver.JsonError.CUSTOM_SERVER_ERROR_LOWER;
 import static com.googlecode.jsonrpc4j.ErrorResolver.JsonError.CUSTOM_SERVER_ERROR_UPPER;
+import static com.googlecode.jsonrpc4j.ErrorResolver.JsonError.DEADLINE_EXCEEDED;
 import static com.googlecode.jsonrpc4j.ErrorResolver.JsonError.ERROR_NOT_HANDLED;
 import static com.googlecode.jsonrpc4j.ErrorResolver.JsonError.INTERNAL_ERROR;
 import static com.googlecode.jsonrpc4j.ErrorResolver.JsonError.INVALID_REQUEST;
 import static com.googlecode.jsonrpc4j.ErrorResolver.JsonError.METHOD_NOT_FOUND;
 import static com.googlecode.jsonrpc4j.ErrorResolver.JsonError.METHOD_PARAMS_INVALID;
 import static com.googlecode.jsonrpc4j.ErrorResolver.JsonError.PARSE_ERROR;
+import static com.googlecode.jsonrpc4j.ErrorResolver.JsonError.SERVER_OVERLOADED;
 
 /**
  * This default implementation of a {@link HttpStatusCodeProvider} follows the rules defined in the
@@ -29,12 +31,16 @@ public enum DefaultHttpStatusCodeProvider implements HttpStatusCodeProvider {
 		httpStatus2JsonError.put(HttpURLConnection.HTTP_INTERNAL_ERROR, INTERNAL_ERROR);
 		httpStatus2JsonError.put(HttpURLConnection.HTTP_NOT_FOUND, METHOD_NOT_FOUND);
 		httpStatus2JsonError.put(HttpURLConnection.HTTP_BAD_REQUEST, PARSE_ERROR);
+		httpStatus2JsonError.put(HttpURLConnection.HTTP_UNAVAILABLE, SERVER_OVERLOADED);
+		httpStatus2JsonError.put(HttpURLConnection.HTTP_GATEWAY_TIMEOUT, DEADLINE_EXCEEDED);
 	}
 	
 	
 	@Override
 	public int getHttpStatusCode(int resultCode) {
 		if (resultCode == 0) return HttpURLConnection.HTTP_OK; // Toha: pure java constants
+		if (resultCode == SERVER_OVERLOADED.code) return HttpURLConnection.HTTP_UNAVAILABLE;
+		if (resultCode == DEADLINE_EXCEEDED.code) return HttpURLConnection.HTTP_GATEWAY_TIMEOUT;
 		
 		if (isErrorCode(resultCode)) {
 			return HttpURLConnection.HTTP_INTERNAL_ERROR;
@@ -29,14 +29,17 @@ public interface ErrorResolver {
 	@SuppressWarnings({"WeakerAccess", "unused"})
 	class JsonError {
 		
-		public static final JsonError OK = new JsonError(0, "ok", null);
-		public static final JsonError PARSE_ERROR = new JsonError(-32700, "JSON parse error", null);
-		public static final JsonError INVALID_REQUEST = new JsonError(-32600, "invalid request", null);
-		public static final JsonError METHOD_NOT_FOUND = new JsonError(-32601, "method not found", null);
-		public static final JsonError METHOD_PARAMS_INVALID = new JsonError(-32602, "method parameters invalid", null);
-		public static final JsonError INTERNAL_ERROR = new JsonError(-32603, "internal error", null);
-		public static final JsonError ERROR_NOT_HANDLED = new JsonError(-32001, "error not handled", null);
-		public static final JsonError BULK_ERROR = new JsonError(-32002, "bulk error", null);
+		public static final JsonError OK = new JsonError(0, "ok", null, true);
+		public static final JsonError PARSE_ERROR = new JsonError(-32700, "JSON parse error", null, true);
+		public static final JsonError INVALID_REQUEST = new JsonError(-32600, "invalid request", null, true);
+		public static final JsonError METHOD_NOT_FOUND = new JsonError(-32601, "method not found", null, true);
+		public static final JsonError METHOD_PARAMS_INVALID = new JsonError(-32602, "method parameters invalid", null, true);
+		public static final JsonError INTERNAL_ERROR = new JsonError(-32603, "internal error", null, true);
+		public static final JsonError ERROR_NOT_HANDLED = new JsonError(-32001, "error not handled", null, true);
+		public static final JsonError BULK_ERROR = new JsonError(-32002, "bulk error", null, true);
+		public static final JsonError SERVER_OVERLOADED = new JsonError(-32003, "server overloaded", null, true);
+		public static final JsonError DEADLINE_EXCEEDED = new JsonError(-32004, "deadline exceeded", null, true);
+		public static final JsonError REQUEST_CANCELLED = new JsonError(-32800, "request cancelled", null, true);
 		
 		public static final int CUSTOM_SERVER_ERROR_UPPER = -32000;
 		public static final int CUSTOM_SERVER_ERROR_LOWER = -32099;
@@ -44,6 +47,7 @@ public interface ErrorResolver {
 		public final int code;
 		public final String message;
 		public final Object data;
+		private final boolean reusable;
 		
 		/**
 		 * Creates the error.
@@ -53,9 +57,24 @@ public interface ErrorResolver {
 		 * @param data    the data
 		 */
 		public JsonError(int code, String message, Object data) {
+			this(code, message, data, false);
+		}
+		
+		/**
+		 * Creates the error.  A reusable error is returned for every call
+		 * failing the same way, servers build its error object only once.
+		 * Its data must not change.
+		 *
+		 * @param code     the code
+		 * @param message  the message
+		 * @param data     the data
+		 * @param reusable whether the error is reused
+		 */
+		public JsonError(int code, String message, Object data, boolean reusable) {
 			this.code = code;
 			this.message = message;
 			this.data = data;
+			this.reusable = reusable;
 		}
 		
 		/**
@@ -79,6 +98,13 @@ public interface ErrorResolver {
 			return data;
 		}
 		
+		/**
+		 * @return whether the error is reused
+		 */
+		public boolean isReusable() {
+			return reusable;
+		}
+		
 		@Override
 		public String toString() {
 			return "JsonError{" + "code=" + code +
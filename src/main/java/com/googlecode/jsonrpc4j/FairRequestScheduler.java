@@ -0,0 +1,352 @@
+package com.googlecode.jsonrpc4j;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shares the threads of a worker pool fairly between the connections
+ * of a {@link StreamServer}, so that a connection flooding requests
+ * cannot hold up the requests of the others.  Each connection has its
+ * own queue, and the requests are handed to the workers by deficit
+ * round-robin: each connection in turn may start requests costing up to
+ * the quantum, a batch costing its number of calls, so that batches do
+ * not get more than their share either.  At most {@code maxRunning}
+ * requests are handed to the workers at once, the rest waiting in the
+ * queues of their connections.
+ * <p>
+ * A connection may also be given a quota, a token bucket refilled at a
+ * given rate: the requests over it are answered with the
+ * {@link ErrorResolver.JsonError#SERVER_OVERLOADED} error right away.
+ * And a connection with too many queued requests is not read until some
+ * of them are started, slowing down the client instead of queuing up.
+ * The requests the workers reject are handed back to their connection,
+ * to be answered with the same error.
+ * <pre>
+ * FairRequestScheduler scheduler = new FairRequestScheduler(Executors.newFixedThreadPool(16), 16);
+ * scheduler.setRateLimit(100, 200);
+ * scheduler.setMaxQueued(50);
+ * streamServer.setRequestScheduler(scheduler);
+ * </pre>
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+public class FairRequestScheduler {
+
+	public static final int DEFAULT_QUANTUM = 1;
+
+	private static final Logger logger = LoggerFactory.getLogger(FairRequestScheduler.class);
+
+	private final Executor workers;
+	private final int maxRunning;
+	private final ArrayDeque<Connection> active = new ArrayDeque<>();
+	private int running = 0;
+	private int queued = 0;
+	private int connections = 0;
+	private volatile int quantum = DEFAULT_QUANTUM;
+	private volatile int maxQueued = 0;
+	private volatile double permitsPerSecond = 0;
+	private volatile int burst = 0;
+
+	/**
+	 * Creates the scheduler.  The workers are called without holding the
+	 * lock of the scheduler, so an executor running the requests in the
+	 * calling thread, e.g. with a caller-runs policy, holds up the other
+	 * connections no more than a pool thread would.
+	 *
+	 * @param workers    the executor running the requests, shared by all the connections
+	 * @param maxRunning the number of requests handed to the workers at once, usually their number of threads
+	 */
+	public FairRequestScheduler(Executor workers, int maxRunning) {
+		if (maxRunning < 1) {
+			throw new IllegalArgumentException("Invalid maxRunning " + maxRunning);
+		}
+		this.workers = workers;
+		this.maxRunning = maxRunning;
+	}
+
+	/**
+	 * Sets the cost of the requests a connection may start in its turn,
+	 * a request costing its number of calls.
+	 *
+	 * @param quantum the quantum, {@link #DEFAULT_QUANTUM} by default
+	 */
+	public void setQuantum(int quantum) {
+		if (quantum < 1) {
+			throw new IllegalArgumentException("Invalid quantum " + quantum);
+		}
+		this.quantum = quantum;
+	}
+
+	public int getQuantum() {
+		return quantum;
+	}
+
+	/**
+	 * Sets the number of requests a connection may have waiting for the
+	 * workers, its next requests not being read until some of them start.
+	 *
+	 * @param maxQueued the number of requests, no limit if not positive (the default)
+	 */
+	public void setMaxQueued(int maxQueued) {
+		this.maxQueued = maxQueued;
+	}
+
+	public int getMaxQueued() {
+		return maxQueued;
+	}
+
+	/**
+	 * Sets the quota of each connection, in calls per second, applying to
+	 * the connections opened afterwards.
+	 *
+	 * @param permitsPerSecond the rate at which the quota refills, no quota if not positive (the default)
+	 * @param burst            the number of calls a connection may send at once
+	 */
+	public void setRateLimit(double permitsPerSecond, int burst) {
+		if (permitsPerSecond > 0 && burst < 1) {
+			throw new IllegalArgumentException("Invalid burst " + burst);
+		}
+		this.permitsPerSecond = permitsPerSecond;
+		this.burst = burst;
+	}
+
+	public double getPermitsPerSecond() {
+		return permitsPerSecond;
+	}
+
+	public int getBurst() {
+		return burst;
+	}
+
+	/**
+	 * @return the number of requests handed to the workers
+	 */
+	public synchronized int getRunning() {
+		return running;
+	}
+
+	/**
+	 * @return the number of requests waiting for the workers
+	 */
+	public synchronized int getQueued() {
+		return queued;
+	}
+
+	/**
+	 * @return the number of open connections
+	 */
+	public synchronized int getConnections() {
+		return connections;
+	}
+
+	/**
+	 * Opens the queue of a connection.
+	 *
+	 * @return the connection, to be {@link Connection#close() closed}
+	 */
+	Connection open() {
+		synchronized (this) {
+			connections++;
+		}
+		return new Connection(permitsPerSecond, burst);
+	}
+
+	/**
+	 * Picks the next requests to hand to the workers, by deficit round-robin.
+	 * Must be called holding the lock.
+	 *
+	 * @return the requests to {@link #start(List) start} once the lock is released
+	 */
+	private List<Task> dispatch() {
+		List<Task> picked = Collections.emptyList();
+		while (running < maxRunning && !active.isEmpty()) {
+			final Connection connection = active.peekFirst();
+			if (connection.newTurn) {
+				connection.newTurn = false;
+				connection.deficit += quantum;
+			}
+			final Task task = connection.queue.peekFirst();
+			if (task.cost > connection.deficit) {
+				active.pollFirst();
+				connection.newTurn = true;
+				active.addLast(connection);
+				continue;
+			}
+			connection.queue.pollFirst();
+			connection.deficit -= task.cost;
+			queued--;
+			if (connection.queue.isEmpty()) {
+				active.pollFirst();
+				connection.deficit = 0;
+			}
+			running++;
+			if (picked.isEmpty()) {
+				picked = new ArrayList<>();
+			}
+			picked.add(task);
+		}
+		notifyAll();
+		return picked;
+	}
+
+	/**
+	 * Hands the picked requests to the workers, the requests they reject
+	 * being handed back to their connection.  Must be called without
+	 * holding the lock.
+	 *
+	 * @param picked the requests picked by {@link #dispatch()}
+	 */
+	private void start(List<Task> picked) {
+		if (picked.isEmpty()) {
+			return;
+		}
+		final ArrayDeque<Task> pending = new ArrayDeque<>(picked);
+		Task task;
+		while ((task = pending.pollFirst()) != null) {
+			try {
+				workers.execute(task);
+			} catch (RejectedExecutionException e) {
+				logger.warn("Request rejected by the workers: {}", e.getMessage());
+				synchronized (this) {
+					running--;
+					pending.addAll(dispatch());
+				}
+				try {
+					task.rejection.run();
+				} catch (RuntimeException re) {
+					logger.error("Failed to reject request", re);
+				}
+			}
+		}
+	}
+
+	private void completed() {
+		final List<Task> picked;
+		synchronized (this) {
+			running--;
+			picked = dispatch();
+		}
+		start(picked);
+	}
+
+	/**
+	 * The queue of a connection.
+	 */
+	class Connection {
+
+		private final ArrayDeque<Task> queue = new ArrayDeque<>();
+		private final double permitsPerNano;
+		private final int burst;
+		private double tokens;
+		private long refilledAt = System.nanoTime();
+		private int deficit = 0;
+		private boolean newTurn = true;
+		private boolean closed = false;
+
+		private Connection(double permitsPerSecond, int burst) {
+			this.permitsPerNano = permitsPerSecond / TimeUnit.SECONDS.toNanos(1);
+			this.burst = burst;
+			this.tokens = burst;
+		}
+
+		/**
+		 * Queues a request of the connection, waiting while the
+		 * connection has too many queued requests.
+		 *
+		 * @param command   the request
+		 * @param rejection run instead of the request if the workers reject it
+		 * @param cost      the number of calls of the request
+		 * @return false if the request is over the quota of the connection, and not queued
+		 * @throws InterruptedException       if interrupted while waiting
+		 * @throws RejectedExecutionException if the connection is closed
+		 */
+		boolean submit(Runnable command, Runnable rejection, int cost) throws InterruptedException {
+			final List<Task> picked;
+			synchronized (FairRequestScheduler.this) {
+				if (!tryAcquire(cost)) {
+					return false;
+				}
+				final int max = maxQueued;
+				while (max > 0 && queue.size() >= max && !closed) {
+					FairRequestScheduler.this.wait();
+				}
+				if (closed) {
+					throw new RejectedExecutionException("Connection closed");
+				}
+				if (queue.isEmpty()) {
+					newTurn = true;
+					active.addLast(this);
+				}
+				queue.addLast(new Task(command, rejection, Math.max(1, cost)));
+				queued++;
+				picked = dispatch();
+			}
+			start(picked);
+			return true;
+		}
+
+		private boolean tryAcquire(int cost) {
+			if (permitsPerNano <= 0) {
+				return true;
+			}
+			final long now = System.nanoTime();
+			tokens = Math.min(burst, tokens + (now - refilledAt) * permitsPerNano);
+			refilledAt = now;
+			// a batch larger than the burst goes through once the bucket is full
+			final double needed = Math.min(cost, burst);
+			if (tokens < needed) {
+				return false;
+			}
+			tokens -= needed;
+			return true;
+		}
+
+		/**
+		 * Closes the connection, dropping its queued requests.
+		 */
+		void close() {
+			synchronized (FairRequestScheduler.this) {
+				if (closed) {
+					return;
+				}
+				closed = true;
+				connections--;
+				queued -= queue.size();
+				if (!queue.isEmpty()) {
+					queue.clear();
+					active.remove(this);
+				}
+				FairRequestScheduler.this.notifyAll();
+			}
+		}
+	}
+
+	private class Task implements Runnable {
+
+		private final Runnable command;
+		private final Runnable rejection;
+		private final int cost;
+
+		Task(Runnable command, Runnable rejection, int cost) {
+			this.command = command;
+			this.rejection = rejection;
+			this.cost = cost;
+		}
+
+		@Override
+		public void run() {
+			try {
+				command.run();
+			} finally {
+				completed();
+			}
+		}
+	}
+}
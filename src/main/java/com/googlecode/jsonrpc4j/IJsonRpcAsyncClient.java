@@ -0,0 +1,26 @@
+package com.googlecode.jsonrpc4j;
+
+import java.lang.reflect.Type;
+import java.util.Map;
+
+/**
+ * A JSON-RPC client that does not block while waiting for responses.
+ *
+ * @see ProxyUtil#createClientProxy(ClassLoader, Class, IJsonRpcAsyncClient)
+ */
+public interface IJsonRpcAsyncClient {
+	
+	/**
+	 * Invokes the given method with the given argument and returns
+	 * immediately.  The returned future is completed with an object
+	 * of the given type, or null if void.
+	 *
+	 * @param methodName   the name of the method to invoke
+	 * @param argument     the argument to the method
+	 * @param returnType   the return type
+	 * @param extraHeaders extra headers to add to the request
+	 * @return the future holding the return value
+	 */
+	JsonRpcFuture<Object> invokeAsync(String methodName, Object argument, Type returnType, Map<String, String> extraHeaders);
+	
+}
@@ -0,0 +1,34 @@
+package com.googlecode.jsonrpc4j;
+
+import java.util.Map;
+
+/**
+ * A JSON-RPC client that is able to send several calls
+ * to the server in a single batch request.
+ *
+ * @see JsonRpcBatch
+ */
+public interface IJsonRpcBatchClient {
+	
+	/**
+	 * Sends all the calls of the given batch and completes their
+	 * futures with the correlated responses.  Errors returned for
+	 * single calls are resolved and set on the matching future, they
+	 * are not thrown from this method.
+	 *
+	 * @param batch the batch to send
+	 * @throws Throwable if the batch could not be sent or its response could not be read
+	 */
+	void invokeBatch(JsonRpcBatch batch) throws Throwable;
+	
+	/**
+	 * Sends all the calls of the given batch and completes their
+	 * futures with the correlated responses.
+	 *
+	 * @param batch        the batch to send
+	 * @param extraHeaders extra headers to add to the request
+	 * @throws Throwable if the batch could not be sent or its response could not be read
+	 */
+	void invokeBatch(JsonRpcBatch batch, Map<String, String> extraHeaders) throws Throwable;
+	
+}
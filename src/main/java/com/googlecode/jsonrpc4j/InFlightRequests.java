@@ -0,0 +1,112 @@
+package com.googlecode.jsonrpc4j;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The requests of a connection being handled, by id, so that a
+ * {@link JsonRpcCancellation#CANCEL_REQUEST} notification read on the
+ * connection can cancel them.  A request is added when it is read,
+ * before it waits for a thread, and removed once answered.
+ */
+class InFlightRequests {
+
+	private final ConcurrentHashMap<JsonNode, Request> requests = new ConcurrentHashMap<>();
+
+	/**
+	 * Adds a request, unless it is already there.
+	 *
+	 * @param id the id of the request
+	 * @return the request
+	 */
+	Request add(JsonNode id) {
+		Request request = requests.get(id);
+		if (request == null) {
+			request = new Request();
+			final Request existing = requests.putIfAbsent(id, request);
+			if (existing != null) {
+				request = existing;
+			}
+		}
+		return request;
+	}
+
+	void remove(JsonNode id, Request request) {
+		requests.remove(id, request);
+	}
+
+	/**
+	 * Cancels a request: its thread is interrupted and
+	 * {@link JsonRpcCancellation#isCancelled()} is true for it.
+	 *
+	 * @param id the id of the request
+	 * @return whether the request was in flight
+	 */
+	boolean cancel(JsonNode id) {
+		final Request request = requests.get(id);
+		if (request == null) {
+			return false;
+		}
+		request.cancel();
+		return true;
+	}
+
+	/**
+	 * Cancels all the requests, once the connection is closed.
+	 */
+	void cancelAll() {
+		for (Request request : requests.values()) {
+			request.cancel();
+		}
+	}
+
+	int size() {
+		return requests.size();
+	}
+
+	/**
+	 * A request in flight.  Its thread is interrupted when it is
+	 * cancelled, and the interruption cleared once it ends.
+	 */
+	static class Request {
+
+		private Thread thread = null;
+		private boolean cancelled = false;
+		private boolean interrupted = false;
+
+		/**
+		 * Starts handling the request on the current thread.
+		 *
+		 * @return whether the request may be handled, false if already cancelled
+		 */
+		synchronized boolean start() {
+			thread = Thread.currentThread();
+			return !cancelled;
+		}
+
+		/**
+		 * Ends handling the request, clearing the interruption caused by its cancellation.
+		 */
+		synchronized void end() {
+			thread = null;
+			if (interrupted) {
+				interrupted = false;
+				// noinspection ResultOfMethodCallIgnored
+				Thread.interrupted();
+			}
+		}
+
+		synchronized void cancel() {
+			cancelled = true;
+			if (thread != null && !interrupted) {
+				interrupted = true;
+				thread.interrupt();
+			}
+		}
+
+		synchronized boolean isCancelled() {
+			return cancelled;
+		}
+	}
+}
@@ -2,6 +2,7 @@ package com.googlecode.jsonrpc4j;
 
 import java.io.*;
 import java.lang.reflect.Type;
+import java.util.Collections;
 import java.util.Map;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -51,6 +52,11 @@ public abstract class JsonRpcAbstractKeepAliveStreamClient extends JsonRpcClient
         }
     }
 
+    @Override
+    protected long getRequestTimeoutMillis() {
+        return timeout > 0 ? timeout : -1;
+    }
+
     /**
      * Inheritor class checks {@link #outputStream} and {@link #inputStream} is open
      * @throws IOException
@@ -74,7 +80,19 @@ public abstract class JsonRpcAbstractKeepAliveStreamClient extends JsonRpcClient
     public Object invoke(String methodName, Object argument, Type returnType, Map<String, String> extraHeaders) throws Throwable {
         if (isClosed.get()) throw new IOException("Client is closed");
 
-        ReadResponceCallable resp = new ReadResponceCallable(methodName, argument, returnType);
+        final long start = startCall();
+        boolean failed = true;
+        try {
+            Object result = invokeAndReadResponse(methodName, argument, returnType);
+            failed = false;
+            return result;
+        } finally {
+            recordCall(methodName, start, failed);
+        }
+    }
+
+    private Object invokeAndReadResponse(String methodName, Object argument, Type returnType) throws Throwable {
+        ReadResponceCallable resp = new ReadResponceCallable(methodName, argument, returnType, getRequestIDGenerator().generateID());
 
         Object result;
         try {
@@ -86,6 +104,9 @@ public abstract class JsonRpcAbstractKeepAliveStreamClient extends JsonRpcClient
                     resultFuture = this.executor.submit(resp);
 
                     result = resultFuture.get(this.timeout, TimeUnit.MILLISECONDS);
+                } catch (TimeoutException | InterruptedException e) {
+                    sendCancelRequest(resp);
+                    throw e;
                 } finally {
                     if (resultFuture != null && !resultFuture.isDone()) {
                         resultFuture.cancel(true);
@@ -104,6 +125,29 @@ public abstract class JsonRpcAbstractKeepAliveStreamClient extends JsonRpcClient
         return result;
     }
 
+    /**
+     * Tells the server to stop handling a request the client gave up on, with a
+     * {@link JsonRpcCancellation#CANCEL_REQUEST} notification.  The response
+     * is still being waited for, so the notification is written without the
+     * stream lock; nothing else is written meanwhile.
+     */
+    private void sendCancelRequest(ReadResponceCallable resp) {
+        final OutputStream output = this.outputStream;
+        if (!resp.sent || output == null) {
+            return;
+        }
+        try {
+            super.invokeNotification(JsonRpcCancellation.CANCEL_REQUEST, Collections.singletonMap(JsonRpcBasicServer.ID, resp.id), output);
+            byte[] queryDelimiter = getQueryDelimiter();
+            if (queryDelimiter != null) {
+                output.write(queryDelimiter);
+            }
+            output.flush();
+        } catch (IOException e) {
+            logger.debug("Unable to cancel request {}", resp.id, e);
+        }
+    }
+
     private void closeStreamsQuietly() {
         try {
             closeStreams();
@@ -119,19 +163,28 @@ public abstract class JsonRpcAbstractKeepAliveStreamClient extends JsonRpcClient
         private final String methodName;
         private final Object argument;
         private final Type returnType;
+        private final String id;
+        private volatile boolean sent = false;
 
-        public ReadResponceCallable(String methodName, Object argument, Type returnType) {
+        public ReadResponceCallable(String methodName, Object argument, Type returnType, String id) {
             this.methodName = methodName;
             this.argument = argument;
             this.returnType = returnType;
+            this.id = id;
         }
 
         @Override
         public Object call() throws Exception {
+            final JsonRpcClientMetrics metrics = getMetrics();
+            final long start = metrics == null ? 0 : System.nanoTime();
             synchronized (streamLock) {
                 ensureStreamsOpen();
+                if (metrics != null) {
+                    // waiting for the streams of another query, and opening them
+                    metrics.recordConnectionAcquire(System.nanoTime() - start);
+                }
 
-                JsonRpcAbstractKeepAliveStreamClient.super.invoke(methodName, argument, outputStream);
+                JsonRpcAbstractKeepAliveStreamClient.super.invoke(methodName, argument, outputStream, id);
 
                 byte[] queryDelimiter = JsonRpcAbstractKeepAliveStreamClient.this.getQueryDelimiter();
                 if (queryDelimiter != null) {
@@ -139,6 +192,7 @@ public abstract class JsonRpcAbstractKeepAliveStreamClient extends JsonRpcClient
                 }
 
                 outputStream.flush();
+                sent = true;
 
                 try {
                     return JsonRpcAbstractKeepAliveStreamClient.super.readResponse(returnType, inputStream);
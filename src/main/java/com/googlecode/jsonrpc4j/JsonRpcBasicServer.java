@@ -18,6 +18,15 @@ import java.lang.reflect.*;
 import java.math.BigDecimal;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.regex.Pattern;
 
 import static com.googlecode.jsonrpc4j.ErrorResolver.JsonError.ERROR_NOT_HANDLED;
@@ -50,6 +59,7 @@ public class JsonRpcBasicServer {
 	public static final String WEB_PARAM_ANNOTATION_CLASS_LOADER = "javax.jws.WebParam";
 	public static final String NAME = "name";
 	public static final String NULL = "null";
+	public static final int DEFAULT_INVOCATION_ERROR_LOG_LIMIT = 0;
 	private static final Logger logger = LoggerFactory.getLogger(JsonRpcBasicServer.class);
 	private static final ErrorResolver DEFAULT_ERROR_RESOLVER = new MultipleErrorResolver(AnnotationsErrorResolver.INSTANCE, DefaultErrorResolver.INSTANCE);
 	private static Pattern BASE64_PATTERN = Pattern.compile("[A-Za-z0-9_=-]+");
@@ -73,7 +83,17 @@ public class JsonRpcBasicServer {
 	private InvocationListener invocationListener = null;
 	private ConvertedParameterTransformer convertedParameterTransformer = null;
 	private boolean shouldLogInvocationErrors = true;
+	private volatile LogRateLimiter invocationErrorLogLimiter = new LogRateLimiter(DEFAULT_INVOCATION_ERROR_LOG_LIMIT);
+	private final Map<JsonError, ObjectNode> reusableErrorNodes = new ConcurrentHashMap<>();
+	private volatile AdaptiveConcurrencyLimiter concurrencyLimiter = null;
+	private volatile Map<String, ExecutorService> executors = Collections.emptyMap();
+	private final ConcurrentHashMap<Method, MethodBulkhead> bulkheads = new ConcurrentHashMap<>();
+	private boolean interruptOnDeadline = false;
+	private boolean acceptRequestDeadlines = false;
+	private boolean acceptRequestPriorities = false;
 	private List<JsonRpcInterceptor> interceptorList = new ArrayList<>();
+	private boolean useGeneratedDispatchers = true;
+	private final Map<Class<?>, JsonRpcDispatcher> dispatchers = new ConcurrentHashMap<>();
 	
 	/**
 	 * Creates the server with the given {@link ObjectMapper} delegating
@@ -236,16 +256,126 @@ public class JsonRpcBasicServer {
 		final ReadContext readContext = ReadContext.getReadContext(input, mapper);
 		try {
 			readContext.assertReadable();
-			final JsonNode jsonNode = readContext.nextValue();
-			for (JsonRpcInterceptor interceptor : interceptorList) {
-				interceptor.preHandleJson(jsonNode);
-			}
-			return handleJsonNodeRequest(jsonNode, output).code;
+			return handleRequest(readContext.nextValue(), output);
 		} catch (JsonParseException | JsonMappingException e) {
-			return writeAndFlushValueError(output, createResponseError(VERSION, NULL, JsonError.PARSE_ERROR)).code;
+			return handleParseError(output);
 		}
 	}
 	
+	/**
+	 * Handles a request already read by the transport.
+	 *
+	 * @param jsonNode the request
+	 * @param output   the {@link OutputStream}
+	 * @return the error code, or {@code 0} if none
+	 * @throws IOException on error
+	 */
+	int handleRequest(final JsonNode jsonNode, final OutputStream output) throws IOException {
+		for (JsonRpcInterceptor interceptor : interceptorList) {
+			interceptor.preHandleJson(jsonNode);
+		}
+		return handleJsonNodeRequest(jsonNode, output).code;
+	}
+	
+	/**
+	 * Answers a request that could not be parsed.
+	 *
+	 * @param output the {@link OutputStream}
+	 * @return the error code
+	 * @throws IOException on error
+	 */
+	int handleParseError(final OutputStream output) throws IOException {
+		return writeAndFlushValueError(output, createResponseError(VERSION, NULL, JsonError.PARSE_ERROR)).code;
+	}
+	
+	/**
+	 * Answers a request that is not handled because of overload with the
+	 * {@link JsonError#SERVER_OVERLOADED} error, each call of a batch, the
+	 * notifications being left unanswered.
+	 *
+	 * @param node   the request
+	 * @param output the {@link OutputStream}
+	 * @return the error code
+	 * @throws IOException on error
+	 */
+	int handleOverloaded(final JsonNode node, final OutputStream output) throws IOException {
+		final List<ObjectNode> responses = new ArrayList<>();
+		for (JsonNode call : node.isArray() ? node : Collections.singletonList(node)) {
+			final Object id = call.isObject() ? parseId(call.get(ID)) : null;
+			if (call.isObject() && isNotificationRequest(id)) {
+				continue;
+			}
+			final String jsonRpc = call.isObject() && hasNonNullData((ObjectNode) call, JSONRPC) ? call.get(JSONRPC).asText() : VERSION;
+			responses.add(createResponseError(jsonRpc, id, JsonError.SERVER_OVERLOADED).node);
+		}
+		if (!node.isArray()) {
+			for (ObjectNode response : responses) {
+				writeAndFlushValue(output, response);
+			}
+		} else if (!responses.isEmpty()) {
+			output.write('[');
+			for (int i = 0; i < responses.size(); i++) {
+				if (i > 0) {
+					output.write(',');
+				}
+				writeAndFlushValue(output, responses.get(i));
+			}
+			output.write(']');
+		}
+		return JsonError.SERVER_OVERLOADED.code;
+	}
+
+	/**
+	 * @return the {@link ObjectMapper} reading the requests
+	 */
+	ObjectMapper getObjectMapper() {
+		return mapper;
+	}
+
+	/**
+	 * Returns the priority of a request before it is handled: its
+	 * {@link JsonRpcPriorityExecutor#PRIORITY} member if accepted, or else the
+	 * {@link JsonRpcPriority} of the method called, the highest one
+	 * for a batch.
+	 *
+	 * @param node the request
+	 * @return the priority, {@code 0} if none
+	 */
+	int getPriority(final JsonNode node) {
+		if (node.isArray()) {
+			int priority = node.size() == 0 ? 0 : Integer.MIN_VALUE;
+			for (JsonNode element : node) {
+				priority = Math.max(priority, getPriority(element));
+			}
+			return priority;
+		}
+		if (!node.isObject()) {
+			return 0;
+		}
+		if (acceptRequestPriorities && hasNonNullData((ObjectNode) node, JsonRpcPriorityExecutor.PRIORITY) && node.get(JsonRpcPriorityExecutor.PRIORITY).canConvertToInt()) {
+			return node.get(JsonRpcPriorityExecutor.PRIORITY).asInt();
+		}
+		if (!hasNonNullData((ObjectNode) node, METHOD)) {
+			return 0;
+		}
+		final String fullMethodName = node.get(METHOD).asText();
+		final Set<Method> methods;
+		try {
+			final Class<?>[] handlerInterfaces = getHandlerInterfaces(getServiceName(fullMethodName));
+			final JsonRpcDispatcher dispatcher = getDispatcher(handlerInterfaces);
+			final String partialMethodName = getMethodName(fullMethodName);
+			methods = dispatcher != null ? dispatcher.findMethods(partialMethodName) : findCandidateMethods(handlerInterfaces, partialMethodName);
+		} catch (RuntimeException e) {
+			// answered with its error once handled
+			return 0;
+		}
+		int priority = methods.isEmpty() ? 0 : Integer.MIN_VALUE;
+		for (Method method : methods) {
+			priority = Math.max(priority, getBulkhead(method).priority);
+		}
+		return priority;
+	}
+
 	/**
 	 * Returns the handler's class or interfaces.  The variable serviceName is ignored in this class.
 	 *
@@ -335,12 +465,96 @@ public class JsonRpcBasicServer {
 		if (!hasNonNullData(node, METHOD)) {
 			return writeAndFlushValueError(output, createResponseError(jsonRpc, id, JsonError.METHOD_NOT_FOUND));
 		}
-
+		if (JsonRpcCancellation.isCancelRequest(node)) {
+			return handleCancelRequest(node, output, id, jsonRpc);
+		}
+		
+		final InFlightRequests inFlightRequests = JsonRpcCancellation.getInFlightRequests();
+		if (inFlightRequests == null || isNotificationRequest(id)) {
+			return handleWithContext(node, output, id, jsonRpc);
+		}
+		final JsonNode idNode = node.get(ID);
+		final InFlightRequests.Request request = inFlightRequests.add(idNode);
+		final InFlightRequests.Request previousRequest = JsonRpcCancellation.setRequest(request);
+		try {
+			if (!request.start()) {
+				return writeAndFlushValueError(output, createResponseError(jsonRpc, id, JsonError.REQUEST_CANCELLED));
+			}
+			try {
+				return handleWithContext(node, output, id, jsonRpc);
+			} finally {
+				request.end();
+			}
+		} finally {
+			inFlightRequests.remove(idNode, request);
+			JsonRpcCancellation.setRequest(previousRequest);
+		}
+	}
+	
+	/**
+	 * Cancels the request whose id is given by a {@link JsonRpcCancellation#CANCEL_REQUEST}
+	 * notification, if it is still being handled.
+	 */
+	private JsonError handleCancelRequest(final ObjectNode node, final OutputStream output, final Object id, final String jsonRpc) throws IOException {
+		final JsonNode params = node.get(PARAMS);
+		final InFlightRequests inFlightRequests = JsonRpcCancellation.getInFlightRequests();
+		if (inFlightRequests != null && params != null && params.hasNonNull(ID)) {
+			final boolean cancelled = inFlightRequests.cancel(params.get(ID));
+			logger.debug("Cancel request {}, in flight: {}", params.get(ID), cancelled);
+		}
+		if (!isNotificationRequest(id)) {
+			writeAndFlushValue(output, createResponseSuccess(jsonRpc, id, null));
+		}
+		return JsonError.OK;
+	}
+	
+	/**
+	 * Handles the request within its deadline and with its priority, given by
+	 * the {@link JsonRpcDeadline#TIMEOUT} and {@link JsonRpcPriorityExecutor#PRIORITY}
+	 * members, if any and accepted.
+	 */
+	private JsonError handleWithContext(final ObjectNode node, final OutputStream output, final Object id, final String jsonRpc) throws IOException {
+		final Long previousDeadline = JsonRpcDeadline.get();
+		final Integer previousPriority = JsonRpcPriorityExecutor.getPriority();
+		try {
+			if (acceptRequestDeadlines && hasNonNullData(node, JsonRpcDeadline.TIMEOUT) && node.get(JsonRpcDeadline.TIMEOUT).canConvertToLong()) {
+				JsonRpcDeadline.setTimeout(node.get(JsonRpcDeadline.TIMEOUT).asLong());
+			}
+			if (acceptRequestPriorities && hasNonNullData(node, JsonRpcPriorityExecutor.PRIORITY) && node.get(JsonRpcPriorityExecutor.PRIORITY).canConvertToInt()) {
+				JsonRpcPriorityExecutor.setCurrentPriority(node.get(JsonRpcPriorityExecutor.PRIORITY).asInt());
+			}
+			if (JsonRpcDeadline.isExpired()) {
+				return writeAndFlushValueError(output, createResponseError(jsonRpc, id, JsonError.DEADLINE_EXCEEDED));
+			}
+			return handleMethod(node, output, id, jsonRpc);
+		} finally {
+			JsonRpcDeadline.restore(previousDeadline);
+			JsonRpcPriorityExecutor.setCurrentPriority(previousPriority);
+		}
+	}
+	
+	/**
+	 * Finds and invokes the method of a valid request.  The request is
+	 * admitted by the {@link AdaptiveConcurrencyLimiter}, if any, once it
+	 * has entered the bulkhead of the method, and only the invocation of
+	 * the method is timed for the limiter: waiting for the bulkhead or for
+	 * an executor thread is left out.
+	 *
+	 * @param node    the request
+	 * @param output  the {@link OutputStream}
+	 * @param id      the id of the request
+	 * @param jsonRpc the version of the request
+	 * @return the error, {@link JsonError#OK} if none
+	 * @throws IOException on error
+	 */
+	private JsonError handleMethod(final ObjectNode node, final OutputStream output, final Object id, final String jsonRpc) throws IOException {
 		final String fullMethodName = node.get(METHOD).asText();
 		final String partialMethodName = getMethodName(fullMethodName);
 		final String serviceName = getServiceName(fullMethodName);
 		
-		Set<Method> methods = findCandidateMethods(getHandlerInterfaces(serviceName), partialMethodName);
+		final Class<?>[] handlerInterfaces = getHandlerInterfaces(serviceName);
+		final JsonRpcDispatcher dispatcher = getDispatcher(handlerInterfaces);
+		Set<Method> methods = dispatcher != null ? dispatcher.findMethods(partialMethodName) : findCandidateMethods(handlerInterfaces, partialMethodName);
 		if (methods.isEmpty()) {
 			return writeAndFlushValueError(output, createResponseError(jsonRpc, id, JsonError.METHOD_NOT_FOUND));
 		}
@@ -348,6 +562,19 @@ public class JsonRpcBasicServer {
 		if (methodArgs == null) {
 			return writeAndFlushValueError(output, createResponseError(jsonRpc, id, JsonError.METHOD_PARAMS_INVALID));
 		}
+		final MethodBulkhead bulkhead = getBulkhead(methodArgs.method);
+		if (bulkhead.timeoutMillis >= 0) {
+			JsonRpcDeadline.setTimeout(bulkhead.timeoutMillis);
+		}
+		if (!bulkhead.tryAcquire()) {
+			return writeAndFlushValueError(output, createResponseError(jsonRpc, id, JsonError.SERVER_OVERLOADED));
+		}
+		final AdaptiveConcurrencyLimiter limiter = concurrencyLimiter;
+		if (limiter != null && !limiter.tryAcquire()) {
+			bulkhead.release();
+			return writeAndFlushValueError(output, createResponseError(jsonRpc, id, JsonError.SERVER_OVERLOADED));
+		}
+		final InvocationTimer timer = limiter != null ? new InvocationTimer() : null;
 		try (InvokeListenerHandler handler = new InvokeListenerHandler(methodArgs, invocationListener)) {
 			try {
 				if (this.requestInterceptor != null) {
@@ -359,7 +586,7 @@ public class JsonRpcBasicServer {
 					interceptor.preHandle(target, methodArgs.method, methodArgs.arguments);
 				}
 				// invocation
-				JsonNode result = invoke(target, methodArgs.method, methodArgs.arguments);
+				JsonNode result = invoke(target, methodArgs.method, methodArgs.arguments, dispatcher, bulkhead, timer);
 				handler.result = result;
 				// interceptors postHandle
 				for (JsonRpcInterceptor interceptor : interceptorList) {
@@ -370,18 +597,138 @@ public class JsonRpcBasicServer {
 					writeAndFlushValue(output, response);
 				}
 				return JsonError.OK;
+			} catch (ExecutorRejectedException e) {
+				handler.error = e.getCause();
+				return writeAndFlushValueError(output, createResponseError(jsonRpc, id, JsonError.SERVER_OVERLOADED));
 			} catch (Throwable e) {
 				handler.error = e;
+				if (getException(e) instanceof CancellationException || JsonRpcCancellation.isCancelled()) {
+					return writeAndFlushValueError(output, createResponseError(jsonRpc, id, JsonError.REQUEST_CANCELLED));
+				}
+				if (getException(e) instanceof DeadlineExceededException || JsonRpcDeadline.isExpired()) {
+					// the client has given up, whatever the method failed with
+					return writeAndFlushValueError(output, createResponseError(jsonRpc, id, JsonError.DEADLINE_EXCEEDED));
+				}
 				return handleError(output, id, jsonRpc, methodArgs, e);
 			}
+		} finally {
+			bulkhead.release();
+			if (limiter != null) {
+				limiter.release(timer.getElapsedNanos());
+			}
+		}
+	}
+	
+	private MethodBulkhead getBulkhead(Method method) {
+		MethodBulkhead bulkhead = bulkheads.get(method);
+		if (bulkhead == null) {
+			bulkhead = MethodBulkhead.of(method);
+			MethodBulkhead existing = bulkheads.putIfAbsent(method, bulkhead);
+			if (existing != null) {
+				bulkhead = existing;
+			}
+		}
+		return bulkhead;
+	}
+	
+	/**
+	 * Invokes the method on the executor named by its {@link JsonRpcExecutor}
+	 * annotation, if any, the calling thread waiting for the result until
+	 * the deadline of the request.
+	 *
+	 * @param target     the handler
+	 * @param method     the method to invoke
+	 * @param params     the params to pass to the method
+	 * @param dispatcher the generated dispatcher of the interface, or null
+	 * @param bulkhead   the executor and the cap of the method
+	 * @param timer      times the invocation, or null
+	 * @return the return value (or null if no return)
+	 * @throws Throwable the error of the invocation
+	 */
+	private JsonNode invoke(final Object target, final Method method, final List<JsonNode> params, final JsonRpcDispatcher dispatcher, MethodBulkhead bulkhead, final InvocationTimer timer) throws Throwable {
+		if (bulkhead.executorName == null) {
+			final DeadlineInterrupter interrupter = interruptOnDeadline ? DeadlineInterrupter.schedule() : null;
+			try {
+				return invoke(target, method, params, dispatcher, timer);
+			} finally {
+				if (interrupter != null) {
+					interrupter.cancel();
+				}
+			}
+		}
+		final ExecutorService executor = executors.get(bulkhead.executorName);
+		if (executor == null) {
+			throw new IllegalStateException("No executor named " + bulkhead.executorName + " for " + method);
+		}
+		final Long deadline = JsonRpcDeadline.get();
+		final InFlightRequests.Request request = JsonRpcCancellation.getRequest();
+		final Integer requestPriority = JsonRpcPriorityExecutor.getPriority();
+		final Integer priority = requestPriority != null ? requestPriority : bulkhead.priority;
+		final Future<JsonNode> future;
+		final Integer previousPriority = JsonRpcPriorityExecutor.setCurrentPriority(priority);
+		try {
+			future = executor.submit(new Callable<JsonNode>() {
+				@Override
+				public JsonNode call() throws Exception {
+					final Long previousDeadline = JsonRpcDeadline.get();
+					final InFlightRequests.Request previousRequest = JsonRpcCancellation.setRequest(request);
+					final Integer previousPriority = JsonRpcPriorityExecutor.setCurrentPriority(priority);
+					JsonRpcDeadline.restore(deadline);
+					try {
+						return invoke(target, method, params, dispatcher, timer);
+					} finally {
+						JsonRpcDeadline.restore(previousDeadline);
+						JsonRpcCancellation.setRequest(previousRequest);
+						JsonRpcPriorityExecutor.setCurrentPriority(previousPriority);
+					}
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			throw new ExecutorRejectedException(e);
+		} finally {
+			JsonRpcPriorityExecutor.setCurrentPriority(previousPriority);
+		}
+		try {
+			if (deadline == null) {
+				return future.get();
+			}
+			return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+		} catch (ExecutionException e) {
+			throw e.getCause();
+		} catch (TimeoutException e) {
+			future.cancel(true);
+			throw new DeadlineExceededException();
+		} catch (InterruptedException e) {
+			future.cancel(true);
+			Thread.currentThread().interrupt();
+			throw e;
+		}
+	}
+	
+	/**
+	 * Returns the generated {@link JsonRpcDispatcher} of the interface of the handler, if any.
+	 *
+	 * @param handlerInterfaces the interfaces of the handler
+	 * @return the dispatcher, or null if the methods have to be found and invoked by reflection
+	 */
+	private JsonRpcDispatcher getDispatcher(Class<?>[] handlerInterfaces) {
+		if (!useGeneratedDispatchers || handlerInterfaces.length != 1) {
+			return null;
 		}
+		final Class<?> serviceInterface = handlerInterfaces[0];
+		JsonRpcDispatcher dispatcher = dispatchers.get(serviceInterface);
+		if (dispatcher == null && JsonRpcDispatcher.isGenerated(serviceInterface)) {
+			dispatcher = JsonRpcDispatcher.create(serviceInterface, mapper);
+			dispatchers.put(serviceInterface, dispatcher);
+		}
+		return dispatcher;
 	}
 	
 	private JsonError handleError(OutputStream output, Object id, String jsonRpc, AMethodWithItsArgs methodArgs, Throwable e) throws IOException {
 		Throwable unwrappedException = getException(e);
 		
 		if (shouldLogInvocationErrors) {
-			logger.warn("Error in JSON-RPC Service", unwrappedException);
+			logInvocationError(unwrappedException);
 		}
 		
 		JsonError error = resolveError(methodArgs, unwrappedException);
@@ -392,6 +739,17 @@ public class JsonRpcBasicServer {
 		return error;
 	}
 	
+	private void logInvocationError(Throwable e) {
+		final long suppressed = invocationErrorLogLimiter.acquire();
+		if (suppressed < 0) {
+			return;
+		}
+		if (suppressed > 0) {
+			logger.warn("{} errors in JSON-RPC Service were not logged", suppressed);
+		}
+		logger.warn("Error in JSON-RPC Service", e);
+	}
+	
 	private Throwable getException(final Throwable thrown) {
 		Throwable e = thrown;
 		while (InvocationTargetException.class.isInstance(e)) {
@@ -459,6 +817,18 @@ public class JsonRpcBasicServer {
 		return handler;
 	}
 	
+	private JsonNode invoke(Object target, Method method, List<JsonNode> params, JsonRpcDispatcher dispatcher, InvocationTimer timer) throws IOException, IllegalAccessException, InvocationTargetException {
+		if (timer == null) {
+			return invoke(target, method, params, dispatcher);
+		}
+		timer.start();
+		try {
+			return invoke(target, method, params, dispatcher);
+		} finally {
+			timer.stop();
+		}
+	}
+	
 	/**
 	 * Invokes the given method on the {@code handler} passing
 	 * the given params (after converting them to beans\objects)
@@ -468,12 +838,13 @@ public class JsonRpcBasicServer {
 	 *               to invoke the Method on
 	 * @param method the method to invoke
 	 * @param params the params to pass to the method
+	 * @param dispatcher the generated dispatcher of the interface, or null
 	 * @return the return value (or null if no return)
 	 * @throws IOException               on error
 	 * @throws IllegalAccessException    on error
 	 * @throws InvocationTargetException on error
 	 */
-	private JsonNode invoke(Object target, Method method, List<JsonNode> params) throws IOException, IllegalAccessException, InvocationTargetException {
+	private JsonNode invoke(Object target, Method method, List<JsonNode> params, JsonRpcDispatcher dispatcher) throws IOException, IllegalAccessException, InvocationTargetException {
 		logger.debug("Invoking method: {} with args {}", method.getName(), params);
 
 		Object result;
@@ -483,6 +854,17 @@ public class JsonRpcBasicServer {
 			result = componentType.isPrimitive() ?
 				invokePrimitiveVarargs(target, method, params, componentType) :
 				invokeNonPrimitiveVarargs(target, method, params, componentType);
+        } else if (dispatcher != null && dispatcher.canInvoke(method) && dispatcher.getServiceInterface().isInstance(target)) {
+			Object[] convertedParams = dispatcher.readArguments(method, params);
+			if (convertedParameterTransformer != null) {
+				convertedParams = convertedParameterTransformer.transformConvertedParameters(target, convertedParams);
+			}
+			try {
+				result = dispatcher.invoke(target, method, convertedParams);
+			} catch (Throwable e) {
+				// wrapped like a reflective call, for the error handling
+				throw new InvocationTargetException(e);
+			}
         } else {
             Object[] convertedParams = convertJsonToParameters(method, params);
 			if (convertedParameterTransformer != null) {
@@ -554,12 +936,7 @@ public class JsonRpcBasicServer {
 	 */
 	private ErrorObjectWithJsonError createResponseError(String jsonRpc, Object id, JsonError errorObject) {
 		ObjectNode response = mapper.createObjectNode();
-		ObjectNode error = mapper.createObjectNode();
-		error.put(ERROR_CODE, errorObject.code);
-		error.put(ERROR_MESSAGE, errorObject.message);
-		if (errorObject.data != null) {
-			error.set(DATA, mapper.valueToTree(errorObject.data));
-		}
+		ObjectNode error = createErrorNode(errorObject);
 		response.put(JSONRPC, jsonRpc);
 		if (Integer.class.isInstance(id)) {
 			response.put(ID, Integer.class.cast(id).intValue());
@@ -578,6 +955,36 @@ public class JsonRpcBasicServer {
 		return new ErrorObjectWithJsonError(response, errorObject);
 	}
 	
+	/**
+	 * Creates the error object of a response.  The error object of a
+	 * {@link JsonError#isReusable() reusable} error is built once and
+	 * copied, as the interceptors may change the responses.
+	 *
+	 * @param errorObject the error
+	 * @return the error object
+	 */
+	private ObjectNode createErrorNode(JsonError errorObject) {
+		if (!errorObject.isReusable()) {
+			return buildErrorNode(errorObject);
+		}
+		ObjectNode error = reusableErrorNodes.get(errorObject);
+		if (error == null) {
+			error = buildErrorNode(errorObject);
+			reusableErrorNodes.put(errorObject, error);
+		}
+		return error.deepCopy();
+	}
+	
+	private ObjectNode buildErrorNode(JsonError errorObject) {
+		ObjectNode error = mapper.createObjectNode();
+		error.put(ERROR_CODE, errorObject.code);
+		error.put(ERROR_MESSAGE, errorObject.message);
+		if (errorObject.data != null) {
+			error.set(DATA, mapper.valueToTree(errorObject.data));
+		}
+		return error;
+	}
+	
 	/**
 	 * Creates a success response.
 	 *
@@ -956,6 +1363,17 @@ public class JsonRpcBasicServer {
 		this.errorResolver = errorResolver;
 	}
 	
+	/**
+	 * Sets whether the {@link JsonRpcDispatcher}s generated by the annotation
+	 * processor are used to find and invoke the methods of the handler, when
+	 * there is one for its interface.  They are used by default.
+	 *
+	 * @param useGeneratedDispatchers true or false
+	 */
+	public void setUseGeneratedDispatchers(boolean useGeneratedDispatchers) {
+		this.useGeneratedDispatchers = useGeneratedDispatchers;
+	}
+	
 	/**
 	 * Sets the {@link InvocationListener} instance that can be
 	 * used to provide feedback for capturing method-invocation
@@ -1000,6 +1418,111 @@ public class JsonRpcBasicServer {
 		this.shouldLogInvocationErrors = shouldLogInvocationErrors;
 	}
 	
+	/**
+	 * Sets the {@link AdaptiveConcurrencyLimiter} admitting the requests.
+	 * Requests over its limit are answered right away with the
+	 * {@link JsonError#SERVER_OVERLOADED} error.  There is none by default.
+	 *
+	 * @param concurrencyLimiter the limiter, or null for none
+	 */
+	public void setConcurrencyLimiter(AdaptiveConcurrencyLimiter concurrencyLimiter) {
+		this.concurrencyLimiter = concurrencyLimiter;
+	}
+	
+	/**
+	 * @return the {@link AdaptiveConcurrencyLimiter} admitting the requests, or null
+	 */
+	public AdaptiveConcurrencyLimiter getConcurrencyLimiter() {
+		return concurrencyLimiter;
+	}
+	
+	/**
+	 * Sets the executors the methods annotated with {@link JsonRpcExecutor}
+	 * run on, by name.  The thread handling the request waits for the
+	 * invocation to end; when the executor rejects it, the request is
+	 * answered with the {@link JsonError#SERVER_OVERLOADED} error.  The
+	 * executors are not shut down by the server.
+	 *
+	 * @param executors the executors, by name
+	 */
+	public void setExecutors(Map<String, ExecutorService> executors) {
+		this.executors = executors == null ? Collections.<String, ExecutorService>emptyMap() : new HashMap<>(executors);
+	}
+	
+	/**
+	 * @return the executors the methods annotated with {@link JsonRpcExecutor} run on, by name
+	 */
+	public Map<String, ExecutorService> getExecutors() {
+		return Collections.unmodifiableMap(executors);
+	}
+	
+	/**
+	 * Whether the thread invoking a method is interrupted when the deadline
+	 * of the request passes, see {@link JsonRpcDeadline}.  Off by default,
+	 * the methods checking the deadline themselves.  The methods run on an
+	 * executor are always interrupted, their thread not being the one
+	 * handling the request.
+	 *
+	 * @param interruptOnDeadline whether to interrupt the invocations past their deadline
+	 */
+	public void setInterruptOnDeadline(boolean interruptOnDeadline) {
+		this.interruptOnDeadline = interruptOnDeadline;
+	}
+	
+	/**
+	 * @return whether the deadlines sent by the clients are accepted
+	 */
+	public boolean isAcceptRequestDeadlines() {
+		return acceptRequestDeadlines;
+	}
+	
+	/**
+	 * Whether the server reads the deadline of a request from its
+	 * {@link JsonRpcDeadline#TIMEOUT} member, or the {@link JsonRpcDeadline#TIMEOUT_HEADER}
+	 * HTTP header, see {@link JsonRpcDeadline}.  Off by default, as these
+	 * may be sent by clients for other purposes.  The {@link JsonRpcTimeout}
+	 * of the methods apply in any case.
+	 *
+	 * @param acceptRequestDeadlines whether to accept the deadlines sent by the clients
+	 */
+	public void setAcceptRequestDeadlines(boolean acceptRequestDeadlines) {
+		this.acceptRequestDeadlines = acceptRequestDeadlines;
+	}
+	
+	/**
+	 * @return whether the priorities sent by the clients are accepted
+	 */
+	public boolean isAcceptRequestPriorities() {
+		return acceptRequestPriorities;
+	}
+	
+	/**
+	 * Whether the server reads the priority of a request from its
+	 * {@link JsonRpcPriorityExecutor#PRIORITY} member, or the
+	 * {@link JsonRpcPriorityExecutor#PRIORITY_HEADER} HTTP header.  Off by
+	 * default, as these may be sent by clients for other purposes, and
+	 * any client could then put its requests ahead of the others.  The
+	 * {@link JsonRpcPriority} of the methods apply in any case.
+	 *
+	 * @param acceptRequestPriorities whether to accept the priorities sent by the clients
+	 */
+	public void setAcceptRequestPriorities(boolean acceptRequestPriorities) {
+		this.acceptRequestPriorities = acceptRequestPriorities;
+	}
+	
+	/**
+	 * Limits the number of invocation errors logged per second, when they
+	 * are {@link #setShouldLogInvocationErrors(boolean) logged}, so that a
+	 * storm of errors does not slow the server down with stack traces.  The
+	 * number of errors left out is logged with the next one.  By default
+	 * every error is logged.
+	 *
+	 * @param maxPerSecond the number of errors logged per second, no limit if not positive (the default)
+	 */
+	public void setInvocationErrorLogLimit(int maxPerSecond) {
+		this.invocationErrorLogLimiter = new LogRateLimiter(maxPerSecond);
+	}
+	
 	private static class ErrorObjectWithJsonError {
 		private final ObjectNode node;
 		private final JsonError error;
@@ -1097,6 +1620,49 @@ public class JsonRpcBasicServer {
         }
 	}
 	
+	/**
+	 * Signals that the executor of a method rejected its invocation.
+	 */
+	private static class ExecutorRejectedException extends Exception {
+		
+		private static final long serialVersionUID = 1L;
+		
+		ExecutorRejectedException(RejectedExecutionException cause) {
+			super(cause);
+		}
+	}
+	
+	/**
+	 * Times the invocation of a method, wherever it runs, for the
+	 * {@link AdaptiveConcurrencyLimiter}.
+	 */
+	private static class InvocationTimer {
+		
+		private volatile long startedAt;
+		private volatile boolean started = false;
+		private volatile long elapsedNanos = -1;
+		
+		void start() {
+			startedAt = System.nanoTime();
+			started = true;
+		}
+		
+		void stop() {
+			elapsedNanos = System.nanoTime() - startedAt;
+		}
+		
+		/**
+		 * @return the time taken by the invocation, so far if it is still running, 0 if it has not started
+		 */
+		long getElapsedNanos() {
+			final long elapsed = elapsedNanos;
+			if (elapsed >= 0) {
+				return elapsed;
+			}
+			return started ? System.nanoTime() - startedAt : 0;
+		}
+	}
+	
 	private static class InvokeListenerHandler implements AutoCloseable {
 		
 		private final long startMs = System.currentTimeMillis();
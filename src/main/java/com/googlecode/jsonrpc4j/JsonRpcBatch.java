@@ -0,0 +1,133 @@
+package com.googlecode.jsonrpc4j;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Collects several JSON-RPC calls so that they can be sent to the
+ * server as a single batch request.  Every call added to the batch
+ * returns a {@link Future} that is completed once the matching
+ * response (correlated by {@code id}) has been read:
+ * <pre>
+ * JsonRpcBatch batch = new JsonRpcBatch();
+ * Future&lt;User&gt; bob = batch.add("getUser", new Object[]{"bob"}, User.class);
+ * Future&lt;User&gt; joe = batch.add("getUser", new Object[]{"joe"}, User.class);
+ * client.invokeBatch(batch);
+ * </pre>
+ * A batch can only be sent once.
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+public class JsonRpcBatch {
+
+	private final List<Call<?>> calls = new ArrayList<>();
+	private final AtomicBoolean sent = new AtomicBoolean(false);
+
+	/**
+	 * Adds a call to the batch.
+	 *
+	 * @param methodName the name of the method to invoke
+	 * @param argument   the argument to the method
+	 * @param clazz      the return type
+	 * @param <T>        the return type
+	 * @return the {@link Future} that will hold the return value
+	 */
+	public <T> Future<T> add(String methodName, Object argument, Class<T> clazz) {
+		assertNotSent();
+		Call<T> call = new Call<>(methodName, argument, clazz);
+		calls.add(call);
+		return call.future;
+	}
+
+	/**
+	 * Adds a call to the batch.
+	 *
+	 * @param methodName the name of the method to invoke
+	 * @param argument   the argument to the method
+	 * @param returnType the return type
+	 * @return the {@link Future} that will hold the return value
+	 */
+	public Future<Object> add(String methodName, Object argument, Type returnType) {
+		assertNotSent();
+		Call<Object> call = new Call<>(methodName, argument, returnType);
+		calls.add(call);
+		return call.future;
+	}
+
+	/**
+	 * @return the number of calls in this batch
+	 */
+	public int size() {
+		return calls.size();
+	}
+
+	/**
+	 * @return whether no call has been added to this batch
+	 */
+	public boolean isEmpty() {
+		return calls.isEmpty();
+	}
+
+	List<Call<?>> getCalls() {
+		return Collections.unmodifiableList(calls);
+	}
+	
+	/**
+	 * Marks the batch as sent.
+	 *
+	 * @throws IllegalStateException if the batch has already been sent
+	 */
+	void markSent() {
+		if (!sent.compareAndSet(false, true)) {
+			throw new IllegalStateException("The batch has already been sent");
+		}
+	}
+	
+	/**
+	 * Fails all the calls of this batch that have not been completed yet.
+	 *
+	 * @param t the failure
+	 */
+	void failAll(Throwable t) {
+		for (Call<?> call : calls) {
+			call.fail(t);
+		}
+	}
+	
+	private void assertNotSent() {
+		if (sent.get()) {
+			throw new IllegalStateException("The batch has already been sent");
+		}
+	}
+
+	/**
+	 * A single call of a {@link JsonRpcBatch}.
+	 *
+	 * @param <T> the return type
+	 */
+	static class Call<T> {
+
+		final String methodName;
+		final Object argument;
+		final Type returnType;
+		final JsonRpcFuture<T> future = new JsonRpcFuture<>();
+
+		Call(String methodName, Object argument, Type returnType) {
+			this.methodName = methodName;
+			this.argument = argument;
+			this.returnType = returnType;
+		}
+
+		@SuppressWarnings("unchecked")
+		void complete(Object result) {
+			future.onComplete((T) result);
+		}
+
+		void fail(Throwable t) {
+			future.onError(t);
+		}
+	}
+}
@@ -0,0 +1,230 @@
+package com.googlecode.jsonrpc4j;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Type;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An {@link IJsonRpcClient} that collects the calls made concurrently by
+ * several threads into JSON-RPC batches.  The first call of a batch opens a
+ * window of {@link #setWindowMillis(long) windowMillis}; all the calls
+ * arriving within that window are sent together, either when the window
+ * elapses or as soon as {@link #setMaxBatchSize(int) maxBatchSize} calls
+ * have been collected.  Every caller blocks until the response of its own
+ * call is available, so a call is delayed by at most the window.
+ * <p>
+ * The batches are sent by the calling threads themselves, no additional
+ * threads are used.  Calls with extra headers are not batched, they are
+ * passed to the wrapped client directly.
+ * <pre>
+ * JsonRpcHttpClient client = new JsonRpcHttpClient(url);
+ * MyService service = ProxyUtil.createClientProxy(classLoader, MyService.class, new JsonRpcBatchingClient(client));
+ * </pre>
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+public class JsonRpcBatchingClient implements IJsonRpcClient {
+	
+	private static final Logger logger = LoggerFactory.getLogger(JsonRpcBatchingClient.class);
+	
+	private final IJsonRpcClient client;
+	private final IJsonRpcBatchClient batchClient;
+	private final Object lock = new Object();
+	private Window window;
+	private long windowMillis = 1;
+	private int maxBatchSize = 100;
+	
+	/**
+	 * Creates the {@link JsonRpcBatchingClient} sending its batches with the given client.
+	 *
+	 * @param client the client, e.g. a {@link JsonRpcHttpClient}
+	 * @param <C>    the type of the client
+	 */
+	public <C extends IJsonRpcClient & IJsonRpcBatchClient> JsonRpcBatchingClient(C client) {
+		this(client, client);
+	}
+	
+	/**
+	 * Creates the {@link JsonRpcBatchingClient}.
+	 *
+	 * @param client      the client used for the calls that are not batched
+	 * @param batchClient the client used to send the batches
+	 */
+	public JsonRpcBatchingClient(IJsonRpcClient client, IJsonRpcBatchClient batchClient) {
+		this.client = client;
+		this.batchClient = batchClient;
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void invoke(String methodName, Object argument) throws Throwable {
+		invoke(methodName, argument, (Type) null);
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Object invoke(String methodName, Object argument, Type returnType) throws Throwable {
+		return invoke(methodName, argument, returnType, new HashMap<String, String>());
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Object invoke(String methodName, Object argument, Type returnType, Map<String, String> extraHeaders) throws Throwable {
+		if (!extraHeaders.isEmpty() || windowMillis <= 0 || maxBatchSize == 1) {
+			return client.invoke(methodName, argument, returnType, extraHeaders);
+		}
+		
+		final Window current;
+		final Future<Object> result;
+		final boolean opened;
+		final boolean filled;
+		synchronized (lock) {
+			opened = window == null;
+			if (opened) {
+				window = new Window(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(windowMillis));
+			}
+			current = window;
+			result = current.batch.add(methodName, argument, returnType);
+			filled = maxBatchSize > 0 && current.batch.size() >= maxBatchSize;
+			if (filled) {
+				close(current);
+			}
+		}
+		
+		if (filled || opened && awaitWindow(current)) {
+			send(current.batch);
+		}
+		
+		try {
+			return result.get();
+		} catch (ExecutionException e) {
+			throw e.getCause();
+		}
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T> T invoke(String methodName, Object argument, Class<T> clazz) throws Throwable {
+		return (T) invoke(methodName, argument, Type.class.cast(clazz));
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T> T invoke(String methodName, Object argument, Class<T> clazz, Map<String, String> extraHeaders) throws Throwable {
+		return (T) invoke(methodName, argument, Type.class.cast(clazz), extraHeaders);
+	}
+	
+	/**
+	 * Waits until the given window elapses or is closed by a call filling it.
+	 *
+	 * @return whether the window has been closed by the waiting thread,
+	 * which then has to send its batch
+	 */
+	private boolean awaitWindow(Window current) {
+		boolean interrupted = false;
+		synchronized (lock) {
+			long remaining = current.deadline - System.nanoTime();
+			while (!current.closed && remaining > 0) {
+				try {
+					TimeUnit.NANOSECONDS.timedWait(lock, remaining);
+				} catch (InterruptedException e) {
+					// the other calls of the window depend on this thread, send the batch anyway
+					interrupted = true;
+					break;
+				}
+				remaining = current.deadline - System.nanoTime();
+			}
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+			if (current.closed) {
+				return false;
+			}
+			close(current);
+			return true;
+		}
+	}
+	
+	private void close(Window current) {
+		current.closed = true;
+		if (window == current) {
+			window = null;
+		}
+		lock.notifyAll();
+	}
+	
+	private void send(JsonRpcBatch batch) {
+		logger.debug("Sending batch of {} calls", batch.size());
+		try {
+			batchClient.invokeBatch(batch);
+		} catch (Throwable t) {
+			batch.failAll(t);
+		}
+	}
+	
+	/**
+	 * @return the windowMillis
+	 */
+	public long getWindowMillis() {
+		return windowMillis;
+	}
+	
+	/**
+	 * Sets the time calls are collected for before a batch is sent.
+	 * A value of {@code 0} or less disables batching.
+	 *
+	 * @param windowMillis the windowMillis to set
+	 */
+	public void setWindowMillis(long windowMillis) {
+		this.windowMillis = windowMillis;
+	}
+	
+	/**
+	 * @return the maxBatchSize
+	 */
+	public int getMaxBatchSize() {
+		return maxBatchSize;
+	}
+	
+	/**
+	 * Sets the number of calls after which a batch is sent without waiting
+	 * for the window to elapse.  A value of {@code 0} or less means that
+	 * batches are only sent when their window elapses.
+	 *
+	 * @param maxBatchSize the maxBatchSize to set
+	 */
+	public void setMaxBatchSize(int maxBatchSize) {
+		this.maxBatchSize = maxBatchSize;
+	}
+	
+	/**
+	 * The calls collected within a window.
+	 */
+	private static class Window {
+		
+		final JsonRpcBatch batch = new JsonRpcBatch();
+		final long deadline;
+		boolean closed;
+		
+		Window(long deadline) {
+			this.deadline = deadline;
+		}
+	}
+}
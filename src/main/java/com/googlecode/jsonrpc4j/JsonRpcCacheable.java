@@ -0,0 +1,32 @@
+package com.googlecode.jsonrpc4j;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Annotation for marking idempotent, read-only service methods whose
+ * results may be cached on the client side by a {@link JsonRpcCachingClient}.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface JsonRpcCacheable {
+
+	/**
+	 * @return how long a result is cached.
+	 */
+	long ttl();
+
+	/**
+	 * @return how long before it expires a cached result is refreshed
+	 * in the background, {@code 0} to disable refresh-ahead.
+	 */
+	long refreshAhead() default 0;
+
+	/**
+	 * @return the unit of {@link #ttl()} and {@link #refreshAhead()}.
+	 */
+	TimeUnit unit() default TimeUnit.MILLISECONDS;
+}
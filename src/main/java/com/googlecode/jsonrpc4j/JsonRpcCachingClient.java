@@ -0,0 +1,420 @@
+package com.googlecode.jsonrpc4j;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An {@link IJsonRpcClient} that caches the results of idempotent, read-only
+ * methods, so that repeated calls with the same arguments do not reach the
+ * server until the cached result expires.  Methods are made cacheable either
+ * by annotating them with {@link JsonRpcCacheable} and registering their
+ * interface, or by configuration:
+ * <pre>
+ * JsonRpcCachingClient cachingClient = new JsonRpcCachingClient(new JsonRpcHttpClient(url));
+ * cachingClient.addCacheableMethods(ConfigService.class);
+ * cachingClient.setCacheable("getCountries", 10, TimeUnit.MINUTES);
+ * ConfigService service = ProxyUtil.createClientProxy(classLoader, ConfigService.class, cachingClient);
+ * </pre>
+ * Results are cached per method, serialized arguments and return type.
+ * With refresh-ahead, a result that is about to expire is reloaded in the
+ * background while callers keep getting the cached one.  Failed calls are
+ * not cached.  Calls with extra headers bypass the cache, as the headers
+ * may change the result.
+ * <p>
+ * Cached results are shared by all the callers and must therefore not be
+ * modified.
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+public class JsonRpcCachingClient implements IJsonRpcClient {
+
+	private static final Logger logger = LoggerFactory.getLogger(JsonRpcCachingClient.class);
+
+	private final IJsonRpcClient client;
+	private final ObjectMapper mapper;
+	private final Map<String, Policy> policies = new ConcurrentHashMap<>();
+	private final ConcurrentMap<CallKey, Entry> cache = new ConcurrentHashMap<>();
+	private final Object evictionLock = new Object();
+	private final AtomicLong hitCount = new AtomicLong();
+	private final AtomicLong missCount = new AtomicLong();
+	private final AtomicLong refreshCount = new AtomicLong();
+	private final AtomicLong evictionCount = new AtomicLong();
+	private int maxEntries = 10000;
+	private Executor refreshExecutor = null;
+
+	/**
+	 * Creates the {@link JsonRpcCachingClient}.
+	 *
+	 * @param client the client used for the calls that are not answered from the cache
+	 */
+	public JsonRpcCachingClient(IJsonRpcClient client) {
+		this(client, new ObjectMapper());
+	}
+
+	/**
+	 * Creates the {@link JsonRpcCachingClient}.
+	 *
+	 * @param client the client used for the calls that are not answered from the cache
+	 * @param mapper the {@link ObjectMapper} used to serialize the arguments into cache keys
+	 */
+	public JsonRpcCachingClient(IJsonRpcClient client, ObjectMapper mapper) {
+		this.client = client;
+		this.mapper = mapper;
+	}
+
+	/**
+	 * Makes the methods of the given interface annotated with
+	 * {@link JsonRpcCacheable} cacheable.
+	 *
+	 * @param serviceInterface the interface
+	 */
+	public void addCacheableMethods(Class<?> serviceInterface) {
+		for (Method method : serviceInterface.getMethods()) {
+			JsonRpcCacheable cacheable = ReflectionUtil.getAnnotation(method, JsonRpcCacheable.class);
+			if (cacheable != null) {
+				setCacheable(JsonRpcCallPlan.forMethod(method).getName(), cacheable.ttl(), cacheable.refreshAhead(), cacheable.unit());
+			}
+		}
+	}
+
+	/**
+	 * Makes the given method cacheable.
+	 *
+	 * @param methodName the JSON-RPC method name
+	 * @param ttl        how long a result is cached
+	 * @param unit       the unit of the ttl
+	 */
+	public void setCacheable(String methodName, long ttl, TimeUnit unit) {
+		setCacheable(methodName, ttl, 0, unit);
+	}
+
+	/**
+	 * Makes the given method cacheable.
+	 *
+	 * @param methodName   the JSON-RPC method name
+	 * @param ttl          how long a result is cached
+	 * @param refreshAhead how long before it expires a result is refreshed in the background,
+	 *                     {@code 0} to disable refresh-ahead
+	 * @param unit         the unit of the ttl and refreshAhead
+	 */
+	public void setCacheable(String methodName, long ttl, long refreshAhead, TimeUnit unit) {
+		if (ttl <= 0) {
+			throw new IllegalArgumentException("The ttl of " + methodName + " must be positive");
+		}
+		if (refreshAhead < 0 || refreshAhead >= ttl) {
+			throw new IllegalArgumentException("The refreshAhead of " + methodName + " must be positive and smaller than the ttl");
+		}
+		policies.put(methodName, new Policy(unit.toNanos(ttl), unit.toNanos(refreshAhead)));
+	}
+
+	/**
+	 * Stops caching the results of the given method and discards them.
+	 *
+	 * @param methodName the JSON-RPC method name
+	 */
+	public void removeCacheable(String methodName) {
+		policies.remove(methodName);
+		invalidate(methodName);
+	}
+
+	/**
+	 * Discards the cached results of the given method.
+	 *
+	 * @param methodName the JSON-RPC method name
+	 */
+	public void invalidate(String methodName) {
+		for (Iterator<CallKey> keys = cache.keySet().iterator(); keys.hasNext(); ) {
+			if (keys.next().methodName.equals(methodName)) {
+				keys.remove();
+			}
+		}
+	}
+
+	/**
+	 * Discards all the cached results.
+	 */
+	public void invalidateAll() {
+		cache.clear();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void invoke(String methodName, Object argument) throws Throwable {
+		client.invoke(methodName, argument);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Object invoke(String methodName, Object argument, Type returnType) throws Throwable {
+		return invoke(methodName, argument, returnType, new HashMap<String, String>());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Object invoke(String methodName, Object argument, Type returnType, Map<String, String> extraHeaders) throws Throwable {
+		final Policy policy = policies.get(methodName);
+		if (policy == null || !extraHeaders.isEmpty()) {
+			return client.invoke(methodName, argument, returnType, extraHeaders);
+		}
+
+		final CallKey key = CallKey.of(mapper, methodName, argument, returnType);
+		final Entry entry = cache.get(key);
+		final long now = System.nanoTime();
+		if (entry != null && now - entry.expiresAt < 0) {
+			hitCount.incrementAndGet();
+			if (policy.refreshAheadNanos > 0 && now - entry.refreshAt >= 0 && entry.refreshing.compareAndSet(false, true)) {
+				refresh(key, entry, policy);
+			}
+			return entry.value;
+		}
+
+		missCount.incrementAndGet();
+		final Object result = client.invoke(methodName, argument, returnType, extraHeaders);
+		put(key, policy, result);
+		return result;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T> T invoke(String methodName, Object argument, Class<T> clazz) throws Throwable {
+		return (T) invoke(methodName, argument, Type.class.cast(clazz));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T> T invoke(String methodName, Object argument, Class<T> clazz, Map<String, String> extraHeaders) throws Throwable {
+		return (T) invoke(methodName, argument, Type.class.cast(clazz), extraHeaders);
+	}
+
+	private void refresh(final CallKey key, final Entry entry, final Policy policy) {
+		try {
+			getRefreshExecutor().execute(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						put(key, policy, client.invoke(key.methodName, key.argument, key.returnType, new HashMap<String, String>()));
+						refreshCount.incrementAndGet();
+					} catch (Throwable t) {
+						logger.warn("Refreshing the cached result of {} failed", key.methodName, t);
+						// let a later hit try again
+						entry.refreshing.set(false);
+					}
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			logger.debug("Refreshing the cached result of {} rejected", key.methodName, e);
+			entry.refreshing.set(false);
+		}
+	}
+
+	private void put(CallKey key, Policy policy, Object result) {
+		final long now = System.nanoTime();
+		cache.put(key, new Entry(result, now + policy.ttlNanos, now + policy.ttlNanos - policy.refreshAheadNanos));
+		if (cache.size() > maxEntries) {
+			evict();
+		}
+	}
+
+	/**
+	 * Removes the expired entries and, if the cache is still full, the
+	 * entries closest to expiry, leaving some room so that the cache is
+	 * not swept on every insertion.
+	 */
+	private void evict() {
+		synchronized (evictionLock) {
+			if (cache.size() <= maxEntries) {
+				return;
+			}
+			final long now = System.nanoTime();
+			final List<Map.Entry<CallKey, Entry>> live = new ArrayList<>(cache.size());
+			for (Map.Entry<CallKey, Entry> mapEntry : cache.entrySet()) {
+				if (now - mapEntry.getValue().expiresAt >= 0) {
+					if (cache.remove(mapEntry.getKey(), mapEntry.getValue())) {
+						evictionCount.incrementAndGet();
+					}
+				} else {
+					live.add(mapEntry);
+				}
+			}
+			final int target = maxEntries - maxEntries / 10;
+			if (cache.size() <= target) {
+				return;
+			}
+			Collections.sort(live, new Comparator<Map.Entry<CallKey, Entry>>() {
+				@Override
+				public int compare(Map.Entry<CallKey, Entry> a, Map.Entry<CallKey, Entry> b) {
+					return Long.compare(a.getValue().expiresAt - now, b.getValue().expiresAt - now);
+				}
+			});
+			for (Iterator<Map.Entry<CallKey, Entry>> entries = live.iterator(); entries.hasNext() && cache.size() > target; ) {
+				Map.Entry<CallKey, Entry> mapEntry = entries.next();
+				if (cache.remove(mapEntry.getKey(), mapEntry.getValue())) {
+					evictionCount.incrementAndGet();
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return the number of calls answered from the cache
+	 */
+	public long getHitCount() {
+		return hitCount.get();
+	}
+
+	/**
+	 * @return the number of calls to cacheable methods that had to be sent to the server
+	 */
+	public long getMissCount() {
+		return missCount.get();
+	}
+
+	/**
+	 * @return the ratio of the calls to cacheable methods answered from the cache,
+	 * {@code 0} if there has been no such call
+	 */
+	public double getHitRatio() {
+		final long hits = hitCount.get();
+		final long total = hits + missCount.get();
+		return total == 0 ? 0 : (double) hits / total;
+	}
+
+	/**
+	 * @return the number of results refreshed ahead of their expiry
+	 */
+	public long getRefreshCount() {
+		return refreshCount.get();
+	}
+
+	/**
+	 * @return the number of results removed to keep the cache within {@link #setMaxEntries(int) maxEntries}
+	 */
+	public long getEvictionCount() {
+		return evictionCount.get();
+	}
+
+	/**
+	 * @return the number of cached results, including the expired ones not removed yet
+	 */
+	public int getSize() {
+		return cache.size();
+	}
+
+	/**
+	 * Resets the hit, miss, refresh and eviction counts.
+	 */
+	public void resetStatistics() {
+		hitCount.set(0);
+		missCount.set(0);
+		refreshCount.set(0);
+		evictionCount.set(0);
+	}
+
+	/**
+	 * @return the maxEntries
+	 */
+	public int getMaxEntries() {
+		return maxEntries;
+	}
+
+	/**
+	 * Sets the number of results the cache holds at most.
+	 *
+	 * @param maxEntries the maxEntries to set
+	 */
+	public void setMaxEntries(int maxEntries) {
+		this.maxEntries = maxEntries;
+	}
+
+	/**
+	 * Sets the {@link Executor} used to refresh results ahead of their
+	 * expiry.  If none is set a shared cached thread pool is used.
+	 *
+	 * @param refreshExecutor the refreshExecutor to set
+	 */
+	public void setRefreshExecutor(Executor refreshExecutor) {
+		this.refreshExecutor = refreshExecutor;
+	}
+
+	private Executor getRefreshExecutor() {
+		return refreshExecutor != null ? refreshExecutor : DefaultRefreshExecutor.INSTANCE;
+	}
+
+	/**
+	 * How the results of a method are cached.
+	 */
+	private static class Policy {
+
+		final long ttlNanos;
+		final long refreshAheadNanos;
+
+		Policy(long ttlNanos, long refreshAheadNanos) {
+			this.ttlNanos = ttlNanos;
+			this.refreshAheadNanos = refreshAheadNanos;
+		}
+	}
+
+	private static class Entry {
+
+		final Object value;
+		final long expiresAt;
+		final long refreshAt;
+		final AtomicBoolean refreshing = new AtomicBoolean(false);
+
+		Entry(Object value, long expiresAt, long refreshAt) {
+			this.value = value;
+			this.expiresAt = expiresAt;
+			this.refreshAt = refreshAt;
+		}
+	}
+
+	/**
+	 * Lazily created executor shared by all the clients without a refresh executor.
+	 */
+	private static class DefaultRefreshExecutor {
+
+		static final ExecutorService INSTANCE = Executors.newCachedThreadPool(new ThreadFactory() {
+			private final AtomicInteger count = new AtomicInteger();
+
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "jsonrpc4j cache refresh " + count.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+	}
+}
@@ -0,0 +1,246 @@
+package com.googlecode.jsonrpc4j;
+
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+
+/**
+ * Everything a client needs to know to call a proxied interface
+ * {@link Method}, resolved once per method: the JSON-RPC method name
+ * (pre-encoded for the JSON generators), how the parameters are passed
+ * the return type and the {@link JsonRpcRoutingKey routing key} parameter.
+ * Calls through the plan only have to put the argument values in place.
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+public final class JsonRpcCallPlan {
+
+	private static final Map<Method, JsonRpcCallPlan> planCache = new ConcurrentHashMap<>();
+
+	private final Method method;
+	private final String name;
+	private final SerializedString encodedName;
+	private final JsonRpcParamsPassMode paramsPassMode;
+	private final String[] paramNames;
+	private final int namedParamCount;
+	private final int routingKeyIndex;
+	private final Type returnType;
+	private final boolean returnsFuture;
+	private final Type resultType;
+	private volatile ResolvedType resolvedReturnType;
+
+	private JsonRpcCallPlan(Method method) {
+		this.method = method;
+		final JsonRpcMethod jsonRpcMethod = ReflectionUtil.getAnnotation(method, JsonRpcMethod.class);
+		this.name = jsonRpcMethod == null ? method.getName() : jsonRpcMethod.value();
+		this.encodedName = new SerializedString(name);
+		this.paramsPassMode = jsonRpcMethod == null ? JsonRpcParamsPassMode.AUTO : jsonRpcMethod.paramsPassMode();
+		this.returnType = method.getGenericReturnType() != null ? method.getGenericReturnType() : method.getReturnType();
+		final Class<?> returnClass = method.getReturnType();
+		this.returnsFuture = Future.class.isAssignableFrom(returnClass) && returnClass.isAssignableFrom(JsonRpcFuture.class);
+		this.resultType = returnsFuture ? getFutureResultType(returnType) : returnType;
+
+		final Annotation[][] paramAnnotations = method.getParameterAnnotations();
+		final String[] names = new String[paramAnnotations.length];
+		int count = 0;
+		int routingKey = -1;
+		for (int i = 0; i < paramAnnotations.length; i++) {
+			for (Annotation annotation : paramAnnotations[i]) {
+				if (JsonRpcParam.class.isInstance(annotation)) {
+					names[i] = ((JsonRpcParam) annotation).value();
+					count++;
+				} else if (JsonRpcRoutingKey.class.isInstance(annotation) && routingKey < 0) {
+					routingKey = i;
+				}
+			}
+		}
+		this.paramNames = count > 0 ? names : null;
+		this.namedParamCount = count;
+		this.routingKeyIndex = routingKey;
+	}
+
+	/**
+	 * Returns the plan of the given method, creating it on first use.
+	 *
+	 * @param method the interface method
+	 * @return the plan
+	 */
+	public static JsonRpcCallPlan forMethod(Method method) {
+		JsonRpcCallPlan plan = planCache.get(method);
+		if (plan == null) {
+			plan = new JsonRpcCallPlan(method);
+			planCache.put(method, plan);
+		}
+		return plan;
+	}
+
+	static void clearCache() {
+		planCache.clear();
+	}
+
+	/**
+	 * @return the method
+	 */
+	public Method getMethod() {
+		return method;
+	}
+
+	/**
+	 * @return the JSON-RPC method name
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * @return the JSON-RPC method name, pre-encoded for JSON generators
+	 */
+	public SerializedString getEncodedName() {
+		return encodedName;
+	}
+
+	/**
+	 * @return the parameters pass mode
+	 */
+	public JsonRpcParamsPassMode getParamsPassMode() {
+		return paramsPassMode;
+	}
+
+	/**
+	 * @return the generic return type
+	 */
+	public Type getReturnType() {
+		return returnType;
+	}
+
+	/**
+	 * @return whether the method returns a {@link Future} (or a {@link JsonRpcFuture}) of its result
+	 */
+	public boolean returnsFuture() {
+		return returnsFuture;
+	}
+
+	/**
+	 * @return the type of the result: the type argument of the future
+	 * if the method {@link #returnsFuture() returns a future}, the return type otherwise
+	 */
+	public Type getResultType() {
+		return resultType;
+	}
+
+	/**
+	 * Returns the return type resolved by the given {@link TypeFactory}.  The
+	 * resolved type is kept, so that it is only constructed again if the
+	 * plan is used with another factory.
+	 *
+	 * @param typeFactory the type factory
+	 * @return the resolved return type
+	 */
+	public JavaType getReturnJavaType(TypeFactory typeFactory) {
+		ResolvedType resolved = resolvedReturnType;
+		if (resolved == null || resolved.typeFactory != typeFactory) {
+			resolved = new ResolvedType(typeFactory, typeFactory.constructType(returnType));
+			resolvedReturnType = resolved;
+		}
+		return resolved.javaType;
+	}
+
+	/**
+	 * @return whether a parameter of the method is annotated with {@link JsonRpcRoutingKey}
+	 */
+	public boolean hasRoutingKey() {
+		return routingKeyIndex >= 0;
+	}
+
+	/**
+	 * @param arguments the arguments
+	 * @return the value of the {@link JsonRpcRoutingKey} annotated parameter, or null
+	 */
+	public Object getRoutingKey(Object[] arguments) {
+		if (routingKeyIndex < 0 || arguments == null || arguments.length <= routingKeyIndex) {
+			return null;
+		}
+		return arguments[routingKeyIndex];
+	}
+
+	/**
+	 * Turns the given arguments into the JSON-RPC params, the same way
+	 * {@link ReflectionUtil#parseArguments(Method, Object[])} does.
+	 *
+	 * @param arguments the arguments
+	 * @return the params: an array, or a map of named params
+	 * @throws IllegalArgumentException if the params can not be passed the way the method requires
+	 */
+	public Object parseArguments(Object[] arguments) {
+		final Map<String, Object> namedParams = getNamedParameters(arguments);
+
+		switch (paramsPassMode) {
+			case ARRAY:
+				if (namedParams != null) {
+					return namedParams.values().toArray();
+				}
+				return arguments != null ? arguments : new Object[]{};
+			case OBJECT:
+				if (namedParams != null) {
+					return namedParams;
+				}
+				if (arguments == null) {
+					return new Object[]{};
+				}
+				throw new IllegalArgumentException(
+						"OBJECT parameters pass mode is impossible without declaring JsonRpcParam annotations for all parameters on method "
+								+ method.getName());
+			case AUTO:
+			default:
+				if (namedParams != null) {
+					return namedParams;
+				}
+				return arguments != null ? arguments : new Object[]{};
+		}
+	}
+
+	private Map<String, Object> getNamedParameters(Object[] arguments) {
+		if (paramNames == null) {
+			return null;
+		}
+		if (arguments == null) {
+			throw new IllegalArgumentException("No arguments given for the JsonRpcParam annotated parameters of method " + method.getName());
+		}
+		final Map<String, Object> namedParams = new LinkedHashMap<>(namedParamCount * 2);
+		for (int i = 0; i < paramNames.length; i++) {
+			if (paramNames[i] != null) {
+				namedParams.put(paramNames[i], arguments[i]);
+			}
+		}
+		if (arguments.length > 0 && namedParams.size() != arguments.length) {
+			throw new IllegalArgumentException("JsonRpcParam annotations were not found for all parameters on method " + method.getName());
+		}
+		return namedParams;
+	}
+
+	private static Type getFutureResultType(Type returnType) {
+		if (returnType instanceof ParameterizedType) {
+			return ((ParameterizedType) returnType).getActualTypeArguments()[0];
+		}
+		return Object.class;
+	}
+
+	private static class ResolvedType {
+
+		final TypeFactory typeFactory;
+		final JavaType javaType;
+
+		ResolvedType(TypeFactory typeFactory, JavaType javaType) {
+			this.typeFactory = typeFactory;
+			this.javaType = javaType;
+		}
+	}
+}
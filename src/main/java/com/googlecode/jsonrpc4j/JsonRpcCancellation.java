@@ -0,0 +1,96 @@
+package com.googlecode.jsonrpc4j;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.concurrent.CancellationException;
+
+import static com.googlecode.jsonrpc4j.JsonRpcBasicServer.METHOD;
+
+/**
+ * Tells the handlers whether the client cancelled the request being
+ * handled by the current thread.  Clients cancel a request with the
+ * {@value #CANCEL_REQUEST} notification, as in the Language Server
+ * Protocol, its params holding the {@code id} of the request.  The
+ * {@link StreamServer} reads it while the request runs when it has a
+ * {@link StreamServer#setRequestExecutor(java.util.concurrent.ExecutorService) request executor};
+ * the thread handling the request is interrupted, and the request is
+ * answered with the {@link ErrorResolver.JsonError#REQUEST_CANCELLED} error.
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+public final class JsonRpcCancellation {
+
+	/**
+	 * The method of the notification cancelling a request.
+	 */
+	public static final String CANCEL_REQUEST = "$/cancelRequest";
+
+	private static final ThreadLocal<InFlightRequests> inFlightRequests = new ThreadLocal<>();
+	private static final ThreadLocal<InFlightRequests.Request> request = new ThreadLocal<>();
+
+	private JsonRpcCancellation() {
+	}
+
+	/**
+	 * @return whether the request handled by the current thread has been cancelled
+	 */
+	public static boolean isCancelled() {
+		final InFlightRequests.Request current = request.get();
+		return current != null && current.isCancelled();
+	}
+
+	/**
+	 * Gives up on the request once it has been cancelled.
+	 *
+	 * @throws CancellationException if the request handled by the current thread has been cancelled
+	 */
+	public static void checkCancelled() {
+		if (isCancelled()) {
+			throw new CancellationException("request cancelled");
+		}
+	}
+
+	/**
+	 * @param node a request
+	 * @return whether the request is a {@value #CANCEL_REQUEST} notification
+	 */
+	static boolean isCancelRequest(JsonNode node) {
+		return node.isObject() && node.hasNonNull(METHOD) && CANCEL_REQUEST.equals(node.get(METHOD).asText());
+	}
+
+	/**
+	 * @return the requests of the connection handled by the current thread, or null
+	 */
+	static InFlightRequests getInFlightRequests() {
+		return inFlightRequests.get();
+	}
+
+	/**
+	 * Sets the requests of the connection handled by the current thread.
+	 *
+	 * @param requests the requests, or null
+	 * @return the previous requests
+	 */
+	static InFlightRequests setInFlightRequests(InFlightRequests requests) {
+		final InFlightRequests previous = inFlightRequests.get();
+		if (requests == null) {
+			inFlightRequests.remove();
+		} else {
+			inFlightRequests.set(requests);
+		}
+		return previous;
+	}
+
+	static InFlightRequests.Request getRequest() {
+		return request.get();
+	}
+
+	static InFlightRequests.Request setRequest(InFlightRequests.Request current) {
+		final InFlightRequests.Request previous = request.get();
+		if (current == null) {
+			request.remove();
+		} else {
+			request.set(current);
+		}
+		return previous;
+	}
+}
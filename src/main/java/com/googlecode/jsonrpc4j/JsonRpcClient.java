@@ -1,9 +1,16 @@
 package com.googlecode.jsonrpc4j;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonParser;
-import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.io.SerializedString;
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.JsonSerializable;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.slf4j.Logger;
@@ -13,12 +20,17 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.lang.reflect.Type;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static com.googlecode.jsonrpc4j.JsonRpcBasicServer.ERROR;
+import static com.googlecode.jsonrpc4j.JsonRpcBasicServer.ERROR_CODE;
 import static com.googlecode.jsonrpc4j.JsonRpcBasicServer.ID;
 import static com.googlecode.jsonrpc4j.JsonRpcBasicServer.JSONRPC;
 import static com.googlecode.jsonrpc4j.JsonRpcBasicServer.METHOD;
@@ -36,12 +48,22 @@ public class JsonRpcClient {
 	// Toha: to use same logger in extension classes
 	protected final Logger logger = LoggerFactory.getLogger(this.getClass());
 	
+	// the envelope of the streamed requests, encoded once
+	private static final SerializedString ENCODED_ID = new SerializedString(ID);
+	private static final SerializedString ENCODED_JSONRPC = new SerializedString(JSONRPC);
+	private static final SerializedString ENCODED_VERSION = new SerializedString(VERSION);
+	private static final SerializedString ENCODED_METHOD = new SerializedString(METHOD);
+	private static final SerializedString ENCODED_PARAMS = new SerializedString(PARAMS);
+	
 	private final ObjectMapper mapper;
 	private final Random random;
 	private RequestListener requestListener;
 	private RequestIDGenerator requestIDGenerator;
 	private ExceptionResolver exceptionResolver;
 	private Map<String, Object> additionalJsonContent = new HashMap<>();
+	private final Map<Type, ObjectReader> resultReaders = new ConcurrentHashMap<>();
+	private volatile JsonRpcClientMetrics metrics = null;
+	private boolean propagateDeadline = false;
 	
 	/**
 	 * Creates a client that uses the default {@link ObjectMapper}
@@ -92,6 +114,66 @@ public class JsonRpcClient {
 		this.requestListener = requestListener;
 	}
 	
+	/**
+	 * Sets the {@link JsonRpcClientMetrics} recording the calls of this
+	 * client, null, the default, records nothing.
+	 *
+	 * @param metrics the {@link JsonRpcClientMetrics}
+	 */
+	public void setMetrics(JsonRpcClientMetrics metrics) {
+		this.metrics = metrics;
+	}
+	
+	/**
+	 * @return the {@link JsonRpcClientMetrics} recording the calls of this client, or null
+	 */
+	public JsonRpcClientMetrics getMetrics() {
+		return metrics;
+	}
+	
+	/**
+	 * Sets whether the requests tell the server how long the client waits
+	 * for the response, in their {@link JsonRpcDeadline#TIMEOUT} member.
+	 * The time sent is the timeout of the client or, if shorter, the time
+	 * left before the {@link JsonRpcDeadline} of the calling thread.  Off
+	 * by default.
+	 *
+	 * @param propagateDeadline whether to send the deadline
+	 */
+	public void setPropagateDeadline(boolean propagateDeadline) {
+		this.propagateDeadline = propagateDeadline;
+	}
+	
+	/**
+	 * @return whether the requests tell the server how long the client waits for the response
+	 */
+	public boolean isPropagateDeadline() {
+		return propagateDeadline;
+	}
+	
+	/**
+	 * @return how long the client waits for a response, in milliseconds, -1 if it waits for ever
+	 */
+	protected long getRequestTimeoutMillis() {
+		return -1;
+	}
+	
+	/**
+	 * @return the timeout to send to the server, in milliseconds, -1 for none
+	 * @see #setPropagateDeadline(boolean)
+	 */
+	protected long getDeadlineTimeoutMillis() {
+		if (!propagateDeadline) {
+			return -1;
+		}
+		long timeout = getRequestTimeoutMillis();
+		if (JsonRpcDeadline.hasDeadline()) {
+			final long remaining = Math.max(0, JsonRpcDeadline.getRemainingMillis());
+			timeout = timeout < 0 ? remaining : Math.min(timeout, remaining);
+		}
+		return timeout;
+	}
+	
 	/**
 	 * Set the {@link RequestIDGenerator}
 	 *
@@ -101,6 +183,13 @@ public class JsonRpcClient {
 		this.requestIDGenerator = requestIDGenerator;
 	}
 	
+	/**
+	 * @return the {@link RequestIDGenerator}
+	 */
+	public RequestIDGenerator getRequestIDGenerator() {
+		return requestIDGenerator;
+	}
+	
 	/**
 	 * Invokes the given method on the remote service
 	 * passing the given arguments, a generated id and reads
@@ -155,8 +244,39 @@ public class JsonRpcClient {
 	 * @see #writeRequest(String, Object, OutputStream, String)
 	 */
 	private Object invokeAndReadResponse(String methodName, Object argument, Type returnType, OutputStream output, InputStream input, String id) throws Throwable {
-		invoke(methodName, argument, output, id);
-		return readResponse(returnType, input, id);
+		final long start = startCall();
+		boolean failed = true;
+		try {
+			invoke(methodName, argument, output, id);
+			final Object result = readResponse(returnType, input, id);
+			failed = false;
+			return result;
+		} finally {
+			recordCall(methodName, start, failed);
+		}
+	}
+	
+	/**
+	 * Starts timing a call for the {@link JsonRpcClientMetrics}.
+	 *
+	 * @return the start of the call, 0 if there are no metrics
+	 */
+	protected long startCall() {
+		return metrics == null ? 0 : System.nanoTime();
+	}
+	
+	/**
+	 * Records a call timed by {@link #startCall()} to the {@link JsonRpcClientMetrics}.
+	 *
+	 * @param methodName the method called
+	 * @param start      the start of the call
+	 * @param failed     whether the call failed
+	 */
+	protected void recordCall(String methodName, long start, boolean failed) {
+		final JsonRpcClientMetrics current = metrics;
+		if (current != null && start != 0) {
+			current.recordCall(methodName, System.nanoTime() - start, failed);
+		}
 	}
 	
 	/**
@@ -172,7 +292,7 @@ public class JsonRpcClient {
 	 * @throws IOException on error
 	 * @see #writeRequest(String, Object, OutputStream, String)
 	 */
-	private void invoke(String methodName, Object argument, OutputStream output, String id) throws IOException {
+	protected void invoke(String methodName, Object argument, OutputStream output, String id) throws IOException {
 		writeRequest(methodName, argument, output, id);
 		output.flush();
 	}
@@ -189,8 +309,31 @@ public class JsonRpcClient {
 	 * @throws Throwable on error
 	 */
 	private Object readResponse(Type returnType, InputStream input, String id) throws Throwable {
+		final JsonRpcClientMetrics current = metrics;
+		if (current == null) {
+			return readUnmeteredResponse(returnType, input, id);
+		}
+		final long start = System.nanoTime();
+		final MeteredInputStream metered = new MeteredInputStream(input);
+		try {
+			return readUnmeteredResponse(returnType, metered, id);
+		} finally {
+			// the time spent waiting for the server is not deserialization
+			current.recordResponse(metered.getCount(), System.nanoTime() - metered.getFirstByteNanos(start));
+		}
+	}
+	
+	private Object readUnmeteredResponse(Type returnType, InputStream input, String id) throws Throwable {
 		
 		ReadContext context = ReadContext.getReadContext(input, mapper);
+		if (requestListener == null) {
+			context.assertReadable();
+			try (JsonParser parser = context.createParser()) {
+				return readStreamedResponse(returnType, parser, id);
+			}
+		}
+		
+		// the listener is given the whole response as a tree
 		ObjectNode jsonObject = getValidResponse(id, context);
 		notifyAnswerListener(jsonObject);
 		handleErrorResponse(jsonObject);
@@ -206,6 +349,89 @@ public class JsonRpcClient {
 		return null;
 	}
 	
+	/**
+	 * Reads a JSON-RPC response token by token.  The {@code result} is
+	 * deserialized straight into the return type, all the other members
+	 * of the response are read as a tree, so that errors are resolved
+	 * the same way as in {@link #readResponse(Type, JsonNode)}.
+	 *
+	 * @param returnType the expected return type
+	 * @param parser     the parser to read from
+	 * @param id         the id used to compare the response with, or null
+	 * @return the object returned by the JSON-RPC response
+	 * @throws Throwable on error
+	 */
+	private Object readStreamedResponse(Type returnType, JsonParser parser, String id) throws Throwable {
+		ObjectNode jsonObject;
+		Object result;
+		do {
+			final JsonToken token = parser.nextToken();
+			if (token == null) {
+				throw new StreamEndedException();
+			}
+			if (token != JsonToken.START_OBJECT) {
+				JsonNode response = mapper.readTree(parser);
+				logger.debug("JSON-PRC Response: {}", response);
+				raiseExceptionIfNotValidResponseObject(response);
+			}
+			jsonObject = mapper.createObjectNode();
+			result = readStreamedResponseMembers(returnType, parser, jsonObject, id);
+			logger.debug("JSON-PRC Response: {}", jsonObject);
+		} while (id != null && isIdValueNotCorrect(id, jsonObject));
+		
+		handleErrorResponse(jsonObject);
+		return result;
+	}
+	
+	/**
+	 * Reads the members of a response object, the parser being positioned
+	 * on its start.
+	 *
+	 * @return the deserialized result, or null
+	 */
+	private Object readStreamedResponseMembers(Type returnType, JsonParser parser, ObjectNode jsonObject, String id) throws IOException {
+		Object result = null;
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			final String name = parser.getCurrentName();
+			final JsonToken value = parser.nextToken();
+			if (RESULT.equals(name) && value != JsonToken.VALUE_NULL && (id == null || jsonObject.has(ID))) {
+				if (id != null && isIdValueNotCorrect(id, jsonObject)) {
+					// the response of another request
+					parser.skipChildren();
+				} else if (isReturnTypeInvalid(returnType)) {
+					parser.skipChildren();
+				} else {
+					result = getResultReader(returnType).readValue(parser);
+				}
+			} else {
+				// the result is only kept as a tree if it precedes the id
+				final JsonNode node = mapper.readTree(parser);
+				jsonObject.set(name, node != null ? node : mapper.getNodeFactory().nullNode());
+			}
+		}
+		if (id != null && hasResult(jsonObject) && !isIdValueNotCorrect(id, jsonObject) && !isReturnTypeInvalid(returnType)) {
+			result = constructResponseObject(returnType, jsonObject);
+		}
+		return result;
+	}
+	
+	/**
+	 * Returns the reader deserializing results into the given type.
+	 * Readers are created once per type, they are bound to the
+	 * configuration the {@link ObjectMapper} has at that time.
+	 *
+	 * @param returnType the return type
+	 * @return the reader
+	 */
+	private ObjectReader getResultReader(Type returnType) {
+		ObjectReader reader = resultReaders.get(returnType);
+		if (reader == null) {
+			reader = mapper.readerFor(mapper.getTypeFactory().constructType(returnType));
+			resultReaders.put(returnType, reader);
+		}
+		return reader;
+	}
+	
 	/**
 	 * Writes a JSON-RPC request to the given {@link OutputStream}.
 	 * If the value passed for argument is null then the {@code params}
@@ -265,6 +491,7 @@ public class JsonRpcClient {
 	
 	protected void handleErrorResponse(ObjectNode jsonObject) throws Throwable {
 		if (hasError(jsonObject)) {
+			recordError(jsonObject);
 			// resolve and throw the exception
 			if (exceptionResolver == null) {
 				throw DefaultExceptionResolver.INSTANCE.resolveException(jsonObject);
@@ -288,8 +515,7 @@ public class JsonRpcClient {
 	
 	private Object constructResponseObject(Type returnType, ObjectNode jsonObject) throws IOException {
 		JsonParser returnJsonParser = mapper.treeAsTokens(jsonObject.get(RESULT));
-		JavaType returnJavaType = mapper.getTypeFactory().constructType(returnType);
-		return mapper.readValue(returnJsonParser, returnJavaType);
+		return getResultReader(returnType).readValue(returnJsonParser);
 	}
 	
 	/**
@@ -302,9 +528,42 @@ public class JsonRpcClient {
 	 * @throws IOException on error
 	 */
 	private void internalWriteRequest(String methodName, Object arguments, OutputStream output, String id) throws IOException {
-		final ObjectNode request = internalCreateRequest(methodName, arguments, id);
+		final JsonRpcClientMetrics current = metrics;
+		if (current == null) {
+			final Object request = createWritableRequest(methodName, arguments, id);
+			logger.debug("Request {}", request);
+			writeAndFlushValue(output, request);
+			return;
+		}
+		final long start = System.nanoTime();
+		final CountingOutputStream counting = new CountingOutputStream(output);
+		final Object request = createWritableRequest(methodName, arguments, id);
 		logger.debug("Request {}", request);
-		writeAndFlushValue(output, request);
+		writeAndFlushValue(counting, request);
+		current.recordRequest(counting.getCount(), System.nanoTime() - start);
+	}
+	
+	/**
+	 * Creates a request that is only meant to be written.  Unless a
+	 * {@link RequestListener} has to see the request as a tree, the
+	 * request is streamed: its arguments are serialized straight to the
+	 * output instead of being converted to a tree first.
+	 *
+	 * @param methodName the method name
+	 * @param arguments  the arguments
+	 * @param id         the optional id
+	 * @return the request to serialize
+	 */
+	private Object createWritableRequest(String methodName, Object arguments, String id) {
+		if (requestListener != null || overridesRequestMembers(additionalJsonContent)) {
+			return internalCreateRequest(methodName, arguments, id);
+		}
+		return new StreamingRequest(methodName, arguments, id, getDeadlineTimeoutMillis());
+	}
+	
+	private static boolean overridesRequestMembers(Map<String, Object> additionalJsonContent) {
+		return additionalJsonContent.containsKey(ID) || additionalJsonContent.containsKey(JSONRPC)
+				|| additionalJsonContent.containsKey(METHOD) || additionalJsonContent.containsKey(PARAMS);
 	}
 	
 	private JsonNode readResponseNode(ReadContext context) throws IOException {
@@ -324,6 +583,14 @@ public class JsonRpcClient {
 		return !jsonObject.has(ID) || jsonObject.get(ID) == null || !jsonObject.get(ID).asText().equals(id);
 	}
 	
+	private void recordError(ObjectNode jsonObject) {
+		final JsonRpcClientMetrics current = metrics;
+		if (current != null) {
+			final JsonNode code = jsonObject.get(ERROR).get(ERROR_CODE);
+			current.recordError(code != null ? code.asInt() : 0);
+		}
+	}
+	
 	protected boolean hasError(ObjectNode jsonObject) {
 		return jsonObject.has(ERROR) && jsonObject.get(ERROR) != null && !jsonObject.get(ERROR).isNull();
 	}
@@ -342,6 +609,7 @@ public class JsonRpcClient {
 		addProtocolAndMethod(methodName, request);
 		addParameters(arguments, request);
 		addAdditionalHeaders(request);
+		addDeadline(request);
 		notifyBeforeRequestListener(request);
 		return request;
 	}
@@ -396,6 +664,13 @@ public class JsonRpcClient {
 		}
 	}
 	
+	private void addDeadline(ObjectNode request) {
+		final long timeout = getDeadlineTimeoutMillis();
+		if (timeout >= 0) {
+			request.put(JsonRpcDeadline.TIMEOUT, timeout);
+		}
+	}
+	
 	private void notifyBeforeRequestListener(ObjectNode request) {
 		if (this.requestListener != null) {
 			this.requestListener.onBeforeRequestSent(this, request);
@@ -548,6 +823,123 @@ public class JsonRpcClient {
 		return (T) readResponse((Type) clazz, input, id);
 	}
 	
+	/**
+	 * Writes all the calls of the given {@link JsonRpcBatch} as a single
+	 * JSON-RPC batch request and reads the batch response.  The responses
+	 * are correlated with the calls by {@code id}, so they may be returned
+	 * by the server in any order.  The future of every call is completed
+	 * either with its result or with the exception resolved from its error.
+	 *
+	 * @param batch  the batch to send
+	 * @param output the {@link OutputStream} to write to
+	 * @param input  the {@link InputStream} to read from
+	 * @throws IOException if the batch could not be written or its response could not be read
+	 */
+	public void invokeBatchAndReadResponse(JsonRpcBatch batch, OutputStream output, InputStream input) throws IOException {
+		batch.markSent();
+		if (batch.isEmpty()) {
+			return;
+		}
+		Map<String, JsonRpcBatch.Call<?>> calls = writeBatchRequest(batch.getCalls(), output);
+		readBatchResponse(calls, input);
+	}
+	
+	/**
+	 * Writes the given calls as a JSON-RPC batch request.
+	 *
+	 * @param calls  the calls
+	 * @param output the {@link OutputStream} to write to
+	 * @return the calls by the id they have been sent with
+	 * @throws IOException on error
+	 */
+	Map<String, JsonRpcBatch.Call<?>> writeBatchRequest(List<JsonRpcBatch.Call<?>> calls, OutputStream output) throws IOException {
+		final Map<String, JsonRpcBatch.Call<?>> callsById = new LinkedHashMap<>();
+		final List<Object> request = new ArrayList<>(calls.size());
+		for (JsonRpcBatch.Call<?> call : calls) {
+			String id = generateBatchId(callsById, callsById.size());
+			callsById.put(id, call);
+			request.add(createWritableRequest(call.methodName, call.argument, id));
+		}
+		logger.debug("Batch request {}", request);
+		writeAndFlushValue(output, request);
+		return callsById;
+	}
+	
+	private String generateBatchId(Map<String, JsonRpcBatch.Call<?>> callsById, int index) {
+		String id = requestIDGenerator.generateID();
+		// the ids are used for correlation, they have to be unique within the batch
+		if (id == null || callsById.containsKey(id)) {
+			id = id + "." + index;
+		}
+		return id;
+	}
+	
+	/**
+	 * Reads a JSON-RPC batch response and completes the future of every
+	 * call.  Calls without a matching response are failed.
+	 *
+	 * @param callsById the calls by the id they have been sent with
+	 * @param input     the {@link InputStream} to read from
+	 * @throws IOException if the response could not be read
+	 */
+	void readBatchResponse(Map<String, JsonRpcBatch.Call<?>> callsById, InputStream input) throws IOException {
+		ReadContext context = ReadContext.getReadContext(input, mapper);
+		JsonNode response = readResponseNode(context);
+		readBatchResponse(callsById, response);
+	}
+	
+	private void readBatchResponse(Map<String, JsonRpcBatch.Call<?>> callsById, JsonNode response) {
+		final Map<String, JsonRpcBatch.Call<?>> pending = new LinkedHashMap<>(callsById);
+		Throwable uncorrelatedError = null;
+		if (response.isObject()) {
+			// the server could not handle the batch as such, e.g. a parse error
+			uncorrelatedError = readBatchResponseElement(pending, response);
+		} else if (response.isArray()) {
+			for (JsonNode element : response) {
+				Throwable error = readBatchResponseElement(pending, element);
+				if (uncorrelatedError == null) {
+					uncorrelatedError = error;
+				}
+			}
+		} else {
+			throw new JsonRpcClientException(0, "Invalid JSON-RPC batch response", response);
+		}
+		for (Map.Entry<String, JsonRpcBatch.Call<?>> entry : pending.entrySet()) {
+			if (uncorrelatedError != null) {
+				entry.getValue().fail(uncorrelatedError);
+			} else {
+				entry.getValue().fail(new JsonRpcClientException(0, "No response for the batch call with id " + entry.getKey(), response));
+			}
+		}
+	}
+	
+	/**
+	 * Completes the call matching the given response element.
+	 *
+	 * @return the error of a response that can not be correlated with a call, or null
+	 */
+	private Throwable readBatchResponseElement(Map<String, JsonRpcBatch.Call<?>> pending, JsonNode element) {
+		final JsonNode idNode = element.get(ID);
+		final JsonRpcBatch.Call<?> call = idNode == null || idNode.isNull() ? null : pending.remove(idNode.asText());
+		if (call == null) {
+			if (element.isObject() && hasError((ObjectNode) element)) {
+				try {
+					handleErrorResponse((ObjectNode) element);
+				} catch (Throwable t) {
+					return t;
+				}
+			}
+			logger.debug("Disregarding uncorrelated batch response {}", element);
+			return null;
+		}
+		try {
+			call.complete(readResponse(call.returnType, element, null));
+		} catch (Throwable t) {
+			call.fail(t);
+		}
+		return null;
+	}
+	
 	protected ObjectNode createRequest(String methodName, Object argument) {
 		return internalCreateRequest(methodName, argument, this.requestIDGenerator.generateID());
 	}
@@ -577,6 +969,19 @@ public class JsonRpcClient {
 	
 	// Suppose than jsonObject is single and contains valid id :)
 	private Object readResponse(Type returnType, JsonNode jsonNode, String id) throws Throwable {
+		final JsonRpcClientMetrics current = metrics;
+		if (current == null) {
+			return readUnmeteredResponse(returnType, jsonNode, id);
+		}
+		final long start = System.nanoTime();
+		try {
+			return readUnmeteredResponse(returnType, jsonNode, id);
+		} finally {
+			current.recordResponse(-1, System.nanoTime() - start);
+		}
+	}
+	
+	private Object readUnmeteredResponse(Type returnType, JsonNode jsonNode, String id) throws Throwable {
 		raiseExceptionIfNotValidResponseObject(jsonNode);
 		final ObjectNode jsonObject = ObjectNode.class.cast(jsonNode);
 		notifyAnswerListener(jsonObject);
@@ -644,4 +1049,94 @@ public class JsonRpcClient {
 			return generateRandomId();
 		}
 	}
+	
+	/**
+	 * A request that is written member by member as it is serialized, in
+	 * the same order as {@link #internalCreateRequest(String, Object, String)}
+	 * builds it, without an intermediate tree.
+	 */
+	private class StreamingRequest implements JsonSerializable {
+		
+		private final String methodName;
+		private final Object arguments;
+		private final String id;
+		private final long timeout;
+		
+		StreamingRequest(String methodName, Object arguments, String id, long timeout) {
+			this.methodName = methodName;
+			this.arguments = arguments;
+			this.id = id;
+			this.timeout = timeout;
+		}
+		
+		@Override
+		public void serialize(JsonGenerator generator, SerializerProvider serializers) throws IOException {
+			generator.writeStartObject();
+			if (id != null) {
+				generator.writeFieldName(ENCODED_ID);
+				generator.writeString(id);
+			}
+			generator.writeFieldName(ENCODED_JSONRPC);
+			generator.writeString(ENCODED_VERSION);
+			generator.writeFieldName(ENCODED_METHOD);
+			generator.writeString(methodName);
+			writeParameters(generator, serializers);
+			for (Map.Entry<String, Object> entry : additionalJsonContent.entrySet()) {
+				if (timeout >= 0 && JsonRpcDeadline.TIMEOUT.equals(entry.getKey())) {
+					continue;
+				}
+				generator.writeFieldName(entry.getKey());
+				serializers.defaultSerializeValue(entry.getValue(), generator);
+			}
+			if (timeout >= 0) {
+				generator.writeNumberField(JsonRpcDeadline.TIMEOUT, timeout);
+			}
+			generator.writeEndObject();
+		}
+		
+		@Override
+		public void serializeWithType(JsonGenerator generator, SerializerProvider serializers, TypeSerializer typeSerializer) throws IOException {
+			serialize(generator, serializers);
+		}
+		
+		private void writeParameters(JsonGenerator generator, SerializerProvider serializers) throws IOException {
+			if (isArrayArguments(arguments)) {
+				Object[] args = Object[].class.cast(arguments);
+				if (args.length > 0) {
+					generator.writeFieldName(ENCODED_PARAMS);
+					generator.writeStartArray();
+					for (Object arg : args) {
+						// serialize every param for itself so jackson can determine right serializer
+						serializers.defaultSerializeValue(arg, generator);
+					}
+					generator.writeEndArray();
+				}
+			} else if (isCollectionArguments(arguments)) {
+				Collection<?> args = Collection.class.cast(arguments);
+				if (!args.isEmpty()) {
+					generator.writeFieldName(ENCODED_PARAMS);
+					generator.writeStartArray();
+					for (Object arg : args) {
+						serializers.defaultSerializeValue(arg, generator);
+					}
+					generator.writeEndArray();
+				}
+			} else if (isMapArguments(arguments)) {
+				if (!Map.class.cast(arguments).isEmpty()) {
+					serializers.defaultSerializeField(PARAMS, arguments, generator);
+				}
+			} else if (arguments != null) {
+				serializers.defaultSerializeField(PARAMS, arguments, generator);
+			}
+		}
+		
+		@Override
+		public String toString() {
+			try {
+				return mapper.writeValueAsString(this);
+			} catch (JsonProcessingException e) {
+				return "{\"" + METHOD + "\":\"" + methodName + "\"}";
+			}
+		}
+	}
 }
@@ -25,6 +25,20 @@ public class JsonRpcClientException extends RuntimeException {
 		this.data = data;
 	}
 	
+	/**
+	 * Creates the exception, possibly without a stack trace.
+	 *
+	 * @param code               the code from the server
+	 * @param message            the message from the server
+	 * @param data               the data from the server
+	 * @param writableStackTrace whether the stack trace is filled in
+	 */
+	public JsonRpcClientException(int code, String message, JsonNode data, boolean writableStackTrace) {
+		super(message, null, true, writableStackTrace);
+		this.code = code;
+		this.data = data;
+	}
+	
 	/**
 	 * @return the code
 	 */
@@ -0,0 +1,411 @@
+package com.googlecode.jsonrpc4j;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.beans.ConstructorProperties;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Metrics of the calls made by JSON-RPC clients: the round trip latency of
+ * each method, the bytes sent and received, the time spent serializing the
+ * requests, deserializing the responses and acquiring connections, and the
+ * JSON-RPC errors by code.
+ * <pre>
+ * JsonRpcClientMetrics metrics = new JsonRpcClientMetrics();
+ * metrics.register("orders");
+ * client.setMetrics(metrics);
+ * ...
+ * long p99 = metrics.getLatency("getOrder").getPercentile(99);
+ * </pre>
+ * The metrics are read through the getters, or through JMX once
+ * {@link #register(String) registered}.  The same instance may be shared
+ * by several clients, e.g. all the endpoints of a service.  Clients without
+ * metrics pay nothing.
+ * <p>
+ * The {@link JsonRpcHttpClient}, {@link JsonRpcHttpAsyncClient},
+ * {@code JsonRpcRestClient}, the stream clients and
+ * {@link JsonRpcClient#invokeAndReadResponse(String, Object, java.lang.reflect.Type, java.io.OutputStream, java.io.InputStream)}
+ * record their calls.  The deserialization time is measured from the first
+ * byte of the response, so that it does not include the time the server
+ * takes to answer.
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+public class JsonRpcClientMetrics implements JsonRpcClientMetricsMXBean {
+
+	private final ConcurrentMap<String, MethodMetrics> methods = new ConcurrentHashMap<>();
+	private final ConcurrentMap<Integer, AtomicLong> errorCounts = new ConcurrentHashMap<>();
+	private final LatencyHistogram serialization = new LatencyHistogram();
+	private final LatencyHistogram deserialization = new LatencyHistogram();
+	private final LatencyHistogram connectionAcquire = new LatencyHistogram();
+	private final AtomicLong bytesSent = new AtomicLong();
+	private final AtomicLong bytesReceived = new AtomicLong();
+	private volatile ObjectName objectName = null;
+
+	/**
+	 * Records a call.
+	 *
+	 * @param methodName the JSON-RPC method
+	 * @param nanos      the round trip time
+	 * @param failed     whether the call failed
+	 */
+	public void recordCall(String methodName, long nanos, boolean failed) {
+		MethodMetrics method = methods.get(methodName);
+		if (method == null) {
+			method = new MethodMetrics();
+			final MethodMetrics existing = methods.putIfAbsent(methodName, method);
+			if (existing != null) {
+				method = existing;
+			}
+		}
+		method.latency.record(nanos);
+		if (failed) {
+			method.failures.incrementAndGet();
+		}
+	}
+
+	/**
+	 * Records a request sent.
+	 *
+	 * @param bytes the size of the request, or -1 if unknown
+	 * @param nanos the time spent serializing it
+	 */
+	public void recordRequest(long bytes, long nanos) {
+		if (bytes > 0) {
+			bytesSent.addAndGet(bytes);
+		}
+		serialization.record(nanos);
+	}
+
+	/**
+	 * Records a response received.
+	 *
+	 * @param bytes the size of the response, or -1 if unknown
+	 * @param nanos the time spent deserializing it
+	 */
+	public void recordResponse(long bytes, long nanos) {
+		if (bytes > 0) {
+			bytesReceived.addAndGet(bytes);
+		}
+		deserialization.record(nanos);
+	}
+
+	/**
+	 * Records the bytes of a response whose deserialization is recorded separately.
+	 *
+	 * @param bytes the size of the response
+	 */
+	public void recordBytesReceived(long bytes) {
+		if (bytes > 0) {
+			bytesReceived.addAndGet(bytes);
+		}
+	}
+
+	/**
+	 * Records the bytes of a request whose serialization is recorded separately.
+	 *
+	 * @param bytes the size of the request
+	 */
+	public void recordBytesSent(long bytes) {
+		if (bytes > 0) {
+			bytesSent.addAndGet(bytes);
+		}
+	}
+
+	/**
+	 * Records a JSON-RPC error response.
+	 *
+	 * @param code the error code
+	 */
+	public void recordError(int code) {
+		AtomicLong count = errorCounts.get(code);
+		if (count == null) {
+			count = new AtomicLong();
+			final AtomicLong existing = errorCounts.putIfAbsent(code, count);
+			if (existing != null) {
+				count = existing;
+			}
+		}
+		count.incrementAndGet();
+	}
+
+	/**
+	 * Records the time spent waiting for a connection, or for the permit to
+	 * use one, before sending a request.
+	 *
+	 * @param nanos the time
+	 */
+	public void recordConnectionAcquire(long nanos) {
+		connectionAcquire.record(nanos);
+	}
+
+	/**
+	 * @return the names of the methods called
+	 */
+	public Set<String> getMethodNames() {
+		return Collections.unmodifiableSet(methods.keySet());
+	}
+
+	/**
+	 * @param methodName the JSON-RPC method
+	 * @return the round trip latencies of the method, or null if it was not called
+	 */
+	public LatencyHistogram getLatency(String methodName) {
+		final MethodMetrics method = methods.get(methodName);
+		return method == null ? null : method.latency;
+	}
+
+	/**
+	 * @param methodName the JSON-RPC method
+	 * @return the number of failed calls of the method
+	 */
+	public long getFailureCount(String methodName) {
+		final MethodMetrics method = methods.get(methodName);
+		return method == null ? 0 : method.failures.get();
+	}
+
+	/**
+	 * @return the time spent serializing the requests
+	 */
+	public LatencyHistogram getSerialization() {
+		return serialization;
+	}
+
+	/**
+	 * @return the time spent deserializing the responses
+	 */
+	public LatencyHistogram getDeserialization() {
+		return deserialization;
+	}
+
+	/**
+	 * @return the time spent acquiring connections
+	 */
+	public LatencyHistogram getConnectionAcquire() {
+		return connectionAcquire;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getCallCount() {
+		long count = 0;
+		for (MethodMetrics method : methods.values()) {
+			count += method.latency.getCount();
+		}
+		return count;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getFailureCount() {
+		long count = 0;
+		for (MethodMetrics method : methods.values()) {
+			count += method.failures.get();
+		}
+		return count;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getBytesSent() {
+		return bytesSent.get();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getBytesReceived() {
+		return bytesReceived.get();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public double getMeanSerializationMicros() {
+		return serialization.getMean() / 1000;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public double getMeanDeserializationMicros() {
+		return deserialization.getMean() / 1000;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public double getMeanConnectionAcquireMicros() {
+		return connectionAcquire.getMean() / 1000;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Map<Integer, Long> getErrorCounts() {
+		final Map<Integer, Long> counts = new TreeMap<>();
+		for (Map.Entry<Integer, AtomicLong> entry : errorCounts.entrySet()) {
+			counts.put(entry.getKey(), entry.getValue().get());
+		}
+		return counts;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public List<MethodStatistics> getMethodStatistics() {
+		final List<MethodStatistics> statistics = new ArrayList<>(methods.size());
+		for (Map.Entry<String, MethodMetrics> entry : new TreeMap<>(methods).entrySet()) {
+			final LatencyHistogram latency = entry.getValue().latency;
+			statistics.add(new MethodStatistics(entry.getKey(), latency.getCount(), entry.getValue().failures.get(),
+					latency.getMean() / 1e6, toMillis(latency.getPercentile(50)), toMillis(latency.getPercentile(95)),
+					toMillis(latency.getPercentile(99)), toMillis(latency.getMax())));
+		}
+		return statistics;
+	}
+
+	private static double toMillis(long nanos) {
+		return (double) nanos / TimeUnit.MILLISECONDS.toNanos(1);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void reset() {
+		methods.clear();
+		errorCounts.clear();
+		serialization.reset();
+		deserialization.reset();
+		connectionAcquire.reset();
+		bytesSent.set(0);
+		bytesReceived.set(0);
+	}
+
+	/**
+	 * Registers the metrics with the platform MBean server as
+	 * {@code com.googlecode.jsonrpc4j:type=ClientMetrics,name="<name>"}.
+	 *
+	 * @param name the name of the client, e.g. the name of its service
+	 * @return the name of the MBean
+	 * @throws IllegalStateException if the metrics could not be registered
+	 */
+	public synchronized ObjectName register(String name) {
+		unregister();
+		try {
+			final ObjectName named = new ObjectName("com.googlecode.jsonrpc4j:type=ClientMetrics,name=" + ObjectName.quote(name));
+			ManagementFactory.getPlatformMBeanServer().registerMBean(this, named);
+			objectName = named;
+			return named;
+		} catch (JMException e) {
+			throw new IllegalStateException("Could not register the metrics " + name, e);
+		}
+	}
+
+	/**
+	 * Unregisters the metrics from the platform MBean server, if registered.
+	 */
+	public synchronized void unregister() {
+		final ObjectName registered = objectName;
+		if (registered == null) {
+			return;
+		}
+		objectName = null;
+		final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		try {
+			if (server.isRegistered(registered)) {
+				server.unregisterMBean(registered);
+			}
+		} catch (JMException e) {
+			throw new IllegalStateException("Could not unregister the metrics " + registered, e);
+		}
+	}
+
+	private static class MethodMetrics {
+
+		final LatencyHistogram latency = new LatencyHistogram();
+		final AtomicLong failures = new AtomicLong();
+	}
+
+	/**
+	 * The statistics of a method, as exposed through JMX.
+	 */
+	public static class MethodStatistics {
+
+		private final String methodName;
+		private final long callCount;
+		private final long failureCount;
+		private final double meanMillis;
+		private final double p50Millis;
+		private final double p95Millis;
+		private final double p99Millis;
+		private final double maxMillis;
+
+		@ConstructorProperties({"methodName", "callCount", "failureCount", "meanMillis", "p50Millis", "p95Millis", "p99Millis", "maxMillis"})
+		public MethodStatistics(String methodName, long callCount, long failureCount, double meanMillis,
+				double p50Millis, double p95Millis, double p99Millis, double maxMillis) {
+			this.methodName = methodName;
+			this.callCount = callCount;
+			this.failureCount = failureCount;
+			this.meanMillis = meanMillis;
+			this.p50Millis = p50Millis;
+			this.p95Millis = p95Millis;
+			this.p99Millis = p99Millis;
+			this.maxMillis = maxMillis;
+		}
+
+		public String getMethodName() {
+			return methodName;
+		}
+
+		public long getCallCount() {
+			return callCount;
+		}
+
+		public long getFailureCount() {
+			return failureCount;
+		}
+
+		public double getMeanMillis() {
+			return meanMillis;
+		}
+
+		public double getP50Millis() {
+			return p50Millis;
+		}
+
+		public double getP95Millis() {
+			return p95Millis;
+		}
+
+		public double getP99Millis() {
+			return p99Millis;
+		}
+
+		public double getMaxMillis() {
+			return maxMillis;
+		}
+	}
+}
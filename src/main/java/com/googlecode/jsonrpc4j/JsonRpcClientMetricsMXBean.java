@@ -0,0 +1,61 @@
+package com.googlecode.jsonrpc4j;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The JMX view of {@link JsonRpcClientMetrics}, see
+ * {@link JsonRpcClientMetrics#register(String)}.
+ */
+public interface JsonRpcClientMetricsMXBean {
+
+	/**
+	 * @return the number of calls made
+	 */
+	long getCallCount();
+
+	/**
+	 * @return the number of calls that failed, with a JSON-RPC error or any other error
+	 */
+	long getFailureCount();
+
+	/**
+	 * @return the number of bytes of the requests
+	 */
+	long getBytesSent();
+
+	/**
+	 * @return the number of bytes of the responses
+	 */
+	long getBytesReceived();
+
+	/**
+	 * @return the mean time spent serializing a request, in microseconds
+	 */
+	double getMeanSerializationMicros();
+
+	/**
+	 * @return the mean time spent deserializing a response, in microseconds
+	 */
+	double getMeanDeserializationMicros();
+
+	/**
+	 * @return the mean time spent acquiring a connection, in microseconds
+	 */
+	double getMeanConnectionAcquireMicros();
+
+	/**
+	 * @return the number of JSON-RPC errors received by error code
+	 */
+	Map<Integer, Long> getErrorCounts();
+
+	/**
+	 * @return the statistics of the methods called
+	 */
+	List<JsonRpcClientMetrics.MethodStatistics> getMethodStatistics();
+
+	/**
+	 * Clears all the metrics.
+	 */
+	void reset();
+}
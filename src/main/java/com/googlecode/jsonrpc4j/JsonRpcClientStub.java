@@ -0,0 +1,168 @@
+package com.googlecode.jsonrpc4j;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Calls the methods of a {@link JsonRpcService} interface through an
+ * {@link IJsonRpcClient} without a {@link java.lang.reflect.Proxy}.
+ * Subclasses are generated at compile time by the jsonrpc4j annotation
+ * processor, as {@code <Interface>_JsonRpcClientStub} in the package of
+ * the interface, the names of nested interfaces being joined with
+ * underscores.  The generated classes implement the interface, every
+ * method passing its arguments straight to {@link #call(int, Object[])}
+ * with the index of its {@link JsonRpcCallPlan}, resolved when the stub
+ * is created.
+ * <p>
+ * {@link ProxyUtil#createClientProxy(ClassLoader, Class, IJsonRpcClient)}
+ * and the Spring {@code JsonProxyFactoryBean} return the stub of the
+ * interface when one has been generated, a proxy otherwise.
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+public abstract class JsonRpcClientStub {
+
+	/**
+	 * The suffix of the names of the generated stubs.
+	 */
+	public static final String SUFFIX = "_JsonRpcClientStub";
+
+	private static final Map<Class<?>, Class<?>> stubClasses = new ConcurrentHashMap<>();
+
+	private final Class<?> serviceInterface;
+	private final IJsonRpcClient client;
+	private final Map<String, String> extraHeaders;
+	private final JsonRpcCallPlan[] plans;
+
+	/**
+	 * Creates the stub.
+	 *
+	 * @param serviceInterface the interface
+	 * @param client           the client sending the calls
+	 * @param extraHeaders     the extra headers sent with every call
+	 * @param methods          the methods of the interface, by index
+	 */
+	protected JsonRpcClientStub(Class<?> serviceInterface, IJsonRpcClient client, Map<String, String> extraHeaders, Method[] methods) {
+		this.serviceInterface = serviceInterface;
+		this.client = client;
+		this.extraHeaders = extraHeaders != null ? extraHeaders : new HashMap<String, String>();
+		this.plans = new JsonRpcCallPlan[methods.length];
+		for (int i = 0; i < methods.length; i++) {
+			plans[i] = JsonRpcCallPlan.forMethod(methods[i]);
+		}
+	}
+
+	/**
+	 * Creates the generated stub of the given interface.
+	 *
+	 * @param <T>              the interface type
+	 * @param serviceInterface the interface
+	 * @param client           the client sending the calls
+	 * @param extraHeaders     the extra headers sent with every call
+	 * @return the stub, or null if none has been generated
+	 */
+	public static <T> T create(Class<T> serviceInterface, IJsonRpcClient client, Map<String, String> extraHeaders) {
+		final Class<?> stubClass = findStubClass(serviceInterface);
+		if (stubClass == null) {
+			return null;
+		}
+		try {
+			final Constructor<?> constructor = stubClass.getConstructor(IJsonRpcClient.class, Map.class);
+			return serviceInterface.cast(constructor.newInstance(client, extraHeaders));
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalStateException("Could not create the client stub " + stubClass.getName(), e);
+		}
+	}
+
+	/**
+	 * @param serviceInterface the interface
+	 * @return whether a stub has been generated for the interface
+	 */
+	public static boolean isGenerated(Class<?> serviceInterface) {
+		return findStubClass(serviceInterface) != null;
+	}
+
+	private static Class<?> findStubClass(Class<?> serviceInterface) {
+		Class<?> stubClass = stubClasses.get(serviceInterface);
+		if (stubClass == null) {
+			stubClass = loadStubClass(serviceInterface);
+			stubClasses.put(serviceInterface, stubClass);
+		}
+		// the class itself stands for the absence of a stub
+		return stubClass == JsonRpcClientStub.class ? null : stubClass;
+	}
+
+	private static Class<?> loadStubClass(Class<?> serviceInterface) {
+		if (!serviceInterface.isInterface() || !serviceInterface.isAnnotationPresent(JsonRpcService.class)) {
+			return JsonRpcClientStub.class;
+		}
+		final String name = serviceInterface.getName().replace('$', '_') + SUFFIX;
+		try {
+			final Class<?> stubClass = Class.forName(name, true, serviceInterface.getClassLoader());
+			return JsonRpcClientStub.class.isAssignableFrom(stubClass) && serviceInterface.isAssignableFrom(stubClass)
+					? stubClass : JsonRpcClientStub.class;
+		} catch (ClassNotFoundException e) {
+			return JsonRpcClientStub.class;
+		}
+	}
+
+	/**
+	 * Resolves a method of the interface, for the constructors of the generated stubs.
+	 *
+	 * @param serviceInterface the interface
+	 * @param name             the name of the method
+	 * @param parameterTypes   the erasures of its parameter types
+	 * @return the method
+	 */
+	protected static Method method(Class<?> serviceInterface, String name, Class<?>... parameterTypes) {
+		try {
+			return serviceInterface.getMethod(name, parameterTypes);
+		} catch (NoSuchMethodException e) {
+			throw new IllegalStateException("The client stub of " + serviceInterface.getName()
+					+ " does not match the interface, it has to be generated again", e);
+		}
+	}
+
+	/**
+	 * @return the interface the stub implements
+	 */
+	public Class<?> getServiceInterface() {
+		return serviceInterface;
+	}
+
+	/**
+	 * @return the client sending the calls
+	 */
+	public IJsonRpcClient getClient() {
+		return client;
+	}
+
+	/**
+	 * Calls a method of the interface, the same way the proxies of
+	 * {@link ProxyUtil} do.
+	 *
+	 * @param index     the index of the method
+	 * @param arguments the arguments
+	 * @return the result
+	 * @throws Throwable the exception resolved from the response, or an error of the client
+	 */
+	protected Object call(int index, Object[] arguments) throws Throwable {
+		final JsonRpcCallPlan plan = plans[index];
+		if (!plan.hasRoutingKey()) {
+			return client.invoke(plan.getName(), plan.parseArguments(arguments), plan.getReturnType(), extraHeaders);
+		}
+		final Object previousKey = JsonRpcRoutingContext.setRoutingKey(plan.getRoutingKey(arguments));
+		try {
+			return client.invoke(plan.getName(), plan.parseArguments(arguments), plan.getReturnType(), extraHeaders);
+		} finally {
+			JsonRpcRoutingContext.setRoutingKey(previousKey);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getName() + "@" + System.identityHashCode(this);
+	}
+}
@@ -0,0 +1,110 @@
+package com.googlecode.jsonrpc4j;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds the deadline of the request being handled by the current thread.
+ * A server with {@link JsonRpcBasicServer#setAcceptRequestDeadlines(boolean)}
+ * sets it from the {@link #TIMEOUT} member of the request or the
+ * {@link #TIMEOUT_HEADER} HTTP header, both giving the number of
+ * milliseconds the client waits for the response.  The server narrows it
+ * with the {@link JsonRpcTimeout} of the method.  Handlers read the time left
+ * with {@link #getRemainingMillis()}, or give up with {@link #checkDeadline()}.
+ * <p>
+ * Clients with {@link JsonRpcClient#setPropagateDeadline(boolean)} send the
+ * time left to the server they call, so that a deadline set on a thread
+ * follows the calls made to handle a request.
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+public final class JsonRpcDeadline {
+
+	/**
+	 * The member of the request holding the timeout, in milliseconds.
+	 */
+	public static final String TIMEOUT = "timeout";
+
+	/**
+	 * The HTTP header holding the timeout, in milliseconds.
+	 */
+	public static final String TIMEOUT_HEADER = "X-JsonRpc-Timeout";
+
+	private static final ThreadLocal<Long> deadline = new ThreadLocal<>();
+
+	private JsonRpcDeadline() {
+	}
+
+	/**
+	 * @return whether the current thread has a deadline
+	 */
+	public static boolean hasDeadline() {
+		return deadline.get() != null;
+	}
+
+	/**
+	 * @return the milliseconds left before the deadline of the current thread,
+	 * not positive once it has passed, {@link Long#MAX_VALUE} without deadline
+	 */
+	public static long getRemainingMillis() {
+		final Long current = deadline.get();
+		if (current == null) {
+			return Long.MAX_VALUE;
+		}
+		return TimeUnit.NANOSECONDS.toMillis(current - System.nanoTime());
+	}
+
+	/**
+	 * @return whether the deadline of the current thread has passed
+	 */
+	public static boolean isExpired() {
+		final Long current = deadline.get();
+		return current != null && current - System.nanoTime() <= 0;
+	}
+
+	/**
+	 * Gives up on the request once its deadline has passed.
+	 *
+	 * @throws DeadlineExceededException if the deadline of the current thread has passed
+	 */
+	public static void checkDeadline() {
+		if (isExpired()) {
+			throw new DeadlineExceededException();
+		}
+	}
+
+	/**
+	 * Sets the deadline of the current thread to the given time from now,
+	 * unless it already has an earlier one.
+	 *
+	 * @param timeoutMillis the timeout, in milliseconds
+	 * @return the previous deadline, to be {@link #restore(Long) restored} once done
+	 */
+	public static Long setTimeout(long timeoutMillis) {
+		final Long previous = deadline.get();
+		final long timeoutNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, timeoutMillis));
+		final long narrowed = System.nanoTime() + timeoutNanos;
+		if (previous == null || narrowed - previous < 0) {
+			deadline.set(narrowed);
+		}
+		return previous;
+	}
+
+	/**
+	 * Restores the deadline of the current thread.
+	 *
+	 * @param previous the deadline returned by {@link #setTimeout(long)}
+	 */
+	public static void restore(Long previous) {
+		if (previous == null) {
+			deadline.remove();
+		} else {
+			deadline.set(previous);
+		}
+	}
+
+	/**
+	 * @return the deadline of the current thread in {@link System#nanoTime()} terms, or null
+	 */
+	static Long get() {
+		return deadline.get();
+	}
+}
@@ -0,0 +1,228 @@
+package com.googlecode.jsonrpc4j;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Invokes the methods of a {@link JsonRpcService} interface without
+ * reflection.  Subclasses are generated at compile time by the jsonrpc4j
+ * annotation processor, as {@code <Interface>_JsonRpcDispatcher} in the
+ * package of the interface, the names of nested interfaces being joined
+ * with underscores.  The generated code finds the candidate methods of a
+ * call with a switch on the method name and calls the handler directly,
+ * the arguments being read by readers built once per parameter.
+ * <p>
+ * {@link JsonRpcBasicServer} uses the dispatcher of its interface when one
+ * has been generated, the reflective lookup and invocation otherwise.  The
+ * {@link Method}s are still resolved, once, for the interceptors, listeners
+ * and error resolvers.
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+public abstract class JsonRpcDispatcher {
+
+	/**
+	 * The suffix of the names of the generated dispatchers.
+	 */
+	public static final String SUFFIX = "_JsonRpcDispatcher";
+
+	private static final Map<Class<?>, Class<?>> dispatcherClasses = new ConcurrentHashMap<>();
+
+	private final Class<?> serviceInterface;
+	private final Method[] methods;
+	private final ObjectReader[][] readers;
+	private final Map<Method, Integer> indexes = new HashMap<>();
+	private final Set<Method>[] candidates;
+
+	/**
+	 * Creates the dispatcher.
+	 *
+	 * @param serviceInterface the interface
+	 * @param mapper           the {@link ObjectMapper} reading the arguments
+	 * @param methods          the methods of the interface, by index
+	 * @param candidates       the indexes of the methods each JSON-RPC method name may resolve to
+	 */
+	@SuppressWarnings("unchecked")
+	protected JsonRpcDispatcher(Class<?> serviceInterface, ObjectMapper mapper, Method[] methods, int[][] candidates) {
+		this.serviceInterface = serviceInterface;
+		this.methods = methods;
+		this.readers = new ObjectReader[methods.length][];
+		for (int i = 0; i < methods.length; i++) {
+			indexes.put(methods[i], i);
+			final Type[] parameterTypes = methods[i].getGenericParameterTypes();
+			readers[i] = new ObjectReader[parameterTypes.length];
+			for (int j = 0; j < parameterTypes.length; j++) {
+				readers[i][j] = mapper.readerFor(mapper.getTypeFactory().constructType(parameterTypes[j]))
+						.with(DeserializationFeature.ACCEPT_SINGLE_VALUE_AS_ARRAY);
+			}
+		}
+		this.candidates = new Set[candidates.length];
+		for (int i = 0; i < candidates.length; i++) {
+			final Set<Method> set = new HashSet<>();
+			for (int index : candidates[i]) {
+				set.add(methods[index]);
+			}
+			this.candidates[i] = Collections.unmodifiableSet(set);
+		}
+	}
+
+	/**
+	 * Creates the generated dispatcher of the given interface.
+	 *
+	 * @param serviceInterface the interface
+	 * @param mapper           the {@link ObjectMapper} reading the arguments
+	 * @return the dispatcher, or null if none has been generated
+	 */
+	public static JsonRpcDispatcher create(Class<?> serviceInterface, ObjectMapper mapper) {
+		final Class<?> dispatcherClass = findDispatcherClass(serviceInterface);
+		if (dispatcherClass == null) {
+			return null;
+		}
+		try {
+			final Constructor<?> constructor = dispatcherClass.getConstructor(ObjectMapper.class);
+			return (JsonRpcDispatcher) constructor.newInstance(mapper);
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalStateException("Could not create the dispatcher " + dispatcherClass.getName(), e);
+		}
+	}
+
+	/**
+	 * @param serviceInterface the interface
+	 * @return whether a dispatcher has been generated for the interface
+	 */
+	public static boolean isGenerated(Class<?> serviceInterface) {
+		return findDispatcherClass(serviceInterface) != null;
+	}
+
+	private static Class<?> findDispatcherClass(Class<?> serviceInterface) {
+		Class<?> dispatcherClass = dispatcherClasses.get(serviceInterface);
+		if (dispatcherClass == null) {
+			dispatcherClass = loadDispatcherClass(serviceInterface);
+			dispatcherClasses.put(serviceInterface, dispatcherClass);
+		}
+		// the class itself stands for the absence of a dispatcher
+		return dispatcherClass == JsonRpcDispatcher.class ? null : dispatcherClass;
+	}
+
+	private static Class<?> loadDispatcherClass(Class<?> serviceInterface) {
+		if (!serviceInterface.isInterface() || !serviceInterface.isAnnotationPresent(JsonRpcService.class)) {
+			return JsonRpcDispatcher.class;
+		}
+		final String name = serviceInterface.getName().replace('$', '_') + SUFFIX;
+		try {
+			final Class<?> dispatcherClass = Class.forName(name, true, serviceInterface.getClassLoader());
+			return JsonRpcDispatcher.class.isAssignableFrom(dispatcherClass) ? dispatcherClass : JsonRpcDispatcher.class;
+		} catch (ClassNotFoundException e) {
+			return JsonRpcDispatcher.class;
+		}
+	}
+
+	/**
+	 * Resolves a method of the interface, for the constructors of the generated dispatchers.
+	 *
+	 * @param serviceInterface the interface
+	 * @param name             the name of the method
+	 * @param parameterTypes   the erasures of its parameter types
+	 * @return the method
+	 */
+	protected static Method method(Class<?> serviceInterface, String name, Class<?>... parameterTypes) {
+		try {
+			return serviceInterface.getMethod(name, parameterTypes);
+		} catch (NoSuchMethodException e) {
+			throw new IllegalStateException("The dispatcher of " + serviceInterface.getName()
+					+ " does not match the interface, it has to be generated again", e);
+		}
+	}
+
+	/**
+	 * @return the interface the dispatcher calls
+	 */
+	public Class<?> getServiceInterface() {
+		return serviceInterface;
+	}
+
+	/**
+	 * Finds the methods a JSON-RPC method name may resolve to, the same
+	 * way as {@link ReflectionUtil} does.
+	 *
+	 * @param name the JSON-RPC method name
+	 * @return the methods, empty if none
+	 */
+	public abstract Set<Method> findMethods(String name);
+
+	/**
+	 * @param index the index of a group of candidates
+	 * @return the methods of the group
+	 */
+	protected Set<Method> candidates(int index) {
+		return candidates[index];
+	}
+
+	/**
+	 * @param method a method of the interface
+	 * @return whether the dispatcher can invoke the method
+	 */
+	public boolean canInvoke(Method method) {
+		return indexes.containsKey(method);
+	}
+
+	/**
+	 * Reads the arguments of a call.
+	 *
+	 * @param method the method called
+	 * @param params the arguments, one per parameter of the method
+	 * @return the arguments
+	 * @throws IOException if an argument could not be read
+	 */
+	public Object[] readArguments(Method method, List<JsonNode> params) throws IOException {
+		final ObjectReader[] methodReaders = readers[indexes.get(method)];
+		final Object[] arguments = new Object[params.size()];
+		for (int i = 0; i < methodReaders.length; i++) {
+			arguments[i] = methodReaders[i].readValue(params.get(i));
+		}
+		return arguments;
+	}
+
+	/**
+	 * Calls a method of the handler.
+	 *
+	 * @param handler   the handler, implementing the interface
+	 * @param method    the method
+	 * @param arguments the arguments
+	 * @return the value returned by the method, null if it is void
+	 * @throws Throwable the exception thrown by the method
+	 */
+	public Object invoke(Object handler, Method method, Object[] arguments) throws Throwable {
+		return invoke(handler, indexes.get(method), arguments);
+	}
+
+	/**
+	 * Calls a method of the handler, generated as a switch on the index of the method.
+	 *
+	 * @param handler   the handler, implementing the interface
+	 * @param index     the index of the method
+	 * @param arguments the arguments
+	 * @return the value returned by the method, null if it is void
+	 * @throws Throwable the exception thrown by the method
+	 */
+	protected abstract Object invoke(Object handler, int index, Object[] arguments) throws Throwable;
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + Arrays.toString(methods);
+	}
+}
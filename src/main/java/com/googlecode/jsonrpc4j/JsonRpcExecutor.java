@@ -0,0 +1,22 @@
+package com.googlecode.jsonrpc4j;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Annotation for running service methods on a named executor of the
+ * server, see {@link JsonRpcBasicServer#setExecutors(java.util.Map)}.
+ * On an interface it applies to all of its methods, unless they are
+ * annotated themselves.
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface JsonRpcExecutor {
+
+	/**
+	 * @return the name of the executor.
+	 */
+	String value();
+}
@@ -0,0 +1,246 @@
+package com.googlecode.jsonrpc4j;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A {@link Future} that is completed through the {@link JsonRpcCallback}
+ * interface once the response of a JSON-RPC call is available.  Instead
+ * of blocking in {@link #get()}, callers can {@link #addCallback(JsonRpcCallback)
+ * register callbacks} that are notified on completion, e.g. to chain or
+ * aggregate several calls without holding a thread per outstanding call.
+ * <p>
+ * Cancelling the future aborts the request if the client that created the
+ * future supports it, e.g. the {@link JsonRpcHttpAsyncClient}.
+ *
+ * @param <T> the return type of the JSON-RPC call
+ */
+public class JsonRpcFuture<T> implements Future<T>, JsonRpcCallback<T> {
+
+	private static final Logger logger = LoggerFactory.getLogger(JsonRpcFuture.class);
+
+	private final Lock lock = new ReentrantLock();
+	private final Condition condition = lock.newCondition();
+	private final List<JsonRpcCallback<? super T>> callbacks = new ArrayList<>();
+
+	private T object;
+	private volatile boolean done;
+	private volatile boolean cancelled;
+	private ExecutionException exception;
+	private Runnable cancelAction;
+
+	/**
+	 * Completes the future as cancelled, unless it is already done, and
+	 * aborts the request when the client has set a cancel action.
+	 *
+	 * @param mayInterruptIfRunning ignored, requests are aborted whenever the client supports it
+	 * @return whether the future has been cancelled
+	 */
+	@Override
+	public boolean cancel(boolean mayInterruptIfRunning) {
+		final Runnable action;
+		lock.lock();
+		try {
+			if (done) {
+				return false;
+			}
+			cancelled = true;
+			done = true;
+			action = cancelAction;
+			cancelAction = null;
+			condition.signalAll();
+		} finally {
+			lock.unlock();
+		}
+		runCancelAction(action);
+		notifyCallbacks();
+		return true;
+	}
+
+	@Override
+	public boolean isCancelled() {
+		return cancelled;
+	}
+
+	/**
+	 * Sets the action aborting the request once the future is cancelled.
+	 * It runs immediately if the future has already been cancelled.
+	 *
+	 * @param action the action
+	 */
+	void setCancelAction(Runnable action) {
+		lock.lock();
+		try {
+			if (!done) {
+				cancelAction = action;
+				return;
+			}
+		} finally {
+			lock.unlock();
+		}
+		if (cancelled) {
+			runCancelAction(action);
+		}
+	}
+
+	private void runCancelAction(Runnable action) {
+		if (action == null) {
+			return;
+		}
+		try {
+			action.run();
+		} catch (RuntimeException e) {
+			logger.warn("Cancelling the request failed", e);
+		}
+	}
+
+	@Override
+	public boolean isDone() {
+		return done;
+	}
+
+	@Override
+	public T get() throws InterruptedException, ExecutionException {
+		lock.lock();
+		try {
+			while (!done) {
+				condition.await();
+			}
+			if (cancelled) {
+				throw new CancellationException();
+			}
+			if (exception != null) {
+				throw exception;
+			}
+			return object;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public T get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+		if (timeout <= 0) {
+			throw new TimeoutException();
+		}
+		long nanos = unit.toNanos(timeout);
+		lock.lock();
+		try {
+			while (!done) {
+				if (nanos <= 0) {
+					throw new TimeoutException();
+				}
+				nanos = condition.awaitNanos(nanos);
+			}
+			if (cancelled) {
+				throw new CancellationException();
+			}
+			if (exception != null) {
+				throw exception;
+			}
+			return object;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Registers a callback that is notified once this future is completed.
+	 * If the future is already done, the callback is notified immediately
+	 * by the calling thread, otherwise by the thread completing the future.
+	 * Callbacks should therefore not block.
+	 *
+	 * @param callback the callback
+	 * @return this future
+	 */
+	public JsonRpcFuture<T> addCallback(JsonRpcCallback<? super T> callback) {
+		lock.lock();
+		try {
+			if (!done) {
+				callbacks.add(callback);
+				return this;
+			}
+		} finally {
+			lock.unlock();
+		}
+		notify(callback);
+		return this;
+	}
+
+	/**
+	 * Completes the future with the given result, unless it is already done.
+	 *
+	 * @param result the result object of the call (possibly null)
+	 */
+	@Override
+	public void onComplete(T result) {
+		lock.lock();
+		try {
+			if (done) {
+				return;
+			}
+			object = result;
+			done = true;
+			cancelAction = null;
+			condition.signalAll();
+		} finally {
+			lock.unlock();
+		}
+		notifyCallbacks();
+	}
+
+	/**
+	 * Completes the future with the given error, unless it is already done.
+	 *
+	 * @param t the {@code Throwable} (possibly wrapping) the invocation error
+	 */
+	@Override
+	public void onError(Throwable t) {
+		lock.lock();
+		try {
+			if (done) {
+				return;
+			}
+			exception = new ExecutionException(t);
+			done = true;
+			cancelAction = null;
+			condition.signalAll();
+		} finally {
+			lock.unlock();
+		}
+		notifyCallbacks();
+	}
+
+	private void notifyCallbacks() {
+		// no callback can be added once the future is done
+		for (JsonRpcCallback<? super T> callback : callbacks) {
+			notify(callback);
+		}
+		callbacks.clear();
+	}
+
+	private void notify(JsonRpcCallback<? super T> callback) {
+		try {
+			if (cancelled) {
+				callback.onError(new CancellationException());
+			} else if (exception != null) {
+				callback.onError(exception.getCause());
+			} else {
+				callback.onComplete(object);
+			}
+		} catch (RuntimeException e) {
+			logger.warn("Callback {} failed", callback, e);
+		}
+	}
+}
@@ -0,0 +1,574 @@
+package com.googlecode.jsonrpc4j;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A client sending hedged requests: when a call has not been answered
+ * within the hedge delay, a second copy of the request is sent to the next
+ * endpoint.  The first response wins and the other request is cancelled.
+ * Hedging cuts the tail latency caused by a few slow server instances,
+ * e.g. stalled on garbage collection, and must therefore only be used for
+ * idempotent methods: only the methods listed with {@link #setMethodNames(Set)}
+ * are hedged, none by default.
+ * <pre>
+ * JsonRpcHedgingClient hedgingClient = new JsonRpcHedgingClient(
+ *     new JsonRpcHttpAsyncClient(firstUrl), new JsonRpcHttpAsyncClient(secondUrl));
+ * hedgingClient.setMethodNames(Collections.singleton("getUser"));
+ * UserService service = ProxyUtil.createClientProxy(classLoader, UserService.class, hedgingClient);
+ * </pre>
+ * The hedge delay is the {@link #setHedgeDelayPercentile(double) percentile}
+ * (95th by default) of the recent response times of the method, measured
+ * from the start of each call to its outcome, failures included; the
+ * {@link #setHedgeDelayMillis(long) hedge delay} is used until enough
+ * response times are known.  Hedges are capped by a budget: every call
+ * earns {@link #setMaxHedgePercent(double) maxHedgePercent} percent of a
+ * hedge, and a hedge is only sent when a whole one has been earned.
+ * <p>
+ * The endpoints are either {@link IJsonRpcAsyncClient}s, e.g. the
+ * {@link JsonRpcHttpAsyncClient}, or blocking {@link IJsonRpcClient}s, e.g.
+ * the {@link JsonRpcHttpClient}, whose calls are then made on the
+ * {@link #setExecutor(ExecutorService) executor}.  Cancelling a blocking
+ * call interrupts its thread, its response is discarded.  A single endpoint
+ * may be given, hedges then use another connection to the same server.
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+public class JsonRpcHedgingClient implements IJsonRpcClient, IJsonRpcAsyncClient {
+
+	private static final Logger logger = LoggerFactory.getLogger(JsonRpcHedgingClient.class);
+	private static final double MAX_BUDGET = 10;
+
+	private final List<IJsonRpcAsyncClient> endpoints;
+	private final AtomicInteger nextEndpoint = new AtomicInteger();
+	private final ConcurrentMap<String, LatencyWindow> latencies = new ConcurrentHashMap<>();
+	private final Object budgetLock = new Object();
+	private final AtomicLong callCount = new AtomicLong();
+	private final AtomicLong hedgeCount = new AtomicLong();
+	private final AtomicLong hedgeWinCount = new AtomicLong();
+	private double budget = 0;
+	private volatile Set<String> methodNames = Collections.emptySet();
+	private long hedgeDelayMillis = 50;
+	private double hedgeDelayPercentile = 95;
+	private double maxHedgePercent = 5;
+	private ExecutorService executor = null;
+	private ScheduledExecutorService scheduler = null;
+
+	/**
+	 * Creates the {@link JsonRpcHedgingClient}.
+	 *
+	 * @param endpoints the clients of the endpoints, hedges go to the endpoint after the one of the first request
+	 */
+	public JsonRpcHedgingClient(IJsonRpcAsyncClient... endpoints) {
+		if (endpoints.length == 0) {
+			throw new IllegalArgumentException("At least one endpoint is required");
+		}
+		this.endpoints = Arrays.asList(endpoints);
+	}
+
+	/**
+	 * Creates the {@link JsonRpcHedgingClient} for blocking clients.
+	 *
+	 * @param endpoints the clients of the endpoints, hedges go to the endpoint after the one of the first request
+	 */
+	public JsonRpcHedgingClient(IJsonRpcClient... endpoints) {
+		if (endpoints.length == 0) {
+			throw new IllegalArgumentException("At least one endpoint is required");
+		}
+		List<IJsonRpcAsyncClient> asyncEndpoints = new ArrayList<>(endpoints.length);
+		for (IJsonRpcClient endpoint : endpoints) {
+			asyncEndpoints.add(new BlockingEndpoint(endpoint));
+		}
+		this.endpoints = asyncEndpoints;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public JsonRpcFuture<Object> invokeAsync(String methodName, Object argument, Type returnType, Map<String, String> extraHeaders) {
+		final int primary = (nextEndpoint.getAndIncrement() & Integer.MAX_VALUE) % endpoints.size();
+		if (!methodNames.contains(methodName)) {
+			return endpoints.get(primary).invokeAsync(methodName, argument, returnType, extraHeaders);
+		}
+		callCount.incrementAndGet();
+		earnBudget();
+		final Call call = new Call(methodName, argument, returnType, extraHeaders, primary);
+		call.start();
+		return call.result;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void invoke(String methodName, Object argument) throws Throwable {
+		invoke(methodName, argument, (Type) null);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Object invoke(String methodName, Object argument, Type returnType) throws Throwable {
+		return invoke(methodName, argument, returnType, new HashMap<String, String>());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Object invoke(String methodName, Object argument, Type returnType, Map<String, String> extraHeaders) throws Throwable {
+		final JsonRpcFuture<Object> result = invokeAsync(methodName, argument, returnType, extraHeaders);
+		try {
+			return result.get();
+		} catch (ExecutionException e) {
+			throw e.getCause();
+		} catch (InterruptedException e) {
+			result.cancel(true);
+			throw e;
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T> T invoke(String methodName, Object argument, Class<T> clazz) throws Throwable {
+		return (T) invoke(methodName, argument, Type.class.cast(clazz));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T> T invoke(String methodName, Object argument, Class<T> clazz, Map<String, String> extraHeaders) throws Throwable {
+		return (T) invoke(methodName, argument, Type.class.cast(clazz), extraHeaders);
+	}
+
+	private void earnBudget() {
+		synchronized (budgetLock) {
+			budget = Math.min(MAX_BUDGET, budget + maxHedgePercent / 100);
+		}
+	}
+
+	private boolean spendBudget() {
+		synchronized (budgetLock) {
+			if (budget < 1) {
+				return false;
+			}
+			budget -= 1;
+			return true;
+		}
+	}
+
+	private long getHedgeDelayNanos(String methodName) {
+		final long fallback = TimeUnit.MILLISECONDS.toNanos(hedgeDelayMillis);
+		if (hedgeDelayPercentile <= 0) {
+			return fallback;
+		}
+		final LatencyWindow window = latencies.get(methodName);
+		final long delay = window == null ? -1 : window.getPercentile(hedgeDelayPercentile);
+		return delay < 0 ? fallback : delay;
+	}
+
+	private void recordLatency(String methodName, long nanos) {
+		LatencyWindow window = latencies.get(methodName);
+		if (window == null) {
+			window = new LatencyWindow();
+			LatencyWindow existing = latencies.putIfAbsent(methodName, window);
+			if (existing != null) {
+				window = existing;
+			}
+		}
+		window.add(nanos);
+	}
+
+	/**
+	 * Returns the hedge delay currently used for a method.
+	 *
+	 * @param methodName the JSON-RPC method
+	 * @return the hedge delay in milliseconds
+	 */
+	public long getHedgeDelayMillis(String methodName) {
+		return TimeUnit.NANOSECONDS.toMillis(getHedgeDelayNanos(methodName));
+	}
+
+	/**
+	 * @return the number of calls that could be hedged
+	 */
+	public long getCallCount() {
+		return callCount.get();
+	}
+
+	/**
+	 * @return the number of hedges sent
+	 */
+	public long getHedgeCount() {
+		return hedgeCount.get();
+	}
+
+	/**
+	 * @return the number of calls answered by their hedge
+	 */
+	public long getHedgeWinCount() {
+		return hedgeWinCount.get();
+	}
+
+	/**
+	 * @return the methodNames
+	 */
+	public Set<String> getMethodNames() {
+		return methodNames;
+	}
+
+	/**
+	 * Sets the JSON-RPC methods that may be hedged, they must be idempotent.
+	 * No method is hedged by default.
+	 *
+	 * @param methodNames the methodNames to set, null for none
+	 */
+	public void setMethodNames(Set<String> methodNames) {
+		this.methodNames = methodNames == null ? Collections.<String>emptySet() : methodNames;
+	}
+
+	/**
+	 * @return the hedgeDelayMillis
+	 */
+	public long getHedgeDelayMillis() {
+		return hedgeDelayMillis;
+	}
+
+	/**
+	 * Sets the hedge delay used until enough response times of a method are
+	 * known, or for all the calls if the percentile is {@code 0}.
+	 *
+	 * @param hedgeDelayMillis the hedgeDelayMillis to set
+	 */
+	public void setHedgeDelayMillis(long hedgeDelayMillis) {
+		this.hedgeDelayMillis = hedgeDelayMillis;
+	}
+
+	/**
+	 * @return the hedgeDelayPercentile
+	 */
+	public double getHedgeDelayPercentile() {
+		return hedgeDelayPercentile;
+	}
+
+	/**
+	 * Sets the percentile of the recent response times of a method used as
+	 * its hedge delay.  A value of {@code 0} uses the fixed
+	 * {@link #setHedgeDelayMillis(long) hedge delay}.
+	 *
+	 * @param hedgeDelayPercentile the hedgeDelayPercentile to set, between 0 and 100
+	 */
+	public void setHedgeDelayPercentile(double hedgeDelayPercentile) {
+		this.hedgeDelayPercentile = hedgeDelayPercentile;
+	}
+
+	/**
+	 * @return the maxHedgePercent
+	 */
+	public double getMaxHedgePercent() {
+		return maxHedgePercent;
+	}
+
+	/**
+	 * Sets the share of the calls that may be hedged, in percent.
+	 *
+	 * @param maxHedgePercent the maxHedgePercent to set
+	 */
+	public void setMaxHedgePercent(double maxHedgePercent) {
+		this.maxHedgePercent = maxHedgePercent;
+	}
+
+	/**
+	 * Sets the {@link ExecutorService} running the calls of blocking
+	 * endpoints.  If none is set a shared cached thread pool is used.
+	 *
+	 * @param executor the executor to set
+	 */
+	public void setExecutor(ExecutorService executor) {
+		this.executor = executor;
+	}
+
+	private ExecutorService getExecutor() {
+		return executor != null ? executor : DefaultExecutors.EXECUTOR;
+	}
+
+	/**
+	 * Sets the {@link ScheduledExecutorService} sending the hedges.  If none
+	 * is set a shared single thread scheduler is used.
+	 *
+	 * @param scheduler the scheduler to set
+	 */
+	public void setScheduler(ScheduledExecutorService scheduler) {
+		this.scheduler = scheduler;
+	}
+
+	private ScheduledExecutorService getScheduler() {
+		return scheduler != null ? scheduler : DefaultExecutors.SCHEDULER;
+	}
+
+	/**
+	 * A call and its requests: the first one and possibly the hedge.
+	 */
+	private class Call {
+
+		final JsonRpcFuture<Object> result = new JsonRpcFuture<>();
+		final String methodName;
+		final Object argument;
+		final Type returnType;
+		final Map<String, String> extraHeaders;
+		final int primary;
+		final long startNanos = System.nanoTime();
+		private final AtomicBoolean completed = new AtomicBoolean(false);
+		private final List<JsonRpcFuture<Object>> requests = new ArrayList<>(2);
+		private int outstanding;
+		private ScheduledFuture<?> hedgeTask;
+
+		Call(String methodName, Object argument, Type returnType, Map<String, String> extraHeaders, int primary) {
+			this.methodName = methodName;
+			this.argument = argument;
+			this.returnType = returnType;
+			this.extraHeaders = extraHeaders;
+			this.primary = primary;
+		}
+
+		void start() {
+			send(primary, false);
+			result.addCallback(new JsonRpcCallback<Object>() {
+				@Override
+				public void onComplete(Object value) {
+					recordLatency(methodName, System.nanoTime() - startNanos);
+					cancelOthers();
+				}
+
+				@Override
+				public void onError(Throwable t) {
+					// failures and cancelled calls took at least as long, leaving them out would lower the hedge delay
+					recordLatency(methodName, System.nanoTime() - startNanos);
+					cancelOthers();
+				}
+			});
+			if (result.isDone()) {
+				return;
+			}
+			final ScheduledFuture<?> task;
+			try {
+				task = getScheduler().schedule(new Runnable() {
+					@Override
+					public void run() {
+						hedge();
+					}
+				}, getHedgeDelayNanos(methodName), TimeUnit.NANOSECONDS);
+			} catch (RejectedExecutionException e) {
+				logger.debug("Hedge of {} rejected", methodName, e);
+				return;
+			}
+			synchronized (this) {
+				hedgeTask = task;
+			}
+			if (result.isDone()) {
+				task.cancel(false);
+			}
+		}
+
+		private void hedge() {
+			if (result.isDone() || !spendBudget()) {
+				return;
+			}
+			hedgeCount.incrementAndGet();
+			logger.debug("Hedging {}", methodName);
+			send((primary + 1) % endpoints.size(), true);
+		}
+
+		private void send(int endpoint, final boolean hedge) {
+			JsonRpcFuture<Object> request;
+			try {
+				request = endpoints.get(endpoint).invokeAsync(methodName, argument, returnType, extraHeaders);
+			} catch (RuntimeException e) {
+				request = new JsonRpcFuture<>();
+				request.onError(e);
+			}
+			synchronized (this) {
+				requests.add(request);
+				outstanding++;
+			}
+			request.addCallback(new JsonRpcCallback<Object>() {
+				@Override
+				public void onComplete(Object value) {
+					synchronized (Call.this) {
+						outstanding--;
+					}
+					if (completed.compareAndSet(false, true)) {
+						if (hedge) {
+							hedgeWinCount.incrementAndGet();
+						}
+						result.onComplete(value);
+					}
+				}
+
+				@Override
+				public void onError(Throwable t) {
+					final boolean last;
+					synchronized (Call.this) {
+						last = --outstanding == 0;
+					}
+					// hedging is no retry: the call fails unless another request is still outstanding
+					if (last && completed.compareAndSet(false, true)) {
+						result.onError(t);
+					}
+				}
+			});
+		}
+
+		private void cancelOthers() {
+			final List<JsonRpcFuture<Object>> toCancel;
+			final ScheduledFuture<?> task;
+			synchronized (this) {
+				toCancel = new ArrayList<>(requests);
+				task = hedgeTask;
+			}
+			if (task != null) {
+				task.cancel(false);
+			}
+			for (JsonRpcFuture<Object> request : toCancel) {
+				request.cancel(true);
+			}
+		}
+	}
+
+	/**
+	 * Adapts a blocking client, running its calls on the executor.
+	 */
+	private class BlockingEndpoint implements IJsonRpcAsyncClient {
+
+		private final IJsonRpcClient client;
+
+		BlockingEndpoint(IJsonRpcClient client) {
+			this.client = client;
+		}
+
+		@Override
+		public JsonRpcFuture<Object> invokeAsync(final String methodName, final Object argument, final Type returnType, final Map<String, String> extraHeaders) {
+			final JsonRpcFuture<Object> future = new JsonRpcFuture<>();
+			final Future<?> task;
+			try {
+				task = getExecutor().submit(new Runnable() {
+					@Override
+					public void run() {
+						try {
+							future.onComplete(client.invoke(methodName, argument, returnType, extraHeaders));
+						} catch (Throwable t) {
+							future.onError(t);
+						}
+					}
+				});
+			} catch (RejectedExecutionException e) {
+				future.onError(e);
+				return future;
+			}
+			future.setCancelAction(new Runnable() {
+				@Override
+				public void run() {
+					task.cancel(true);
+				}
+			});
+			return future;
+		}
+	}
+
+	/**
+	 * The most recent response times of a method.
+	 */
+	private static class LatencyWindow {
+
+		private static final int SIZE = 1024;
+		private static final int MIN_SAMPLES = 32;
+		private static final int RECOMPUTE_EVERY = 64;
+
+		private final long[] samples = new long[SIZE];
+		private int count;
+		private int next;
+		private long sinceComputed;
+		private double computedFor = -1;
+		private long percentile = -1;
+
+		synchronized void add(long nanos) {
+			samples[next] = nanos;
+			next = (next + 1) % SIZE;
+			count = Math.min(count + 1, SIZE);
+			sinceComputed++;
+		}
+
+		/**
+		 * @return the percentile in nanoseconds, or -1 if too few response times are known
+		 */
+		synchronized long getPercentile(double p) {
+			if (count < MIN_SAMPLES) {
+				return -1;
+			}
+			if (percentile < 0 || computedFor != p || sinceComputed >= RECOMPUTE_EVERY) {
+				final long[] sorted = Arrays.copyOf(samples, count);
+				Arrays.sort(sorted);
+				final int index = (int) Math.ceil(p / 100 * count) - 1;
+				percentile = sorted[Math.max(0, Math.min(count - 1, index))];
+				computedFor = p;
+				sinceComputed = 0;
+			}
+			return percentile;
+		}
+	}
+
+	/**
+	 * Lazily created executors shared by all the clients without their own.
+	 */
+	private static class DefaultExecutors {
+
+		static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(new ThreadFactory() {
+			private final AtomicInteger count = new AtomicInteger();
+
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "jsonrpc4j hedged call " + count.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+
+		static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "jsonrpc4j hedge scheduler");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+	}
+}
@@ -5,6 +5,7 @@ import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.apache.http.Header;
 import org.apache.http.HttpEntity;
 import org.apache.http.HttpEntityEnclosingRequest;
 import org.apache.http.HttpHost;
@@ -12,31 +13,12 @@ import org.apache.http.HttpRequest;
 import org.apache.http.HttpResponse;
 import org.apache.http.StatusLine;
 import org.apache.http.concurrent.FutureCallback;
-import org.apache.http.config.ConnectionConfig;
 import org.apache.http.entity.ByteArrayEntity;
 import org.apache.http.entity.ContentType;
-import org.apache.http.impl.DefaultConnectionReuseStrategy;
-import org.apache.http.impl.nio.DefaultHttpClientIODispatch;
-import org.apache.http.impl.nio.pool.BasicNIOConnFactory;
-import org.apache.http.impl.nio.pool.BasicNIOConnPool;
-import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
-import org.apache.http.impl.nio.reactor.IOReactorConfig;
 import org.apache.http.message.BasicHttpEntityEnclosingRequest;
 import org.apache.http.nio.protocol.BasicAsyncRequestProducer;
 import org.apache.http.nio.protocol.BasicAsyncResponseConsumer;
-import org.apache.http.nio.protocol.HttpAsyncRequestExecutor;
-import org.apache.http.nio.protocol.HttpAsyncRequester;
-import org.apache.http.nio.reactor.ConnectingIOReactor;
-import org.apache.http.nio.reactor.IOEventDispatch;
-import org.apache.http.nio.reactor.IOReactorException;
 import org.apache.http.protocol.BasicHttpContext;
-import org.apache.http.protocol.HttpProcessor;
-import org.apache.http.protocol.ImmutableHttpProcessor;
-import org.apache.http.protocol.RequestConnControl;
-import org.apache.http.protocol.RequestContent;
-import org.apache.http.protocol.RequestExpectContinue;
-import org.apache.http.protocol.RequestTargetHost;
-import org.apache.http.protocol.RequestUserAgent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -44,7 +26,7 @@ import javax.net.ssl.SSLContext;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InterruptedIOException;
+import java.io.OutputStream;
 import java.lang.reflect.Type;
 import java.net.URL;
 import java.util.Collection;
@@ -52,15 +34,14 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.TimeoutException;
-import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
-import java.util.concurrent.locks.Condition;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
+import static com.googlecode.jsonrpc4j.JsonRpcBasicServer.ACCEPT_ENCODING;
+import static com.googlecode.jsonrpc4j.JsonRpcBasicServer.CONTENT_ENCODING;
 import static com.googlecode.jsonrpc4j.JsonRpcBasicServer.ERROR;
+import static com.googlecode.jsonrpc4j.JsonRpcBasicServer.ERROR_CODE;
 import static com.googlecode.jsonrpc4j.JsonRpcBasicServer.ID;
 import static com.googlecode.jsonrpc4j.JsonRpcBasicServer.JSONRPC;
 import static com.googlecode.jsonrpc4j.JsonRpcBasicServer.METHOD;
@@ -92,27 +73,31 @@ import static com.googlecode.jsonrpc4j.JsonRpcBasicServer.RESULT;
  * <li>com.googlecode.jsonrpc4j.async.reactor.threads - number of asynchronous
  * IO reactor threads, default is 2 (more than sufficient for most clients)</li>
  * </ul>
+ * These properties only provide the defaults: clients created with their own
+ * {@link JsonRpcHttpAsyncPool} are configured by its {@link JsonRpcHttpAsyncPool.Config}.
+ * <p>
+ * Requests are sent over a pool of non-blocking connections, so many
+ * concurrent calls neither need a thread nor a connection each.  The
+ * {@link IJsonRpcClient} returned by {@link #toBlockingClient()} exposes
+ * the client to {@link ProxyUtil} and the spring {@code JsonProxyFactoryBean}.
  *
  * @author Brett Wooldridge
  */
 @SuppressWarnings({"WeakerAccess", "unused"})
-public class JsonRpcHttpAsyncClient {
+public class JsonRpcHttpAsyncClient implements IJsonRpcAsyncClient {
 	
 	private static final Logger logger = LoggerFactory.getLogger(JsonRpcHttpAsyncClient.class);
+	private static final String GZIP = "gzip";
 	
-	private static final AtomicBoolean initialized = new AtomicBoolean();
 	private static final AtomicLong nextId = new AtomicLong();
-	private static HttpAsyncRequester requester;
-	private static BasicNIOConnPool pool;
-	private static SSLContext sslContext;
+	private final JsonRpcHttpAsyncPool pool;
 	private final ExceptionResolver exceptionResolver;
 	private final Map<String, String> headers = new HashMap<>();
 	private final ObjectMapper mapper;
 	private final URL serviceUrl;
-	
-	{
-		initialize();
-	}
+	private boolean gzipRequests = false;
+	private boolean acceptGzipResponses = false;
+	private volatile JsonRpcClientMetrics metrics = null;
 	
 	/**
 	 * Creates the {@link JsonRpcHttpAsyncClient} bound to the given {@code serviceUrl}.
@@ -149,6 +134,24 @@ public class JsonRpcHttpAsyncClient {
 	 * @param headers    the headers
 	 */
 	public JsonRpcHttpAsyncClient(ObjectMapper mapper, ExceptionResolver exceptionResolver, URL serviceUrl, Map<String, String> headers) {
+		this(mapper, exceptionResolver, serviceUrl, headers, JsonRpcHttpAsyncPool.getDefault());
+	}
+
+	/**
+	 * Creates the {@link JsonRpcHttpAsyncClient} using the specified
+	 * {@link ObjectMapper} and {@link ExceptionResolver}, bound to the given
+	 * {@code serviceUrl} and sending its requests over the given pool.
+	 * The headers provided in the {@code headers} map are added to every
+	 * request made to the {@code serviceUrl}.
+	 *
+	 * @param mapper            the {@link ObjectMapper} to use for json&lt;-&gt;java conversion
+	 * @param exceptionResolver the {@link ExceptionResolver} translating remote exceptions.
+	 * @param serviceUrl        the service end-point URL
+	 * @param headers           the headers
+	 * @param pool              the connection pool
+	 */
+	public JsonRpcHttpAsyncClient(ObjectMapper mapper, ExceptionResolver exceptionResolver, URL serviceUrl, Map<String, String> headers, JsonRpcHttpAsyncPool pool) {
+		this.pool = pool;
 		this.mapper = mapper;
 		this.serviceUrl = serviceUrl;
 		this.headers.putAll(headers);
@@ -174,12 +177,64 @@ public class JsonRpcHttpAsyncClient {
 	/**
 	 * Set the SSLContext to be used to create SSL connections. This method most
 	 * be called before the first {@code JsonRpcHttpAsyncClient} is constructed,
-	 * otherwise it has no effect.
+	 * otherwise it has no effect on the default pool.
 	 *
 	 * @param sslContext the {@code SSLContext to use}
+	 * @see JsonRpcHttpAsyncPool.Config#setSslContext(SSLContext)
 	 */
 	public static void setSSLContext(SSLContext sslContext) {
-		JsonRpcHttpAsyncClient.sslContext = sslContext;
+		JsonRpcHttpAsyncPool.setDefaultSslContext(sslContext);
+	}
+	
+	/**
+	 * @return the connection pool used by this client
+	 */
+	public JsonRpcHttpAsyncPool getPool() {
+		return pool;
+	}
+	
+	/**
+	 * @param gzipRequests whether to gzip the requests
+	 */
+	public void setGzipRequests(boolean gzipRequests) {
+		this.gzipRequests = gzipRequests;
+	}
+	
+	/**
+	 * @param acceptGzipResponses whether to accept gzipped responses
+	 */
+	public void setAcceptGzipResponses(boolean acceptGzipResponses) {
+		this.acceptGzipResponses = acceptGzipResponses;
+	}
+	
+	/**
+	 * Sets the {@link JsonRpcClientMetrics} recording the calls of this
+	 * client, null, the default, records nothing.  The connection acquire
+	 * time is the time a request waits for a connection of the pool.
+	 *
+	 * @param metrics the {@link JsonRpcClientMetrics}
+	 */
+	public void setMetrics(JsonRpcClientMetrics metrics) {
+		this.metrics = metrics;
+	}
+	
+	/**
+	 * @return the {@link JsonRpcClientMetrics} recording the calls of this client, or null
+	 */
+	public JsonRpcClientMetrics getMetrics() {
+		return metrics;
+	}
+	
+	/**
+	 * Returns a blocking {@link IJsonRpcClient} view of this client, e.g. for
+	 * {@link ProxyUtil#createClientProxy(ClassLoader, Class, IJsonRpcClient)}.
+	 * The calls made through it wait for their responses, but still share the
+	 * connection pool of the asynchronous client.
+	 *
+	 * @return the blocking client
+	 */
+	public IJsonRpcClient toBlockingClient() {
+		return new BlockingClient();
 	}
 	
 	/**
@@ -191,7 +246,7 @@ public class JsonRpcHttpAsyncClient {
 	 * @param argument   the arguments to the method
 	 * @return the response {@code Future<T>}
 	 */
-	public Future<Object> invoke(String methodName, Object argument) {
+	public JsonRpcFuture<Object> invoke(String methodName, Object argument) {
 		return invoke(methodName, argument, Object.class, new HashMap<String, String>());
 	}
 	
@@ -208,10 +263,18 @@ public class JsonRpcHttpAsyncClient {
 	 * @param <T>          the return type
 	 * @return the response {@code Future<T>}
 	 */
-	private <T> Future<T> invoke(String methodName, Object argument, Class<T> returnType, Map<String, String> extraHeaders) {
+	public <T> JsonRpcFuture<T> invoke(String methodName, Object argument, Class<T> returnType, Map<String, String> extraHeaders) {
 		return doInvoke(methodName, argument, returnType, extraHeaders, new JsonRpcFuture<T>());
 	}
 	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public JsonRpcFuture<Object> invokeAsync(String methodName, Object argument, Type returnType, Map<String, String> extraHeaders) {
+		return doInvoke(methodName, argument, returnType, extraHeaders, new JsonRpcFuture<Object>());
+	}
+	
 	/**
 	 * Invokes the given method with the given arguments and invokes the
 	 * {@code JsonRpcCallback} with the result cast to the given
@@ -224,32 +287,69 @@ public class JsonRpcHttpAsyncClient {
 	 * @param returnType   the return type
 	 * @param callback     the {@code JsonRpcCallback}
 	 */
-	@SuppressWarnings("unchecked")
-	private <T> Future<T> doInvoke(String methodName, Object argument, Class<T> returnType, Map<String, String> extraHeaders, JsonRpcCallback<T> callback) {
+	private <T, C extends JsonRpcCallback<T>> C doInvoke(String methodName, Object argument, Type returnType, Map<String, String> extraHeaders, C callback) {
 		
+		final JsonRpcClientMetrics currentMetrics = metrics;
+		final long start = currentMetrics == null ? 0 : System.nanoTime();
 		String path = serviceUrl.getPath() + (serviceUrl.getQuery() != null ? "?" + serviceUrl.getQuery() : "");
 		int port = serviceUrl.getPort() != -1 ? serviceUrl.getPort() : serviceUrl.getDefaultPort();
 		HttpRequest request = new BasicHttpEntityEnclosingRequest("POST", path);
 		
+		if (acceptGzipResponses) {
+			request.addHeader(ACCEPT_ENCODING, GZIP);
+		}
 		addHeaders(request, headers);
 		addHeaders(request, extraHeaders);
 		
+		final long requestSize;
 		try {
-			writeRequest(methodName, argument, request);
+			requestSize = writeRequest(methodName, argument, request);
 		} catch (IOException e) {
+			if (currentMetrics != null) {
+				currentMetrics.recordCall(methodName, System.nanoTime() - start, true);
+			}
 			callback.onError(e);
+			return callback;
 		}
 		
 		HttpHost target = new HttpHost(serviceUrl.getHost(), port, serviceUrl.getProtocol());
-		BasicAsyncRequestProducer asyncRequestProducer = new BasicAsyncRequestProducer(target, request);
+		final BasicAsyncRequestProducer asyncRequestProducer;
+		if (currentMetrics == null) {
+			asyncRequestProducer = new BasicAsyncRequestProducer(target, request);
+		} else {
+			final long serialized = System.nanoTime();
+			currentMetrics.recordRequest(requestSize, serialized - start);
+			asyncRequestProducer = new BasicAsyncRequestProducer(target, request) {
+				private boolean acquired = false;
+				
+				@Override
+				public HttpRequest generateRequest() {
+					// called once a connection of the pool has been leased
+					if (!acquired) {
+						acquired = true;
+						currentMetrics.recordConnectionAcquire(System.nanoTime() - serialized);
+					}
+					return super.generateRequest();
+				}
+			};
+		}
 		BasicAsyncResponseConsumer asyncResponseConsumer = new BasicAsyncResponseConsumer();
 		
-		RequestAsyncFuture<T> futureCallback = new RequestAsyncFuture<>(returnType, callback);
+		RequestAsyncFuture<T> futureCallback = new RequestAsyncFuture<>(methodName, returnType, callback, currentMetrics, start);
 		
 		BasicHttpContext httpContext = new BasicHttpContext();
-		requester.execute(asyncRequestProducer, asyncResponseConsumer, pool, httpContext, futureCallback);
+		final Future<HttpResponse> exchange = pool.getRequester().execute(asyncRequestProducer, asyncResponseConsumer, pool.getConnPool(), httpContext, futureCallback);
+		if (callback instanceof JsonRpcFuture) {
+			// cancelling the future cancels the HTTP exchange
+			((JsonRpcFuture<?>) callback).setCancelAction(new Runnable() {
+				@Override
+				public void run() {
+					exchange.cancel(true);
+				}
+			});
+		}
 		
-		return (callback instanceof JsonRpcFuture ? (Future<T>) callback : null);
+		return callback;
 	}
 	
 	/**
@@ -270,8 +370,9 @@ public class JsonRpcHttpAsyncClient {
 	 * @param methodName  the method name
 	 * @param arguments   the arguments
 	 * @param httpRequest the stream on error
+	 * @return the size of the request before compression
 	 */
-	private void writeRequest(String methodName, Object arguments, HttpRequest httpRequest) throws IOException {
+	private long writeRequest(String methodName, Object arguments, HttpRequest httpRequest) throws IOException {
 		
 		ObjectNode request = mapper.createObjectNode();
 		request.put(ID, nextId.getAndIncrement());
@@ -298,8 +399,18 @@ public class JsonRpcHttpAsyncClient {
 		logger.debug("JSON-PRC Request: {}", request);
 		
 		ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream(512);
-		mapper.writeValue(byteArrayOutputStream, request);
 		HttpEntityEnclosingRequest entityRequest = (HttpEntityEnclosingRequest) httpRequest;
+		final CountingOutputStream counting;
+		if (gzipRequests) {
+			entityRequest.addHeader(CONTENT_ENCODING, GZIP);
+			try (OutputStream gos = new GZIPOutputStream(byteArrayOutputStream)) {
+				counting = new CountingOutputStream(gos);
+				mapper.writeValue(counting, request);
+			}
+		} else {
+			counting = new CountingOutputStream(byteArrayOutputStream);
+			mapper.writeValue(counting, request);
+		}
 		
 		HttpEntity entity;
 		if (entityRequest.getFirstHeader("Content-Type") == null) {
@@ -308,6 +419,7 @@ public class JsonRpcHttpAsyncClient {
 			entity = new ByteArrayEntity(byteArrayOutputStream.toByteArray());
 		}
 		entityRequest.setEntity(entity);
+		return counting.getCount();
 	}
 	
 	/**
@@ -321,7 +433,7 @@ public class JsonRpcHttpAsyncClient {
 	 * @param <T>        the return type
 	 * @return the response {@code Future<T>}
 	 */
-	public <T> Future<T> invoke(String methodName, Object argument, Class<T> returnType) {
+	public <T> JsonRpcFuture<T> invoke(String methodName, Object argument, Class<T> returnType) {
 		return invoke(methodName, argument, returnType, new HashMap<String, String>());
 	}
 	
@@ -377,6 +489,7 @@ public class JsonRpcHttpAsyncClient {
 	 * @return the object returned by the JSON-RPC response
 	 * @throws Throwable on error
 	 */
+	@SuppressWarnings("unchecked")
 	private <T> T readResponse(Type returnType, InputStream ips) throws Throwable {
 		JsonNode response = mapper.readTree(new NoCloseInputStream(ips));
 		logger.debug("JSON-PRC Response: {}", response);
@@ -386,189 +499,44 @@ public class JsonRpcHttpAsyncClient {
 		ObjectNode jsonObject = ObjectNode.class.cast(response);
 		
 		if (jsonObject.has(ERROR) && jsonObject.get(ERROR) != null && !jsonObject.get(ERROR).isNull()) {
+			final JsonRpcClientMetrics currentMetrics = metrics;
+			if (currentMetrics != null) {
+				final JsonNode code = jsonObject.get(ERROR).get(ERROR_CODE);
+				currentMetrics.recordError(code != null ? code.asInt() : 0);
+			}
 			throw exceptionResolver.resolveException(jsonObject);
 		}
 		if (jsonObject.has(RESULT) && !jsonObject.get(RESULT).isNull() && jsonObject.get(RESULT) != null) {
+			if (returnType == null || returnType == Void.class || returnType == void.class) {
+				return null;
+			}
 			
 			JsonParser returnJsonParser = mapper.treeAsTokens(jsonObject.get(RESULT));
 			JavaType returnJavaType = mapper.getTypeFactory().constructType(returnType);
 			
-			return mapper.readValue(returnJsonParser, returnJavaType);
+			return (T) mapper.readValue(returnJsonParser, returnJavaType);
 		}
 		return null;
 	}
 	
-	private void initialize() {
-		if (initialized.getAndSet(true)) {
-			return;
-		}
-		IOReactorConfig.Builder config = createConfig();
-		// params.setParameter(CoreProtocolPNames.USER_AGENT, "jsonrpc4j/1.0");
-		final ConnectingIOReactor ioReactor = createIoReactor(config);
-		createSslContext();
-		int socketBufferSize = Integer.getInteger("com.googlecode.jsonrpc4j.async.socket.buffer", 8 * 1024);
-		final ConnectionConfig connectionConfig = ConnectionConfig.custom().setBufferSize(socketBufferSize).build();
-		BasicNIOConnFactory nioConnFactory = new BasicNIOConnFactory(sslContext, null, connectionConfig);
-		pool = new BasicNIOConnPool(ioReactor, nioConnFactory, Integer.getInteger("com.googlecode.jsonrpc4j.async.connect.timeout", 30000));
-		pool.setDefaultMaxPerRoute(Integer.getInteger("com.googlecode.jsonrpc4j.async.max.inflight.route", 500));
-		pool.setMaxTotal(Integer.getInteger("com.googlecode.jsonrpc4j.async.max.inflight.total", 500));
-		
-		Thread t = new Thread(new Runnable() {
-			@Override
-			public void run() {
-				try {
-					HttpAsyncRequestExecutor protocolHandler = new HttpAsyncRequestExecutor();
-					IOEventDispatch ioEventDispatch = new DefaultHttpClientIODispatch(protocolHandler, sslContext, connectionConfig);
-					ioReactor.execute(ioEventDispatch);
-				} catch (InterruptedIOException ex) {
-					System.err.println("Interrupted");
-				} catch (IOException e) {
-					System.err.println("I/O error: " + e.getMessage());
-				}
-			}
-		}, "jsonrpc4j HTTP IOReactor");
-		
-		t.setDaemon(true);
-		t.start();
-		
-		HttpProcessor httpProcessor = new ImmutableHttpProcessor(new RequestContent(), new RequestTargetHost(), new RequestConnControl(), new RequestUserAgent(), new RequestExpectContinue(false));
-		requester = new HttpAsyncRequester(httpProcessor, new DefaultConnectionReuseStrategy());
-	}
-	
-	private IOReactorConfig.Builder createConfig() {
-		IOReactorConfig.Builder config = IOReactorConfig.custom();
-		config = config.setSoTimeout(Integer.getInteger("com.googlecode.jsonrpc4j.async.socket.timeout", 30000));
-		config = config.setConnectTimeout(Integer.getInteger("com.googlecode.jsonrpc4j.async.connect.timeout", 30000));
-		config = config.setTcpNoDelay(Boolean.valueOf(System.getProperty("com.googlecode.jsonrpc4j.async.tcp.nodelay", "true")));
-		config = config.setIoThreadCount(Integer.getInteger("com.googlecode.jsonrpc4j.async.reactor.threads", 1));
-		return config;
-	}
-	
-	private ConnectingIOReactor createIoReactor(IOReactorConfig.Builder config) {
-		final ConnectingIOReactor ioReactor;
-		try {
-			ioReactor = new DefaultConnectingIOReactor(config.build());
-		} catch (IOReactorException e) {
-			throw new RuntimeException("Exception initializing asynchronous Apache HTTP Client", e);
-		}
-		return ioReactor;
-	}
-	
-	private void createSslContext() {
-		if (sslContext == null) {
-			try {
-				sslContext = SSLContext.getDefault();
-			} catch (Exception e) {
-				throw new RuntimeException(e);
-			}
-		}
-	}
-	
-	private static class JsonRpcFuture<T> implements Future<T>, JsonRpcCallback<T> {
-		
-		private T object;
-		private volatile boolean done;
-		private ExecutionException exception;
-
-		private final Lock lock = new ReentrantLock();
-
-		private final Condition condition = lock.newCondition();
-		
-		public boolean cancel(boolean mayInterruptIfRunning) {
-			return false;
-		}
-		
-		public boolean isCancelled() {
-			return false;
-		}
-		
-		public boolean isDone() {
-			return done;
-		}
-		
-		public T get() throws InterruptedException,
-				ExecutionException {
-
-			lock.lock();
-			try {
-
-				while (!done) {
-					condition.await();
-				}
-
-				if (exception != null) {
-					throw exception;
-				}
-
-				return object;
-			} finally {
-				lock.unlock();
-			}
-		}
-		
-		public T get(long timeout, TimeUnit unit)
-				throws InterruptedException, ExecutionException,
-				TimeoutException {
-
-			if (timeout <= 0) {
-				throw new TimeoutException();
-			}
-
-			long nanos = unit.toNanos(timeout);
-			lock.lock();
-			try {
-				while (!done) {
-					if (nanos <= 0) {
-						throw new TimeoutException();
-					}
-					nanos = condition.awaitNanos(nanos);
-				}
-
-				if (exception != null) {
-					throw exception;
-				}
-				return object;
-			} finally {
-				lock.unlock();
-			}
-
-		}
-		
-		public void onComplete(T result) {
-			lock.lock();
-			try {
-				object = result;
-				done = true;
-				condition.signal();
-			} finally {
-				lock.unlock();
-			}
-		}
-		
-		public void onError(Throwable t) {
-			lock.lock();
-			try {
-				exception = new ExecutionException(t);
-				done = true;
-				condition.signal();
-			} finally {
-				lock.unlock();
-			}
-		}
-	}
-	
 	/**
 	 * Private class to handleRequest the HttpResponse callback.
 	 *
 	 * @param <T>
 	 */
 	private class RequestAsyncFuture<T> implements FutureCallback<HttpResponse> {
+		private final String methodName;
 		private final JsonRpcCallback<T> callBack;
-		private final Class<T> type;
+		private final Type type;
+		private final JsonRpcClientMetrics metrics;
+		private final long start;
 		
-		RequestAsyncFuture(Class<T> type, JsonRpcCallback<T> callBack) {
+		RequestAsyncFuture(String methodName, Type type, JsonRpcCallback<T> callBack, JsonRpcClientMetrics metrics, long start) {
+			this.methodName = methodName;
 			this.type = type;
 			this.callBack = callBack;
+			this.metrics = metrics;
+			this.start = start;
 		}
 		
 		public void completed(final HttpResponse response) {
@@ -577,31 +545,108 @@ public class JsonRpcHttpAsyncClient {
 				int statusCode = statusLine.getStatusCode();
 				
 				InputStream stream;
-				if (statusCode == 200) {
+				// errors are returned with other status codes, see HttpStatusCodeProvider
+				if (statusCode == 200 || hasJsonContent(response)) {
 					HttpEntity entity = response.getEntity();
 					try {
-						stream = entity.getContent();
+						stream = getContent(response, entity);
 					} catch (Exception e) {
 						failed(e);
 						return;
 					}
 					
-					callBack.onComplete(type.cast(readResponse(type, stream)));
+					final T result = readResponse(stream);
+					recordCall(false);
+					callBack.onComplete(result);
 				} else {
+					recordCall(true);
 					callBack.onError(new RuntimeException(
 							"Unexpected response code: " + statusCode));
 				}
 			} catch (Throwable t) {
+				recordCall(true);
 				callBack.onError(t);
 			}
 		}
 		
+		private T readResponse(InputStream stream) throws Throwable {
+			if (metrics == null) {
+				return JsonRpcHttpAsyncClient.this.readResponse(type, stream);
+			}
+			// the response has been received entirely, only its deserialization is timed
+			final long received = System.nanoTime();
+			final MeteredInputStream metered = new MeteredInputStream(stream);
+			try {
+				return JsonRpcHttpAsyncClient.this.readResponse(type, metered);
+			} finally {
+				metrics.recordResponse(metered.getCount(), System.nanoTime() - received);
+			}
+		}
+		
+		private void recordCall(boolean failed) {
+			if (metrics != null) {
+				metrics.recordCall(methodName, System.nanoTime() - start, failed);
+			}
+		}
+		
 		public void failed(final Exception ex) {
+			recordCall(true);
 			callBack.onError(ex);
 		}
 		
+		private boolean hasJsonContent(HttpResponse response) {
+			HttpEntity entity = response.getEntity();
+			return entity != null && entity.getContentType() != null && entity.getContentType().getValue().contains("json");
+		}
+		
+		private InputStream getContent(HttpResponse response, HttpEntity entity) throws IOException {
+			Header contentEncoding = response.getFirstHeader(CONTENT_ENCODING);
+			if (contentEncoding != null && GZIP.equalsIgnoreCase(contentEncoding.getValue())) {
+				return new GZIPInputStream(entity.getContent());
+			}
+			return entity.getContent();
+		}
+		
 		public void cancelled() {
+			recordCall(true);
 			callBack.onError(new RuntimeException("HTTP Request was cancelled"));
 		}
 	}
+	
+	/**
+	 * Blocking {@link IJsonRpcClient} view of the asynchronous client.
+	 */
+	private class BlockingClient implements IJsonRpcClient {
+		
+		@Override
+		public void invoke(String methodName, Object argument) throws Throwable {
+			invoke(methodName, argument, (Type) null);
+		}
+		
+		@Override
+		public Object invoke(String methodName, Object argument, Type returnType) throws Throwable {
+			return invoke(methodName, argument, returnType, new HashMap<String, String>());
+		}
+		
+		@Override
+		public Object invoke(String methodName, Object argument, Type returnType, Map<String, String> extraHeaders) throws Throwable {
+			try {
+				return invokeAsync(methodName, argument, returnType, extraHeaders).get();
+			} catch (ExecutionException e) {
+				throw e.getCause();
+			}
+		}
+		
+		@Override
+		@SuppressWarnings("unchecked")
+		public <T> T invoke(String methodName, Object argument, Class<T> clazz) throws Throwable {
+			return (T) invoke(methodName, argument, Type.class.cast(clazz));
+		}
+		
+		@Override
+		@SuppressWarnings("unchecked")
+		public <T> T invoke(String methodName, Object argument, Class<T> clazz, Map<String, String> extraHeaders) throws Throwable {
+			return (T) invoke(methodName, argument, Type.class.cast(clazz), extraHeaders);
+		}
+	}
 }
@@ -0,0 +1,358 @@
+package com.googlecode.jsonrpc4j;
+
+import org.apache.http.HttpHost;
+import org.apache.http.config.ConnectionConfig;
+import org.apache.http.impl.DefaultConnectionReuseStrategy;
+import org.apache.http.impl.nio.DefaultHttpClientIODispatch;
+import org.apache.http.impl.nio.pool.BasicNIOConnFactory;
+import org.apache.http.impl.nio.pool.BasicNIOConnPool;
+import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.apache.http.nio.protocol.HttpAsyncRequestExecutor;
+import org.apache.http.nio.protocol.HttpAsyncRequester;
+import org.apache.http.nio.reactor.ConnectingIOReactor;
+import org.apache.http.nio.reactor.IOEventDispatch;
+import org.apache.http.nio.reactor.IOReactorException;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.protocol.HttpProcessor;
+import org.apache.http.protocol.ImmutableHttpProcessor;
+import org.apache.http.protocol.RequestConnControl;
+import org.apache.http.protocol.RequestContent;
+import org.apache.http.protocol.RequestExpectContinue;
+import org.apache.http.protocol.RequestTargetHost;
+import org.apache.http.protocol.RequestUserAgent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.net.ssl.SSLContext;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The non-blocking connection pool and IO reactor used by
+ * {@link JsonRpcHttpAsyncClient}s.  Clients created without a pool share
+ * the {@link #getDefault() default pool}, which is configured from the
+ * system properties documented on {@link JsonRpcHttpAsyncClient}.  Giving
+ * a client, or a group of clients by {@link #named(String, Config) name},
+ * its own pool keeps the calls to one backend from starving those to others.
+ * <pre>
+ * JsonRpcHttpAsyncPool.Config config = new JsonRpcHttpAsyncPool.Config();
+ * config.setMaxTotal(50);
+ * JsonRpcHttpAsyncPool pool = JsonRpcHttpAsyncPool.named("billing", config);
+ * JsonRpcHttpAsyncClient client = new JsonRpcHttpAsyncClient(mapper, resolver, url, headers, pool);
+ * </pre>
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+public class JsonRpcHttpAsyncPool implements Closeable {
+
+	private static final Logger logger = LoggerFactory.getLogger(JsonRpcHttpAsyncPool.class);
+
+	private static final String DEFAULT_NAME = "default";
+	private static final ConcurrentMap<String, JsonRpcHttpAsyncPool> namedPools = new ConcurrentHashMap<>();
+	private static volatile SSLContext defaultSslContext;
+
+	private final String name;
+	private final Config config;
+	private final ConnectingIOReactor ioReactor;
+	private final BasicNIOConnPool pool;
+	private final HttpAsyncRequester requester;
+	private volatile boolean shutdown;
+
+	/**
+	 * Creates a pool with the given configuration.
+	 *
+	 * @param config the configuration
+	 */
+	public JsonRpcHttpAsyncPool(Config config) {
+		this(null, config);
+	}
+
+	private JsonRpcHttpAsyncPool(String name, Config config) {
+		this.name = name;
+		this.config = config;
+
+		final SSLContext sslContext = config.getSslContext() != null ? config.getSslContext() : createSslContext();
+		final ConnectionConfig connectionConfig = ConnectionConfig.custom().setBufferSize(config.getSocketBufferSize()).build();
+		this.ioReactor = createIoReactor(config);
+		BasicNIOConnFactory nioConnFactory = new BasicNIOConnFactory(sslContext, null, connectionConfig);
+		this.pool = new BasicNIOConnPool(ioReactor, nioConnFactory, config.getConnectTimeoutMillis());
+		this.pool.setDefaultMaxPerRoute(config.getMaxPerRoute());
+		this.pool.setMaxTotal(config.getMaxTotal());
+
+		Thread t = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					HttpAsyncRequestExecutor protocolHandler = new HttpAsyncRequestExecutor();
+					IOEventDispatch ioEventDispatch = new DefaultHttpClientIODispatch(protocolHandler, sslContext, connectionConfig);
+					ioReactor.execute(ioEventDispatch);
+				} catch (InterruptedIOException ex) {
+					logger.debug("IO reactor interrupted", ex);
+				} catch (IOException e) {
+					logger.error("I/O error in IO reactor", e);
+				}
+			}
+		}, name == null || DEFAULT_NAME.equals(name) ? "jsonrpc4j HTTP IOReactor" : "jsonrpc4j HTTP IOReactor " + name);
+
+		t.setDaemon(true);
+		t.start();
+
+		HttpProcessor httpProcessor = new ImmutableHttpProcessor(new RequestContent(), new RequestTargetHost(), new RequestConnControl(), new RequestUserAgent(), new RequestExpectContinue(false));
+		this.requester = new HttpAsyncRequester(httpProcessor, new DefaultConnectionReuseStrategy());
+	}
+
+	/**
+	 * Returns the pool shared by the clients created without a pool.  It is
+	 * created on first use; if it has been closed a new one is created.
+	 *
+	 * @return the default pool
+	 */
+	public static JsonRpcHttpAsyncPool getDefault() {
+		return named(DEFAULT_NAME, null);
+	}
+
+	/**
+	 * Returns the pool with the given name, creating it with the default
+	 * configuration if there is none.
+	 *
+	 * @param name the name of the pool
+	 * @return the pool
+	 */
+	public static JsonRpcHttpAsyncPool named(String name) {
+		return named(name, null);
+	}
+
+	/**
+	 * Returns the pool with the given name, creating it with the given
+	 * configuration if there is none.  The configuration is ignored if
+	 * the pool already exists.
+	 *
+	 * @param name   the name of the pool
+	 * @param config the configuration, or null for the default configuration
+	 * @return the pool
+	 */
+	public static JsonRpcHttpAsyncPool named(String name, Config config) {
+		JsonRpcHttpAsyncPool pool = namedPools.get(name);
+		if (pool != null && !pool.isShutdown()) {
+			return pool;
+		}
+		synchronized (namedPools) {
+			pool = namedPools.get(name);
+			if (pool == null || pool.isShutdown()) {
+				pool = new JsonRpcHttpAsyncPool(name, config != null ? config : new Config());
+				namedPools.put(name, pool);
+			}
+			return pool;
+		}
+	}
+
+	/**
+	 * Sets the {@link SSLContext} of the pools created with a configuration
+	 * that has none.  Pools that already exist are not affected.
+	 *
+	 * @param sslContext the SSL context
+	 */
+	static void setDefaultSslContext(SSLContext sslContext) {
+		defaultSslContext = sslContext;
+	}
+
+	private static SSLContext createSslContext() {
+		if (defaultSslContext != null) {
+			return defaultSslContext;
+		}
+		try {
+			return SSLContext.getDefault();
+		} catch (Exception e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	private static ConnectingIOReactor createIoReactor(Config config) {
+		IOReactorConfig.Builder builder = IOReactorConfig.custom();
+		builder = builder.setSoTimeout(config.getSocketTimeoutMillis());
+		builder = builder.setConnectTimeout(config.getConnectTimeoutMillis());
+		builder = builder.setTcpNoDelay(config.isTcpNoDelay());
+		builder = builder.setIoThreadCount(config.getIoThreadCount());
+		try {
+			return new DefaultConnectingIOReactor(builder.build());
+		} catch (IOReactorException e) {
+			throw new RuntimeException("Exception initializing asynchronous Apache HTTP Client", e);
+		}
+	}
+
+	HttpAsyncRequester getRequester() {
+		return requester;
+	}
+
+	BasicNIOConnPool getConnPool() {
+		return pool;
+	}
+
+	/**
+	 * @return the name of the pool, or null if it is not a named pool
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * @return the configuration of the pool
+	 */
+	public Config getConfig() {
+		return config;
+	}
+
+	/**
+	 * @return the statistics of all the connections of the pool
+	 */
+	public PoolStats getStats() {
+		return pool.getTotalStats();
+	}
+
+	/**
+	 * @param host the host
+	 * @return the statistics of the connections to the given host
+	 */
+	public PoolStats getStats(HttpHost host) {
+		return pool.getStats(host);
+	}
+
+	/**
+	 * @return whether the pool has been shut down
+	 */
+	public boolean isShutdown() {
+		return shutdown || pool.isShutdown();
+	}
+
+	/**
+	 * Closes all the connections and stops the IO reactor, waiting at most
+	 * the given time for them to terminate.  The calls still in flight fail.
+	 *
+	 * @param waitMillis the time to wait
+	 * @throws IOException on error
+	 */
+	public void shutdown(long waitMillis) throws IOException {
+		shutdown = true;
+		if (name != null) {
+			namedPools.remove(name, this);
+		}
+		pool.shutdown(waitMillis);
+	}
+
+	/**
+	 * Shuts the pool down, waiting at most one second.
+	 *
+	 * @throws IOException on error
+	 */
+	@Override
+	public void close() throws IOException {
+		shutdown(1000);
+	}
+
+	/**
+	 * The configuration of a {@link JsonRpcHttpAsyncPool}.  The defaults are
+	 * read from the {@code com.googlecode.jsonrpc4j.async.*} system properties.
+	 */
+	public static class Config {
+
+		private int maxTotal = Integer.getInteger("com.googlecode.jsonrpc4j.async.max.inflight.total", 500);
+		private int maxPerRoute = Integer.getInteger("com.googlecode.jsonrpc4j.async.max.inflight.route", 500);
+		private int ioThreadCount = Integer.getInteger("com.googlecode.jsonrpc4j.async.reactor.threads", 1);
+		private int socketTimeoutMillis = Integer.getInteger("com.googlecode.jsonrpc4j.async.socket.timeout", 30000);
+		private int connectTimeoutMillis = Integer.getInteger("com.googlecode.jsonrpc4j.async.connect.timeout", 30000);
+		private int socketBufferSize = Integer.getInteger("com.googlecode.jsonrpc4j.async.socket.buffer", 8 * 1024);
+		private boolean tcpNoDelay = Boolean.valueOf(System.getProperty("com.googlecode.jsonrpc4j.async.tcp.nodelay", "true"));
+		private SSLContext sslContext = null;
+
+		public int getMaxTotal() {
+			return maxTotal;
+		}
+
+		/**
+		 * @param maxTotal the maximum number of connections of the pool
+		 */
+		public void setMaxTotal(int maxTotal) {
+			this.maxTotal = maxTotal;
+		}
+
+		public int getMaxPerRoute() {
+			return maxPerRoute;
+		}
+
+		/**
+		 * @param maxPerRoute the maximum number of connections per route (host and port)
+		 */
+		public void setMaxPerRoute(int maxPerRoute) {
+			this.maxPerRoute = maxPerRoute;
+		}
+
+		public int getIoThreadCount() {
+			return ioThreadCount;
+		}
+
+		/**
+		 * @param ioThreadCount the number of IO reactor threads
+		 */
+		public void setIoThreadCount(int ioThreadCount) {
+			this.ioThreadCount = ioThreadCount;
+		}
+
+		public int getSocketTimeoutMillis() {
+			return socketTimeoutMillis;
+		}
+
+		/**
+		 * @param socketTimeoutMillis the socket idle timeout
+		 */
+		public void setSocketTimeoutMillis(int socketTimeoutMillis) {
+			this.socketTimeoutMillis = socketTimeoutMillis;
+		}
+
+		public int getConnectTimeoutMillis() {
+			return connectTimeoutMillis;
+		}
+
+		/**
+		 * @param connectTimeoutMillis the socket connect timeout
+		 */
+		public void setConnectTimeoutMillis(int connectTimeoutMillis) {
+			this.connectTimeoutMillis = connectTimeoutMillis;
+		}
+
+		public int getSocketBufferSize() {
+			return socketBufferSize;
+		}
+
+		/**
+		 * @param socketBufferSize the socket buffer size in bytes
+		 */
+		public void setSocketBufferSize(int socketBufferSize) {
+			this.socketBufferSize = socketBufferSize;
+		}
+
+		public boolean isTcpNoDelay() {
+			return tcpNoDelay;
+		}
+
+		/**
+		 * @param tcpNoDelay whether to use TCP_NODELAY
+		 */
+		public void setTcpNoDelay(boolean tcpNoDelay) {
+			this.tcpNoDelay = tcpNoDelay;
+		}
+
+		public SSLContext getSslContext() {
+			return sslContext;
+		}
+
+		/**
+		 * @param sslContext the SSL context, or null for the default one
+		 */
+		public void setSslContext(SSLContext sslContext) {
+			this.sslContext = sslContext;
+		}
+	}
+}
@@ -16,10 +16,19 @@ import java.lang.reflect.Type;
 import java.net.HttpURLConnection;
 import java.net.Proxy;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
 
@@ -31,7 +40,7 @@ import static com.googlecode.jsonrpc4j.JsonRpcBasicServer.JSONRPC_CONTENT_TYPE;
  * A JSON-RPC client that uses the HTTP protocol.
  */
 @SuppressWarnings("unused")
-public class JsonRpcHttpClient extends JsonRpcClient implements IJsonRpcClient {
+public class JsonRpcHttpClient extends JsonRpcClient implements IJsonRpcClient, IJsonRpcBatchClient {
 	
 	private static final String GZIP = "gzip";
 	
@@ -44,6 +53,9 @@ public class JsonRpcHttpClient extends JsonRpcClient implements IJsonRpcClient {
 	private HostnameVerifier hostNameVerifier = null;
 	private String contentType = JSONRPC_CONTENT_TYPE;
 	private boolean gzipRequests = false;
+	private volatile Semaphore connectionPermits = null;
+	private int maxBatchSize = 0;
+	private ExecutorService batchExecutor = null;
 	
 	/**
 	 * Creates the {@link JsonRpcHttpClient} bound to the given {@code serviceUrl}.
@@ -122,49 +134,204 @@ public class JsonRpcHttpClient extends JsonRpcClient implements IJsonRpcClient {
 	 * {@inheritDoc}
 	 */
 	@Override
-	public Object invoke(String methodName, Object argument, Type returnType, Map<String, String> extraHeaders) throws Throwable {
-		HttpURLConnection connection = prepareConnection(extraHeaders);
+	public Object invoke(final String methodName, final Object argument, final Type returnType, Map<String, String> extraHeaders) throws Throwable {
+		final long start = startCall();
+		boolean failed = true;
 		try {
-			if (this.gzipRequests) {
-				connection.setRequestProperty(CONTENT_ENCODING, GZIP);
-				ByteArrayOutputStream baos = new ByteArrayOutputStream();
-				try (GZIPOutputStream gos = new GZIPOutputStream(baos)) {
-					super.invoke(methodName, argument, gos);
+			final Object result = exchange(extraHeaders, new Exchange<Object>() {
+				@Override
+				public void writeRequest(OutputStream output) throws IOException {
+					JsonRpcHttpClient.super.invoke(methodName, argument, output);
 				}
-				connection.setFixedLengthStreamingMode(baos.size());
-				connection.connect();
-				connection.getOutputStream().write(baos.toByteArray());
-			} else {
-				connection.connect();
-				try (OutputStream send = connection.getOutputStream()) {
-					super.invoke(methodName, argument, send);
+				
+				@Override
+				public Object readResponse(InputStream input) throws Throwable {
+					return JsonRpcHttpClient.super.readResponse(returnType, input);
 				}
+			});
+			failed = false;
+			return result;
+		} finally {
+			recordCall(methodName, start, failed);
+		}
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void invokeBatch(JsonRpcBatch batch) throws Throwable {
+		invokeBatch(batch, new HashMap<String, String>());
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * If {@link #setMaxBatchSize(int) a maximum batch size} is set, batches
+	 * exceeding it are split into several requests that are sent in parallel
+	 * using the {@link #setBatchExecutor(ExecutorService) batch executor}.
+	 * If any of these requests fails, the futures of its calls are failed and
+	 * the first failure is thrown once all the requests have completed.
+	 */
+	@Override
+	public void invokeBatch(JsonRpcBatch batch, final Map<String, String> extraHeaders) throws Throwable {
+		batch.markSent();
+		final List<JsonRpcBatch.Call<?>> calls = batch.getCalls();
+		if (calls.isEmpty()) {
+			return;
+		}
+		if (maxBatchSize <= 0 || calls.size() <= maxBatchSize) {
+			Throwable failure = invokeBatchChunk(calls, extraHeaders);
+			if (failure != null) {
+				throw failure;
 			}
-			
-			final boolean useGzip = useGzip(connection);
-			// read and return value
-			try {
-				try (InputStream answer = getStream(connection.getInputStream(), useGzip)) {
-					return super.readResponse(returnType, answer);
+			return;
+		}
+		
+		final List<Future<Throwable>> chunks = new ArrayList<>();
+		for (int from = maxBatchSize; from < calls.size(); from += maxBatchSize) {
+			final List<JsonRpcBatch.Call<?>> chunk = calls.subList(from, Math.min(from + maxBatchSize, calls.size()));
+			chunks.add(getBatchExecutor().submit(new Callable<Throwable>() {
+				@Override
+				public Throwable call() {
+					return invokeBatchChunk(chunk, extraHeaders);
 				}
-			} catch (JsonMappingException e) {
-				// JsonMappingException inherits from IOException
-				throw e;
-			} catch (IOException e) {
-				if (connection.getErrorStream() == null) {
-					throw new HttpException("Caught error with no response body.", e);
+			}));
+		}
+		// the first chunk is sent by the calling thread
+		Throwable failure = invokeBatchChunk(calls.subList(0, maxBatchSize), extraHeaders);
+		for (Future<Throwable> chunk : chunks) {
+			Throwable chunkFailure = chunk.get();
+			if (failure == null) {
+				failure = chunkFailure;
+			}
+		}
+		if (failure != null) {
+			throw failure;
+		}
+	}
+	
+	/**
+	 * Sends the given calls as a single batch request.
+	 *
+	 * @return the failure of the request, or null if it succeeded
+	 */
+	private Throwable invokeBatchChunk(final List<JsonRpcBatch.Call<?>> calls, Map<String, String> extraHeaders) {
+		try {
+			exchange(extraHeaders, new Exchange<Void>() {
+				private Map<String, JsonRpcBatch.Call<?>> callsById;
+				
+				@Override
+				public void writeRequest(OutputStream output) throws IOException {
+					callsById = writeBatchRequest(calls, output);
 				}
-
-				try (InputStream answer = getStream(connection.getErrorStream(), useGzip)) {
-					return super.readResponse(returnType, answer);
-				} catch (IOException ef) {
-					throw new HttpException(readErrorString(connection), ef);
+				
+				@Override
+				public Void readResponse(InputStream input) throws Throwable {
+					readBatchResponse(callsById, input);
+					return null;
 				}
+			});
+			return null;
+		} catch (Throwable t) {
+			for (JsonRpcBatch.Call<?> call : calls) {
+				call.fail(t);
+			}
+			return t;
+		}
+	}
+	
+	/**
+	 * Sends a request to the server and reads its response.
+	 *
+	 * @param extraHeaders extra headers to add to the request
+	 * @param exchange     writes the request and reads the response
+	 * @param <T>          the type of the response
+	 * @return the response
+	 * @throws Throwable on error
+	 */
+	private <T> T exchange(Map<String, String> extraHeaders, Exchange<T> exchange) throws Throwable {
+		final Semaphore permits = connectionPermits;
+		long waitedNanos = 0;
+		if (permits != null) {
+			final long start = startCall();
+			permits.acquire();
+			waitedNanos = start == 0 ? 0 : System.nanoTime() - start;
+		}
+		try {
+			HttpURLConnection connection = prepareConnection(extraHeaders);
+			try {
+				writeRequest(connection, exchange, waitedNanos);
+				return readResponse(connection, exchange);
+			} finally {
+				// once the response has been read, the socket is left in the keep-alive cache of HttpURLConnection
+				connection.disconnect();
 			}
 		} finally {
-			connection.disconnect();
+			if (permits != null) {
+				permits.release();
+			}
+		}
+	}
+	
+	private void writeRequest(HttpURLConnection connection, Exchange<?> exchange, long waitedNanos) throws IOException {
+		if (this.gzipRequests) {
+			connection.setRequestProperty(CONTENT_ENCODING, GZIP);
+			ByteArrayOutputStream baos = new ByteArrayOutputStream();
+			try (GZIPOutputStream gos = new GZIPOutputStream(baos)) {
+				exchange.writeRequest(gos);
+			}
+			connection.setFixedLengthStreamingMode(baos.size());
+			connect(connection, waitedNanos);
+			connection.getOutputStream().write(baos.toByteArray());
+		} else {
+			connect(connection, waitedNanos);
+			try (OutputStream send = connection.getOutputStream()) {
+				exchange.writeRequest(send);
+			}
+		}
+	}
+	
+	/**
+	 * Connects, recording the time it took along with the time waited
+	 * for a connection permit to the {@link JsonRpcClientMetrics}.
+	 */
+	private void connect(HttpURLConnection connection, long waitedNanos) throws IOException {
+		final JsonRpcClientMetrics metrics = getMetrics();
+		if (metrics == null) {
+			connection.connect();
+			return;
+		}
+		final long start = System.nanoTime();
+		connection.connect();
+		metrics.recordConnectionAcquire(waitedNanos + System.nanoTime() - start);
+	}
+	
+	private <T> T readResponse(HttpURLConnection connection, Exchange<T> exchange) throws Throwable {
+		final boolean useGzip = useGzip(connection);
+		// read and return value
+		try {
+			return readResponse(connection.getInputStream(), useGzip, exchange);
+		} catch (JsonMappingException e) {
+			// JsonMappingException inherits from IOException
+			throw e;
+		} catch (IOException e) {
+			if (connection.getErrorStream() == null) {
+				throw new HttpException("Caught error with no response body.", e);
+			}
+			
+			try {
+				return readResponse(connection.getErrorStream(), useGzip, exchange);
+			} catch (IOException ef) {
+				throw new HttpException(readErrorString(connection), ef);
+			}
+		}
+	}
+	
+	private <T> T readResponse(InputStream response, boolean useGzip, Exchange<T> exchange) throws Throwable {
+		try (InputStream answer = getStream(response, useGzip)) {
+			return exchange.readResponse(answer);
 		}
-		
 	}
 	
 	/**
@@ -208,10 +375,32 @@ public class JsonRpcHttpClient extends JsonRpcClient implements IJsonRpcClient {
 		
 		setupSsl(connection);
 		addHeaders(extraHeaders, connection);
+		addDeadline(connection);
 		
 		return connection;
 	}
 	
+	/**
+	 * Sends the timeout in the {@link JsonRpcDeadline#TIMEOUT_HEADER} header
+	 * as well, and stops reading the response at the deadline of the
+	 * calling thread.
+	 */
+	private void addDeadline(HttpURLConnection connection) {
+		final long timeout = getDeadlineTimeoutMillis();
+		if (timeout < 0) {
+			return;
+		}
+		connection.setRequestProperty(JsonRpcDeadline.TIMEOUT_HEADER, Long.toString(timeout));
+		if (timeout < connection.getReadTimeout() || connection.getReadTimeout() == 0) {
+			connection.setReadTimeout((int) Math.max(1, Math.min(Integer.MAX_VALUE, timeout)));
+		}
+	}
+	
+	@Override
+	protected long getRequestTimeoutMillis() {
+		return readTimeoutMillis > 0 ? readTimeoutMillis : -1;
+	}
+	
 	private boolean useGzip(final HttpURLConnection connection) {
 		String contentEncoding = connection.getHeaderField(CONTENT_ENCODING);
 		return contentEncoding != null && contentEncoding.equalsIgnoreCase(GZIP);
@@ -349,4 +538,81 @@ public class JsonRpcHttpClient extends JsonRpcClient implements IJsonRpcClient {
 		this.contentType = contentType;
 	}
 	
+	/**
+	 * Sets the maximum number of connections this client uses concurrently;
+	 * further calls wait for a connection to be released.  A value of
+	 * {@code 0} or less means no limit.
+	 * <p>
+	 * The number of idle connections kept alive per server by
+	 * {@link HttpURLConnection} is set by the {@code http.maxConnections}
+	 * system property (5 by default), which should be at least as large as
+	 * this value for the connections to be reused by the following calls.
+	 *
+	 * @param maxConnections the maxConnections to set
+	 */
+	public void setMaxConnections(int maxConnections) {
+		this.connectionPermits = maxConnections > 0 ? new Semaphore(maxConnections, true) : null;
+	}
+	
+	/**
+	 * @return the maxBatchSize
+	 */
+	public int getMaxBatchSize() {
+		return maxBatchSize;
+	}
+	
+	/**
+	 * Sets the maximum number of calls sent in a single batch request.
+	 * Larger batches are split into several requests that are sent in
+	 * parallel.  A value of {@code 0} or less disables splitting.
+	 *
+	 * @param maxBatchSize the maxBatchSize to set
+	 */
+	public void setMaxBatchSize(int maxBatchSize) {
+		this.maxBatchSize = maxBatchSize;
+	}
+	
+	/**
+	 * Sets the {@link ExecutorService} used to send the requests of a split
+	 * batch in parallel.  If none is set a shared cached thread pool is used.
+	 *
+	 * @param batchExecutor the batchExecutor to set
+	 */
+	public void setBatchExecutor(ExecutorService batchExecutor) {
+		this.batchExecutor = batchExecutor;
+	}
+	
+	private ExecutorService getBatchExecutor() {
+		return batchExecutor != null ? batchExecutor : DefaultBatchExecutor.INSTANCE;
+	}
+	
+	/**
+	 * Writes a request to and reads the response from an HTTP connection.
+	 *
+	 * @param <T> the type of the response
+	 */
+	private interface Exchange<T> {
+		
+		void writeRequest(OutputStream output) throws IOException;
+		
+		T readResponse(InputStream input) throws Throwable;
+	}
+	
+	/**
+	 * Lazily created executor shared by all the clients without a batch executor.
+	 */
+	private static class DefaultBatchExecutor {
+		
+		static final ExecutorService INSTANCE = Executors.newCachedThreadPool(new ThreadFactory() {
+			private final AtomicInteger count = new AtomicInteger();
+			
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "jsonrpc4j HTTP batch " + count.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+	}
+	
 }
@@ -0,0 +1,822 @@
+package com.googlecode.jsonrpc4j;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An {@link IJsonRpcClient} spreading the calls over several endpoints of a
+ * service, e.g. one {@link JsonRpcHttpClient}, {@link JsonRpcSocketClient}
+ * or {@code JsonRpcRestClient} per server, without a load balancer in front
+ * of them.
+ * <pre>
+ * JsonRpcLoadBalancingClient client = new JsonRpcLoadBalancingClient(
+ *     new JsonRpcHttpClient(new URL("http://first.example.com/UserService.json")),
+ *     new JsonRpcHttpClient(new URL("http://second.example.com/UserService.json")));
+ * client.setPolicy(LoadBalancingPolicy.LEAST_OUTSTANDING);
+ * UserService service = ProxyUtil.createClientProxy(classLoader, UserService.class, client);
+ * </pre>
+ * The {@link #setPolicy(LoadBalancingPolicy) policy} picks the endpoint of
+ * each call, {@link LoadBalancingPolicy#POWER_OF_TWO_CHOICES} by default.
+ * <p>
+ * Endpoints are ejected passively, from the outcome of the calls: an
+ * endpoint is taken out of rotation for the ejection time when, among at
+ * least {@link #setMinimumRequests(int) minimumRequests} calls of a
+ * detection interval, too many failed or when its average response time is
+ * too high compared to the other endpoints.  Failures are I/O errors, such
+ * as refused connections or HTTP errors, JSON-RPC errors returned by a
+ * healthy server are not.  The ejection time grows with each consecutive
+ * ejection, and no more than {@link #setMaxEjectionPercent(int) maxEjectionPercent}
+ * of the endpoints are ejected at once.  Once back, an endpoint gets a
+ * growing share of the calls during the {@link #setSlowStartMillis(long) slow start}
+ * so that it is not flooded while warming up.
+ * <p>
+ * Endpoints can be {@link #addEndpoint(String, IJsonRpcClient) added} and
+ * {@link #removeEndpoint(String) removed} while the client is in use.
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+public class JsonRpcLoadBalancingClient implements IJsonRpcClient {
+
+	private static final Logger logger = LoggerFactory.getLogger(JsonRpcLoadBalancingClient.class);
+	private static final double LATENCY_SMOOTHING = 0.2;
+	private static final double MIN_SLOW_START_WEIGHT = 0.1;
+	private static final int MAX_EJECTION_MULTIPLIER = 10;
+
+	private final AtomicInteger nextEndpoint = new AtomicInteger();
+	private final AtomicInteger totalOutstanding = new AtomicInteger();
+	private final Object ejectionLock = new Object();
+	private final Object endpointsLock = new Object();
+	private volatile Endpoint[] endpoints;
+	private volatile HashRing ring = null;
+	private volatile LoadBalancingPolicy policy = LoadBalancingPolicy.POWER_OF_TWO_CHOICES;
+	private int minimumRequests = 10;
+	private double maxErrorRate = 0.5;
+	private double maxLatencyRatio = 5;
+	private long detectionIntervalMillis = 10000;
+	private long baseEjectionMillis = 30000;
+	private int maxEjectionPercent = 50;
+	private long slowStartMillis = 30000;
+	private int virtualNodes = 100;
+	private double hashLoadFactor = 1.25;
+
+	/**
+	 * Creates the {@link JsonRpcLoadBalancingClient}.
+	 *
+	 * @param endpoints the clients of the endpoints
+	 */
+	public JsonRpcLoadBalancingClient(IJsonRpcClient... endpoints) {
+		this(Arrays.asList(endpoints));
+	}
+
+	/**
+	 * Creates the {@link JsonRpcLoadBalancingClient}, the endpoints are
+	 * identified by their index.
+	 *
+	 * @param endpoints the clients of the endpoints
+	 */
+	public JsonRpcLoadBalancingClient(List<? extends IJsonRpcClient> endpoints) {
+		if (endpoints.isEmpty()) {
+			throw new IllegalArgumentException("At least one endpoint is required");
+		}
+		this.endpoints = new Endpoint[endpoints.size()];
+		for (int i = 0; i < this.endpoints.length; i++) {
+			this.endpoints[i] = new Endpoint(String.valueOf(i), endpoints.get(i));
+		}
+	}
+
+	/**
+	 * Creates the {@link JsonRpcLoadBalancingClient}.  The ids of the
+	 * endpoints place them on the hash ring of the
+	 * {@link LoadBalancingPolicy#CONSISTENT_HASH} policy, they should not
+	 * change when the endpoints are restarted, e.g. their URLs.
+	 *
+	 * @param endpoints the clients of the endpoints by id
+	 */
+	public JsonRpcLoadBalancingClient(Map<String, ? extends IJsonRpcClient> endpoints) {
+		if (endpoints.isEmpty()) {
+			throw new IllegalArgumentException("At least one endpoint is required");
+		}
+		final List<Endpoint> list = new ArrayList<>(endpoints.size());
+		for (Map.Entry<String, ? extends IJsonRpcClient> entry : endpoints.entrySet()) {
+			list.add(new Endpoint(entry.getKey(), entry.getValue()));
+		}
+		this.endpoints = list.toArray(new Endpoint[list.size()]);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void invoke(String methodName, Object argument) throws Throwable {
+		invoke(methodName, argument, (Type) null);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Object invoke(String methodName, Object argument, Type returnType) throws Throwable {
+		return invoke(methodName, argument, returnType, new HashMap<String, String>());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Object invoke(String methodName, Object argument, Type returnType, Map<String, String> extraHeaders) throws Throwable {
+		final Endpoint endpoint = select(System.nanoTime());
+		endpoint.outstanding.incrementAndGet();
+		totalOutstanding.incrementAndGet();
+		final long start = System.nanoTime();
+		try {
+			final Object result = endpoint.client.invoke(methodName, argument, returnType, extraHeaders);
+			record(endpoint, false, start);
+			return result;
+		} catch (Throwable t) {
+			record(endpoint, isEndpointFailure(t), start);
+			throw t;
+		} finally {
+			endpoint.outstanding.decrementAndGet();
+			totalOutstanding.decrementAndGet();
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T> T invoke(String methodName, Object argument, Class<T> clazz) throws Throwable {
+		return (T) invoke(methodName, argument, Type.class.cast(clazz));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T> T invoke(String methodName, Object argument, Class<T> clazz, Map<String, String> extraHeaders) throws Throwable {
+		return (T) invoke(methodName, argument, Type.class.cast(clazz), extraHeaders);
+	}
+
+	/**
+	 * Tells whether an error thrown by an endpoint counts as a failure of
+	 * the endpoint for the outlier ejection.  These are I/O errors, except
+	 * for responses that could not be mapped to the return type.
+	 *
+	 * @param t the error
+	 * @return whether the endpoint failed
+	 */
+	protected boolean isEndpointFailure(Throwable t) {
+		for (Throwable cause = t; cause != null; cause = cause.getCause()) {
+			if (cause instanceof JsonMappingException) {
+				return false;
+			}
+			if (cause instanceof IOException) {
+				return true;
+			}
+			if (cause.getCause() == cause) {
+				break;
+			}
+		}
+		return false;
+	}
+
+	private Endpoint select(long now) {
+		final Endpoint[] endpoints = this.endpoints;
+		final int count = endpoints.length;
+		if (count == 1) {
+			return endpoints[0];
+		}
+		int available = 0;
+		for (Endpoint endpoint : endpoints) {
+			if (!endpoint.isEjected(now)) {
+				available++;
+			}
+		}
+		// if all the endpoints are ejected they all take calls again
+		final boolean ignoreEjection = available == 0;
+		switch (policy) {
+			case ROUND_ROBIN:
+				return selectRoundRobin(endpoints, now, ignoreEjection);
+			case LEAST_OUTSTANDING:
+				return selectLeastOutstanding(endpoints, now, ignoreEjection);
+			case CONSISTENT_HASH:
+				final Object routingKey = JsonRpcRoutingContext.getRoutingKey();
+				if (routingKey != null) {
+					return selectConsistentHash(endpoints, now, ignoreEjection, ignoreEjection ? count : available, routingKey);
+				}
+				// calls without a routing key are spread like with the default policy
+			default:
+				return selectPowerOfTwoChoices(endpoints, now, ignoreEjection, ignoreEjection ? count : available);
+		}
+	}
+
+	private Endpoint selectRoundRobin(Endpoint[] endpoints, long now, boolean ignoreEjection) {
+		final int count = endpoints.length;
+		final int first = nextEndpoint.getAndIncrement() & Integer.MAX_VALUE;
+		Endpoint fallback = null;
+		for (int i = 0; i < count; i++) {
+			final Endpoint endpoint = endpoints[(first + i) % count];
+			if (!ignoreEjection && endpoint.isEjected(now)) {
+				continue;
+			}
+			// a slow starting endpoint takes its turn only with the probability of its weight
+			final double weight = endpoint.getWeight(now, slowStartMillis);
+			if (weight >= 1 || ThreadLocalRandom.current().nextDouble() < weight) {
+				return endpoint;
+			}
+			if (fallback == null) {
+				fallback = endpoint;
+			}
+		}
+		return fallback != null ? fallback : endpoints[first % count];
+	}
+
+	private Endpoint selectLeastOutstanding(Endpoint[] endpoints, long now, boolean ignoreEjection) {
+		final int count = endpoints.length;
+		final int first = nextEndpoint.getAndIncrement() & Integer.MAX_VALUE;
+		Endpoint best = null;
+		double bestScore = Double.MAX_VALUE;
+		// starting at a rotating endpoint spreads the calls among endpoints with the same score
+		for (int i = 0; i < count; i++) {
+			final Endpoint endpoint = endpoints[(first + i) % count];
+			if (!ignoreEjection && endpoint.isEjected(now)) {
+				continue;
+			}
+			final double score = endpoint.getScore(now, slowStartMillis);
+			if (score < bestScore) {
+				best = endpoint;
+				bestScore = score;
+			}
+		}
+		return best != null ? best : endpoints[first % count];
+	}
+
+	private Endpoint selectPowerOfTwoChoices(Endpoint[] endpoints, long now, boolean ignoreEjection, int available) {
+		final ThreadLocalRandom random = ThreadLocalRandom.current();
+		final int first = random.nextInt(available);
+		if (available == 1) {
+			return pickAvailable(endpoints, now, ignoreEjection, first);
+		}
+		int second = random.nextInt(available - 1);
+		if (second >= first) {
+			second++;
+		}
+		final Endpoint one = pickAvailable(endpoints, now, ignoreEjection, first);
+		final Endpoint other = pickAvailable(endpoints, now, ignoreEjection, second);
+		return other.getScore(now, slowStartMillis) < one.getScore(now, slowStartMillis) ? other : one;
+	}
+
+	/**
+	 * @return the endpoint at the given position among the available ones, or the last available one
+	 */
+	private Endpoint pickAvailable(Endpoint[] endpoints, long now, boolean ignoreEjection, int position) {
+		int seen = 0;
+		Endpoint last = null;
+		for (Endpoint endpoint : endpoints) {
+			if (!ignoreEjection && endpoint.isEjected(now)) {
+				continue;
+			}
+			last = endpoint;
+			if (seen++ == position) {
+				break;
+			}
+		}
+		// an endpoint ejected meanwhile may leave fewer available endpoints than counted
+		return last != null ? last : endpoints[0];
+	}
+
+	private Endpoint selectConsistentHash(Endpoint[] endpoints, long now, boolean ignoreEjection, int available, Object routingKey) {
+		HashRing current = ring;
+		if (current == null || current.endpoints != endpoints || current.virtualNodes != virtualNodes) {
+			current = new HashRing(endpoints, virtualNodes);
+			ring = current;
+		}
+		// bounded load: an endpoint takes at most its share of the outstanding calls times the load factor
+		final double share = hashLoadFactor * (totalOutstanding.get() + 1) / available;
+		final boolean[] visited = new boolean[endpoints.length];
+		final int start = current.find(hash(String.valueOf(routingKey)));
+		Endpoint first = null;
+		int seen = 0;
+		for (int position = start; seen < endpoints.length && position < start + current.owners.length; position++) {
+			final int index = current.owners[position % current.owners.length];
+			if (visited[index]) {
+				continue;
+			}
+			visited[index] = true;
+			seen++;
+			final Endpoint endpoint = endpoints[index];
+			if (!ignoreEjection && endpoint.isEjected(now)) {
+				continue;
+			}
+			if (hashLoadFactor <= 0 || endpoint.outstanding.get() < Math.ceil(share * endpoint.getWeight(now, slowStartMillis))) {
+				return endpoint;
+			}
+			if (first == null) {
+				first = endpoint;
+			}
+		}
+		return first != null ? first : endpoints[current.owners[start]];
+	}
+
+	/**
+	 * 64 bit FNV-1a hash, with the MurmurHash3 finalizer to spread the
+	 * hashes of similar strings over the whole ring.
+	 */
+	private static long hash(String value) {
+		long hash = 0xcbf29ce484222325L;
+		for (int i = 0; i < value.length(); i++) {
+			hash ^= value.charAt(i);
+			hash *= 0x100000001b3L;
+		}
+		hash ^= hash >>> 33;
+		hash *= 0xff51afd7ed558ccdL;
+		hash ^= hash >>> 33;
+		hash *= 0xc4ceb9fe1a85ec53L;
+		hash ^= hash >>> 33;
+		return hash;
+	}
+
+	private void record(Endpoint endpoint, boolean failed, long start) {
+		final long now = System.nanoTime();
+		final Outcome outcome = endpoint.record(failed, now - start, now, TimeUnit.MILLISECONDS.toNanos(detectionIntervalMillis));
+		if (outcome == null || outcome.requests < minimumRequests) {
+			return;
+		}
+		if (outcome.failures > maxErrorRate * outcome.requests) {
+			eject(endpoint, now, "error rate " + outcome.failures + "/" + outcome.requests);
+		} else if (outcome.intervalEnded && maxLatencyRatio > 0) {
+			final double median = getMedianLatency(endpoint, now);
+			if (median > 0 && endpoint.latency > maxLatencyRatio * median) {
+				eject(endpoint, now, "latency " + (long) endpoint.latency + "ns, median " + (long) median + "ns");
+			}
+		}
+	}
+
+	private double getMedianLatency(Endpoint excluded, long now) {
+		final Endpoint[] endpoints = this.endpoints;
+		final List<Double> latencies = new ArrayList<>(endpoints.length);
+		for (Endpoint endpoint : endpoints) {
+			if (endpoint != excluded && !endpoint.isEjected(now) && endpoint.latency > 0) {
+				latencies.add(endpoint.latency);
+			}
+		}
+		if (latencies.isEmpty()) {
+			return 0;
+		}
+		Collections.sort(latencies);
+		return latencies.get(latencies.size() / 2);
+	}
+
+	private void eject(Endpoint endpoint, long now, String reason) {
+		synchronized (ejectionLock) {
+			if (endpoint.isEjected(now)) {
+				return;
+			}
+			final Endpoint[] endpoints = this.endpoints;
+			int ejected = 1;
+			for (Endpoint other : endpoints) {
+				if (other.isEjected(now)) {
+					ejected++;
+				}
+			}
+			if (ejected * 100 > maxEjectionPercent * endpoints.length) {
+				logger.debug("Not ejecting endpoint {} ({}), too many endpoints are ejected", endpoint.id, reason);
+				return;
+			}
+			final int ejections = Math.min(MAX_EJECTION_MULTIPLIER, endpoint.ejections + 1);
+			endpoint.eject(now + ejections * TimeUnit.MILLISECONDS.toNanos(baseEjectionMillis), ejections, now);
+			logger.warn("Ejected endpoint {} for {} ms: {}", endpoint.id, ejections * baseEjectionMillis, reason);
+		}
+	}
+
+	/**
+	 * Adds an endpoint.  With the {@link LoadBalancingPolicy#CONSISTENT_HASH}
+	 * policy it only takes over the keys of its own share of the ring.
+	 *
+	 * @param id     the id of the endpoint
+	 * @param client the client of the endpoint
+	 * @throws IllegalArgumentException if an endpoint with the same id exists
+	 */
+	public void addEndpoint(String id, IJsonRpcClient client) {
+		synchronized (endpointsLock) {
+			final Endpoint[] current = endpoints;
+			for (Endpoint endpoint : current) {
+				if (endpoint.id.equals(id)) {
+					throw new IllegalArgumentException("Endpoint " + id + " already exists");
+				}
+			}
+			final Endpoint[] updated = Arrays.copyOf(current, current.length + 1);
+			updated[current.length] = new Endpoint(id, client);
+			endpoints = updated;
+		}
+	}
+
+	/**
+	 * Removes an endpoint, its outstanding calls complete normally.  With
+	 * the {@link LoadBalancingPolicy#CONSISTENT_HASH} policy only its keys
+	 * move to other endpoints.
+	 *
+	 * @param id the id of the endpoint
+	 * @return whether the endpoint was removed
+	 * @throws IllegalStateException if it is the last endpoint
+	 */
+	public boolean removeEndpoint(String id) {
+		synchronized (endpointsLock) {
+			final Endpoint[] current = endpoints;
+			final List<Endpoint> updated = new ArrayList<>(current.length);
+			for (Endpoint endpoint : current) {
+				if (!endpoint.id.equals(id)) {
+					updated.add(endpoint);
+				}
+			}
+			if (updated.size() == current.length) {
+				return false;
+			}
+			if (updated.isEmpty()) {
+				throw new IllegalStateException("The last endpoint can not be removed");
+			}
+			endpoints = updated.toArray(new Endpoint[updated.size()]);
+			return true;
+		}
+	}
+
+	/**
+	 * @return the ids of the endpoints
+	 */
+	public List<String> getEndpointIds() {
+		final Endpoint[] current = endpoints;
+		final List<String> ids = new ArrayList<>(current.length);
+		for (Endpoint endpoint : current) {
+			ids.add(endpoint.id);
+		}
+		return ids;
+	}
+
+	/**
+	 * @return the number of endpoints
+	 */
+	public int getEndpointCount() {
+		return endpoints.length;
+	}
+
+	/**
+	 * @param index the index of the endpoint, in the order of {@link #getEndpointIds()}
+	 * @return whether the endpoint is currently ejected
+	 */
+	public boolean isEjected(int index) {
+		return endpoints[index].isEjected(System.nanoTime());
+	}
+
+	/**
+	 * @return the number of endpoints currently ejected
+	 */
+	public int getEjectedCount() {
+		final long now = System.nanoTime();
+		int ejected = 0;
+		for (Endpoint endpoint : endpoints) {
+			if (endpoint.isEjected(now)) {
+				ejected++;
+			}
+		}
+		return ejected;
+	}
+
+	/**
+	 * @param index the index of the endpoint, in the order of {@link #getEndpointIds()}
+	 * @return the number of calls outstanding on the endpoint
+	 */
+	public int getOutstanding(int index) {
+		return endpoints[index].outstanding.get();
+	}
+
+	/**
+	 * @return the policy
+	 */
+	public LoadBalancingPolicy getPolicy() {
+		return policy;
+	}
+
+	/**
+	 * @param policy the policy to set
+	 */
+	public void setPolicy(LoadBalancingPolicy policy) {
+		this.policy = policy;
+	}
+
+	/**
+	 * @return the minimumRequests
+	 */
+	public int getMinimumRequests() {
+		return minimumRequests;
+	}
+
+	/**
+	 * Sets the number of calls an endpoint must have made in the detection
+	 * interval before it can be ejected.
+	 *
+	 * @param minimumRequests the minimumRequests to set
+	 */
+	public void setMinimumRequests(int minimumRequests) {
+		this.minimumRequests = minimumRequests;
+	}
+
+	/**
+	 * @return the maxErrorRate
+	 */
+	public double getMaxErrorRate() {
+		return maxErrorRate;
+	}
+
+	/**
+	 * Sets the share of failed calls in the detection interval above which
+	 * an endpoint is ejected.
+	 *
+	 * @param maxErrorRate the maxErrorRate to set, between 0 and 1
+	 */
+	public void setMaxErrorRate(double maxErrorRate) {
+		this.maxErrorRate = maxErrorRate;
+	}
+
+	/**
+	 * @return the maxLatencyRatio
+	 */
+	public double getMaxLatencyRatio() {
+		return maxLatencyRatio;
+	}
+
+	/**
+	 * Sets how many times slower than the median of the other endpoints an
+	 * endpoint may respond, on average, before it is ejected at the end of
+	 * a detection interval.  A value of {@code 0} disables the latency
+	 * based ejection.
+	 *
+	 * @param maxLatencyRatio the maxLatencyRatio to set
+	 */
+	public void setMaxLatencyRatio(double maxLatencyRatio) {
+		this.maxLatencyRatio = maxLatencyRatio;
+	}
+
+	/**
+	 * @return the detectionIntervalMillis
+	 */
+	public long getDetectionIntervalMillis() {
+		return detectionIntervalMillis;
+	}
+
+	/**
+	 * @param detectionIntervalMillis the detectionIntervalMillis to set
+	 */
+	public void setDetectionIntervalMillis(long detectionIntervalMillis) {
+		this.detectionIntervalMillis = detectionIntervalMillis;
+	}
+
+	/**
+	 * @return the baseEjectionMillis
+	 */
+	public long getBaseEjectionMillis() {
+		return baseEjectionMillis;
+	}
+
+	/**
+	 * Sets the time an endpoint is ejected for the first time, consecutive
+	 * ejections last up to ten times longer.
+	 *
+	 * @param baseEjectionMillis the baseEjectionMillis to set
+	 */
+	public void setBaseEjectionMillis(long baseEjectionMillis) {
+		this.baseEjectionMillis = baseEjectionMillis;
+	}
+
+	/**
+	 * @return the maxEjectionPercent
+	 */
+	public int getMaxEjectionPercent() {
+		return maxEjectionPercent;
+	}
+
+	/**
+	 * @param maxEjectionPercent the maxEjectionPercent to set
+	 */
+	public void setMaxEjectionPercent(int maxEjectionPercent) {
+		this.maxEjectionPercent = maxEjectionPercent;
+	}
+
+	/**
+	 * @return the slowStartMillis
+	 */
+	public long getSlowStartMillis() {
+		return slowStartMillis;
+	}
+
+	/**
+	 * Sets the time during which an endpoint back from ejection gets a
+	 * growing share of the calls.  A value of {@code 0} disables the slow
+	 * start.
+	 *
+	 * @param slowStartMillis the slowStartMillis to set
+	 */
+	public void setSlowStartMillis(long slowStartMillis) {
+		this.slowStartMillis = slowStartMillis;
+	}
+
+	/**
+	 * @return the virtualNodes
+	 */
+	public int getVirtualNodes() {
+		return virtualNodes;
+	}
+
+	/**
+	 * Sets the number of points of each endpoint on the hash ring of the
+	 * {@link LoadBalancingPolicy#CONSISTENT_HASH} policy, more points
+	 * spread the keys more evenly.
+	 *
+	 * @param virtualNodes the virtualNodes to set
+	 */
+	public void setVirtualNodes(int virtualNodes) {
+		if (virtualNodes < 1) {
+			throw new IllegalArgumentException("At least one virtual node is required");
+		}
+		this.virtualNodes = virtualNodes;
+	}
+
+	/**
+	 * @return the hashLoadFactor
+	 */
+	public double getHashLoadFactor() {
+		return hashLoadFactor;
+	}
+
+	/**
+	 * Sets the bound of the load of an endpoint with the
+	 * {@link LoadBalancingPolicy#CONSISTENT_HASH} policy: an endpoint with
+	 * more than this factor times the average number of outstanding calls
+	 * passes its keys to the next endpoint of the ring until it catches up,
+	 * so that a hot key does not overload its endpoint.  A value of {@code 0}
+	 * disables the bound.
+	 *
+	 * @param hashLoadFactor the hashLoadFactor to set, greater than 1
+	 */
+	public void setHashLoadFactor(double hashLoadFactor) {
+		this.hashLoadFactor = hashLoadFactor;
+	}
+
+	/**
+	 * The hash ring of the endpoints, each one placed at its virtual nodes.
+	 */
+	private static class HashRing {
+
+		final Endpoint[] endpoints;
+		final int virtualNodes;
+		final long[] hashes;
+		final int[] owners;
+
+		HashRing(Endpoint[] endpoints, int virtualNodes) {
+			this.endpoints = endpoints;
+			this.virtualNodes = virtualNodes;
+			final int size = endpoints.length * virtualNodes;
+			final long[] nodes = new long[size];
+			final Map<Long, Integer> nodeOwners = new HashMap<>(size * 2);
+			int count = 0;
+			for (int i = 0; i < endpoints.length; i++) {
+				for (int node = 0; node < virtualNodes; node++) {
+					final long nodeHash = hash(endpoints[i].id + "#" + node);
+					// the rare colliding node is dropped
+					if (!nodeOwners.containsKey(nodeHash)) {
+						nodeOwners.put(nodeHash, i);
+						nodes[count++] = nodeHash;
+					}
+				}
+			}
+			this.hashes = Arrays.copyOf(nodes, count);
+			Arrays.sort(hashes);
+			this.owners = new int[count];
+			for (int i = 0; i < count; i++) {
+				owners[i] = nodeOwners.get(hashes[i]);
+			}
+		}
+
+		/**
+		 * @return the position of the first node at or after the hash, clockwise
+		 */
+		int find(long hash) {
+			final int position = Arrays.binarySearch(hashes, hash);
+			final int next = position >= 0 ? position : -position - 1;
+			return next < hashes.length ? next : 0;
+		}
+	}
+
+	/**
+	 * The calls of an endpoint in a detection interval.
+	 */
+	private static class Outcome {
+
+		final int requests;
+		final int failures;
+		final boolean intervalEnded;
+
+		Outcome(int requests, int failures, boolean intervalEnded) {
+			this.requests = requests;
+			this.failures = failures;
+			this.intervalEnded = intervalEnded;
+		}
+	}
+
+	/**
+	 * An endpoint and its health.
+	 */
+	private static class Endpoint {
+
+		final String id;
+		final IJsonRpcClient client;
+		final AtomicInteger outstanding = new AtomicInteger();
+		volatile double latency;
+		volatile int ejections;
+		private volatile long ejectedUntil;
+		private volatile boolean recovering;
+		private long intervalStart = System.nanoTime();
+		private int requests;
+		private int failures;
+
+		Endpoint(String id, IJsonRpcClient client) {
+			this.id = id;
+			this.client = client;
+		}
+
+		boolean isEjected(long now) {
+			return recovering && now - ejectedUntil < 0;
+		}
+
+		/**
+		 * @return the share of its calls the endpoint takes, below 1 during the slow start
+		 */
+		double getWeight(long now, long slowStartMillis) {
+			if (!recovering) {
+				return 1;
+			}
+			final long slowStart = TimeUnit.MILLISECONDS.toNanos(slowStartMillis);
+			final long elapsed = now - ejectedUntil;
+			if (elapsed >= slowStart) {
+				recovering = false;
+				return 1;
+			}
+			return Math.max(MIN_SLOW_START_WEIGHT, (double) elapsed / slowStart);
+		}
+
+		double getScore(long now, long slowStartMillis) {
+			return (outstanding.get() + 1) / getWeight(now, slowStartMillis);
+		}
+
+		/**
+		 * @return the calls of the detection interval, or null if the endpoint is ejected
+		 */
+		synchronized Outcome record(boolean failed, long latencyNanos, long now, long intervalNanos) {
+			if (isEjected(now)) {
+				return null;
+			}
+			if (!failed) {
+				latency = latency == 0 ? latencyNanos : latency + LATENCY_SMOOTHING * (latencyNanos - latency);
+			}
+			requests++;
+			if (failed) {
+				failures++;
+			}
+			final boolean intervalEnded = now - intervalStart >= intervalNanos;
+			final Outcome outcome = new Outcome(requests, failures, intervalEnded);
+			if (intervalEnded) {
+				if (requests >= 1 && failures == 0 && !recovering) {
+					// a healthy interval forgives the past ejections
+					ejections = 0;
+				}
+				intervalStart = now;
+				requests = 0;
+				failures = 0;
+			}
+			return outcome;
+		}
+
+		synchronized void eject(long until, int ejections, long now) {
+			this.ejectedUntil = until;
+			this.ejections = ejections;
+			this.recovering = true;
+			this.latency = 0;
+			this.intervalStart = now;
+			this.requests = 0;
+			this.failures = 0;
+		}
+	}
+}
@@ -0,0 +1,33 @@
+package com.googlecode.jsonrpc4j;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Annotation for capping the number of concurrent invocations of a
+ * service method.  The calls over the cap are answered with the
+ * {@link ErrorResolver.JsonError#SERVER_OVERLOADED} error, right away
+ * or once they have waited {@link #maxWait()} for a running call to end.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface JsonRpcMaxConcurrent {
+
+	/**
+	 * @return the number of invocations running at once.
+	 */
+	int value();
+
+	/**
+	 * @return how long a call over the cap waits, {@code 0} to fail fast.
+	 */
+	long maxWait() default 0;
+
+	/**
+	 * @return the unit of {@link #maxWait()}.
+	 */
+	TimeUnit unit() default TimeUnit.MILLISECONDS;
+}
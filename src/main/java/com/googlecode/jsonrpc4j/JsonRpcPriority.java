@@ -0,0 +1,24 @@
+package com.googlecode.jsonrpc4j;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Annotation for giving the calls of service methods a priority, used
+ * when they wait for a thread of a {@link JsonRpcPriorityExecutor}.  The
+ * higher the priority, the sooner the call runs.  A priority sent with
+ * the request, see {@link JsonRpcPriorityExecutor#PRIORITY}, takes
+ * precedence if the server accepts it.  On an interface it applies to all of its methods, unless
+ * they are annotated themselves.
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface JsonRpcPriority {
+
+	/**
+	 * @return the priority, {@code 0} being the priority of the calls without one.
+	 */
+	int value();
+}
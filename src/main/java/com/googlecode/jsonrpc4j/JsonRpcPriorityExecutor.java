@@ -0,0 +1,232 @@
+package com.googlecode.jsonrpc4j;
+
+import java.util.Comparator;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RunnableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A thread pool running the waiting tasks with the highest priority
+ * first.  So that low priority tasks are not starved, a waiting task
+ * gains one priority level per aging period: a task of priority 0
+ * queued two periods before a task of priority 2 runs first.  Tasks of
+ * the same effective priority run in the order they were queued.
+ * <p>
+ * The tasks take the priority of the thread queuing them, see
+ * {@link #setCurrentPriority(Integer)}, unless given one.  The servers
+ * set it to the priority of the request being handled: the
+ * {@link #PRIORITY} member of the request or the {@link #PRIORITY_HEADER}
+ * HTTP header, if {@link JsonRpcBasicServer#setAcceptRequestPriorities(boolean)
+ * accepted}, or else the {@link JsonRpcPriority} of the method.  It
+ * can be used as the request executor of a {@link StreamServer} and as
+ * an executor of {@link JsonRpcBasicServer#setExecutors(java.util.Map)}.
+ * <pre>
+ * JsonRpcPriorityExecutor executor = new JsonRpcPriorityExecutor(16, 500);
+ * streamServer.setRequestExecutor(executor);
+ * </pre>
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+public class JsonRpcPriorityExecutor extends ThreadPoolExecutor {
+
+	/**
+	 * The member of the request holding its priority.
+	 */
+	public static final String PRIORITY = "priority";
+
+	/**
+	 * The HTTP header holding the priority of the request.
+	 */
+	public static final String PRIORITY_HEADER = "X-JsonRpc-Priority";
+
+	public static final long DEFAULT_AGING_MILLIS = 1000;
+
+	private static final ThreadLocal<Integer> currentPriority = new ThreadLocal<>();
+
+	private static final Comparator<Runnable> ORDER = new Comparator<Runnable>() {
+		@Override
+		public int compare(Runnable first, Runnable second) {
+			final Prioritized a = (Prioritized) first;
+			final Prioritized b = (Prioritized) second;
+			final int order = Long.compare(a.getRank(), b.getRank());
+			return order != 0 ? order : Long.compare(a.getSequence(), b.getSequence());
+		}
+	};
+
+	private final long agingNanos;
+	private final long origin = System.nanoTime();
+	private final AtomicLong sequence = new AtomicLong();
+
+	/**
+	 * Creates the executor with the default aging period.
+	 *
+	 * @param threads the number of threads
+	 */
+	public JsonRpcPriorityExecutor(int threads) {
+		this(threads, DEFAULT_AGING_MILLIS);
+	}
+
+	/**
+	 * Creates the executor.
+	 *
+	 * @param threads     the number of threads
+	 * @param agingMillis the time after which a waiting task gains one priority level
+	 */
+	public JsonRpcPriorityExecutor(int threads, long agingMillis) {
+		super(threads, threads, 0L, TimeUnit.MILLISECONDS, new PriorityBlockingQueue<>(11, ORDER));
+		if (agingMillis <= 0) {
+			throw new IllegalArgumentException("Invalid aging period " + agingMillis);
+		}
+		this.agingNanos = TimeUnit.MILLISECONDS.toNanos(agingMillis);
+	}
+
+	/**
+	 * @return the priority of the tasks queued by the current thread, {@code 0} by default
+	 */
+	public static int getCurrentPriority() {
+		final Integer priority = currentPriority.get();
+		return priority == null ? 0 : priority;
+	}
+
+	/**
+	 * Sets the priority of the tasks queued by the current thread.
+	 *
+	 * @param priority the priority, or null to clear it
+	 * @return the previous priority, to be restored once done
+	 */
+	public static Integer setCurrentPriority(Integer priority) {
+		final Integer previous = currentPriority.get();
+		if (priority == null) {
+			currentPriority.remove();
+		} else {
+			currentPriority.set(priority);
+		}
+		return previous;
+	}
+
+	/**
+	 * @return the priority set on the current thread, or null
+	 */
+	static Integer getPriority() {
+		return currentPriority.get();
+	}
+
+	/**
+	 * Runs a task with the given priority.
+	 *
+	 * @param command  the task
+	 * @param priority the priority
+	 */
+	public void execute(Runnable command, int priority) {
+		super.execute(new PrioritizedRunnable(command, rank(priority), sequence.getAndIncrement()));
+	}
+
+	/**
+	 * Runs a task with the given priority.
+	 *
+	 * @param task     the task
+	 * @param priority the priority
+	 * @param <T>      the type of the result
+	 * @return the result
+	 */
+	public <T> Future<T> submit(Callable<T> task, int priority) {
+		final RunnableFuture<T> future = new PrioritizedFutureTask<>(task, rank(priority), sequence.getAndIncrement());
+		super.execute(future);
+		return future;
+	}
+
+	@Override
+	public void execute(Runnable command) {
+		if (command instanceof Prioritized) {
+			super.execute(command);
+		} else {
+			execute(command, getCurrentPriority());
+		}
+	}
+
+	@Override
+	protected <T> RunnableFuture<T> newTaskFor(Callable<T> callable) {
+		return new PrioritizedFutureTask<>(callable, rank(getCurrentPriority()), sequence.getAndIncrement());
+	}
+
+	@Override
+	protected <T> RunnableFuture<T> newTaskFor(Runnable runnable, T value) {
+		return new PrioritizedFutureTask<>(runnable, value, rank(getCurrentPriority()), sequence.getAndIncrement());
+	}
+
+	/**
+	 * The rank of a task queued now: the effective priority of a task is
+	 * {@code priority + waited / aging}, so that, now being the same for
+	 * all the waiting tasks, they rank by {@code queued - priority * aging}.
+	 */
+	private long rank(int priority) {
+		return (System.nanoTime() - origin) - priority * agingNanos;
+	}
+
+	private interface Prioritized {
+
+		long getRank();
+
+		long getSequence();
+	}
+
+	private static class PrioritizedRunnable implements Runnable, Prioritized {
+
+		private final Runnable command;
+		private final long rank;
+		private final long sequence;
+
+		PrioritizedRunnable(Runnable command, long rank, long sequence) {
+			this.command = command;
+			this.rank = rank;
+			this.sequence = sequence;
+		}
+
+		@Override
+		public void run() {
+			command.run();
+		}
+
+		@Override
+		public long getRank() {
+			return rank;
+		}
+
+		@Override
+		public long getSequence() {
+			return sequence;
+		}
+	}
+
+	private static class PrioritizedFutureTask<T> extends FutureTask<T> implements Prioritized {
+
+		private final long rank;
+		private final long sequence;
+
+		PrioritizedFutureTask(Callable<T> callable, long rank, long sequence) {
+			super(callable);
+			this.rank = rank;
+			this.sequence = sequence;
+		}
+
+		PrioritizedFutureTask(Runnable runnable, T value, long rank, long sequence) {
+			super(runnable, value);
+			this.rank = rank;
+			this.sequence = sequence;
+		}
+
+		@Override
+		public long getRank() {
+			return rank;
+		}
+
+		@Override
+		public long getSequence() {
+			return sequence;
+		}
+	}
+}
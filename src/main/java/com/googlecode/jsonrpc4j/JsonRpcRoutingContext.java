@@ -0,0 +1,39 @@
+package com.googlecode.jsonrpc4j;
+
+/**
+ * Holds the routing key of the call being made by the current thread, set
+ * by the client proxies from the {@link JsonRpcRoutingKey} annotated
+ * parameter and read by the {@link JsonRpcLoadBalancingClient}.  Code
+ * calling an {@link IJsonRpcClient} directly may set it too.
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+public final class JsonRpcRoutingContext {
+
+	private static final ThreadLocal<Object> routingKey = new ThreadLocal<>();
+
+	private JsonRpcRoutingContext() {
+	}
+
+	/**
+	 * @return the routing key of the current call, or null
+	 */
+	public static Object getRoutingKey() {
+		return routingKey.get();
+	}
+
+	/**
+	 * Sets the routing key of the calls made by the current thread.
+	 *
+	 * @param key the routing key, or null to clear it
+	 * @return the previous routing key, to be restored once the call is made
+	 */
+	public static Object setRoutingKey(Object key) {
+		final Object previous = routingKey.get();
+		if (key == null) {
+			routingKey.remove();
+		} else {
+			routingKey.set(key);
+		}
+		return previous;
+	}
+}
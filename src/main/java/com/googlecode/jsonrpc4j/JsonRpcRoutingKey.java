@@ -0,0 +1,19 @@
+package com.googlecode.jsonrpc4j;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Annotation for annotating the parameter of a client interface method
+ * whose value routes the call: a {@link JsonRpcLoadBalancingClient} using
+ * the {@link LoadBalancingPolicy#CONSISTENT_HASH} policy sends all the
+ * calls with the same key to the same endpoint.  The key is hashed as
+ * its {@link String#valueOf(Object) string value}.
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface JsonRpcRoutingKey {
+	
+}
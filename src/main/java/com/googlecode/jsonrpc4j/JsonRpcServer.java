@@ -139,6 +139,8 @@ public class JsonRpcServer extends JsonRpcBasicServer {
 		int result = ErrorResolver.JsonError.PARSE_ERROR.code;
 		int contentLength = 0;
 		ByteArrayOutputStream byteOutput = new ByteArrayOutputStream();
+		final Long previousDeadline = setTimeout(isAcceptRequestDeadlines() ? request.getHeader(JsonRpcDeadline.TIMEOUT_HEADER) : null);
+		final Integer previousPriority = setPriority(isAcceptRequestPriorities() ? request.getHeader(JsonRpcPriorityExecutor.PRIORITY_HEADER) : null);
 		try {
 			String acceptEncoding = request.getHeader(ACCEPT_ENCODING);
 			result = handleRequest0(input, output, acceptEncoding, response, byteOutput);
@@ -150,6 +152,9 @@ public class JsonRpcServer extends JsonRpcBasicServer {
 			} else {
 				logger.error(t.getMessage(), t);
 			}
+		} finally {
+			JsonRpcDeadline.restore(previousDeadline);
+			JsonRpcPriorityExecutor.setCurrentPriority(previousPriority);
 		}
 		int httpStatusCode = httpStatusCodeProvider == null ? DefaultHttpStatusCodeProvider.INSTANCE.getHttpStatusCode(result)
 				: httpStatusCodeProvider.getHttpStatusCode(result);
@@ -159,6 +164,40 @@ public class JsonRpcServer extends JsonRpcBasicServer {
 		output.flush();
 	}
 	
+	/**
+	 * Sets the deadline of the requests from the {@link JsonRpcDeadline#TIMEOUT_HEADER} header.
+	 *
+	 * @param timeout the value of the header, or null
+	 * @return the previous deadline
+	 */
+	private static Long setTimeout(String timeout) {
+		if (timeout != null) {
+			try {
+				return JsonRpcDeadline.setTimeout(Long.parseLong(timeout.trim()));
+			} catch (NumberFormatException e) {
+				logger.debug("Invalid {} header: {}", JsonRpcDeadline.TIMEOUT_HEADER, timeout);
+			}
+		}
+		return JsonRpcDeadline.get();
+	}
+	
+	/**
+	 * Sets the priority of the requests from the {@link JsonRpcPriorityExecutor#PRIORITY_HEADER} header.
+	 *
+	 * @param priority the value of the header, or null
+	 * @return the previous priority
+	 */
+	private static Integer setPriority(String priority) {
+		if (priority != null) {
+			try {
+				return JsonRpcPriorityExecutor.setCurrentPriority(Integer.parseInt(priority.trim()));
+			} catch (NumberFormatException e) {
+				logger.debug("Invalid {} header: {}", JsonRpcPriorityExecutor.PRIORITY_HEADER, priority);
+			}
+		}
+		return JsonRpcPriorityExecutor.getPriority();
+	}
+	
 	private InputStream getRequestStream(HttpServletRequest request) throws IOException {
 		InputStream input;
 		if (request.getMethod().equals("POST")) {
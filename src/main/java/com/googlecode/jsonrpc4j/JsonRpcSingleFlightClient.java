@@ -0,0 +1,164 @@
+package com.googlecode.jsonrpc4j;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.lang.reflect.Type;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An {@link IJsonRpcClient} in which concurrent calls of the same method with
+ * the same arguments share a single request: the first caller sends it, the
+ * callers arriving while it is outstanding wait for it and get the same
+ * result, or the same exception.  Nothing is kept once the request has
+ * completed, a later call sends a new request.
+ * <pre>
+ * JsonRpcSingleFlightClient singleFlightClient = new JsonRpcSingleFlightClient(new JsonRpcHttpClient(url));
+ * singleFlightClient.setMethodNames(Collections.singleton("getSettings"));
+ * ConfigService service = ProxyUtil.createClientProxy(classLoader, ConfigService.class, singleFlightClient);
+ * </pre>
+ * Calls are told apart by method name, serialized arguments and return type.
+ * Only the methods listed with {@link #setMethodNames(Set)} share their
+ * requests, none by default: a shared call of a method that is not
+ * idempotent would only take effect once.  Calls with extra headers are
+ * never shared, as the headers may change the result.
+ * <p>
+ * Shared results are returned to all the callers and must therefore not be
+ * modified.
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+public class JsonRpcSingleFlightClient implements IJsonRpcClient {
+
+	private final IJsonRpcClient client;
+	private final ObjectMapper mapper;
+	private final ConcurrentMap<CallKey, JsonRpcFuture<Object>> inFlight = new ConcurrentHashMap<>();
+	private final AtomicLong sharedCount = new AtomicLong();
+	private volatile Set<String> methodNames = Collections.emptySet();
+
+	/**
+	 * Creates the {@link JsonRpcSingleFlightClient}.
+	 *
+	 * @param client the client sending the requests
+	 */
+	public JsonRpcSingleFlightClient(IJsonRpcClient client) {
+		this(client, new ObjectMapper());
+	}
+
+	/**
+	 * Creates the {@link JsonRpcSingleFlightClient}.
+	 *
+	 * @param client the client sending the requests
+	 * @param mapper the {@link ObjectMapper} used to serialize the arguments to compare calls
+	 */
+	public JsonRpcSingleFlightClient(IJsonRpcClient client, ObjectMapper mapper) {
+		this.client = client;
+		this.mapper = mapper;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void invoke(String methodName, Object argument) throws Throwable {
+		client.invoke(methodName, argument);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Object invoke(String methodName, Object argument, Type returnType) throws Throwable {
+		return invoke(methodName, argument, returnType, new HashMap<String, String>());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Object invoke(String methodName, Object argument, Type returnType, Map<String, String> extraHeaders) throws Throwable {
+		final Set<String> shared = methodNames;
+		if (!extraHeaders.isEmpty() || !shared.contains(methodName)) {
+			return client.invoke(methodName, argument, returnType, extraHeaders);
+		}
+
+		final CallKey key = CallKey.of(mapper, methodName, argument, returnType);
+		final JsonRpcFuture<Object> flight = new JsonRpcFuture<>();
+		final JsonRpcFuture<Object> leader = inFlight.putIfAbsent(key, flight);
+		if (leader != null) {
+			sharedCount.incrementAndGet();
+			try {
+				return leader.get();
+			} catch (ExecutionException e) {
+				throw e.getCause();
+			}
+		}
+
+		final Object result;
+		try {
+			result = client.invoke(methodName, argument, returnType, extraHeaders);
+		} catch (Throwable t) {
+			inFlight.remove(key, flight);
+			flight.onError(t);
+			throw t;
+		}
+		// no caller may join the flight once it is removed, later calls send a new request
+		inFlight.remove(key, flight);
+		flight.onComplete(result);
+		return result;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T> T invoke(String methodName, Object argument, Class<T> clazz) throws Throwable {
+		return (T) invoke(methodName, argument, Type.class.cast(clazz));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T> T invoke(String methodName, Object argument, Class<T> clazz, Map<String, String> extraHeaders) throws Throwable {
+		return (T) invoke(methodName, argument, Type.class.cast(clazz), extraHeaders);
+	}
+
+	/**
+	 * @return the number of calls that got the result of a request sent by another caller
+	 */
+	public long getSharedCount() {
+		return sharedCount.get();
+	}
+
+	/**
+	 * @return the number of requests currently outstanding that can be shared
+	 */
+	public int getInFlightCount() {
+		return inFlight.size();
+	}
+
+	/**
+	 * @return the methodNames
+	 */
+	public Set<String> getMethodNames() {
+		return methodNames;
+	}
+
+	/**
+	 * Sets the JSON-RPC methods whose requests may be shared, which must be
+	 * idempotent.  No method is shared by default.
+	 *
+	 * @param methodNames the methodNames to set, null for none
+	 */
+	public void setMethodNames(Set<String> methodNames) {
+		this.methodNames = methodNames == null ? Collections.<String>emptySet() : methodNames;
+	}
+}
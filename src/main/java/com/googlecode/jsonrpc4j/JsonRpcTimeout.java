@@ -0,0 +1,26 @@
+package com.googlecode.jsonrpc4j;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Annotation for limiting the time a service method is given.  The limit
+ * narrows the deadline sent by the client, see {@link JsonRpcDeadline}.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface JsonRpcTimeout {
+
+	/**
+	 * @return the time the method is given.
+	 */
+	long value();
+
+	/**
+	 * @return the unit of {@link #value()}.
+	 */
+	TimeUnit unit() default TimeUnit.MILLISECONDS;
+}
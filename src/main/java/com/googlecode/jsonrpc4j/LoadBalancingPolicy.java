@@ -0,0 +1,30 @@
+package com.googlecode.jsonrpc4j;
+
+/**
+ * How a {@link JsonRpcLoadBalancingClient} picks the endpoint of a call.
+ */
+public enum LoadBalancingPolicy {
+	/**
+	 * The endpoints take turns.
+	 */
+	ROUND_ROBIN,
+	/**
+	 * The endpoint with the fewest outstanding calls.
+	 */
+	LEAST_OUTSTANDING,
+	/**
+	 * The endpoint with the fewer outstanding calls of two picked at random,
+	 * nearly as good as {@link #LEAST_OUTSTANDING} without scanning all the
+	 * endpoints and without sending bursts to the same one.
+	 */
+	POWER_OF_TWO_CHOICES,
+	/**
+	 * The endpoint owning the {@link JsonRpcRoutingKey routing key} of the
+	 * call on a consistent hash ring, so that the calls with the same key
+	 * reach the same endpoint, e.g. to make good use of its caches.  Adding
+	 * or removing an endpoint only moves the keys of its share of the ring.
+	 * Calls without a routing key are spread like with
+	 * {@link #POWER_OF_TWO_CHOICES}.
+	 */
+	CONSISTENT_HASH
+}
@@ -0,0 +1,67 @@
+package com.googlecode.jsonrpc4j;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lets through at most a given number of log messages per second, so
+ * that a storm of errors is sampled instead of being logged one by one.
+ * The messages that are not let through are counted, the next message
+ * let through can report how many were left out.
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+public class LogRateLimiter {
+
+	private static final long INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+	private final int maxPerSecond;
+	private final AtomicLong intervalStart = new AtomicLong(System.nanoTime());
+	private final AtomicInteger logged = new AtomicInteger();
+	private final AtomicLong suppressed = new AtomicLong();
+
+	/**
+	 * Creates the limiter.
+	 *
+	 * @param maxPerSecond the number of messages let through per second, no limit if not positive
+	 */
+	public LogRateLimiter(int maxPerSecond) {
+		this.maxPerSecond = maxPerSecond;
+	}
+
+	/**
+	 * @return the number of messages let through per second, no limit if not positive
+	 */
+	public int getMaxPerSecond() {
+		return maxPerSecond;
+	}
+
+	/**
+	 * Asks to log a message.
+	 *
+	 * @return -1 if the message is not to be logged, otherwise the number
+	 * of messages left out since the previous one let through
+	 */
+	public long acquire() {
+		if (maxPerSecond <= 0) {
+			return 0;
+		}
+		final long now = System.nanoTime();
+		final long start = intervalStart.get();
+		if (now - start >= INTERVAL_NANOS && intervalStart.compareAndSet(start, now)) {
+			logged.set(0);
+		}
+		if (logged.incrementAndGet() <= maxPerSecond) {
+			return suppressed.getAndSet(0);
+		}
+		suppressed.incrementAndGet();
+		return -1;
+	}
+
+	/**
+	 * @return the number of messages left out since the last one let through
+	 */
+	public long getSuppressed() {
+		return suppressed.get();
+	}
+}
@@ -0,0 +1,81 @@
+package com.googlecode.jsonrpc4j;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Counts the bytes read and notes when the first one arrived.
+ */
+class MeteredInputStream extends FilterInputStream {
+
+	private long count = 0;
+	private long firstByteNanos = 0;
+	private boolean started = false;
+	private long markCount = 0;
+
+	MeteredInputStream(InputStream input) {
+		super(input);
+	}
+
+	@Override
+	public int read() throws IOException {
+		final int read = super.read();
+		if (read >= 0) {
+			counted(1);
+		}
+		return read;
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+		final int read = super.read(b, off, len);
+		if (read > 0) {
+			counted(read);
+		}
+		return read;
+	}
+
+	@Override
+	public long skip(long n) throws IOException {
+		final long skipped = super.skip(n);
+		if (skipped > 0) {
+			counted(skipped);
+		}
+		return skipped;
+	}
+
+	@Override
+	public synchronized void mark(int readLimit) {
+		super.mark(readLimit);
+		markCount = count;
+	}
+
+	@Override
+	public synchronized void reset() throws IOException {
+		super.reset();
+		count = markCount;
+	}
+
+	private void counted(long bytes) {
+		if (!started) {
+			firstByteNanos = System.nanoTime();
+			started = true;
+		}
+		count += bytes;
+	}
+
+	/**
+	 * @return the number of bytes read
+	 */
+	long getCount() {
+		return count;
+	}
+
+	/**
+	 * @return the {@link System#nanoTime()} of the first byte read, or the given time if none was read
+	 */
+	long getFirstByteNanos(long otherwise) {
+		return started ? firstByteNanos : otherwise;
+	}
+}
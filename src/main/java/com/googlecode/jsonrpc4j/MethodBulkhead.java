@@ -0,0 +1,86 @@
+package com.googlecode.jsonrpc4j;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The executor, the concurrency cap, the timeout and the priority of a
+ * service method, read once from its {@link JsonRpcExecutor},
+ * {@link JsonRpcMaxConcurrent}, {@link JsonRpcTimeout} and
+ * {@link JsonRpcPriority} annotations.
+ */
+class MethodBulkhead {
+
+	static final MethodBulkhead NONE = new MethodBulkhead(null, null, 0, -1, 0);
+
+	final String executorName;
+	final long timeoutMillis;
+	final int priority;
+	private final Semaphore permits;
+	private final long maxWaitNanos;
+
+	private MethodBulkhead(String executorName, Semaphore permits, long maxWaitNanos, long timeoutMillis, int priority) {
+		this.executorName = executorName;
+		this.permits = permits;
+		this.maxWaitNanos = maxWaitNanos;
+		this.timeoutMillis = timeoutMillis;
+		this.priority = priority;
+	}
+
+	static MethodBulkhead of(Method method) {
+		JsonRpcExecutor executor = ReflectionUtil.getAnnotation(method, JsonRpcExecutor.class);
+		if (executor == null) {
+			executor = method.getDeclaringClass().getAnnotation(JsonRpcExecutor.class);
+		}
+		final JsonRpcMaxConcurrent maxConcurrent = ReflectionUtil.getAnnotation(method, JsonRpcMaxConcurrent.class);
+		final JsonRpcTimeout timeout = ReflectionUtil.getAnnotation(method, JsonRpcTimeout.class);
+		JsonRpcPriority priority = ReflectionUtil.getAnnotation(method, JsonRpcPriority.class);
+		if (priority == null) {
+			priority = method.getDeclaringClass().getAnnotation(JsonRpcPriority.class);
+		}
+		if (executor == null && maxConcurrent == null && timeout == null && priority == null) {
+			return NONE;
+		}
+		if (maxConcurrent != null && maxConcurrent.value() < 1) {
+			throw new IllegalArgumentException("Invalid @JsonRpcMaxConcurrent(" + maxConcurrent.value() + ") on " + method);
+		}
+		if (timeout != null && timeout.value() < 0) {
+			throw new IllegalArgumentException("Invalid @JsonRpcTimeout(" + timeout.value() + ") on " + method);
+		}
+		return new MethodBulkhead(executor == null ? null : executor.value(),
+				maxConcurrent == null ? null : new Semaphore(maxConcurrent.value()),
+				maxConcurrent == null ? 0 : maxConcurrent.unit().toNanos(maxConcurrent.maxWait()),
+				timeout == null ? -1 : timeout.unit().toMillis(timeout.value()),
+				priority == null ? 0 : priority.value());
+	}
+
+	/**
+	 * Takes a permit to invoke the method, waiting at most the time
+	 * allowed by its {@link JsonRpcMaxConcurrent} annotation, and not
+	 * past the deadline of the request.
+	 *
+	 * @return whether the method may be invoked, if so the permit has to be released
+	 */
+	boolean tryAcquire() {
+		if (permits == null) {
+			return true;
+		}
+		final long waitNanos = Math.min(maxWaitNanos, TimeUnit.MILLISECONDS.toNanos(JsonRpcDeadline.getRemainingMillis()));
+		if (waitNanos <= 0) {
+			return permits.tryAcquire();
+		}
+		try {
+			return permits.tryAcquire(waitNanos, TimeUnit.NANOSECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+
+	void release() {
+		if (permits != null) {
+			permits.release();
+		}
+	}
+}
@@ -3,20 +3,20 @@ package com.googlecode.jsonrpc4j;
 import com.fasterxml.jackson.databind.JsonNode;
 
 import java.lang.reflect.Method;
-import java.util.Collections;
-import java.util.LinkedList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
  * {@link ErrorResolver} that supports the use
  * of multiple {@link ErrorResolver} used one
  * after another until one is able to resolve
- * the error.
+ * the error.  The chain is kept in an array replaced
+ * when a resolver is added, so resolving does not lock.
  */
 @SuppressWarnings({"WeakerAccess", "unused"})
 public class MultipleErrorResolver implements ErrorResolver {
 	
-	private final List<ErrorResolver> resolvers;
+	private volatile ErrorResolver[] resolvers;
 	
 	/**
 	 * Creates with the given {@link ErrorResolver}s,
@@ -26,8 +26,7 @@ public class MultipleErrorResolver implements ErrorResolver {
 	 * @param resolvers the {@link ErrorResolver}s
 	 */
 	public MultipleErrorResolver(ErrorResolver... resolvers) {
-		this.resolvers = new LinkedList<>();
-		Collections.addAll(this.resolvers, resolvers);
+		this.resolvers = resolvers.clone();
 	}
 	
 	/**
@@ -36,8 +35,10 @@ public class MultipleErrorResolver implements ErrorResolver {
 	 *
 	 * @param errorResolver the {@link ErrorResolver} to add
 	 */
-	public void addErrorResolver(ErrorResolver errorResolver) {
-		this.resolvers.add(errorResolver);
+	public synchronized void addErrorResolver(ErrorResolver errorResolver) {
+		final ErrorResolver[] added = Arrays.copyOf(resolvers, resolvers.length + 1);
+		added[resolvers.length] = errorResolver;
+		this.resolvers = added;
 	}
 	
 	/**
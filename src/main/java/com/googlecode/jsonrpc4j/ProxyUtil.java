@@ -16,6 +16,8 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 /**
  * Utilities for create client proxies.
@@ -152,9 +154,8 @@ public abstract class ProxyUtil {
 			public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
 				if (isDeclaringClassAnObject(method)) return proxyObjectMethods(method, proxy, args);
 				
-				final Object arguments = ReflectionUtil.parseArguments(method, args);
-				final String methodName = getMethodName(method);
-				return client.invokeAndReadResponse(methodName, arguments, method.getGenericReturnType(), output, input);
+				final JsonRpcCallPlan plan = JsonRpcCallPlan.forMethod(method);
+				return client.invokeAndReadResponse(plan.getName(), plan.parseArguments(args), plan.getReturnType(), output, input);
 			}
 		});
 	}
@@ -163,21 +164,13 @@ public abstract class ProxyUtil {
 		return method.getDeclaringClass() == Object.class;
 	}
 	
-	private static String getMethodName(Method method) {
-		final JsonRpcMethod jsonRpcMethod = ReflectionUtil.getAnnotation(method, JsonRpcMethod.class);
-		if (jsonRpcMethod == null) {
-			return method.getName();
-		} else {
-			return jsonRpcMethod.value();
-		}
-	}
-	
 	public static <T> T createClientProxy(Class<T> clazz, JsonRpcRestClient client) {
 		return createClientProxy(clazz.getClassLoader(), clazz, client);
 	}
 	
 	/**
 	 * Creates a {@link Proxy} of the given {@code proxyInterface} that uses the given {@link JsonRpcHttpClient}.
+	 * The {@link JsonRpcClientStub} generated for the interface is returned instead if there is one.
 	 *
 	 * @param <T>            the proxy type
 	 * @param classLoader    the {@link ClassLoader}
@@ -191,7 +184,8 @@ public abstract class ProxyUtil {
 	
 	/**
 	 * Creates a {@link Proxy} of the given {@code proxyInterface}
-	 * that uses the given {@link IJsonRpcClient}.
+	 * that uses the given {@link IJsonRpcClient}, or the
+	 * {@link JsonRpcClientStub} generated for the interface if there is one.
 	 *
 	 * @param <T>            the proxy type
 	 * @param classLoader    the {@link ClassLoader}
@@ -203,14 +197,69 @@ public abstract class ProxyUtil {
 	@SuppressWarnings("unchecked")
 	private static <T> T createClientProxy(ClassLoader classLoader, Class<T> proxyInterface, final IJsonRpcClient client, final Map<String, String> extraHeaders) {
 		
+		final T stub = JsonRpcClientStub.create(proxyInterface, client, extraHeaders);
+		if (stub != null) {
+			return stub;
+		}
 		return (T) Proxy.newProxyInstance(classLoader, new Class<?>[]{proxyInterface}, new InvocationHandler() {
 			@Override
 			public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
 				if (isDeclaringClassAnObject(method)) return proxyObjectMethods(method, proxy, args);
 				
-				final Object arguments = ReflectionUtil.parseArguments(method, args);
-				final String methodName = getMethodName(method);
-				return client.invoke(methodName, arguments, method.getGenericReturnType(), extraHeaders);
+				final JsonRpcCallPlan plan = JsonRpcCallPlan.forMethod(method);
+				if (!plan.hasRoutingKey()) {
+					return client.invoke(plan.getName(), plan.parseArguments(args), plan.getReturnType(), extraHeaders);
+				}
+				final Object previousKey = JsonRpcRoutingContext.setRoutingKey(plan.getRoutingKey(args));
+				try {
+					return client.invoke(plan.getName(), plan.parseArguments(args), plan.getReturnType(), extraHeaders);
+				} finally {
+					JsonRpcRoutingContext.setRoutingKey(previousKey);
+				}
+			}
+		});
+	}
+	
+	/**
+	 * Creates a {@link Proxy} of the given {@code proxyInterface}
+	 * that uses the given {@link IJsonRpcAsyncClient}.  Methods of the
+	 * interface declared to return a {@link Future} or a {@link JsonRpcFuture}
+	 * return immediately, the type argument of the future being the type of
+	 * the result.  Other methods block until their result is available.
+	 * <pre>
+	 * interface UserServiceAsync {
+	 *   JsonRpcFuture&lt;User&gt; createUser(String userName, String password);
+	 * }
+	 * </pre>
+	 *
+	 * @param <T>            the proxy type
+	 * @param classLoader    the {@link ClassLoader}
+	 * @param proxyInterface the interface to proxy
+	 * @param client         the {@link IJsonRpcAsyncClient}
+	 * @return the proxied interface
+	 */
+	public static <T> T createClientProxy(ClassLoader classLoader, Class<T> proxyInterface, final IJsonRpcAsyncClient client) {
+		return createClientProxy(classLoader, proxyInterface, client, new HashMap<String, String>());
+	}
+	
+	@SuppressWarnings("unchecked")
+	private static <T> T createClientProxy(ClassLoader classLoader, Class<T> proxyInterface, final IJsonRpcAsyncClient client, final Map<String, String> extraHeaders) {
+		
+		return (T) Proxy.newProxyInstance(classLoader, new Class<?>[]{proxyInterface}, new InvocationHandler() {
+			@Override
+			public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+				if (isDeclaringClassAnObject(method)) return proxyObjectMethods(method, proxy, args);
+				
+				final JsonRpcCallPlan plan = JsonRpcCallPlan.forMethod(method);
+				final Object arguments = plan.parseArguments(args);
+				if (plan.returnsFuture()) {
+					return client.invokeAsync(plan.getName(), arguments, plan.getResultType(), extraHeaders);
+				}
+				try {
+					return client.invokeAsync(plan.getName(), arguments, plan.getReturnType(), extraHeaders).get();
+				} catch (ExecutionException e) {
+					throw e.getCause();
+				}
 			}
 		});
 	}
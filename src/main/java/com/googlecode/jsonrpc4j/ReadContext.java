@@ -1,5 +1,6 @@
 package com.googlecode.jsonrpc4j;
 
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
@@ -25,6 +26,17 @@ public class ReadContext {
 		return mapper.readValue(input, JsonNode.class);
 	}
 	
+	/**
+	 * Creates a parser reading the values of this context as tokens.
+	 * Closing the parser does not close the underlying stream.
+	 *
+	 * @return the parser
+	 * @throws IOException on error
+	 */
+	public JsonParser createParser() throws IOException {
+		return mapper.getFactory().createParser(input);
+	}
+	
 	public void assertReadable() throws IOException {
 		if (input.markSupported()) {
 			input.mark(1);
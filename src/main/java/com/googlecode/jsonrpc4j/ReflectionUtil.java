@@ -6,7 +6,6 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -188,76 +187,7 @@ public abstract class ReflectionUtil {
 	 * @return the parsed arguments
 	 */
 	public static Object parseArguments(Method method, Object[] arguments) {
-
-		JsonRpcParamsPassMode paramsPassMode = JsonRpcParamsPassMode.AUTO;
-		JsonRpcMethod jsonRpcMethod = getAnnotation(method, JsonRpcMethod.class);
-		if (jsonRpcMethod != null)
-			paramsPassMode = jsonRpcMethod.paramsPassMode();
-
-		Map<String, Object> namedParams = getNamedParameters(method, arguments);
-
-		switch (paramsPassMode) {
-			case ARRAY:
-				if (namedParams.size() > 0) {
-					Object[] parsed = new Object[namedParams.size()];
-					int i = 0;
-					for (Object value : namedParams.values()) {
-						parsed[i++] = value;
-					}
-					return parsed;
-				} else {
-					return arguments != null ? arguments : new Object[]{};
-				}
-			case OBJECT:
-				if (namedParams.size() > 0) {
-					return namedParams;
-				} else {
-					if (arguments == null) {
-                        return new Object[]{};
-                    }
-					throw new IllegalArgumentException(
-							"OBJECT parameters pass mode is impossible without declaring JsonRpcParam annotations for all parameters on method "
-									+ method.getName());
-				}
-			case AUTO:
-			default:
-				if (namedParams.size() > 0) {
-					return namedParams;
-				} else {
-					return arguments != null ? arguments : new Object[]{};
-				}
-		}
-	}
-	
-	/**
-	 * Checks method for @JsonRpcParam annotations and returns named parameters.
-	 *
-	 * @param method    the method
-	 * @param arguments the arguments
-	 * @return named parameters or empty if no annotations found
-	 * @throws IllegalArgumentException if some parameters are annotated and others not
-	 */
-	private static Map<String, Object> getNamedParameters(Method method, Object[] arguments) {
-		
-		Map<String, Object> namedParams = new LinkedHashMap<>();
-		
-		Annotation[][] paramAnnotations = method.getParameterAnnotations();
-		for (int i = 0; i < paramAnnotations.length; i++) {
-			Annotation[] ann = paramAnnotations[i];
-			for (Annotation an : ann) {
-				if (JsonRpcParam.class.isInstance(an)) {
-					JsonRpcParam jAnn = (JsonRpcParam) an;
-					namedParams.put(jAnn.value(), arguments[i]);
-					break;
-				}
-			}
-		}
-		
-		if (arguments != null && arguments.length > 0 && namedParams.size() > 0 && namedParams.size() != arguments.length) {
-			throw new IllegalArgumentException("JsonRpcParam annotations were not found for all parameters on method " + method.getName());
-		}
-		
-		return namedParams;
+		return JsonRpcCallPlan.forMethod(method).parseArguments(arguments);
 	}
 
 	public static void clearCache() {
@@ -265,5 +195,6 @@ public abstract class ReflectionUtil {
 		parameterTypeCache.clear();
 		methodAnnotationCache.clear();
 		methodParamAnnotationCache.clear();
+		JsonRpcCallPlan.clearCache();
 	}
 }
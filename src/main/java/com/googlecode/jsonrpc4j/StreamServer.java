@@ -1,13 +1,18 @@
 package com.googlecode.jsonrpc4j;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.net.ServerSocketFactory;
 import javax.net.ssl.SSLException;
 import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.Closeable;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.InetAddress;
 import java.net.ServerSocket;
@@ -17,7 +22,9 @@ import java.net.SocketTimeoutException;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -39,6 +46,8 @@ public class StreamServer {
 	private final AtomicBoolean keepRunning = new AtomicBoolean(false);
 	private final Set<Server> servers = new HashSet<>();
 	private int maxClientErrors = 5;
+	private volatile ExecutorService requestExecutor = null;
+	private volatile FairRequestScheduler requestScheduler = null;
 	
 	/**
 	 * Creates a {@code StreamServer} with the given max number
@@ -179,6 +188,49 @@ public class StreamServer {
 		this.maxClientErrors = maxClientErrors;
 	}
 	
+	/**
+	 * Sets the executor handling the requests of the connections.  Without
+	 * one, the thread of a connection handles its requests one at a time.
+	 * With one, the thread of a connection only reads its requests: they
+	 * are handled on the executor while the next ones are read, each
+	 * response being written as soon as ready.  The connection can then
+	 * cancel its requests with {@link JsonRpcCancellation#CANCEL_REQUEST}
+	 * notifications, and its requests are cancelled when it is closed.
+	 * The executor is not shut down with the server.  A
+	 * {@link JsonRpcPriorityExecutor} runs the requests waiting for a
+	 * thread by their priority.
+	 *
+	 * @param requestExecutor the executor, or null to handle the requests on the thread of their connection
+	 */
+	public void setRequestExecutor(ExecutorService requestExecutor) {
+		this.requestExecutor = requestExecutor;
+	}
+	
+	/**
+	 * @return the executor handling the requests of the connections, or null
+	 */
+	public ExecutorService getRequestExecutor() {
+		return requestExecutor;
+	}
+	
+	/**
+	 * Sets the scheduler sharing its workers fairly between the connections.
+	 * The requests are then handled as with {@link #setRequestExecutor(ExecutorService)},
+	 * the scheduler taking precedence over the executor.
+	 *
+	 * @param requestScheduler the scheduler, or null
+	 */
+	public void setRequestScheduler(FairRequestScheduler requestScheduler) {
+		this.requestScheduler = requestScheduler;
+	}
+	
+	/**
+	 * @return the scheduler sharing its workers between the connections, or null
+	 */
+	public FairRequestScheduler getRequestScheduler() {
+		return requestScheduler;
+	}
+	
 	/**
 	 * @return the isStarted
 	 */
@@ -191,8 +243,8 @@ public class StreamServer {
 	 */
 	public class Server implements Runnable {
 		
-		private int errors;
-		private Throwable lastException;
+		private volatile int errors;
+		private volatile Throwable lastException;
 		
 		public int getNumberOfErrors() {
 			return errors;
@@ -241,6 +293,19 @@ public class StreamServer {
 				}
 				
 				servers.add(this);
+				final ExecutorService requestExecutor = StreamServer.this.requestExecutor;
+				final FairRequestScheduler requestScheduler = StreamServer.this.requestScheduler;
+				if (requestExecutor != null || requestScheduler != null) {
+					try {
+						handlePipelined(clientSocket, input, output, requestExecutor, requestScheduler);
+					} finally {
+						servers.remove(this);
+						closeQuietly(clientSocket);
+						closeQuietly(input);
+						closeQuietly(output);
+					}
+					return;
+				}
 				try {
 					while (StreamServer.this.keepRunning.get()) {
 						try {
@@ -269,6 +334,138 @@ public class StreamServer {
 			}
 		}
 		
+		/**
+		 * Reads the requests of the connection and hands them to the scheduler
+		 * or the executor, the cancel requests being handled right away.
+		 */
+		private void handlePipelined(Socket clientSocket, InputStream input, final OutputStream output, ExecutorService requestExecutor, FairRequestScheduler requestScheduler) {
+			final InFlightRequests inFlightRequests = new InFlightRequests();
+			final FairRequestScheduler.Connection connection = requestScheduler != null ? requestScheduler.open() : null;
+			try (JsonParser parser = ReadContext.getReadContext(input, jsonRpcServer.getObjectMapper()).createParser()) {
+				while (StreamServer.this.keepRunning.get() && parser.nextToken() != null) {
+					final JsonNode request = parser.readValueAsTree();
+					if (JsonRpcCancellation.isCancelRequest(request)) {
+						handle(request, output, inFlightRequests);
+						continue;
+					}
+					final JsonNode id = request.isObject() ? request.get(JsonRpcBasicServer.ID) : null;
+					// added right away, so that it can be cancelled while it waits for a thread
+					final InFlightRequests.Request queued = id != null && !id.isNull() ? inFlightRequests.add(id) : null;
+					final Runnable task = new Runnable() {
+						@Override
+						public void run() {
+							try {
+								handle(request, output, inFlightRequests);
+							} finally {
+								if (queued != null) {
+									inFlightRequests.remove(id, queued);
+								}
+							}
+						}
+					};
+					try {
+						if (connection != null) {
+							final Runnable rejection = new Runnable() {
+								@Override
+								public void run() {
+									handleOverloaded(request, output, inFlightRequests, id, queued);
+								}
+							};
+							if (!connection.submit(task, rejection, request.isArray() ? request.size() : 1)) {
+								logger.debug("Request over the quota of the connection: {}", request);
+								rejection.run();
+							}
+						} else {
+							execute(requestExecutor, task, request, output, inFlightRequests, id, queued);
+						}
+					} catch (RejectedExecutionException e) {
+						logger.error("Request rejected, closing client connection", e);
+						break;
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+						break;
+					}
+				}
+				logger.debug("Client disconnected: {}:{}", clientSocket.getInetAddress().getHostAddress(), clientSocket.getPort());
+			} catch (JsonProcessingException e) {
+				logger.debug("Invalid request, closing client connection", e);
+				try {
+					synchronized (output) {
+						jsonRpcServer.handleParseError(output);
+					}
+				} catch (IOException ioe) {
+					logger.debug("Failed to answer invalid request", ioe);
+				}
+			} catch (IOException e) {
+				lastException = e;
+				logger.debug("Client connection failed", e);
+			} finally {
+				// nobody is waiting for their responses anymore
+				if (connection != null) {
+					connection.close();
+				}
+				inFlightRequests.cancelAll();
+			}
+		}
+		
+		/**
+		 * Hands a request to the executor, answering it as overloaded if the
+		 * executor rejects it, the connection remaining open.
+		 */
+		private void execute(ExecutorService requestExecutor, Runnable task, JsonNode request, OutputStream output, InFlightRequests inFlightRequests, JsonNode id, InFlightRequests.Request queued) {
+			try {
+				if (requestExecutor instanceof JsonRpcPriorityExecutor) {
+					((JsonRpcPriorityExecutor) requestExecutor).execute(task, jsonRpcServer.getPriority(request));
+				} else {
+					requestExecutor.execute(task);
+				}
+			} catch (RejectedExecutionException e) {
+				logger.warn("Request rejected by the executor: {}", e.getMessage());
+				handleOverloaded(request, output, inFlightRequests, id, queued);
+			}
+		}
+		
+		/**
+		 * Answers a request of the connection that is not handled because of
+		 * overload, no longer waiting for its response.
+		 */
+		private void handleOverloaded(JsonNode request, OutputStream output, InFlightRequests inFlightRequests, JsonNode id, InFlightRequests.Request queued) {
+			if (queued != null) {
+				inFlightRequests.remove(id, queued);
+			}
+			try {
+				synchronized (output) {
+					jsonRpcServer.handleOverloaded(request, output);
+					output.flush();
+				}
+			} catch (IOException e) {
+				logger.debug("Failed to answer overloaded request", e);
+			}
+		}
+		
+		/**
+		 * Handles a request of the connection, writing its response once complete.
+		 */
+		private void handle(JsonNode request, OutputStream output, InFlightRequests inFlightRequests) {
+			final InFlightRequests previous = JsonRpcCancellation.setInFlightRequests(inFlightRequests);
+			try {
+				final ByteArrayOutputStream response = new ByteArrayOutputStream();
+				jsonRpcServer.handleRequest(request, response);
+				if (response.size() > 0) {
+					synchronized (output) {
+						response.writeTo(output);
+						output.flush();
+					}
+				}
+			} catch (Throwable t) {
+				errors++;
+				lastException = t;
+				logger.error("Exception while handling request", t);
+			} finally {
+				JsonRpcCancellation.setInFlightRequests(previous);
+			}
+		}
+		
 		private void handleSocketTimeoutException(SocketTimeoutException e) {
 			// this is expected because of so_timeout
 		}
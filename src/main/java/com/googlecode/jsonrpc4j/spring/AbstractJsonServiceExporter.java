@@ -9,6 +9,8 @@ import org.springframework.context.ApplicationContextAware;
 import org.springframework.remoting.support.RemoteExporter;
 
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
 
 /**
  * {@link RemoteExporter} that exports services using Json
@@ -33,6 +35,9 @@ abstract class AbstractJsonServiceExporter extends RemoteExporter implements Ini
 	private ConvertedParameterTransformer convertedParameterTransformer = null;
 	private String contentType = null;
 	private List<JsonRpcInterceptor> interceptorList;
+	private Map<String, ExecutorService> executors = null;
+	private boolean acceptRequestDeadlines = false;
+	private boolean acceptRequestPriorities = false;
 
 	/**
 	 * {@inheritDoc}
@@ -70,6 +75,8 @@ abstract class AbstractJsonServiceExporter extends RemoteExporter implements Ini
 		jsonRpcServer.setHttpStatusCodeProvider(httpStatusCodeProvider);
 		jsonRpcServer.setConvertedParameterTransformer(convertedParameterTransformer);
 		jsonRpcServer.setShouldLogInvocationErrors(shouldLogInvocationErrors);
+		jsonRpcServer.setAcceptRequestDeadlines(acceptRequestDeadlines);
+		jsonRpcServer.setAcceptRequestPriorities(acceptRequestPriorities);
 
 		if (contentType != null) {
 			jsonRpcServer.setContentType(contentType);
@@ -77,6 +84,9 @@ abstract class AbstractJsonServiceExporter extends RemoteExporter implements Ini
 		if (interceptorList != null) {
 			jsonRpcServer.setInterceptorList(interceptorList);
 		}
+		if (executors != null) {
+			jsonRpcServer.setExecutors(executors);
+		}
 
 		ReflectionUtil.clearCache();
 
@@ -195,4 +205,25 @@ abstract class AbstractJsonServiceExporter extends RemoteExporter implements Ini
 	public void setInterceptorList(List<JsonRpcInterceptor> interceptorList) {
 		this.interceptorList = interceptorList;
 	}
+
+	/**
+	 * @param executors the executors the methods annotated with {@link JsonRpcExecutor} run on, by name
+	 */
+	public void setExecutors(Map<String, ExecutorService> executors) {
+		this.executors = executors;
+	}
+
+	/**
+	 * @param acceptRequestDeadlines whether to accept the deadlines sent by the clients
+	 */
+	public void setAcceptRequestDeadlines(boolean acceptRequestDeadlines) {
+		this.acceptRequestDeadlines = acceptRequestDeadlines;
+	}
+
+	/**
+	 * @param acceptRequestPriorities whether to accept the priorities sent by the clients
+	 */
+	public void setAcceptRequestPriorities(boolean acceptRequestPriorities) {
+		this.acceptRequestPriorities = acceptRequestPriorities;
+	}
 }
@@ -26,6 +26,9 @@ import static org.springframework.util.ResourceUtils.CLASSPATH_URL_PREFIX;
 
 /**
  * Auto-creates proxies for service interfaces annotated with {@link JsonRpcService}.
+ * With {@link #setUseGeneratedStubs(boolean)} the client stubs generated by
+ * the annotation processor are used instead of proxies for the interfaces
+ * that have one.
  */
 @SuppressWarnings("unused")
 public class AutoJsonRpcClientProxyCreator implements BeanFactoryPostProcessor, ApplicationContextAware {
@@ -36,6 +39,7 @@ public class AutoJsonRpcClientProxyCreator implements BeanFactoryPostProcessor,
 	private URL baseUrl;
 	private ObjectMapper objectMapper;
 	private String contentType;
+	private boolean useGeneratedStubs = false;
 	
 	@Override
 	public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) {
@@ -77,7 +81,8 @@ public class AutoJsonRpcClientProxyCreator implements BeanFactoryPostProcessor,
 		BeanDefinitionBuilder beanDefinitionBuilder = BeanDefinitionBuilder
 				.rootBeanDefinition(JsonProxyFactoryBean.class)
 				.addPropertyValue("serviceUrl", appendBasePath(path))
-				.addPropertyValue("serviceInterface", className);
+				.addPropertyValue("serviceInterface", className)
+				.addPropertyValue("useGeneratedStubs", useGeneratedStubs);
 		
 		if (objectMapper != null) {
 			beanDefinitionBuilder.addPropertyValue("objectMapper", objectMapper);
@@ -121,4 +126,8 @@ public class AutoJsonRpcClientProxyCreator implements BeanFactoryPostProcessor,
 	public void setContentType(String contextType) {
 		this.contentType = contextType;
 	}
+	
+	public void setUseGeneratedStubs(boolean useGeneratedStubs) {
+		this.useGeneratedStubs = useGeneratedStubs;
+	}
 }
@@ -14,6 +14,7 @@ import org.springframework.beans.factory.support.DefaultListableBeanFactory;
 
 import java.util.*;
 import java.util.Map.Entry;
+import java.util.concurrent.ExecutorService;
 import java.util.regex.Pattern;
 
 import static java.lang.String.format;
@@ -60,6 +61,9 @@ public class AutoJsonRpcServiceImplExporter implements BeanFactoryPostProcessor
 	private ConvertedParameterTransformer convertedParameterTransformer = null;
 	private String contentType = null;
 	private List<JsonRpcInterceptor> interceptorList = null;
+	private Map<String, ExecutorService> executors = null;
+	private boolean acceptRequestDeadlines = false;
+	private boolean acceptRequestPriorities = false;
 	
 	/**
 	 * Finds the beans to expose.
@@ -199,9 +203,15 @@ public class AutoJsonRpcServiceImplExporter implements BeanFactoryPostProcessor
 			builder.addPropertyValue("interceptorList", interceptorList);
 		}
 		
+		if (executors != null) {
+			builder.addPropertyValue("executors", executors);
+		}
+		
 		builder.addPropertyValue("backwardsCompatible", backwardsCompatible);
 		builder.addPropertyValue("rethrowExceptions", rethrowExceptions);
 		builder.addPropertyValue("allowExtraParams", allowExtraParams);
+		builder.addPropertyValue("acceptRequestDeadlines", acceptRequestDeadlines);
+		builder.addPropertyValue("acceptRequestPriorities", acceptRequestPriorities);
 		builder.addPropertyValue("allowLessParams", allowLessParams);
 		builder.addPropertyValue("shouldLogInvocationErrors", shouldLogInvocationErrors);
 		
@@ -318,4 +328,16 @@ public class AutoJsonRpcServiceImplExporter implements BeanFactoryPostProcessor
 		}
 		this.interceptorList = interceptorList;
 	}
+	
+	public void setExecutors(Map<String, ExecutorService> executors) {
+		this.executors = executors;
+	}
+	
+	public void setAcceptRequestDeadlines(boolean acceptRequestDeadlines) {
+		this.acceptRequestDeadlines = acceptRequestDeadlines;
+	}
+	
+	public void setAcceptRequestPriorities(boolean acceptRequestPriorities) {
+		this.acceptRequestPriorities = acceptRequestPriorities;
+	}
 }
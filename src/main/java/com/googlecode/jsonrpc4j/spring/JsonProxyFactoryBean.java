@@ -3,7 +3,13 @@ package com.googlecode.jsonrpc4j.spring;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.googlecode.jsonrpc4j.JsonRpcClient.RequestListener;
 import com.googlecode.jsonrpc4j.ExceptionResolver;
+import com.googlecode.jsonrpc4j.IJsonRpcClient;
+import com.googlecode.jsonrpc4j.JsonRpcCallPlan;
+import com.googlecode.jsonrpc4j.JsonRpcClientStub;
 import com.googlecode.jsonrpc4j.JsonRpcHttpClient;
+import com.googlecode.jsonrpc4j.JsonRpcLoadBalancingClient;
+import com.googlecode.jsonrpc4j.JsonRpcRoutingContext;
+import com.googlecode.jsonrpc4j.LoadBalancingPolicy;
 import com.googlecode.jsonrpc4j.ReflectionUtil;
 import org.aopalliance.intercept.MethodInterceptor;
 import org.aopalliance.intercept.MethodInvocation;
@@ -18,10 +24,11 @@ import org.springframework.remoting.support.UrlBasedRemoteAccessor;
 import javax.net.ssl.HostnameVerifier;
 import javax.net.ssl.SSLContext;
 import java.lang.reflect.Method;
-import java.lang.reflect.Type;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -34,9 +41,12 @@ public class JsonProxyFactoryBean extends UrlBasedRemoteAccessor implements Meth
 	private Object proxyObject = null;
 	private RequestListener requestListener = null;
 	private ObjectMapper objectMapper = null;
-	private JsonRpcHttpClient jsonRpcHttpClient = null;
+	private IJsonRpcClient jsonRpcClient = null;
 	private Map<String, String> extraHttpHeaders = new HashMap<>();
 	private String contentType;
+	private List<String> serviceUrls = null;
+	private LoadBalancingPolicy loadBalancingPolicy = null;
+	private boolean useGeneratedStubs = false;
 
 	private SSLContext sslContext = null;
 	private HostnameVerifier hostNameVerifier = null;
@@ -51,10 +61,12 @@ public class JsonProxyFactoryBean extends UrlBasedRemoteAccessor implements Meth
 	@Override
 	@SuppressWarnings("unchecked")
 	public void afterPropertiesSet() {
+		if (getServiceUrl() == null && serviceUrls != null && !serviceUrls.isEmpty()) {
+			setServiceUrl(serviceUrls.get(0));
+		}
 		super.afterPropertiesSet();
-		proxyObject = ProxyFactory.getProxy(getServiceInterface(), this);
 
-		if (jsonRpcHttpClient==null) {
+		if (jsonRpcClient==null) {
 			if (objectMapper == null && applicationContext != null && applicationContext.containsBean("objectMapper")) {
 				objectMapper = (ObjectMapper) applicationContext.getBean("objectMapper");
 			}
@@ -70,26 +82,50 @@ public class JsonProxyFactoryBean extends UrlBasedRemoteAccessor implements Meth
 			}
 	
 			try {
-				jsonRpcHttpClient = new JsonRpcHttpClient(objectMapper, new URL(getServiceUrl()), extraHttpHeaders);
-				jsonRpcHttpClient.setRequestListener(requestListener);
-				jsonRpcHttpClient.setSslContext(sslContext);
-				jsonRpcHttpClient.setHostNameVerifier(hostNameVerifier);
-	
-				if (contentType != null) {
-					jsonRpcHttpClient.setContentType(contentType);
-				}
-				
-				if (exceptionResolver!=null) {
-					jsonRpcHttpClient.setExceptionResolver(exceptionResolver);
+				if (serviceUrls == null || serviceUrls.isEmpty()) {
+					jsonRpcClient = createHttpClient(getServiceUrl());
+				} else {
+					List<IJsonRpcClient> endpoints = new ArrayList<>(serviceUrls.size());
+					for (String serviceUrl : serviceUrls) {
+						endpoints.add(createHttpClient(serviceUrl));
+					}
+					JsonRpcLoadBalancingClient loadBalancingClient = new JsonRpcLoadBalancingClient(endpoints);
+					if (loadBalancingPolicy != null) {
+						loadBalancingClient.setPolicy(loadBalancingPolicy);
+					}
+					jsonRpcClient = loadBalancingClient;
 				}
 			} catch (MalformedURLException mue) {
 				throw new RuntimeException(mue);
 			}
 		}
 
+		if (useGeneratedStubs) {
+			proxyObject = JsonRpcClientStub.create(getServiceInterface(), jsonRpcClient, extraHttpHeaders);
+		}
+		if (proxyObject == null) {
+			proxyObject = ProxyFactory.getProxy(getServiceInterface(), this);
+		}
+
 		ReflectionUtil.clearCache();
 	}
 
+	private JsonRpcHttpClient createHttpClient(String serviceUrl) throws MalformedURLException {
+		JsonRpcHttpClient jsonRpcHttpClient = new JsonRpcHttpClient(objectMapper, new URL(serviceUrl), extraHttpHeaders);
+		jsonRpcHttpClient.setRequestListener(requestListener);
+		jsonRpcHttpClient.setSslContext(sslContext);
+		jsonRpcHttpClient.setHostNameVerifier(hostNameVerifier);
+
+		if (contentType != null) {
+			jsonRpcHttpClient.setContentType(contentType);
+		}
+
+		if (exceptionResolver!=null) {
+			jsonRpcHttpClient.setExceptionResolver(exceptionResolver);
+		}
+		return jsonRpcHttpClient;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -101,10 +137,18 @@ public class JsonProxyFactoryBean extends UrlBasedRemoteAccessor implements Meth
 			return proxyObject.getClass().getName() + "@" + System.identityHashCode(proxyObject);
 		}
 
-		Type retType = (invocation.getMethod().getGenericReturnType() != null) ? invocation.getMethod().getGenericReturnType() : invocation.getMethod().getReturnType();
-		Object arguments = ReflectionUtil.parseArguments(invocation.getMethod(), invocation.getArguments());
+		JsonRpcCallPlan plan = JsonRpcCallPlan.forMethod(method);
+		Object arguments = plan.parseArguments(invocation.getArguments());
 
-		return jsonRpcHttpClient.invoke(invocation.getMethod().getName(), arguments, retType, extraHttpHeaders);
+		if (!plan.hasRoutingKey()) {
+			return jsonRpcClient.invoke(plan.getName(), arguments, plan.getReturnType(), extraHttpHeaders);
+		}
+		Object previousKey = JsonRpcRoutingContext.setRoutingKey(plan.getRoutingKey(invocation.getArguments()));
+		try {
+			return jsonRpcClient.invoke(plan.getName(), arguments, plan.getReturnType(), extraHttpHeaders);
+		} finally {
+			JsonRpcRoutingContext.setRoutingKey(previousKey);
+		}
 	}
 
 	/**
@@ -182,12 +226,51 @@ public class JsonProxyFactoryBean extends UrlBasedRemoteAccessor implements Meth
 	}
 
 	public void setJsonRpcHttpClient(JsonRpcHttpClient jsonRpcHttpClient) {
-		this.jsonRpcHttpClient = jsonRpcHttpClient;
+		this.jsonRpcClient = jsonRpcHttpClient;
+	}
+
+	/**
+	 * Sets the client used for the calls, e.g. the blocking view of a
+	 * {@code JsonRpcHttpAsyncClient}.  If none is set a {@link JsonRpcHttpClient}
+	 * is created for the service URL.
+	 *
+	 * @param jsonRpcClient the jsonRpcClient to set
+	 */
+	public void setJsonRpcClient(IJsonRpcClient jsonRpcClient) {
+		this.jsonRpcClient = jsonRpcClient;
 	}
 
 	public void setExceptionResolver(ExceptionResolver exceptionResolver) {
 		this.exceptionResolver = exceptionResolver;
 	}
 
+	/**
+	 * Sets the URLs of several endpoints of the service, the calls are then
+	 * spread over them by a {@link JsonRpcLoadBalancingClient} instead of
+	 * going to the service URL.
+	 *
+	 * @param serviceUrls the serviceUrls to set
+	 */
+	public void setServiceUrls(List<String> serviceUrls) {
+		this.serviceUrls = serviceUrls;
+	}
+
+	/**
+	 * @param loadBalancingPolicy the policy picking the endpoint of each call when several service URLs are set
+	 */
+	public void setLoadBalancingPolicy(LoadBalancingPolicy loadBalancingPolicy) {
+		this.loadBalancingPolicy = loadBalancingPolicy;
+	}
+
+	/**
+	 * Sets whether the {@link JsonRpcClientStub} generated by the annotation
+	 * processor for the service interface is used instead of an AOP proxy,
+	 * when there is one.  Stubs can not be advised, so they are off by default.
+	 *
+	 * @param useGeneratedStubs true or false
+	 */
+	public void setUseGeneratedStubs(boolean useGeneratedStubs) {
+		this.useGeneratedStubs = useGeneratedStubs;
+	}
 
 }
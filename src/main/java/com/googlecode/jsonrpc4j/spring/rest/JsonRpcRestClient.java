@@ -7,7 +7,12 @@ import com.googlecode.jsonrpc4j.DefaultHttpStatusCodeProvider;
 import com.googlecode.jsonrpc4j.IJsonRpcClient;
 import com.googlecode.jsonrpc4j.JsonRpcClient;
 import com.googlecode.jsonrpc4j.JsonRpcClientException;
+import com.googlecode.jsonrpc4j.JsonRpcClientMetrics;
 import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
 import org.springframework.http.converter.HttpMessageConversionException;
 import org.springframework.http.converter.HttpMessageConverter;
 import org.springframework.util.LinkedMultiValueMap;
@@ -17,6 +22,7 @@ import org.springframework.web.client.RestTemplate;
 
 import javax.net.ssl.HostnameVerifier;
 import javax.net.ssl.SSLContext;
+import java.io.IOException;
 import java.lang.reflect.Type;
 import java.net.Proxy;
 import java.net.URL;
@@ -36,6 +42,7 @@ public class JsonRpcRestClient extends JsonRpcClient implements IJsonRpcClient {
 	private final Map<String, String> headers = new HashMap<>();
 
 	private final SslClientHttpRequestFactory requestFactory;
+	private boolean meteringInterceptorAdded = false;
 
 	public JsonRpcRestClient(URL serviceUrl) {
 		this(serviceUrl, new ObjectMapper());
@@ -166,6 +173,23 @@ public class JsonRpcRestClient extends JsonRpcClient implements IJsonRpcClient {
 		}
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * The sizes of the requests and responses are counted by an interceptor
+	 * added to the {@link RestTemplate}, the size of a response being only
+	 * known when the server sends its {@code Content-Length}.
+	 */
+	@Override
+	public synchronized void setMetrics(JsonRpcClientMetrics metrics) {
+		super.setMetrics(metrics);
+		if (metrics != null && !meteringInterceptorAdded) {
+			final List<ClientHttpRequestInterceptor> interceptors = new ArrayList<>(restTemplate.getInterceptors());
+			interceptors.add(new MeteringInterceptor());
+			restTemplate.setInterceptors(interceptors);
+			meteringInterceptorAdded = true;
+		}
+	}
+
 	public URL getServiceUrl() {
 		return serviceUrl.get();
 	}
@@ -196,8 +220,26 @@ public class JsonRpcRestClient extends JsonRpcClient implements IJsonRpcClient {
 	 */
 	@Override
 	public Object invoke(String methodName, Object argument, Type returnType, Map<String, String> extraHeaders) throws Throwable {
+		final long start = startCall();
+		boolean failed = true;
+		try {
+			final Object result = exchange(methodName, argument, returnType, extraHeaders);
+			failed = false;
+			return result;
+		} finally {
+			recordCall(methodName, start, failed);
+		}
+	}
+
+	private Object exchange(String methodName, Object argument, Type returnType, Map<String, String> extraHeaders) throws Throwable {
 
+		final long start = startCall();
 		final ObjectNode request = super.createRequest(methodName, argument);
+		final JsonRpcClientMetrics metrics = getMetrics();
+		if (metrics != null && start != 0) {
+			// the request is written by the message converter, only building its tree is timed
+			metrics.recordRequest(-1, System.nanoTime() - start);
+		}
 		final MultiValueMap<String, String> httpHeaders = new LinkedMultiValueMap<>();
 
 		for (Map.Entry<String, String> entry : this.headers.entrySet()) {
@@ -252,4 +294,21 @@ public class JsonRpcRestClient extends JsonRpcClient implements IJsonRpcClient {
 		return (T) invoke(methodName, argument, Type.class.cast(clazz), extraHeaders);
 	}
 
+	/**
+	 * Counts the bytes exchanged with the server.
+	 */
+	private class MeteringInterceptor implements ClientHttpRequestInterceptor {
+
+		@Override
+		public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+			final ClientHttpResponse response = execution.execute(request, body);
+			final JsonRpcClientMetrics metrics = getMetrics();
+			if (metrics != null) {
+				metrics.recordBytesSent(body.length);
+				metrics.recordBytesReceived(response.getHeaders().getContentLength());
+			}
+			return response;
+		}
+	}
+
 }
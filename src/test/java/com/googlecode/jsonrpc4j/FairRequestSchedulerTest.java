@@ -0,0 +1,211 @@
+package com.googlecode.jsonrpc4j;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class FairRequestSchedulerTest {
+
+	private final CountDownLatch started = new CountDownLatch(1);
+	private final CountDownLatch release = new CountDownLatch(1);
+	private final List<String> order = new CopyOnWriteArrayList<>();
+	private ExecutorService workers;
+	private FairRequestScheduler scheduler;
+
+	@Before
+	public void setUp() {
+		workers = Executors.newSingleThreadExecutor();
+		scheduler = new FairRequestScheduler(workers, 1);
+	}
+
+	@After
+	public void tearDown() {
+		release.countDown();
+		workers.shutdownNow();
+	}
+
+	@Test
+	public void testRoundRobin() throws Exception {
+		FairRequestScheduler.Connection flooding = scheduler.open();
+		FairRequestScheduler.Connection quiet = scheduler.open();
+		block(flooding);
+		for (int i = 1; i <= 4; i++) {
+			assertTrue(flooding.submit(record("a" + i), reject("a" + i), 1));
+		}
+		assertTrue(quiet.submit(record("b1"), reject("b1"), 1));
+		assertTrue(quiet.submit(record("b2"), reject("b2"), 1));
+		assertEquals(6, scheduler.getQueued());
+		awaitOrder(6);
+		assertEquals(Arrays.asList("a1", "b1", "a2", "b2", "a3", "a4"), order);
+		assertEquals(0, scheduler.getQueued());
+	}
+
+	@Test
+	public void testBatchCost() throws Exception {
+		FairRequestScheduler.Connection batching = scheduler.open();
+		FairRequestScheduler.Connection single = scheduler.open();
+		block(batching);
+		assertTrue(batching.submit(record("batch"), reject("batch"), 3));
+		for (int i = 1; i <= 3; i++) {
+			assertTrue(single.submit(record("b" + i), reject("b" + i), 1));
+		}
+		awaitOrder(4);
+		assertEquals(Arrays.asList("b1", "b2", "batch", "b3"), order);
+	}
+
+	@Test
+	public void testRateLimit() throws Exception {
+		scheduler.setRateLimit(0.001, 2);
+		FairRequestScheduler.Connection connection = scheduler.open();
+		assertTrue(connection.submit(record("first"), reject("first"), 1));
+		assertTrue(connection.submit(record("second"), reject("second"), 1));
+		assertFalse(connection.submit(record("third"), reject("third"), 1));
+		assertTrue(scheduler.open().submit(record("other"), reject("other"), 1));
+	}
+
+	@Test
+	public void testMaxQueued() throws Exception {
+		scheduler.setMaxQueued(1);
+		final FairRequestScheduler.Connection connection = scheduler.open();
+		block(connection);
+		assertTrue(connection.submit(record("queued"), reject("queued"), 1));
+		ExecutorService reader = Executors.newSingleThreadExecutor();
+		try {
+			Future<Boolean> waiting = reader.submit(new Callable<Boolean>() {
+				@Override
+				public Boolean call() throws Exception {
+					return connection.submit(record("waiting"), reject("waiting"), 1);
+				}
+			});
+			try {
+				waiting.get(100, TimeUnit.MILLISECONDS);
+				fail();
+			} catch (TimeoutException e) {
+				// the connection is not read while its queue is full
+			}
+			release.countDown();
+			assertTrue(waiting.get(5, TimeUnit.SECONDS));
+			awaitOrder(2);
+			assertEquals(Arrays.asList("queued", "waiting"), order);
+		} finally {
+			reader.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testCloseDropsQueued() throws Exception {
+		FairRequestScheduler.Connection connection = scheduler.open();
+		block(connection);
+		assertTrue(connection.submit(record("dropped"), reject("dropped"), 1));
+		assertEquals(1, scheduler.getConnections());
+		connection.close();
+		assertEquals(0, scheduler.getQueued());
+		assertEquals(0, scheduler.getConnections());
+		try {
+			connection.submit(record("closed"), reject("closed"), 1);
+			fail();
+		} catch (RejectedExecutionException e) {
+			// expected
+		}
+		release.countDown();
+		workers.shutdown();
+		assertTrue(workers.awaitTermination(5, TimeUnit.SECONDS));
+		assertTrue(order.isEmpty());
+		assertEquals(0, scheduler.getRunning());
+	}
+
+	@Test
+	public void testRejectedByWorkers() throws Exception {
+		workers.shutdownNow();
+		workers = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new SynchronousQueue<Runnable>());
+		scheduler = new FairRequestScheduler(workers, 2);
+		FairRequestScheduler.Connection connection = scheduler.open();
+		block(connection);
+		assertTrue(connection.submit(record("saturated"), reject("saturated"), 1));
+		assertEquals(Collections.singletonList("rejected saturated"), order);
+		assertEquals(1, scheduler.getRunning());
+		workers.shutdown();
+		assertTrue(connection.submit(record("shut down"), reject("shut down"), 1));
+		assertEquals(Arrays.asList("rejected saturated", "rejected shut down"), order);
+		release.countDown();
+		assertTrue(workers.awaitTermination(5, TimeUnit.SECONDS));
+		assertEquals(0, scheduler.getRunning());
+		assertEquals(0, scheduler.getQueued());
+	}
+
+	@Test
+	public void testWorkersCalledWithoutLock() throws Exception {
+		final FairRequestScheduler[] direct = new FairRequestScheduler[1];
+		direct[0] = new FairRequestScheduler(new Executor() {
+			@Override
+			public void execute(Runnable command) {
+				// runs the request in the calling thread, as a caller-runs policy would
+				assertFalse(Thread.holdsLock(direct[0]));
+				command.run();
+			}
+		}, 1);
+		FairRequestScheduler.Connection connection = direct[0].open();
+		for (int i = 1; i <= 3; i++) {
+			assertTrue(connection.submit(record("r" + i), reject("r" + i), 1));
+		}
+		assertEquals(Arrays.asList("r1", "r2", "r3"), order);
+		assertEquals(0, direct[0].getRunning());
+		assertEquals(0, direct[0].getQueued());
+	}
+
+	private void block(FairRequestScheduler.Connection connection) throws InterruptedException {
+		assertTrue(connection.submit(new Runnable() {
+			@Override
+			public void run() {
+				started.countDown();
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		}, reject("blocking"), 1));
+		assertTrue(started.await(5, TimeUnit.SECONDS));
+	}
+
+	private Runnable reject(final String name) {
+		return record("rejected " + name);
+	}
+
+	private Runnable record(final String name) {
+		return new Runnable() {
+			@Override
+			public void run() {
+				order.add(name);
+			}
+		};
+	}
+
+	private void awaitOrder(int size) throws InterruptedException {
+		release.countDown();
+		for (int i = 0; i < 500 && order.size() < size; i++) {
+			Thread.sleep(10);
+		}
+	}
+}
@@ -0,0 +1,100 @@
+package com.googlecode.jsonrpc4j;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Future;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import org.junit.After;
+import org.junit.Test;
+
+public class JsonRpcCallPlanTest {
+
+	@After
+	public void tearDown() {
+		ReflectionUtil.clearCache();
+	}
+
+	@Test
+	public void planIsCachedPerMethod() throws Exception {
+		Method method = PlanService.class.getMethod("plain", String.class);
+		JsonRpcCallPlan plan = JsonRpcCallPlan.forMethod(method);
+		assertSame(plan, JsonRpcCallPlan.forMethod(method));
+
+		ReflectionUtil.clearCache();
+		assertNotSame(plan, JsonRpcCallPlan.forMethod(method));
+	}
+
+	@Test
+	public void methodName() throws Exception {
+		JsonRpcCallPlan plain = JsonRpcCallPlan.forMethod(PlanService.class.getMethod("plain", String.class));
+		assertEquals("plain", plain.getName());
+		assertEquals("plain", plain.getEncodedName().getValue());
+
+		JsonRpcCallPlan renamed = JsonRpcCallPlan.forMethod(PlanService.class.getMethod("renamed", String.class, int.class));
+		assertEquals("other.name", renamed.getName());
+		assertEquals(JsonRpcParamsPassMode.OBJECT, renamed.getParamsPassMode());
+	}
+
+	@Test
+	public void namedParamsKeepDeclarationOrder() throws Exception {
+		JsonRpcCallPlan plan = JsonRpcCallPlan.forMethod(PlanService.class.getMethod("renamed", String.class, int.class));
+		@SuppressWarnings("unchecked")
+		Map<String, Object> params = (Map<String, Object>) plan.parseArguments(new Object[]{"a", 1});
+		assertEquals("[b, a]", params.keySet().toString());
+		assertEquals("a", params.get("b"));
+		assertEquals(1, params.get("a"));
+	}
+
+	@Test
+	public void returnTypes() throws Exception {
+		JsonRpcCallPlan list = JsonRpcCallPlan.forMethod(PlanService.class.getMethod("list"));
+		assertFalse(list.returnsFuture());
+		assertEquals(PlanService.class.getMethod("list").getGenericReturnType(), list.getResultType());
+
+		TypeFactory typeFactory = new ObjectMapper().getTypeFactory();
+		assertSame(list.getReturnJavaType(typeFactory), list.getReturnJavaType(typeFactory));
+		assertEquals(String.class, list.getReturnJavaType(typeFactory).getContentType().getRawClass());
+
+		JsonRpcCallPlan future = JsonRpcCallPlan.forMethod(PlanService.class.getMethod("future"));
+		assertTrue(future.returnsFuture());
+		assertEquals(Integer.class, future.getResultType());
+	}
+
+	@Test
+	public void routingKey() throws Exception {
+		JsonRpcCallPlan plain = JsonRpcCallPlan.forMethod(PlanService.class.getMethod("plain", String.class));
+		assertFalse(plain.hasRoutingKey());
+		assertNull(plain.getRoutingKey(new Object[]{"a"}));
+
+		JsonRpcCallPlan routed = JsonRpcCallPlan.forMethod(PlanService.class.getMethod("routed", String.class, String.class));
+		assertTrue(routed.hasRoutingKey());
+		assertEquals("user-1", routed.getRoutingKey(new Object[]{"a", "user-1"}));
+		@SuppressWarnings("unchecked")
+		Map<String, Object> params = (Map<String, Object>) routed.parseArguments(new Object[]{"a", "user-1"});
+		assertEquals("[field, user]", params.keySet().toString());
+	}
+
+	private interface PlanService {
+
+		String plain(String value);
+
+		@JsonRpcMethod(value = "other.name", paramsPassMode = JsonRpcParamsPassMode.OBJECT)
+		void renamed(@JsonRpcParam("b") String one, @JsonRpcParam("a") int two);
+
+		List<String> list();
+
+		Future<Integer> future();
+
+		String routed(@JsonRpcParam("field") String field, @JsonRpcRoutingKey @JsonRpcParam("user") String user);
+	}
+}
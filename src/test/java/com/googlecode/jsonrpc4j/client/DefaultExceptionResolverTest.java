@@ -0,0 +1,197 @@
+package com.googlecode.jsonrpc4j.client;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.googlecode.jsonrpc4j.DefaultExceptionResolver;
+import com.googlecode.jsonrpc4j.JsonRpcClientException;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.googlecode.jsonrpc4j.util.Util.mapper;
+import static com.googlecode.jsonrpc4j.util.Util.convertInputStreamToByteArray;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class DefaultExceptionResolverTest {
+
+	private final List<String> resolved = new ArrayList<>();
+	private DefaultExceptionResolver resolver;
+
+	@Before
+	public void setUp() {
+		resolver = new DefaultExceptionResolver() {
+			@Override
+			protected Class<? extends Throwable> resolveThrowableClass(String typeName) throws ClassNotFoundException {
+				resolved.add(typeName);
+				return super.resolveThrowableClass(typeName);
+			}
+		};
+	}
+
+	@Test
+	public void testResolvedOnce() {
+		for (int i = 0; i < 3; i++) {
+			Throwable throwable = resolver.resolveException(response(IllegalStateException.class.getName(), "invalid " + i));
+			assertEquals(IllegalStateException.class, throwable.getClass());
+			assertEquals("invalid " + i, throwable.getMessage());
+			assertTrue(throwable.getStackTrace().length > 0);
+		}
+		assertEquals(1, resolved.size());
+	}
+
+	@Test
+	public void testMissingTypeResolvedOnce() {
+		for (int i = 0; i < 3; i++) {
+			Throwable throwable = resolver.resolveException(response("com.example.MissingException", "missing"));
+			assertEquals(JsonRpcClientException.class, throwable.getClass());
+			assertEquals(-32001, ((JsonRpcClientException) throwable).getCode());
+		}
+		assertEquals(1, resolved.size());
+		resolver.resolveException(response(String.class.getName(), "not a throwable"));
+		resolver.resolveException(response(String.class.getName(), "not a throwable"));
+		assertEquals(2, resolved.size());
+	}
+
+	@Test
+	public void testResolvedPerClassLoader() {
+		resolver.resolveException(response(IllegalStateException.class.getName(), "invalid"));
+		Thread thread = Thread.currentThread();
+		ClassLoader classLoader = thread.getContextClassLoader();
+		thread.setContextClassLoader(new ClassLoader(classLoader) {
+		});
+		try {
+			resolver.resolveException(response(IllegalStateException.class.getName(), "invalid"));
+			resolver.resolveException(response(IllegalStateException.class.getName(), "invalid"));
+		} finally {
+			thread.setContextClassLoader(classLoader);
+		}
+		assertEquals(2, resolved.size());
+		resolver.clearCache();
+		resolver.resolveException(response(IllegalStateException.class.getName(), "invalid"));
+		assertEquals(3, resolved.size());
+	}
+
+	@Test
+	public void testAlternatingClassLoaders() {
+		Thread thread = Thread.currentThread();
+		ClassLoader classLoader = thread.getContextClassLoader();
+		ClassLoader other = new ClassLoader(classLoader) {
+		};
+		try {
+			for (int i = 0; i < 3; i++) {
+				thread.setContextClassLoader(classLoader);
+				resolver.resolveException(response(IllegalStateException.class.getName(), "invalid"));
+				thread.setContextClassLoader(other);
+				resolver.resolveException(response(IllegalStateException.class.getName(), "invalid"));
+			}
+		} finally {
+			thread.setContextClassLoader(classLoader);
+		}
+		assertEquals(2, resolved.size());
+	}
+
+	@Test
+	public void testClassLoaderNotPinned() throws Exception {
+		DefaultExceptionResolver contextResolver = new DefaultExceptionResolver() {
+			@Override
+			protected Class<? extends Throwable> resolveThrowableClass(String typeName) throws ClassNotFoundException {
+				return Class.forName(typeName, true, Thread.currentThread().getContextClassLoader()).asSubclass(Throwable.class);
+			}
+		};
+		WeakReference<ClassLoader> reference = resolveInIsolatedLoader(contextResolver);
+		for (int i = 0; i < 50 && reference.get() != null; i++) {
+			System.gc();
+			Thread.sleep(10);
+		}
+		assertNull(reference.get());
+	}
+
+	private static WeakReference<ClassLoader> resolveInIsolatedLoader(DefaultExceptionResolver resolver) {
+		Thread thread = Thread.currentThread();
+		ClassLoader classLoader = thread.getContextClassLoader();
+		ClassLoader isolated = new IsolatedClassLoader(DefaultExceptionResolverTest.class.getClassLoader(), LoadedException.class.getName());
+		thread.setContextClassLoader(isolated);
+		try {
+			Throwable throwable = resolver.resolveException(response(LoadedException.class.getName(), "loaded"));
+			assertEquals(LoadedException.class.getName(), throwable.getClass().getName());
+			assertNotSame(LoadedException.class, throwable.getClass());
+		} finally {
+			thread.setContextClassLoader(classLoader);
+		}
+		return new WeakReference<>(isolated);
+	}
+
+	@Test
+	public void testWithoutStackTrace() {
+		resolver.setCaptureStackTrace(false);
+		Throwable throwable = resolver.resolveException(response(IllegalStateException.class.getName(), "invalid"));
+		assertEquals(IllegalStateException.class, throwable.getClass());
+		assertEquals(0, throwable.getStackTrace().length);
+		throwable = resolver.resolveException(response("com.example.MissingException", "missing"));
+		assertEquals(JsonRpcClientException.class, throwable.getClass());
+		assertEquals("missing", throwable.getMessage());
+		assertEquals(0, throwable.getStackTrace().length);
+	}
+
+	public static class LoadedException extends RuntimeException {
+
+		public LoadedException(String message) {
+			super(message);
+		}
+	}
+
+	/**
+	 * Defines its own copy of a class, as the class loader of a web application would.
+	 */
+	private static class IsolatedClassLoader extends ClassLoader {
+
+		private final String className;
+
+		IsolatedClassLoader(ClassLoader parent, String className) {
+			super(parent);
+			this.className = className;
+		}
+
+		@Override
+		protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+			if (!className.equals(name)) {
+				return super.loadClass(name, resolve);
+			}
+			synchronized (getClassLoadingLock(name)) {
+				Class<?> clazz = findLoadedClass(name);
+				if (clazz == null) {
+					clazz = findClass(name);
+				}
+				return clazz;
+			}
+		}
+
+		@Override
+		protected Class<?> findClass(String name) throws ClassNotFoundException {
+			try (InputStream input = getParent().getResourceAsStream(name.replace('.', '/') + ".class")) {
+				byte[] bytes = convertInputStreamToByteArray(input);
+				return defineClass(name, bytes, 0, bytes.length);
+			} catch (IOException e) {
+				throw new ClassNotFoundException(name, e);
+			}
+		}
+	}
+
+	private static ObjectNode response(String exceptionTypeName, String message) {
+		ObjectNode response = mapper.createObjectNode();
+		ObjectNode error = response.putObject("error");
+		error.put("code", -32001);
+		error.put("message", message);
+		ObjectNode data = error.putObject("data");
+		data.put("exceptionTypeName", exceptionTypeName);
+		data.put("message", message);
+		return response;
+	}
+}
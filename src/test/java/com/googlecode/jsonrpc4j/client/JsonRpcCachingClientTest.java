@@ -0,0 +1,182 @@
+package com.googlecode.jsonrpc4j.client;
+
+import com.googlecode.jsonrpc4j.IJsonRpcClient;
+import com.googlecode.jsonrpc4j.JsonRpcCacheable;
+import com.googlecode.jsonrpc4j.JsonRpcCachingClient;
+import com.googlecode.jsonrpc4j.JsonRpcMethod;
+import com.googlecode.jsonrpc4j.ProxyUtil;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Type;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class JsonRpcCachingClientTest {
+
+	private final AtomicInteger calls = new AtomicInteger();
+	private volatile boolean failing;
+	private JsonRpcCachingClient cachingClient;
+
+	@Before
+	public void setUp() {
+		cachingClient = new JsonRpcCachingClient(new CountingClient());
+	}
+
+	@Test
+	public void testCacheableCallIsSentOnce() throws Throwable {
+		cachingClient.setCacheable("lookup", 1, TimeUnit.MINUTES);
+
+		assertEquals("lookup[a]#1", cachingClient.invoke("lookup", new Object[]{"a"}, String.class));
+		assertEquals("lookup[a]#1", cachingClient.invoke("lookup", new Object[]{"a"}, String.class));
+		assertEquals("lookup[b]#2", cachingClient.invoke("lookup", new Object[]{"b"}, String.class));
+		assertEquals(2, calls.get());
+		assertEquals(1, cachingClient.getHitCount());
+		assertEquals(2, cachingClient.getMissCount());
+		assertEquals(1 / 3d, cachingClient.getHitRatio(), 0.0001);
+	}
+
+	@Test
+	public void testOtherMethodsAreNotCached() throws Throwable {
+		cachingClient.setCacheable("lookup", 1, TimeUnit.MINUTES);
+
+		cachingClient.invoke("other", new Object[]{"a"}, String.class);
+		cachingClient.invoke("other", new Object[]{"a"}, String.class);
+		assertEquals(2, calls.get());
+		assertEquals(0, cachingClient.getHitCount() + cachingClient.getMissCount());
+	}
+
+	@Test
+	public void testExtraHeadersBypassCache() throws Throwable {
+		cachingClient.setCacheable("lookup", 1, TimeUnit.MINUTES);
+
+		Map<String, String> headers = Collections.singletonMap("Authorization", "secret");
+		cachingClient.invoke("lookup", new Object[]{"a"}, String.class, headers);
+		cachingClient.invoke("lookup", new Object[]{"a"}, String.class, headers);
+		assertEquals(2, calls.get());
+	}
+
+	@Test
+	public void testExpiredResultIsReloaded() throws Throwable {
+		cachingClient.setCacheable("lookup", 20, TimeUnit.MILLISECONDS);
+
+		assertEquals("lookup[a]#1", cachingClient.invoke("lookup", new Object[]{"a"}, String.class));
+		Thread.sleep(50);
+		assertEquals("lookup[a]#2", cachingClient.invoke("lookup", new Object[]{"a"}, String.class));
+	}
+
+	@Test
+	public void testFailuresAreNotCached() throws Throwable {
+		cachingClient.setCacheable("lookup", 1, TimeUnit.MINUTES);
+
+		failing = true;
+		try {
+			cachingClient.invoke("lookup", new Object[]{"a"}, String.class);
+			fail();
+		} catch (IllegalStateException e) {
+			// expected
+		}
+		failing = false;
+		assertEquals("lookup[a]#2", cachingClient.invoke("lookup", new Object[]{"a"}, String.class));
+	}
+
+	@Test
+	public void testRefreshAhead() throws Throwable {
+		cachingClient.setCacheable("lookup", 1000, 990, TimeUnit.MILLISECONDS);
+		cachingClient.setRefreshExecutor(new Executor() {
+			@Override
+			public void execute(Runnable command) {
+				command.run();
+			}
+		});
+
+		assertEquals("lookup[a]#1", cachingClient.invoke("lookup", new Object[]{"a"}, String.class));
+		Thread.sleep(20);
+		// served from the cache, refreshed meanwhile
+		assertEquals("lookup[a]#1", cachingClient.invoke("lookup", new Object[]{"a"}, String.class));
+		assertEquals("lookup[a]#2", cachingClient.invoke("lookup", new Object[]{"a"}, String.class));
+		assertEquals(1, cachingClient.getRefreshCount());
+		assertEquals(1, cachingClient.getMissCount());
+	}
+
+	@Test
+	public void testCacheIsBounded() throws Throwable {
+		cachingClient.setCacheable("lookup", 1, TimeUnit.MINUTES);
+		cachingClient.setMaxEntries(10);
+
+		for (int i = 0; i < 100; i++) {
+			cachingClient.invoke("lookup", new Object[]{i}, String.class);
+		}
+		assertTrue(cachingClient.getSize() <= 10);
+		assertTrue(cachingClient.getEvictionCount() >= 90);
+	}
+
+	@Test
+	public void testAnnotatedMethodsThroughProxy() throws Throwable {
+		cachingClient.addCacheableMethods(ReferenceData.class);
+		ReferenceData service = ProxyUtil.createClientProxy(getClass().getClassLoader(), ReferenceData.class, cachingClient);
+
+		assertEquals("country[fr]#1", service.country("fr"));
+		assertEquals("country[fr]#1", service.country("fr"));
+		assertEquals("uncached[]#2", service.uncached());
+		assertEquals("uncached[]#3", service.uncached());
+
+		cachingClient.invalidate("country");
+		assertEquals("country[fr]#4", service.country("fr"));
+	}
+
+	private interface ReferenceData {
+
+		@JsonRpcMethod("country")
+		@JsonRpcCacheable(ttl = 1, unit = TimeUnit.MINUTES)
+		String country(String code);
+
+		String uncached();
+	}
+
+	private class CountingClient implements IJsonRpcClient {
+
+		@Override
+		public void invoke(String methodName, Object argument) throws Throwable {
+			invoke(methodName, argument, (Type) null);
+		}
+
+		@Override
+		public Object invoke(String methodName, Object argument, Type returnType) throws Throwable {
+			return invoke(methodName, argument, returnType, new HashMap<String, String>());
+		}
+
+		@Override
+		public Object invoke(String methodName, Object argument, Type returnType, Map<String, String> extraHeaders) throws Throwable {
+			int call = calls.incrementAndGet();
+			if (failing) {
+				throw new IllegalStateException("failing");
+			}
+			StringBuilder sb = new StringBuilder(methodName).append('[');
+			for (Object arg : (Object[]) argument) {
+				sb.append(arg);
+			}
+			return sb.append("]#").append(call).toString();
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public <T> T invoke(String methodName, Object argument, Class<T> clazz) throws Throwable {
+			return (T) invoke(methodName, argument, (Type) clazz);
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public <T> T invoke(String methodName, Object argument, Class<T> clazz, Map<String, String> extraHeaders) throws Throwable {
+			return (T) invoke(methodName, argument, (Type) clazz, extraHeaders);
+		}
+	}
+}
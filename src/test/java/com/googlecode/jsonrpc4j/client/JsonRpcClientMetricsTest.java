@@ -0,0 +1,146 @@
+package com.googlecode.jsonrpc4j.client;
+
+import com.googlecode.jsonrpc4j.JsonRpcClient;
+import com.googlecode.jsonrpc4j.JsonRpcClientException;
+import com.googlecode.jsonrpc4j.JsonRpcClientMetrics;
+import com.googlecode.jsonrpc4j.LatencyHistogram;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class JsonRpcClientMetricsTest {
+
+	private static final String RESULT = "{\"jsonrpc\":\"2.0\",\"id\":\"1\",\"result\":42}";
+	private static final String ERROR = "{\"jsonrpc\":\"2.0\",\"id\":\"1\",\"error\":{\"code\":-32601,\"message\":\"method not found\"}}";
+
+	private JsonRpcClient client;
+	private JsonRpcClientMetrics metrics;
+
+	@Before
+	public void setUp() {
+		client = new JsonRpcClient();
+		metrics = new JsonRpcClientMetrics();
+		client.setMetrics(metrics);
+	}
+
+	@Test
+	public void testHistogramPercentiles() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (int i = 1; i <= 1000; i++) {
+			histogram.record(i * 1000L);
+		}
+		assertEquals(1000, histogram.getCount());
+		assertEquals(1000000, histogram.getMax());
+		assertEquals(500500, histogram.getMean(), 0.001);
+		assertWithin(500000, histogram.getPercentile(50));
+		assertWithin(990000, histogram.getPercentile(99));
+		assertEquals(1000000, histogram.getPercentile(100));
+		histogram.reset();
+		assertEquals(0, histogram.getCount());
+		assertEquals(0, histogram.getPercentile(50));
+	}
+
+	@Test
+	public void testHistogramSmallAndLargeValues() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		histogram.record(-5);
+		histogram.record(3);
+		histogram.record(Long.MAX_VALUE);
+		assertEquals(0, histogram.getPercentile(1));
+		assertEquals(3, histogram.getPercentile(50));
+		assertEquals(Long.MAX_VALUE, histogram.getPercentile(100));
+	}
+
+	private static void assertWithin(long expected, long actual) {
+		// the buckets are accurate to an eighth of the value
+		assertTrue(actual + " is not close to " + expected, Math.abs(actual - expected) <= expected / 8);
+	}
+
+	@Test
+	public void testCallRecorded() throws Throwable {
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		Object result = client.invokeAndReadResponse("answer", new Object[]{"question"}, Integer.class, output, response(RESULT), "1");
+		assertEquals(42, result);
+
+		assertEquals(1, metrics.getCallCount());
+		assertEquals(0, metrics.getFailureCount());
+		assertEquals(1, metrics.getLatency("answer").getCount());
+		assertNull(metrics.getLatency("other"));
+		assertEquals(output.size(), metrics.getBytesSent());
+		assertEquals(RESULT.length(), metrics.getBytesReceived());
+		assertEquals(1, metrics.getSerialization().getCount());
+		assertEquals(1, metrics.getDeserialization().getCount());
+		assertTrue(metrics.getErrorCounts().isEmpty());
+	}
+
+	@Test
+	public void testErrorRecorded() throws Throwable {
+		try {
+			client.invokeAndReadResponse("missing", null, Integer.class, new ByteArrayOutputStream(), response(ERROR), "1");
+			fail();
+		} catch (JsonRpcClientException e) {
+			assertEquals(-32601, e.getCode());
+		}
+		assertEquals(1, metrics.getCallCount());
+		assertEquals(1, metrics.getFailureCount());
+		assertEquals(1, metrics.getFailureCount("missing"));
+		Map<Integer, Long> errors = metrics.getErrorCounts();
+		assertEquals(1, errors.size());
+		assertEquals(1L, (long) errors.get(-32601));
+	}
+
+	@Test
+	public void testNoMetrics() throws Throwable {
+		client.setMetrics(null);
+		client.invokeAndReadResponse("answer", null, Integer.class, new ByteArrayOutputStream(), response(RESULT), "1");
+		assertEquals(0, metrics.getCallCount());
+		assertEquals(0, metrics.getBytesSent());
+	}
+
+	@Test
+	public void testReset() throws Throwable {
+		client.invokeAndReadResponse("answer", null, Integer.class, new ByteArrayOutputStream(), response(RESULT), "1");
+		metrics.reset();
+		assertEquals(0, metrics.getCallCount());
+		assertEquals(0, metrics.getBytesReceived());
+		assertTrue(metrics.getMethodNames().isEmpty());
+	}
+
+	@Test
+	public void testJmx() throws Throwable {
+		client.invokeAndReadResponse("answer", null, Integer.class, new ByteArrayOutputStream(), response(RESULT), "1");
+		ObjectName name = metrics.register("metrics-test");
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		try {
+			assertEquals(1L, server.getAttribute(name, "CallCount"));
+			assertEquals((long) RESULT.length(), server.getAttribute(name, "BytesReceived"));
+			CompositeData[] statistics = (CompositeData[]) server.getAttribute(name, "MethodStatistics");
+			assertEquals(1, statistics.length);
+			assertEquals("answer", statistics[0].get("methodName"));
+			assertEquals(1L, statistics[0].get("callCount"));
+			server.invoke(name, "reset", null, null);
+			assertEquals(0L, server.getAttribute(name, "CallCount"));
+		} finally {
+			metrics.unregister();
+		}
+		assertFalse(server.isRegistered(name));
+	}
+
+	private static ByteArrayInputStream response(String json) {
+		return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+	}
+}
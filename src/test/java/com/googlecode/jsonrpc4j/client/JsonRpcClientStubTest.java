@@ -0,0 +1,225 @@
+package com.googlecode.jsonrpc4j.client;
+
+import com.googlecode.jsonrpc4j.IJsonRpcClient;
+import com.googlecode.jsonrpc4j.JsonRpcClientStub;
+import com.googlecode.jsonrpc4j.JsonRpcMethod;
+import com.googlecode.jsonrpc4j.JsonRpcParam;
+import com.googlecode.jsonrpc4j.JsonRpcRoutingContext;
+import com.googlecode.jsonrpc4j.JsonRpcRoutingKey;
+import com.googlecode.jsonrpc4j.JsonRpcService;
+import com.googlecode.jsonrpc4j.ProxyUtil;
+import com.googlecode.jsonrpc4j.spring.JsonProxyFactoryBean;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.lang.reflect.Type;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * The stubs generated by the annotation processor call the client the
+ * same way as the proxies do.
+ */
+public class JsonRpcClientStubTest {
+
+	private RecordingClient client;
+	private Calculator calculator;
+
+	@Before
+	public void setUp() {
+		client = new RecordingClient();
+		calculator = ProxyUtil.createClientProxy(getClass().getClassLoader(), Calculator.class, client);
+	}
+
+	@Test
+	public void testStubGenerated() {
+		assertTrue(JsonRpcClientStub.isGenerated(Calculator.class));
+		assertFalse(JsonRpcClientStub.isGenerated(Runnable.class));
+		assertNull(JsonRpcClientStub.create(Runnable.class, client, null));
+		assertTrue(calculator instanceof JsonRpcClientStub);
+		assertFalse(Proxy.isProxyClass(calculator.getClass()));
+		assertSame(Calculator.class, ((JsonRpcClientStub) calculator).getServiceInterface());
+	}
+
+	@Test
+	public void testPrimitives() {
+		client.results.add(5);
+		assertEquals(5, calculator.add(2, 3));
+		client.assertCall("add", int.class, 2, 3);
+	}
+
+	@Test
+	public void testGenericsAndNamedParams() {
+		client.results.add(6L);
+		assertEquals(6L, calculator.sum(Arrays.asList(1L, 2L, 3L)));
+		assertEquals("sum", client.methodNames.get(0));
+		assertEquals(Collections.singletonMap("values", Arrays.asList(1L, 2L, 3L)), client.arguments.get(0));
+	}
+
+	@Test
+	public void testCustomNameAndReturnType() throws Exception {
+		client.results.add(Arrays.asList("a", "b"));
+		assertEquals(Arrays.asList("a", "b"), calculator.split("a b"));
+		assertEquals("calc.split", client.methodNames.get(0));
+		assertEquals(Calculator.class.getMethod("split", String.class).getGenericReturnType(), client.returnTypes.get(0));
+	}
+
+	@Test
+	public void testVarargsAndVoid() {
+		client.results.add("abc");
+		client.results.add(null);
+		assertEquals("abc", calculator.concat("a", "b", "c"));
+		calculator.reset();
+		assertArrayEquals(new Object[]{new String[]{"a", "b", "c"}}, (Object[]) client.arguments.get(0));
+		assertEquals(0, ((Object[]) client.arguments.get(1)).length);
+		assertEquals(void.class, client.returnTypes.get(1));
+	}
+
+	@Test
+	public void testDeclaredException() {
+		client.results.add(new IOException("declared"));
+		try {
+			calculator.load();
+			fail();
+		} catch (IOException e) {
+			assertEquals("declared", e.getMessage());
+		}
+	}
+
+	@Test
+	public void testUndeclaredException() {
+		client.results.add(new Exception("undeclared"));
+		try {
+			calculator.add(1, 2);
+			fail();
+		} catch (UndeclaredThrowableException e) {
+			assertEquals("undeclared", e.getCause().getMessage());
+		}
+		client.results.add(new IllegalStateException("unchecked"));
+		try {
+			calculator.add(1, 2);
+			fail();
+		} catch (IllegalStateException e) {
+			assertEquals("unchecked", e.getMessage());
+		}
+	}
+
+	@Test
+	public void testRoutingKey() {
+		client.results.add(1);
+		calculator.count("tenant");
+		assertEquals("tenant", client.routingKeys.get(0));
+		assertNull(JsonRpcRoutingContext.getRoutingKey());
+	}
+
+	@Test
+	public void testObjectMethodsLocal() {
+		assertTrue(calculator.equals(calculator));
+		assertEquals(System.identityHashCode(calculator), calculator.hashCode());
+		assertTrue(calculator.toString().contains(JsonRpcClientStub.SUFFIX));
+		assertTrue(client.methodNames.isEmpty());
+	}
+
+	@Test
+	public void testFactoryBean() throws Exception {
+		JsonProxyFactoryBean factoryBean = new JsonProxyFactoryBean();
+		factoryBean.setServiceInterface(Calculator.class);
+		factoryBean.setServiceUrl("http://localhost/calculator");
+		factoryBean.setJsonRpcClient(client);
+		factoryBean.afterPropertiesSet();
+		assertTrue(Proxy.isProxyClass(factoryBean.getObject().getClass()));
+
+		factoryBean = new JsonProxyFactoryBean();
+		factoryBean.setServiceInterface(Calculator.class);
+		factoryBean.setServiceUrl("http://localhost/calculator");
+		factoryBean.setJsonRpcClient(client);
+		factoryBean.setUseGeneratedStubs(true);
+		factoryBean.afterPropertiesSet();
+		Calculator stub = (Calculator) factoryBean.getObject();
+		assertTrue(stub instanceof JsonRpcClientStub);
+		client.results.add(4);
+		assertEquals(4, stub.add(2, 2));
+		client.assertCall("add", int.class, 2, 2);
+	}
+
+	@JsonRpcService("/calculator")
+	public interface Calculator {
+		int add(int a, int b);
+
+		long sum(@JsonRpcParam("values") List<Long> values);
+
+		@JsonRpcMethod("calc.split")
+		List<String> split(String text);
+
+		String concat(String... parts);
+
+		void reset();
+
+		Map<String, Integer> load() throws IOException;
+
+		int count(@JsonRpcRoutingKey String tenant);
+	}
+
+	private static class RecordingClient implements IJsonRpcClient {
+
+		final LinkedList<Object> results = new LinkedList<>();
+		final List<String> methodNames = new ArrayList<>();
+		final List<Object> arguments = new ArrayList<>();
+		final List<Type> returnTypes = new ArrayList<>();
+		final List<Object> routingKeys = new ArrayList<>();
+
+		void assertCall(String methodName, Type returnType, Object... expectedArguments) {
+			assertEquals(methodName, methodNames.get(0));
+			assertEquals(returnType, returnTypes.get(0));
+			assertArrayEquals(expectedArguments, (Object[]) arguments.get(0));
+		}
+
+		@Override
+		public void invoke(String methodName, Object argument) throws Throwable {
+			invoke(methodName, argument, null, null);
+		}
+
+		@Override
+		public Object invoke(String methodName, Object argument, Type returnType) throws Throwable {
+			return invoke(methodName, argument, returnType, null);
+		}
+
+		@Override
+		public Object invoke(String methodName, Object argument, Type returnType, Map<String, String> extraHeaders) throws Throwable {
+			methodNames.add(methodName);
+			arguments.add(argument);
+			returnTypes.add(returnType);
+			routingKeys.add(JsonRpcRoutingContext.getRoutingKey());
+			final Object result = results.poll();
+			if (result instanceof Throwable) {
+				throw (Throwable) result;
+			}
+			return result;
+		}
+
+		@Override
+		public <T> T invoke(String methodName, Object argument, Class<T> clazz) throws Throwable {
+			return clazz.cast(invoke(methodName, argument, (Type) clazz, null));
+		}
+
+		@Override
+		public <T> T invoke(String methodName, Object argument, Class<T> clazz, Map<String, String> extraHeaders) throws Throwable {
+			return clazz.cast(invoke(methodName, argument, (Type) clazz, extraHeaders));
+		}
+	}
+}
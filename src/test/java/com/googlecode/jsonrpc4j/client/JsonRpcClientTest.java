@@ -1,19 +1,29 @@
 package com.googlecode.jsonrpc4j.client;
 
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.googlecode.jsonrpc4j.JsonRpcBatch;
 import com.googlecode.jsonrpc4j.JsonRpcClient;
+import com.googlecode.jsonrpc4j.JsonRpcClientException;
 import com.googlecode.jsonrpc4j.RequestIDGenerator;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 import static com.googlecode.jsonrpc4j.JsonRpcBasicServer.ID;
+import static com.googlecode.jsonrpc4j.JsonRpcBasicServer.METHOD;
 import static com.googlecode.jsonrpc4j.JsonRpcBasicServer.PARAMS;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
@@ -89,6 +99,82 @@ public class JsonRpcClientTest {
 		assertEquals(1, node.get(PARAMS).get("x").intValue());
 	}
 
+	@Test
+	public void testInvokeStreamsRequestMembersInOrder() throws Throwable {
+		client.setRequestIDGenerator(new SequenceIDGenerator());
+		client.setAdditionalJsonContent(new HashMap<String, Object>() {
+			{
+				put("auth", "secret");
+			}
+		});
+		client.invoke("test", Arrays.asList(new Bean("a", 1), null), byteArrayOutputStream);
+
+		assertEquals("{\"id\":\"1\",\"jsonrpc\":\"2.0\",\"method\":\"test\",\"params\":[{\"name\":\"a\",\"value\":1},null],\"auth\":\"secret\"}",
+				byteArrayOutputStream.toString(StandardCharsets.UTF_8.name()));
+	}
+
+	@Test
+	public void testInvokeAdditionalJsonContentOverridesRequestMember() throws Throwable {
+		client.setAdditionalJsonContent(new HashMap<String, Object>() {
+			{
+				put(METHOD, "overridden");
+			}
+		});
+		client.invoke("test", new Object[]{1}, byteArrayOutputStream);
+		JsonNode node = readJSON(byteArrayOutputStream);
+
+		assertEquals("overridden", node.get(METHOD).textValue());
+		assertEquals(1, node.get(PARAMS).get(0).intValue());
+	}
+
+	@Test
+	public void testRequestListenerCanChangeRequest() throws Throwable {
+		client.setRequestListener(new JsonRpcClient.RequestListener() {
+			@Override
+			public void onBeforeRequestSent(JsonRpcClient client, ObjectNode request) {
+				request.put("trace", "abc");
+			}
+
+			@Override
+			public void onBeforeResponseProcessed(JsonRpcClient client, ObjectNode response) {
+			}
+		});
+		client.invoke("test", new Object[]{new Bean("a", 1)}, byteArrayOutputStream);
+		JsonNode node = readJSON(byteArrayOutputStream);
+
+		assertEquals("abc", node.get("trace").textValue());
+		assertEquals("a", node.get(PARAMS).get(0).get("name").textValue());
+	}
+
+	@Test
+	public void testReadResponseSkipsOtherIds() throws Throwable {
+		Object result = client.invokeAndReadResponse("test", null, String.class, byteArrayOutputStream,
+				batchResponse("{\"result\":{\"not\":\"a string\"},\"id\":\"other\",\"jsonrpc\":\"2.0\"}"
+						+ "{\"jsonrpc\":\"2.0\",\"id\":\"mine\",\"result\":\"ok\"}"), "mine");
+		assertEquals("ok", result);
+	}
+
+	@Test
+	public void testReadResponseIntoGenericType() throws Throwable {
+		Object result = client.readResponse(new TypeReference<List<Bean>>() {}.getType(),
+				batchResponse("{\"jsonrpc\":\"2.0\",\"id\":\"1\",\"result\":[{\"name\":\"a\",\"value\":1},{\"name\":\"b\",\"value\":2}],\"extra\":null}"));
+		assertTrue(result instanceof List);
+		assertEquals(2, ((List<?>) result).size());
+		assertEquals("b", ((Bean) ((List<?>) result).get(1)).getName());
+	}
+
+	@Test
+	public void testReadResponseResolvesErrorAfterResult() throws Throwable {
+		try {
+			client.readResponse(String.class,
+					batchResponse("{\"jsonrpc\":\"2.0\",\"id\":\"1\",\"result\":null,\"error\":{\"code\":-32601,\"message\":\"method not found\"}}"));
+			fail();
+		} catch (JsonRpcClientException e) {
+			assertEquals(-32601, e.getCode());
+			assertEquals("method not found", e.getMessage());
+		}
+	}
+
 	@Test
 	public void testIDGeneration() throws IOException {
 		client.setRequestIDGenerator(new RequestIDGenerator() {
@@ -126,4 +212,115 @@ public class JsonRpcClientTest {
 		}
 	}
 
+	@Test
+	public void testBatchRequestHasUniqueIds() throws Throwable {
+		client.setRequestIDGenerator(new RequestIDGenerator() {
+			@Override
+			public String generateID() {
+				return "test";
+			}
+		});
+		JsonRpcBatch batch = new JsonRpcBatch();
+		batch.add("first", new Object[]{1}, Integer.class);
+		batch.add("second", new Object[]{2}, Integer.class);
+		client.invokeBatchAndReadResponse(batch, byteArrayOutputStream, batchResponse("[{\"jsonrpc\":\"2.0\",\"id\":\"test\",\"result\":1}]"));
+		JsonNode node = readJSON(byteArrayOutputStream);
+
+		assertTrue(node.isArray());
+		assertEquals(2, node.size());
+		assertEquals("first", node.get(0).get(METHOD).textValue());
+		assertEquals("second", node.get(1).get(METHOD).textValue());
+		assertFalse(node.get(0).get(ID).asText().equals(node.get(1).get(ID).asText()));
+	}
+
+	@Test
+	public void testBatchResponseOutOfOrder() throws Throwable {
+		client.setRequestIDGenerator(new SequenceIDGenerator());
+		JsonRpcBatch batch = new JsonRpcBatch();
+		Future<Integer> first = batch.add("first", null, Integer.class);
+		Future<String> second = batch.add("second", null, String.class);
+		Future<Integer> third = batch.add("third", null, Integer.class);
+		client.invokeBatchAndReadResponse(batch, byteArrayOutputStream, batchResponse("["
+				+ "{\"jsonrpc\":\"2.0\",\"id\":\"3\",\"error\":{\"code\":-32601,\"message\":\"method not found\"}},"
+				+ "{\"jsonrpc\":\"2.0\",\"id\":\"2\",\"result\":\"two\"},"
+				+ "{\"jsonrpc\":\"2.0\",\"id\":\"1\",\"result\":1}]"));
+
+		assertEquals(1, first.get().intValue());
+		assertEquals("two", second.get());
+		try {
+			third.get();
+			fail();
+		} catch (ExecutionException e) {
+			assertTrue(e.getCause() instanceof JsonRpcClientException);
+			assertEquals(-32601, ((JsonRpcClientException) e.getCause()).getCode());
+		}
+	}
+
+	@Test
+	public void testBatchResponseMissingCall() throws Throwable {
+		client.setRequestIDGenerator(new SequenceIDGenerator());
+		JsonRpcBatch batch = new JsonRpcBatch();
+		Future<Integer> first = batch.add("first", null, Integer.class);
+		Future<Integer> second = batch.add("second", null, Integer.class);
+		client.invokeBatchAndReadResponse(batch, byteArrayOutputStream, batchResponse("[{\"jsonrpc\":\"2.0\",\"id\":\"1\",\"result\":1}]"));
+
+		assertEquals(1, first.get().intValue());
+		try {
+			second.get();
+			fail();
+		} catch (ExecutionException e) {
+			assertTrue(e.getCause() instanceof JsonRpcClientException);
+		}
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testBatchCanOnlyBeSentOnce() throws Throwable {
+		JsonRpcBatch batch = new JsonRpcBatch();
+		client.invokeBatchAndReadResponse(batch, byteArrayOutputStream, batchResponse("[]"));
+		client.invokeBatchAndReadResponse(batch, byteArrayOutputStream, batchResponse("[]"));
+	}
+
+	private ByteArrayInputStream batchResponse(String response) {
+		return new ByteArrayInputStream(response.getBytes(StandardCharsets.UTF_8));
+	}
+
+	@SuppressWarnings("unused")
+	private static class Bean {
+		private String name;
+		private int value;
+
+		Bean() {
+		}
+
+		Bean(String name, int value) {
+			this.name = name;
+			this.value = value;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public int getValue() {
+			return value;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+
+		public void setValue(int value) {
+			this.value = value;
+		}
+	}
+
+	private static class SequenceIDGenerator implements RequestIDGenerator {
+		private int next = 1;
+
+		@Override
+		public String generateID() {
+			return Integer.toString(next++);
+		}
+	}
+
 }
@@ -0,0 +1,257 @@
+package com.googlecode.jsonrpc4j.client;
+
+import com.googlecode.jsonrpc4j.IJsonRpcAsyncClient;
+import com.googlecode.jsonrpc4j.IJsonRpcClient;
+import com.googlecode.jsonrpc4j.JsonRpcFuture;
+import com.googlecode.jsonrpc4j.JsonRpcHedgingClient;
+import org.junit.Test;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class JsonRpcHedgingClientTest {
+
+	@Test
+	public void testSlowRequestIsHedged() throws Throwable {
+		ManualEndpoint slow = new ManualEndpoint("slow");
+		ManualEndpoint fast = new ManualEndpoint("fast");
+		fast.answerImmediately = true;
+		JsonRpcHedgingClient hedgingClient = new JsonRpcHedgingClient(slow, fast);
+		hedgingClient.setMethodNames(Collections.singleton("lookup"));
+		hedgingClient.setHedgeDelayMillis(10);
+		hedgingClient.setMaxHedgePercent(100);
+
+		assertEquals("lookup@fast", hedgingClient.invoke("lookup", new Object[]{}, String.class));
+		assertEquals(1, hedgingClient.getHedgeCount());
+		assertEquals(1, hedgingClient.getHedgeWinCount());
+		// the slow request lost and is cancelled
+		awaitCancelled(slow.requests.get(0));
+	}
+
+	@Test
+	public void testLatencyOfHedgedCallFromItsStart() throws Throwable {
+		ManualEndpoint slow = new ManualEndpoint("slow");
+		ManualEndpoint fast = new ManualEndpoint("fast");
+		fast.answerImmediately = true;
+		JsonRpcHedgingClient hedgingClient = new JsonRpcHedgingClient(slow, fast);
+		hedgingClient.setMethodNames(Collections.singleton("lookup"));
+		hedgingClient.setHedgeDelayMillis(20);
+		hedgingClient.setMaxHedgePercent(100);
+
+		// every other call goes to the slow endpoint first and is answered by its hedge
+		for (int i = 0; i < 32; i++) {
+			hedgingClient.invoke("lookup", new Object[]{}, String.class);
+		}
+		assertEquals(16, hedgingClient.getHedgeWinCount());
+		// the hedged calls took the hedge delay, not the time of the hedge alone
+		assertTrue(hedgingClient.getHedgeDelayMillis("lookup") >= 20);
+	}
+
+	@Test
+	public void testLatencyOfFailedCallsRecorded() throws Throwable {
+		ManualEndpoint failing = new ManualEndpoint("failing");
+		failing.failImmediately = true;
+		JsonRpcHedgingClient hedgingClient = new JsonRpcHedgingClient(failing);
+		hedgingClient.setMethodNames(Collections.singleton("lookup"));
+		hedgingClient.setHedgeDelayMillis(1000);
+
+		for (int i = 0; i < 32; i++) {
+			try {
+				hedgingClient.invoke("lookup", new Object[]{}, String.class);
+				fail();
+			} catch (IllegalStateException e) {
+				assertEquals("failed@failing", e.getMessage());
+			}
+		}
+		assertTrue(hedgingClient.getHedgeDelayMillis("lookup") < 1000);
+	}
+
+	@Test
+	public void testFastRequestIsNotHedged() throws Throwable {
+		ManualEndpoint first = new ManualEndpoint("first");
+		ManualEndpoint second = new ManualEndpoint("second");
+		first.answerImmediately = true;
+		JsonRpcHedgingClient hedgingClient = new JsonRpcHedgingClient(first, second);
+		hedgingClient.setMethodNames(Collections.singleton("lookup"));
+		hedgingClient.setHedgeDelayMillis(10);
+		hedgingClient.setMaxHedgePercent(100);
+
+		assertEquals("lookup@first", hedgingClient.invoke("lookup", new Object[]{}, String.class));
+		Thread.sleep(30);
+		assertEquals(0, hedgingClient.getHedgeCount());
+		assertEquals(0, second.requests.size());
+	}
+
+	@Test
+	public void testBudgetCapsHedges() throws Throwable {
+		ManualEndpoint slow = new ManualEndpoint("slow");
+		JsonRpcHedgingClient hedgingClient = new JsonRpcHedgingClient(slow, slow);
+		hedgingClient.setMethodNames(Collections.singleton("lookup"));
+		hedgingClient.setHedgeDelayMillis(20);
+		hedgingClient.setMaxHedgePercent(25);
+
+		List<JsonRpcFuture<Object>> results = new ArrayList<>();
+		for (int i = 0; i < 8; i++) {
+			results.add(hedgingClient.invokeAsync("lookup", new Object[]{}, String.class, new HashMap<String, String>()));
+		}
+		// every call earns a quarter of a hedge
+		awaitHedges(hedgingClient, 2);
+		Thread.sleep(50);
+		assertEquals(8, hedgingClient.getCallCount());
+		assertEquals(2, hedgingClient.getHedgeCount());
+		assertEquals(10, slow.requests.size());
+		for (JsonRpcFuture<Object> result : results) {
+			assertTrue(result.cancel(true));
+		}
+		for (JsonRpcFuture<Object> request : slow.requests) {
+			assertTrue(request.isCancelled());
+		}
+	}
+
+	@Test
+	public void testOnlyListedMethodsAreHedged() throws Throwable {
+		ManualEndpoint slow = new ManualEndpoint("slow");
+		JsonRpcHedgingClient hedgingClient = new JsonRpcHedgingClient(slow, slow);
+		hedgingClient.setHedgeDelayMillis(1);
+		hedgingClient.setMaxHedgePercent(100);
+		hedgingClient.setMethodNames(Collections.singleton("lookup"));
+
+		hedgingClient.invokeAsync("update", new Object[]{}, String.class, new HashMap<String, String>());
+		Thread.sleep(30);
+		assertEquals(0, hedgingClient.getHedgeCount());
+		assertEquals(1, slow.requests.size());
+	}
+
+	@Test
+	public void testNothingHedgedByDefault() throws Throwable {
+		ManualEndpoint slow = new ManualEndpoint("slow");
+		JsonRpcHedgingClient hedgingClient = new JsonRpcHedgingClient(slow, slow);
+		hedgingClient.setHedgeDelayMillis(1);
+		hedgingClient.setMaxHedgePercent(100);
+
+		hedgingClient.invokeAsync("lookup", new Object[]{}, String.class, new HashMap<String, String>());
+		Thread.sleep(30);
+		assertEquals(0, hedgingClient.getHedgeCount());
+		assertEquals(1, slow.requests.size());
+	}
+
+	@Test
+	public void testErrorWithoutOtherRequestFailsCall() throws Throwable {
+		ManualEndpoint failing = new ManualEndpoint("failing");
+		failing.failImmediately = true;
+		JsonRpcHedgingClient hedgingClient = new JsonRpcHedgingClient(failing, new ManualEndpoint("other"));
+		hedgingClient.setMethodNames(Collections.singleton("lookup"));
+		hedgingClient.setMaxHedgePercent(100);
+
+		try {
+			hedgingClient.invoke("lookup", new Object[]{}, String.class);
+			fail();
+		} catch (IllegalStateException e) {
+			assertEquals("failed@failing", e.getMessage());
+		}
+		assertEquals(0, hedgingClient.getHedgeCount());
+	}
+
+	@Test
+	public void testBlockingEndpoints() throws Throwable {
+		final CountDownLatch stalled = new CountDownLatch(1);
+		final AtomicInteger calls = new AtomicInteger();
+		IJsonRpcClient client = new IJsonRpcClient() {
+			@Override
+			public void invoke(String methodName, Object argument) throws Throwable {
+				invoke(methodName, argument, (Type) null);
+			}
+
+			@Override
+			public Object invoke(String methodName, Object argument, Type returnType) throws Throwable {
+				return invoke(methodName, argument, returnType, new HashMap<String, String>());
+			}
+
+			@Override
+			public Object invoke(String methodName, Object argument, Type returnType, Map<String, String> extraHeaders) throws Throwable {
+				if (calls.incrementAndGet() == 1) {
+					// the first request stalls until it is cancelled
+					try {
+						Thread.sleep(TimeUnit.SECONDS.toMillis(10));
+					} catch (InterruptedException e) {
+						stalled.countDown();
+						throw e;
+					}
+				}
+				return methodName + "@" + calls.get();
+			}
+
+			@Override
+			@SuppressWarnings("unchecked")
+			public <T> T invoke(String methodName, Object argument, Class<T> clazz) throws Throwable {
+				return (T) invoke(methodName, argument, (Type) clazz);
+			}
+
+			@Override
+			@SuppressWarnings("unchecked")
+			public <T> T invoke(String methodName, Object argument, Class<T> clazz, Map<String, String> extraHeaders) throws Throwable {
+				return (T) invoke(methodName, argument, (Type) clazz, extraHeaders);
+			}
+		};
+		JsonRpcHedgingClient hedgingClient = new JsonRpcHedgingClient(client);
+		hedgingClient.setMethodNames(Collections.singleton("lookup"));
+		hedgingClient.setHedgeDelayMillis(10);
+		hedgingClient.setMaxHedgePercent(100);
+
+		assertEquals("lookup@2", hedgingClient.invoke("lookup", new Object[]{}, String.class));
+		assertTrue(stalled.await(5, TimeUnit.SECONDS));
+	}
+
+	private static void awaitCancelled(JsonRpcFuture<Object> request) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (!request.isCancelled() && System.nanoTime() < deadline) {
+			Thread.sleep(5);
+		}
+		assertTrue(request.isCancelled());
+	}
+
+	private static void awaitHedges(JsonRpcHedgingClient hedgingClient, long hedges) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (hedgingClient.getHedgeCount() < hedges && System.nanoTime() < deadline) {
+			Thread.sleep(5);
+		}
+	}
+
+	/**
+	 * Endpoint whose requests are never answered, unless told to answer immediately.
+	 */
+	private static class ManualEndpoint implements IJsonRpcAsyncClient {
+
+		final List<JsonRpcFuture<Object>> requests = Collections.synchronizedList(new ArrayList<JsonRpcFuture<Object>>());
+		final String name;
+		volatile boolean answerImmediately;
+		volatile boolean failImmediately;
+
+		ManualEndpoint(String name) {
+			this.name = name;
+		}
+
+		@Override
+		public JsonRpcFuture<Object> invokeAsync(String methodName, Object argument, Type returnType, Map<String, String> extraHeaders) {
+			JsonRpcFuture<Object> request = new JsonRpcFuture<>();
+			requests.add(request);
+			if (answerImmediately) {
+				request.onComplete(methodName + "@" + name);
+			} else if (failImmediately) {
+				request.onError(new IllegalStateException("failed@" + name));
+			}
+			return request;
+		}
+	}
+}
@@ -0,0 +1,396 @@
+package com.googlecode.jsonrpc4j.client;
+
+import com.googlecode.jsonrpc4j.IJsonRpcClient;
+import com.googlecode.jsonrpc4j.JsonRpcClientException;
+import com.googlecode.jsonrpc4j.JsonRpcLoadBalancingClient;
+import com.googlecode.jsonrpc4j.JsonRpcRoutingKey;
+import com.googlecode.jsonrpc4j.LoadBalancingPolicy;
+import com.googlecode.jsonrpc4j.ProxyUtil;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.net.ConnectException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class JsonRpcLoadBalancingClientTest {
+
+	private final ExecutorService executor = Executors.newCachedThreadPool();
+
+	@After
+	public void tearDown() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void testRoundRobin() throws Throwable {
+		Endpoint first = new Endpoint();
+		Endpoint second = new Endpoint();
+		Endpoint third = new Endpoint();
+		JsonRpcLoadBalancingClient client = new JsonRpcLoadBalancingClient(first, second, third);
+		client.setPolicy(LoadBalancingPolicy.ROUND_ROBIN);
+
+		for (int i = 0; i < 30; i++) {
+			client.invoke("ping", new Object[]{}, String.class);
+		}
+		assertEquals(10, first.calls.get());
+		assertEquals(10, second.calls.get());
+		assertEquals(10, third.calls.get());
+	}
+
+	@Test
+	public void testLeastOutstanding() throws Throwable {
+		Endpoint busy = new Endpoint();
+		Endpoint idle = new Endpoint();
+		JsonRpcLoadBalancingClient client = new JsonRpcLoadBalancingClient(busy, idle);
+		client.setPolicy(LoadBalancingPolicy.LEAST_OUTSTANDING);
+		occupy(client, busy, idle);
+
+		for (int i = 0; i < 10; i++) {
+			client.invoke("ping", new Object[]{}, String.class);
+		}
+		assertEquals(10, idle.calls.get());
+		busy.release.countDown();
+	}
+
+	@Test
+	public void testPowerOfTwoChoices() throws Throwable {
+		Endpoint busy = new Endpoint();
+		Endpoint idle = new Endpoint();
+		JsonRpcLoadBalancingClient client = new JsonRpcLoadBalancingClient(busy, idle);
+		occupy(client, busy, idle);
+
+		// with two endpoints both are always compared
+		for (int i = 0; i < 10; i++) {
+			client.invoke("ping", new Object[]{}, String.class);
+		}
+		assertEquals(10, idle.calls.get());
+		busy.release.countDown();
+	}
+
+	@Test
+	public void testFailingEndpointIsEjected() throws Throwable {
+		Endpoint failing = new Endpoint();
+		failing.failure = new ConnectException("Connection refused");
+		Endpoint healthy = new Endpoint();
+		JsonRpcLoadBalancingClient client = new JsonRpcLoadBalancingClient(failing, healthy);
+		client.setPolicy(LoadBalancingPolicy.ROUND_ROBIN);
+		client.setMinimumRequests(5);
+
+		int failures = 0;
+		for (int i = 0; i < 30; i++) {
+			try {
+				client.invoke("ping", new Object[]{}, String.class);
+			} catch (IOException e) {
+				failures++;
+			}
+		}
+		assertEquals(5, failures);
+		assertTrue(client.isEjected(0));
+		assertFalse(client.isEjected(1));
+		assertEquals(1, client.getEjectedCount());
+	}
+
+	@Test
+	public void testJsonRpcErrorsDoNotEject() throws Throwable {
+		Endpoint erroring = new Endpoint();
+		erroring.failure = new JsonRpcClientException(-32602, "Invalid params", null);
+		JsonRpcLoadBalancingClient client = new JsonRpcLoadBalancingClient(erroring, new Endpoint());
+		client.setPolicy(LoadBalancingPolicy.ROUND_ROBIN);
+		client.setMinimumRequests(1);
+
+		for (int i = 0; i < 10; i++) {
+			try {
+				client.invoke("ping", new Object[]{}, String.class);
+			} catch (JsonRpcClientException e) {
+				// expected
+			}
+		}
+		assertEquals(0, client.getEjectedCount());
+		assertEquals(5, erroring.calls.get());
+	}
+
+	@Test
+	public void testMaxEjectionPercent() throws Throwable {
+		Endpoint first = new Endpoint();
+		first.failure = new ConnectException("Connection refused");
+		Endpoint second = new Endpoint();
+		second.failure = new ConnectException("Connection refused");
+		JsonRpcLoadBalancingClient client = new JsonRpcLoadBalancingClient(first, second);
+		client.setPolicy(LoadBalancingPolicy.ROUND_ROBIN);
+		client.setMinimumRequests(2);
+
+		for (int i = 0; i < 10; i++) {
+			try {
+				client.invoke("ping", new Object[]{}, String.class);
+				fail();
+			} catch (IOException e) {
+				// expected
+			}
+		}
+		assertEquals(1, client.getEjectedCount());
+	}
+
+	@Test
+	public void testSlowEndpointIsEjected() throws Throwable {
+		Endpoint slow = new Endpoint();
+		slow.delayMillis = 20;
+		Endpoint fast = new Endpoint();
+		JsonRpcLoadBalancingClient client = new JsonRpcLoadBalancingClient(slow, fast);
+		client.setPolicy(LoadBalancingPolicy.ROUND_ROBIN);
+		client.setMinimumRequests(1);
+		client.setDetectionIntervalMillis(0);
+
+		for (int i = 0; i < 6; i++) {
+			client.invoke("ping", new Object[]{}, String.class);
+		}
+		assertTrue(client.isEjected(0));
+		assertFalse(client.isEjected(1));
+	}
+
+	@Test
+	public void testSlowStartAfterEjection() throws Throwable {
+		Endpoint recovering = new Endpoint();
+		recovering.failure = new ConnectException("Connection refused");
+		Endpoint healthy = new Endpoint();
+		JsonRpcLoadBalancingClient client = new JsonRpcLoadBalancingClient(recovering, healthy);
+		client.setPolicy(LoadBalancingPolicy.ROUND_ROBIN);
+		client.setMinimumRequests(1);
+		client.setBaseEjectionMillis(50);
+		client.setSlowStartMillis(TimeUnit.MINUTES.toMillis(1));
+
+		try {
+			client.invoke("ping", new Object[]{}, String.class);
+			fail();
+		} catch (IOException e) {
+			assertTrue(client.isEjected(0));
+		}
+		recovering.failure = null;
+		Thread.sleep(100);
+		assertFalse(client.isEjected(0));
+
+		for (int i = 0; i < 1000; i++) {
+			client.invoke("ping", new Object[]{}, String.class);
+		}
+		// a tenth of its turns at the start of the slow start
+		assertTrue(recovering.calls.get() < 150);
+		assertTrue(recovering.calls.get() > 1);
+	}
+
+	@Test
+	public void testConsistentHashRoutesKeysToOneEndpoint() throws Throwable {
+		Map<String, Endpoint> endpoints = createEndpoints("a", "b", "c", "d");
+		JsonRpcLoadBalancingClient client = new JsonRpcLoadBalancingClient(endpoints);
+		client.setPolicy(LoadBalancingPolicy.CONSISTENT_HASH);
+		UserService service = ProxyUtil.createClientProxy(getClass().getClassLoader(), UserService.class, client);
+
+		Map<String, String> owners = route(service, endpoints);
+		assertEquals(owners, route(service, endpoints));
+		for (Endpoint endpoint : endpoints.values()) {
+			// each endpoint gets a fair share of the keys
+			assertTrue(endpoint.keys.size() > 25);
+		}
+	}
+
+	@Test
+	public void testConsistentHashMovesOnlyKeysOfChangedEndpoint() throws Throwable {
+		Map<String, Endpoint> endpoints = createEndpoints("a", "b", "c", "d");
+		JsonRpcLoadBalancingClient client = new JsonRpcLoadBalancingClient(endpoints);
+		client.setPolicy(LoadBalancingPolicy.CONSISTENT_HASH);
+		UserService service = ProxyUtil.createClientProxy(getClass().getClassLoader(), UserService.class, client);
+		Map<String, String> before = route(service, endpoints);
+
+		assertTrue(client.removeEndpoint("b"));
+		Map<String, String> removed = route(service, endpoints);
+		for (Map.Entry<String, String> owner : before.entrySet()) {
+			if (!owner.getValue().equals("b")) {
+				assertEquals(owner.getValue(), removed.get(owner.getKey()));
+			}
+		}
+
+		Endpoint added = new Endpoint();
+		endpoints.put("e", added);
+		client.addEndpoint("e", added);
+		Map<String, String> after = route(service, endpoints);
+		int moved = 0;
+		for (Map.Entry<String, String> owner : removed.entrySet()) {
+			if (!owner.getValue().equals(after.get(owner.getKey()))) {
+				assertEquals("e", after.get(owner.getKey()));
+				moved++;
+			}
+		}
+		// about a quarter of the keys moves to the new endpoint
+		assertTrue(moved > 20 && moved < 100);
+	}
+
+	@Test
+	public void testConsistentHashBoundsLoad() throws Throwable {
+		Map<String, Endpoint> endpoints = createEndpoints("a", "b");
+		final JsonRpcLoadBalancingClient client = new JsonRpcLoadBalancingClient(endpoints);
+		client.setPolicy(LoadBalancingPolicy.CONSISTENT_HASH);
+		client.setHashLoadFactor(1);
+		final UserService service = ProxyUtil.createClientProxy(getClass().getClassLoader(), UserService.class, client);
+		String owner = route(service, endpoints).get("user-0");
+		Endpoint busy = endpoints.get(owner);
+
+		busy.blocking = true;
+		executor.submit(new Callable<Object>() {
+			@Override
+			public Object call() {
+				return service.lookup("user-0");
+			}
+		});
+		for (int i = 0; i < 100 && client.getOutstanding(client.getEndpointIds().indexOf(owner)) == 0; i++) {
+			Thread.sleep(10);
+		}
+		busy.blocking = false;
+		for (Endpoint endpoint : endpoints.values()) {
+			endpoint.keys.clear();
+		}
+
+		// the owner of the key has more than its share of the outstanding calls
+		service.lookup("user-0");
+		assertFalse(busy.keys.contains("user-0"));
+		busy.release.countDown();
+	}
+
+	@Test
+	public void testConsistentHashWithoutRoutingKey() throws Throwable {
+		Map<String, Endpoint> endpoints = createEndpoints("a", "b");
+		JsonRpcLoadBalancingClient client = new JsonRpcLoadBalancingClient(endpoints);
+		client.setPolicy(LoadBalancingPolicy.CONSISTENT_HASH);
+
+		for (int i = 0; i < 100; i++) {
+			client.invoke("ping", new Object[]{}, String.class);
+		}
+		assertTrue(endpoints.get("a").calls.get() > 0);
+		assertTrue(endpoints.get("b").calls.get() > 0);
+	}
+
+	private static Map<String, Endpoint> createEndpoints(String... ids) {
+		Map<String, Endpoint> endpoints = new LinkedHashMap<>();
+		for (String id : ids) {
+			endpoints.put(id, new Endpoint());
+		}
+		return endpoints;
+	}
+
+	/**
+	 * @return the id of the endpoint each key was sent to
+	 */
+	private static Map<String, String> route(UserService service, Map<String, Endpoint> endpoints) {
+		for (Endpoint endpoint : endpoints.values()) {
+			endpoint.keys.clear();
+		}
+		for (int i = 0; i < 200; i++) {
+			service.lookup("user-" + i);
+		}
+		Map<String, String> owners = new HashMap<>();
+		for (Map.Entry<String, Endpoint> endpoint : endpoints.entrySet()) {
+			for (Object key : endpoint.getValue().keys) {
+				assertNull(owners.put((String) key, endpoint.getKey()));
+			}
+		}
+		assertEquals(200, owners.size());
+		return owners;
+	}
+
+	/**
+	 * Makes a call that blocks on the endpoint until it is released.
+	 */
+	private void occupy(final JsonRpcLoadBalancingClient client, Endpoint endpoint, Endpoint other) throws InterruptedException {
+		endpoint.blocking = true;
+		for (int i = 0; i < 10 && endpoint.calls.get() == 0; i++) {
+			executor.submit(new Callable<Object>() {
+				@Override
+				public Object call() throws Exception {
+					try {
+						return client.invoke("ping", new Object[]{}, String.class);
+					} catch (Exception e) {
+						throw e;
+					} catch (Throwable t) {
+						throw new IllegalStateException(t);
+					}
+				}
+			});
+			Thread.sleep(20);
+		}
+		endpoint.blocking = false;
+		assertEquals(1, endpoint.calls.get());
+		endpoint.calls.set(0);
+		other.calls.set(0);
+	}
+
+	private interface UserService {
+
+		String lookup(@JsonRpcRoutingKey String user);
+	}
+
+	private static class Endpoint implements IJsonRpcClient {
+
+		final AtomicInteger calls = new AtomicInteger();
+		final Set<Object> keys = Collections.newSetFromMap(new ConcurrentHashMap<Object, Boolean>());
+		final CountDownLatch release = new CountDownLatch(1);
+		volatile boolean blocking;
+		volatile long delayMillis;
+		volatile Throwable failure;
+
+		@Override
+		public void invoke(String methodName, Object argument) throws Throwable {
+			invoke(methodName, argument, (Type) null);
+		}
+
+		@Override
+		public Object invoke(String methodName, Object argument, Type returnType) throws Throwable {
+			return invoke(methodName, argument, returnType, new HashMap<String, String>());
+		}
+
+		@Override
+		public Object invoke(String methodName, Object argument, Type returnType, Map<String, String> extraHeaders) throws Throwable {
+			calls.incrementAndGet();
+			if (argument instanceof Object[] && ((Object[]) argument).length > 0) {
+				keys.add(((Object[]) argument)[0]);
+			}
+			if (blocking) {
+				release.await();
+			}
+			if (delayMillis > 0) {
+				Thread.sleep(delayMillis);
+			}
+			if (failure != null) {
+				throw failure;
+			}
+			return methodName;
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public <T> T invoke(String methodName, Object argument, Class<T> clazz) throws Throwable {
+			return (T) invoke(methodName, argument, (Type) clazz);
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public <T> T invoke(String methodName, Object argument, Class<T> clazz, Map<String, String> extraHeaders) throws Throwable {
+			return (T) invoke(methodName, argument, (Type) clazz, extraHeaders);
+		}
+	}
+}
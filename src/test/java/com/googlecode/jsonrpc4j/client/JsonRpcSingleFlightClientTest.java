@@ -0,0 +1,180 @@
+package com.googlecode.jsonrpc4j.client;
+
+import com.googlecode.jsonrpc4j.IJsonRpcClient;
+import com.googlecode.jsonrpc4j.JsonRpcSingleFlightClient;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class JsonRpcSingleFlightClientTest {
+
+	private static final int CALLERS = 8;
+
+	private final AtomicInteger calls = new AtomicInteger();
+	private final CountDownLatch release = new CountDownLatch(1);
+	private volatile boolean failing;
+	private JsonRpcSingleFlightClient singleFlightClient;
+	private ExecutorService executor;
+
+	@Before
+	public void setUp() {
+		singleFlightClient = new JsonRpcSingleFlightClient(new BlockingClient());
+		singleFlightClient.setMethodNames(Collections.singleton("lookup"));
+		executor = Executors.newFixedThreadPool(CALLERS);
+	}
+
+	@After
+	public void tearDown() {
+		release.countDown();
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void testConcurrentIdenticalCallsShareOneRequest() throws Exception {
+		List<Future<Object>> results = invokeConcurrently("lookup", "a");
+		awaitJoined(CALLERS - 1);
+		release.countDown();
+
+		Object first = results.get(0).get();
+		for (Future<Object> result : results) {
+			assertSame(first, result.get());
+		}
+		assertEquals(1, calls.get());
+		assertEquals(CALLERS - 1, singleFlightClient.getSharedCount());
+		assertEquals(0, singleFlightClient.getInFlightCount());
+	}
+
+	@Test
+	public void testFailureIsShared() throws Exception {
+		failing = true;
+		List<Future<Object>> results = invokeConcurrently("lookup", "a");
+		awaitJoined(CALLERS - 1);
+		release.countDown();
+
+		for (Future<Object> result : results) {
+			try {
+				result.get();
+				fail();
+			} catch (ExecutionException e) {
+				assertTrue(e.getCause() instanceof IllegalStateException);
+			}
+		}
+		assertEquals(1, calls.get());
+	}
+
+	@Test
+	public void testDifferentArgumentsAreNotShared() throws Throwable {
+		release.countDown();
+		assertEquals("lookup[a]#1", singleFlightClient.invoke("lookup", new Object[]{"a"}, String.class));
+		assertEquals("lookup[b]#2", singleFlightClient.invoke("lookup", new Object[]{"b"}, String.class));
+		// nothing is cached once a request has completed
+		assertEquals("lookup[a]#3", singleFlightClient.invoke("lookup", new Object[]{"a"}, String.class));
+	}
+
+	@Test
+	public void testOnlyListedMethodsAreShared() throws Exception {
+		singleFlightClient.setMethodNames(Collections.singleton("other"));
+		assertNotShared();
+	}
+
+	@Test
+	public void testNothingSharedByDefault() throws Exception {
+		singleFlightClient = new JsonRpcSingleFlightClient(new BlockingClient());
+		assertNotShared();
+	}
+
+	private void assertNotShared() throws Exception {
+		List<Future<Object>> results = invokeConcurrently("lookup", "a");
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (calls.get() < CALLERS && System.nanoTime() < deadline) {
+			Thread.sleep(5);
+		}
+		release.countDown();
+		for (Future<Object> result : results) {
+			result.get();
+		}
+		assertEquals(CALLERS, calls.get());
+		assertEquals(0, singleFlightClient.getSharedCount());
+	}
+
+	private List<Future<Object>> invokeConcurrently(final String methodName, final String argument) {
+		List<Future<Object>> results = new ArrayList<>();
+		for (int i = 0; i < CALLERS; i++) {
+			results.add(executor.submit(new Callable<Object>() {
+				@Override
+				public Object call() throws Exception {
+					try {
+						return singleFlightClient.invoke(methodName, new Object[]{argument}, String.class);
+					} catch (Exception | Error e) {
+						throw e;
+					} catch (Throwable t) {
+						throw new IllegalStateException(t);
+					}
+				}
+			}));
+		}
+		return results;
+	}
+
+	private void awaitJoined(int joined) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (singleFlightClient.getSharedCount() < joined && System.nanoTime() < deadline) {
+			Thread.sleep(5);
+		}
+	}
+
+	private class BlockingClient implements IJsonRpcClient {
+
+		@Override
+		public void invoke(String methodName, Object argument) throws Throwable {
+			invoke(methodName, argument, (Type) null);
+		}
+
+		@Override
+		public Object invoke(String methodName, Object argument, Type returnType) throws Throwable {
+			return invoke(methodName, argument, returnType, new HashMap<String, String>());
+		}
+
+		@Override
+		public Object invoke(String methodName, Object argument, Type returnType, Map<String, String> extraHeaders) throws Throwable {
+			int call = calls.incrementAndGet();
+			release.await();
+			if (failing) {
+				throw new IllegalStateException("failing");
+			}
+			return methodName + "[" + ((Object[]) argument)[0] + "]#" + call;
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public <T> T invoke(String methodName, Object argument, Class<T> clazz) throws Throwable {
+			return (T) invoke(methodName, argument, (Type) clazz);
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public <T> T invoke(String methodName, Object argument, Class<T> clazz, Map<String, String> extraHeaders) throws Throwable {
+			return (T) invoke(methodName, argument, (Type) clazz, extraHeaders);
+		}
+	}
+}
@@ -0,0 +1,75 @@
+package com.googlecode.jsonrpc4j.integration;
+
+import com.googlecode.jsonrpc4j.JsonRpcBatch;
+import com.googlecode.jsonrpc4j.JsonRpcClientException;
+import com.googlecode.jsonrpc4j.JsonRpcHttpClient;
+import com.googlecode.jsonrpc4j.util.BaseRestTest;
+import com.googlecode.jsonrpc4j.util.FakeServiceInterface;
+import com.googlecode.jsonrpc4j.util.FakeServiceInterfaceImpl;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * BatchTest
+ */
+public class BatchTest extends BaseRestTest {
+	
+	@Test
+	public void testBatch() throws Throwable {
+		JsonRpcHttpClient client = getHttpClient(false, false);
+		JsonRpcBatch batch = new JsonRpcBatch();
+		Future<Integer> first = batch.add("returnPrimitiveInt", new Object[]{1}, Integer.class);
+		Future<FakeServiceInterface.CustomClass> second = batch.add("returnCustomClass", new Object[]{2, "two"}, FakeServiceInterface.CustomClass.class);
+		Future<Void> third = batch.add("throwSomeException", new Object[]{"failed"}, Void.class);
+		client.invokeBatch(batch);
+		
+		Assert.assertEquals(1, first.get().intValue());
+		Assert.assertEquals(2, second.get().integer);
+		Assert.assertEquals("two", second.get().string);
+		try {
+			third.get();
+			Assert.fail();
+		} catch (ExecutionException e) {
+			Assert.assertTrue(e.getCause() instanceof JsonRpcClientException);
+			Assert.assertEquals("failed", e.getCause().getMessage());
+		}
+	}
+	
+	@Test
+	public void testGZIPBatch() throws Throwable {
+		JsonRpcHttpClient client = getHttpClient(true, true);
+		JsonRpcBatch batch = new JsonRpcBatch();
+		Future<Integer> first = batch.add("returnPrimitiveInt", new Object[]{1}, Integer.class);
+		Future<Integer> second = batch.add("returnPrimitiveInt", new Object[]{2}, Integer.class);
+		client.invokeBatch(batch);
+		
+		Assert.assertEquals(1, first.get().intValue());
+		Assert.assertEquals(2, second.get().intValue());
+	}
+	
+	@Test
+	public void testSplitBatch() throws Throwable {
+		JsonRpcHttpClient client = getHttpClient(false, false);
+		client.setMaxBatchSize(3);
+		JsonRpcBatch batch = new JsonRpcBatch();
+		List<Future<Integer>> results = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			results.add(batch.add("returnPrimitiveInt", new Object[]{i}, Integer.class));
+		}
+		client.invokeBatch(batch);
+		
+		for (int i = 0; i < 10; i++) {
+			Assert.assertEquals(i, results.get(i).get().intValue());
+		}
+	}
+	
+	@Override
+	protected Class service() {
+		return FakeServiceInterfaceImpl.class;
+	}
+}
@@ -0,0 +1,95 @@
+package com.googlecode.jsonrpc4j.integration;
+
+import com.googlecode.jsonrpc4j.JsonRpcBatch;
+import com.googlecode.jsonrpc4j.JsonRpcBatchingClient;
+import com.googlecode.jsonrpc4j.JsonRpcHttpClient;
+import com.googlecode.jsonrpc4j.ProxyUtil;
+import com.googlecode.jsonrpc4j.util.BaseRestTest;
+import com.googlecode.jsonrpc4j.util.FakeServiceInterface;
+import com.googlecode.jsonrpc4j.util.FakeServiceInterfaceImpl;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * BatchingClientTest
+ */
+public class BatchingClientTest extends BaseRestTest {
+	
+	private final AtomicInteger batches = new AtomicInteger();
+	private JsonRpcHttpClient httpClient;
+	
+	@Before
+	public void setUpClient() throws Exception {
+		final JsonRpcHttpClient client = getHttpClient(false, false);
+		httpClient = new JsonRpcHttpClient(client.getServiceUrl()) {
+			@Override
+			public void invokeBatch(JsonRpcBatch batch, Map<String, String> extraHeaders) throws Throwable {
+				batches.incrementAndGet();
+				super.invokeBatch(batch, extraHeaders);
+			}
+		};
+	}
+	
+	@Test
+	public void testConcurrentCallsAreBatched() throws Exception {
+		JsonRpcBatchingClient batchingClient = new JsonRpcBatchingClient(httpClient);
+		batchingClient.setWindowMillis(5000);
+		batchingClient.setMaxBatchSize(5);
+		final FakeServiceInterface service = ProxyUtil.createClientProxy(this.getClass().getClassLoader(), FakeServiceInterface.class, batchingClient);
+		
+		final CountDownLatch start = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(10);
+		List<Future<Integer>> results = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			final int arg = i;
+			results.add(executor.submit(new Callable<Integer>() {
+				@Override
+				public Integer call() throws Exception {
+					start.await();
+					return service.returnPrimitiveInt(arg);
+				}
+			}));
+		}
+		start.countDown();
+		
+		for (int i = 0; i < 10; i++) {
+			Assert.assertEquals(i, results.get(i).get().intValue());
+		}
+		Assert.assertEquals(2, batches.get());
+		executor.shutdown();
+	}
+	
+	@Test
+	public void testWindowElapses() throws Throwable {
+		JsonRpcBatchingClient batchingClient = new JsonRpcBatchingClient(httpClient);
+		batchingClient.setWindowMillis(10);
+		FakeServiceInterface service = ProxyUtil.createClientProxy(this.getClass().getClassLoader(), FakeServiceInterface.class, batchingClient);
+		
+		Assert.assertEquals(1, service.returnPrimitiveInt(1));
+		Assert.assertEquals(2, service.returnPrimitiveInt(2));
+		Assert.assertEquals(2, batches.get());
+	}
+	
+	@Test
+	public void testErrorIsThrownToCaller() throws Throwable {
+		expectedEx.expectMessage("failed");
+		FakeServiceInterface service = ProxyUtil.createClientProxy(this.getClass().getClassLoader(), FakeServiceInterface.class, new JsonRpcBatchingClient(httpClient));
+		service.throwSomeException("failed");
+	}
+	
+	@Override
+	protected Class service() {
+		return FakeServiceInterfaceImpl.class;
+	}
+}
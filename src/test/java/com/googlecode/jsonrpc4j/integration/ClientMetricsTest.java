@@ -0,0 +1,87 @@
+package com.googlecode.jsonrpc4j.integration;
+
+import com.googlecode.jsonrpc4j.IJsonRpcClient;
+import com.googlecode.jsonrpc4j.JsonRpcClientMetrics;
+import com.googlecode.jsonrpc4j.JsonRpcHttpAsyncClient;
+import com.googlecode.jsonrpc4j.JsonRpcHttpClient;
+import com.googlecode.jsonrpc4j.ProxyUtil;
+import com.googlecode.jsonrpc4j.spring.rest.JsonRpcRestClient;
+import com.googlecode.jsonrpc4j.util.BaseRestTest;
+import com.googlecode.jsonrpc4j.util.FakeServiceInterface;
+import com.googlecode.jsonrpc4j.util.FakeServiceInterfaceImpl;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * The HTTP clients record their calls the same way.
+ */
+public class ClientMetricsTest extends BaseRestTest {
+
+	@Test
+	public void testHttpClient() throws Throwable {
+		JsonRpcHttpClient client = getHttpClient(false, false);
+		JsonRpcClientMetrics metrics = new JsonRpcClientMetrics();
+		client.setMetrics(metrics);
+		callService(client);
+		assertRecorded(metrics);
+		Assert.assertEquals(2, metrics.getConnectionAcquire().getCount());
+	}
+
+	@Test
+	public void testHttpClientWithConnectionLimit() throws Throwable {
+		JsonRpcHttpClient client = getHttpClient(true, true);
+		client.setMaxConnections(1);
+		JsonRpcClientMetrics metrics = new JsonRpcClientMetrics();
+		client.setMetrics(metrics);
+		callService(client);
+		assertRecorded(metrics);
+	}
+
+	@Test
+	public void testAsyncClient() throws Throwable {
+		JsonRpcHttpAsyncClient client = new JsonRpcHttpAsyncClient(getHttpClient(false, false).getServiceUrl());
+		JsonRpcClientMetrics metrics = new JsonRpcClientMetrics();
+		client.setMetrics(metrics);
+		callService(client.toBlockingClient());
+		assertRecorded(metrics);
+		Assert.assertEquals(2, metrics.getConnectionAcquire().getCount());
+	}
+
+	@Test
+	public void testRestClient() throws Throwable {
+		JsonRpcRestClient client = getClient();
+		JsonRpcClientMetrics metrics = new JsonRpcClientMetrics();
+		client.setMetrics(metrics);
+		callService(client);
+		assertRecorded(metrics);
+	}
+
+	private void callService(IJsonRpcClient client) {
+		FakeServiceInterface service = ProxyUtil.createClientProxy(this.getClass().getClassLoader(), FakeServiceInterface.class, client);
+		Assert.assertEquals(2, service.returnPrimitiveInt(2));
+		try {
+			service.throwSomeException("failed");
+			Assert.fail();
+		} catch (RuntimeException e) {
+			Assert.assertEquals("failed", e.getMessage());
+		}
+	}
+
+	private static void assertRecorded(JsonRpcClientMetrics metrics) {
+		Assert.assertEquals(2, metrics.getCallCount());
+		Assert.assertEquals(1, metrics.getFailureCount());
+		Assert.assertEquals(1, metrics.getLatency("returnPrimitiveInt").getCount());
+		Assert.assertEquals(1, metrics.getFailureCount("throwSomeException"));
+		Assert.assertTrue(metrics.getLatency("returnPrimitiveInt").getMax() > 0);
+		Assert.assertTrue(metrics.getBytesSent() > 0);
+		Assert.assertTrue(metrics.getBytesReceived() > 0);
+		Assert.assertEquals(2, metrics.getSerialization().getCount());
+		Assert.assertEquals(2, metrics.getDeserialization().getCount());
+		Assert.assertEquals(1, metrics.getErrorCounts().size());
+	}
+
+	@Override
+	protected Class service() {
+		return FakeServiceInterfaceImpl.class;
+	}
+}
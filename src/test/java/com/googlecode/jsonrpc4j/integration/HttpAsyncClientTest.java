@@ -0,0 +1,167 @@
+package com.googlecode.jsonrpc4j.integration;
+
+import com.googlecode.jsonrpc4j.JsonRpcCallback;
+import com.googlecode.jsonrpc4j.JsonRpcClientException;
+import com.googlecode.jsonrpc4j.JsonRpcFuture;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.googlecode.jsonrpc4j.DefaultExceptionResolver;
+import com.googlecode.jsonrpc4j.JsonRpcHttpAsyncClient;
+import com.googlecode.jsonrpc4j.JsonRpcHttpAsyncPool;
+import com.googlecode.jsonrpc4j.ProxyUtil;
+import com.googlecode.jsonrpc4j.util.BaseRestTest;
+import com.googlecode.jsonrpc4j.util.FakeServiceInterface;
+import com.googlecode.jsonrpc4j.util.FakeServiceInterfaceImpl;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.net.MalformedURLException;
+import java.util.HashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * HttpAsyncClientTest
+ */
+public class HttpAsyncClientTest extends BaseRestTest {
+	
+	@Test
+	public void testFuture() throws Exception {
+		JsonRpcHttpAsyncClient client = getHttpAsyncClient();
+		Future<Integer> result = client.invoke("returnPrimitiveInt", new Object[]{2}, Integer.class);
+		Assert.assertEquals(2, result.get().intValue());
+	}
+	
+	@Test
+	public void testFutureError() throws Exception {
+		JsonRpcHttpAsyncClient client = getHttpAsyncClient();
+		Future<Object> result = client.invoke("throwSomeException", new Object[]{"failed"});
+		try {
+			result.get();
+			Assert.fail();
+		} catch (ExecutionException e) {
+			Assert.assertTrue(e.getCause() instanceof JsonRpcClientException);
+			Assert.assertEquals("failed", e.getCause().getMessage());
+		}
+	}
+	
+	@Test
+	public void testBlockingProxy() throws Exception {
+		FakeServiceInterface service = ProxyUtil.createClientProxy(this.getClass().getClassLoader(), FakeServiceInterface.class, getHttpAsyncClient().toBlockingClient());
+		Assert.assertEquals(2, service.returnPrimitiveInt(2));
+		FakeServiceInterface.CustomClass result = service.returnCustomClass(3, "three");
+		Assert.assertEquals(3, result.integer);
+		Assert.assertEquals("three", result.string);
+		service.doSomething();
+	}
+	
+	@Test
+	public void testBlockingProxyGZIP() throws Exception {
+		JsonRpcHttpAsyncClient client = getHttpAsyncClient();
+		client.setGzipRequests(true);
+		client.setAcceptGzipResponses(true);
+		FakeServiceInterface service = ProxyUtil.createClientProxy(this.getClass().getClassLoader(), FakeServiceInterface.class, client.toBlockingClient());
+		Assert.assertEquals(2, service.returnPrimitiveInt(2));
+	}
+	
+	@Test
+	public void testBlockingProxyError() throws Exception {
+		expectedEx.expect(JsonRpcClientException.class);
+		expectedEx.expectMessage("failed");
+		FakeServiceInterface service = ProxyUtil.createClientProxy(this.getClass().getClassLoader(), FakeServiceInterface.class, getHttpAsyncClient().toBlockingClient());
+		service.throwSomeException("failed");
+	}
+	
+	@Test
+	public void testAsyncProxy() throws Exception {
+		FakeServiceAsync service = ProxyUtil.createClientProxy(this.getClass().getClassLoader(), FakeServiceAsync.class, getHttpAsyncClient());
+		Future<FakeServiceInterface.CustomClass> customClass = service.returnCustomClass(3, "three");
+		JsonRpcFuture<Integer> primitive = service.returnPrimitiveInt(2);
+		Assert.assertEquals(3, customClass.get().integer);
+		Assert.assertEquals(2, primitive.get().intValue());
+		service.doSomething();
+	}
+	
+	@Test
+	public void testAsyncProxyCallback() throws Exception {
+		FakeServiceAsync service = ProxyUtil.createClientProxy(this.getClass().getClassLoader(), FakeServiceAsync.class, getHttpAsyncClient());
+		final CountDownLatch latch = new CountDownLatch(2);
+		final AtomicReference<Integer> result = new AtomicReference<>();
+		final AtomicReference<Throwable> error = new AtomicReference<>();
+		service.returnPrimitiveInt(2).addCallback(new JsonRpcCallback<Integer>() {
+			@Override
+			public void onComplete(Integer value) {
+				result.set(value);
+				latch.countDown();
+			}
+			
+			@Override
+			public void onError(Throwable t) {
+				latch.countDown();
+			}
+		});
+		service.throwSomeException("failed").addCallback(new JsonRpcCallback<Void>() {
+			@Override
+			public void onComplete(Void value) {
+				latch.countDown();
+			}
+			
+			@Override
+			public void onError(Throwable t) {
+				error.set(t);
+				latch.countDown();
+			}
+		});
+		Assert.assertTrue(latch.await(10, TimeUnit.SECONDS));
+		Assert.assertEquals(2, result.get().intValue());
+		Assert.assertTrue(error.get() instanceof JsonRpcClientException);
+		Assert.assertEquals("failed", error.get().getMessage());
+	}
+	
+	@Test
+	public void testOwnPool() throws Exception {
+		JsonRpcHttpAsyncPool.Config config = new JsonRpcHttpAsyncPool.Config();
+		config.setMaxTotal(3);
+		config.setMaxPerRoute(2);
+		try (JsonRpcHttpAsyncPool pool = new JsonRpcHttpAsyncPool(config)) {
+			JsonRpcHttpAsyncClient client = new JsonRpcHttpAsyncClient(new ObjectMapper(), DefaultExceptionResolver.INSTANCE,
+					getHttpClient(false, false).getServiceUrl(), new HashMap<String, String>(), pool);
+			Assert.assertEquals(2, client.invoke("returnPrimitiveInt", new Object[]{2}, Integer.class).get().intValue());
+			Assert.assertEquals(3, pool.getStats().getMax());
+			Assert.assertEquals(0, pool.getStats().getLeased());
+			Assert.assertNotSame(JsonRpcHttpAsyncPool.getDefault(), client.getPool());
+		}
+	}
+	
+	@Test
+	public void testNamedPool() throws Exception {
+		JsonRpcHttpAsyncPool pool = JsonRpcHttpAsyncPool.named("test");
+		Assert.assertSame(pool, JsonRpcHttpAsyncPool.named("test"));
+		pool.shutdown(1000);
+		Assert.assertTrue(pool.isShutdown());
+		JsonRpcHttpAsyncPool recreated = JsonRpcHttpAsyncPool.named("test");
+		Assert.assertNotSame(pool, recreated);
+		recreated.close();
+	}
+	
+	private JsonRpcHttpAsyncClient getHttpAsyncClient() throws MalformedURLException {
+		return new JsonRpcHttpAsyncClient(getHttpClient(false, false).getServiceUrl());
+	}
+	
+	public interface FakeServiceAsync {
+		void doSomething();
+		
+		JsonRpcFuture<Integer> returnPrimitiveInt(int arg);
+		
+		Future<FakeServiceInterface.CustomClass> returnCustomClass(int arg1, String arg2);
+		
+		JsonRpcFuture<Void> throwSomeException(String message);
+	}
+	
+	@Override
+	protected Class service() {
+		return FakeServiceInterfaceImpl.class;
+	}
+}
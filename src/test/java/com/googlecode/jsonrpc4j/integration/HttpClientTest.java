@@ -1,5 +1,7 @@
 package com.googlecode.jsonrpc4j.integration;
 
+import com.googlecode.jsonrpc4j.JsonRpcClientException;
+import com.googlecode.jsonrpc4j.JsonRpcHttpClient;
 import com.googlecode.jsonrpc4j.ProxyUtil;
 import com.googlecode.jsonrpc4j.util.BaseRestTest;
 import com.googlecode.jsonrpc4j.util.FakeServiceInterface;
@@ -37,6 +39,22 @@ public class HttpClientTest extends BaseRestTest {
 		Assert.assertEquals(2, i);
 	}
 	
+	@Test
+	public void testMaxConnections() throws MalformedURLException {
+		JsonRpcHttpClient client = getHttpClient(false, true);
+		client.setMaxConnections(2);
+		service = ProxyUtil.createClientProxy(this.getClass().getClassLoader(), FakeServiceInterface.class, client);
+		for (int i = 0; i < 10; i++) {
+			Assert.assertEquals(i, service.returnPrimitiveInt(i));
+			try {
+				service.throwSomeException("failed " + i);
+				Assert.fail();
+			} catch (JsonRpcClientException e) {
+				Assert.assertEquals("failed " + i, e.getMessage());
+			}
+		}
+	}
+	
 	@Override
 	protected Class service() {
 		return FakeServiceInterfaceImpl.class;
@@ -1,7 +1,13 @@
 package com.googlecode.jsonrpc4j.integration;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.googlecode.jsonrpc4j.ErrorResolver;
+import com.googlecode.jsonrpc4j.FairRequestScheduler;
 import com.googlecode.jsonrpc4j.JsonRpcBasicServer;
+import com.googlecode.jsonrpc4j.JsonRpcCancellation;
 import com.googlecode.jsonrpc4j.JsonRpcClient;
+import com.googlecode.jsonrpc4j.JsonRpcSocketClient;
 import com.googlecode.jsonrpc4j.ProxyUtil;
 import com.googlecode.jsonrpc4j.StreamServer;
 import com.googlecode.jsonrpc4j.StreamServer.Server;
@@ -16,11 +22,25 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.InetAddress;
 import java.net.ServerSocket;
+import java.net.InetSocketAddress;
 import java.net.Socket;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import static com.googlecode.jsonrpc4j.util.Util.DEFAULT_LOCAL_HOSTNAME;
+import static com.googlecode.jsonrpc4j.util.Util.mapper;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 public class StreamServerTest {
 	
@@ -145,6 +165,170 @@ public class StreamServerTest {
 		streamServer.stop();
 	}
 	
+	@Test
+	public void testPipelinedRequests() throws Throwable {
+		ExecutorService requestExecutor = Executors.newSingleThreadExecutor();
+		StreamServer streamServer = createAndStartServer();
+		streamServer.setRequestExecutor(requestExecutor);
+		Socket socket = new Socket(serverSocket.getInetAddress(), serverSocket.getLocalPort());
+		
+		InputStream ips = socket.getInputStream();
+		OutputStream ops = socket.getOutputStream();
+		
+		for (int i = 0; i < 10; i++) {
+			jsonRpcClient.invoke("inc", null, ops);
+		}
+		// a single parser, the responses arriving together
+		JsonParser parser = mapper.getFactory().createParser(ips);
+		for (int i = 0; i < 10; i++) {
+			parser.nextToken();
+			JsonNode response = parser.readValueAsTree();
+			assertEquals(i, response.get("result").intValue());
+		}
+		socket.close();
+		while (streamServer.getNumberOfConnections() > 0) {
+			Thread.yield();
+		}
+		streamServer.stop();
+		requestExecutor.shutdownNow();
+	}
+	
+	@Test
+	public void testCancelRequest() throws Throwable {
+		ExecutorService requestExecutor = Executors.newCachedThreadPool();
+		StreamServer streamServer = createAndStartServer();
+		streamServer.setRequestExecutor(requestExecutor);
+		Socket socket = new Socket(serverSocket.getInetAddress(), serverSocket.getLocalPort());
+		OutputStream ops = socket.getOutputStream();
+		
+		ops.write("{\"jsonrpc\":\"2.0\",\"id\":7,\"method\":\"block\"}".getBytes("UTF-8"));
+		ops.flush();
+		assertTrue(service.started.await(5, TimeUnit.SECONDS));
+		jsonRpcClient.invokeNotification(JsonRpcCancellation.CANCEL_REQUEST, Collections.singletonMap("id", 7), ops);
+		
+		JsonParser parser = mapper.getFactory().createParser(socket.getInputStream());
+		parser.nextToken();
+		JsonNode response = parser.readValueAsTree();
+		assertEquals(7, response.get("id").intValue());
+		assertEquals(ErrorResolver.JsonError.REQUEST_CANCELLED.code, response.get("error").get("code").intValue());
+		assertTrue(service.cancelled);
+		socket.close();
+		streamServer.stop();
+		requestExecutor.shutdownNow();
+	}
+	
+	@Test
+	public void testClientCancelsOnTimeout() throws Throwable {
+		ExecutorService requestExecutor = Executors.newCachedThreadPool();
+		StreamServer streamServer = createAndStartServer();
+		streamServer.setRequestExecutor(requestExecutor);
+		JsonRpcSocketClient client = new JsonRpcSocketClient(new InetSocketAddress(serverSocket.getInetAddress(), serverSocket.getLocalPort()), true, 500);
+		try {
+			client.invoke("block", null, String.class);
+			fail();
+		} catch (TimeoutException e) {
+			// expected
+		}
+		assertTrue(service.interrupted.await(5, TimeUnit.SECONDS));
+		assertTrue(service.cancelled);
+		client.close();
+		streamServer.stop();
+		requestExecutor.shutdownNow();
+	}
+	
+	@Test
+	public void testConnectionQuota() throws Throwable {
+		ExecutorService workers = Executors.newFixedThreadPool(2);
+		FairRequestScheduler scheduler = new FairRequestScheduler(workers, 2);
+		scheduler.setRateLimit(0.001, 2);
+		StreamServer streamServer = createAndStartServer();
+		streamServer.setRequestScheduler(scheduler);
+		Socket socket = new Socket(serverSocket.getInetAddress(), serverSocket.getLocalPort());
+		OutputStream ops = socket.getOutputStream();
+		
+		for (int i = 0; i < 3; i++) {
+			ops.write(("{\"jsonrpc\":\"2.0\",\"id\":\"" + i + "\",\"method\":\"hello\",\"params\":[\"dude\"]}").getBytes("UTF-8"));
+		}
+		ops.flush();
+		JsonParser parser = mapper.getFactory().createParser(socket.getInputStream());
+		Map<String, JsonNode> responses = new HashMap<>();
+		for (int i = 0; i < 3; i++) {
+			parser.nextToken();
+			JsonNode response = parser.readValueAsTree();
+			responses.put(response.get("id").textValue(), response);
+		}
+		assertEquals("hello dude", responses.get("0").get("result").textValue());
+		assertEquals("hello dude", responses.get("1").get("result").textValue());
+		assertEquals(ErrorResolver.JsonError.SERVER_OVERLOADED.code, responses.get("2").get("error").get("code").intValue());
+		socket.close();
+		while (streamServer.getNumberOfConnections() > 0) {
+			Thread.yield();
+		}
+		assertEquals(0, scheduler.getConnections());
+		streamServer.stop();
+		workers.shutdownNow();
+	}
+	
+	@Test
+	public void testRejectedByWorkers() throws Throwable {
+		ExecutorService workers = Executors.newSingleThreadExecutor();
+		workers.shutdown();
+		StreamServer streamServer = createAndStartServer();
+		streamServer.setRequestScheduler(new FairRequestScheduler(workers, 1));
+		Socket socket = new Socket(serverSocket.getInetAddress(), serverSocket.getLocalPort());
+		OutputStream ops = socket.getOutputStream();
+		
+		ops.write("{\"jsonrpc\":\"2.0\",\"id\":3,\"method\":\"hello\",\"params\":[\"dude\"]}".getBytes("UTF-8"));
+		ops.flush();
+		JsonParser parser = mapper.getFactory().createParser(socket.getInputStream());
+		parser.nextToken();
+		JsonNode response = parser.readValueAsTree();
+		assertEquals(3, response.get("id").intValue());
+		assertEquals(ErrorResolver.JsonError.SERVER_OVERLOADED.code, response.get("error").get("code").intValue());
+		socket.close();
+		streamServer.stop();
+	}
+	
+	@Test
+	public void testRejectedByExecutor() throws Throwable {
+		ThreadPoolExecutor requestExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new SynchronousQueue<Runnable>());
+		StreamServer streamServer = createAndStartServer();
+		streamServer.setRequestExecutor(requestExecutor);
+		Socket socket = new Socket(serverSocket.getInetAddress(), serverSocket.getLocalPort());
+		OutputStream ops = socket.getOutputStream();
+		
+		ops.write("{\"jsonrpc\":\"2.0\",\"id\":1,\"method\":\"block\"}".getBytes("UTF-8"));
+		ops.flush();
+		assertTrue(service.started.await(5, TimeUnit.SECONDS));
+		// the only thread is busy
+		ops.write("{\"jsonrpc\":\"2.0\",\"id\":2,\"method\":\"hello\",\"params\":[\"dude\"]}".getBytes("UTF-8"));
+		ops.flush();
+		JsonParser parser = mapper.getFactory().createParser(socket.getInputStream());
+		parser.nextToken();
+		JsonNode response = parser.readValueAsTree();
+		assertEquals(2, response.get("id").intValue());
+		assertEquals(ErrorResolver.JsonError.SERVER_OVERLOADED.code, response.get("error").get("code").intValue());
+		
+		// the connection is still open
+		jsonRpcClient.invokeNotification(JsonRpcCancellation.CANCEL_REQUEST, Collections.singletonMap("id", 1), ops);
+		parser.nextToken();
+		response = parser.readValueAsTree();
+		assertEquals(1, response.get("id").intValue());
+		assertEquals(ErrorResolver.JsonError.REQUEST_CANCELLED.code, response.get("error").get("code").intValue());
+		while (requestExecutor.getActiveCount() > 0) {
+			Thread.yield();
+		}
+		ops.write("{\"jsonrpc\":\"2.0\",\"id\":3,\"method\":\"hello\",\"params\":[\"dude\"]}".getBytes("UTF-8"));
+		ops.flush();
+		parser.nextToken();
+		response = parser.readValueAsTree();
+		assertEquals(3, response.get("id").intValue());
+		assertEquals("hello dude", response.get("result").textValue());
+		socket.close();
+		streamServer.stop();
+		requestExecutor.shutdownNow();
+	}
+	
 	// @Test
 	// Separating invoke() and readResponse() calls #20
 	// this just isn't going to work with jackson
@@ -177,6 +361,8 @@ public class StreamServerTest {
 		int inc();
 		
 		void reset();
+		
+		String block() throws InterruptedException;
 	}
 	
 	@SuppressWarnings("WeakerAccess")
@@ -198,6 +384,22 @@ public class StreamServerTest {
 			val = 0;
 		}
 		
+		private final CountDownLatch started = new CountDownLatch(1);
+		private final CountDownLatch interrupted = new CountDownLatch(1);
+		private volatile boolean cancelled = false;
+		
+		public String block() throws InterruptedException {
+			started.countDown();
+			try {
+				Thread.sleep(30000);
+				return "done";
+			} catch (InterruptedException e) {
+				cancelled = JsonRpcCancellation.isCancelled();
+				interrupted.countDown();
+				throw e;
+			}
+		}
+		
 	}
 	
 	private class CreateClients {
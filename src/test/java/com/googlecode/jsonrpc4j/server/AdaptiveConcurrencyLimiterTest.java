@@ -0,0 +1,174 @@
+package com.googlecode.jsonrpc4j.server;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.googlecode.jsonrpc4j.AdaptiveConcurrencyLimiter;
+import com.googlecode.jsonrpc4j.ErrorResolver;
+import com.googlecode.jsonrpc4j.JsonRpcBasicServer;
+import com.googlecode.jsonrpc4j.JsonRpcExecutor;
+import org.junit.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.ByteArrayOutputStream;
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static com.googlecode.jsonrpc4j.JsonRpcBasicServer.RESULT;
+import static com.googlecode.jsonrpc4j.util.Util.decodeAnswer;
+import static com.googlecode.jsonrpc4j.util.Util.error;
+import static com.googlecode.jsonrpc4j.util.Util.errorCode;
+import static com.googlecode.jsonrpc4j.util.Util.mapper;
+import static com.googlecode.jsonrpc4j.util.Util.messageWithListParamsStream;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class AdaptiveConcurrencyLimiterTest {
+
+	private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+
+	@Test
+	public void testRejectsOverLimit() {
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 2);
+		assertTrue(limiter.tryAcquire());
+		assertTrue(limiter.tryAcquire());
+		assertFalse(limiter.tryAcquire());
+		assertEquals(2, limiter.getInFlight());
+		limiter.release(MILLIS);
+		assertTrue(limiter.tryAcquire());
+		assertEquals(3, limiter.getAdmittedCount());
+		assertEquals(1, limiter.getRejectedCount());
+		limiter.reset();
+		assertEquals(0, limiter.getRejectedCount());
+	}
+
+	@Test
+	public void testLimitFollowsLatency() {
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 1, 100);
+		load(limiter, MILLIS, 50);
+		assertEquals(100, limiter.getLimit());
+		while (limiter.tryAcquire()) {
+			// fill the limit
+		}
+		for (int i = 0; i < 20; i++) {
+			limiter.release(10 * MILLIS);
+		}
+		assertTrue(limiter.getLimit() < 50);
+		for (int i = 0; i < 80; i++) {
+			limiter.release(MILLIS);
+		}
+		load(limiter, MILLIS, 50);
+		assertEquals(100, limiter.getLimit());
+	}
+
+	@Test
+	public void testUnusedLimitNotRaised() {
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter();
+		for (int i = 0; i < 100; i++) {
+			limiter.tryAcquire();
+			limiter.release(MILLIS);
+		}
+		assertEquals(AdaptiveConcurrencyLimiter.DEFAULT_INITIAL_LIMIT, limiter.getLimit());
+	}
+
+	@Test
+	public void testServerRejectsWhenOverloaded() throws Exception {
+		JsonRpcBasicServer server = new JsonRpcBasicServer(mapper, new Echo(), EchoInterface.class);
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 1, 1);
+		server.setConcurrencyLimiter(limiter);
+
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		server.handleRequest(messageWithListParamsStream(1, "echo", "hello"), output);
+		assertEquals("hello", decodeAnswer(output).get(RESULT).textValue());
+		assertEquals(0, limiter.getInFlight());
+
+		limiter.tryAcquire();
+		output.reset();
+		int code = server.handleRequest(messageWithListParamsStream(1, "echo", "hello"), output);
+		assertEquals(ErrorResolver.JsonError.SERVER_OVERLOADED.code, code);
+		JsonNode error = error(output);
+		assertEquals(ErrorResolver.JsonError.SERVER_OVERLOADED.code, errorCode(error).intValue());
+		assertEquals(1, limiter.getRejectedCount());
+	}
+
+	@Test
+	public void testOnlyInvocationTimed() throws Exception {
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			JsonRpcBasicServer server = new JsonRpcBasicServer(mapper, new Echo(), EchoInterface.class);
+			server.setExecutors(Collections.singletonMap("echo", executor));
+			AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter();
+			server.setConcurrencyLimiter(limiter);
+			// the request waits for the thread of the executor, which is not its latency
+			executor.execute(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						Thread.sleep(200);
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				}
+			});
+			ByteArrayOutputStream output = new ByteArrayOutputStream();
+			server.handleRequest(messageWithListParamsStream(1, "echoOnExecutor", "hello"), output);
+			assertEquals("hello", decodeAnswer(output).get(RESULT).textValue());
+			assertEquals(0, limiter.getInFlight());
+			assertTrue(limiter.getLatencyMicros() > 0);
+			assertTrue(limiter.getLatencyMicros() < TimeUnit.MILLISECONDS.toMicros(100));
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testJmx() throws Exception {
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(5, 1, 10);
+		ObjectName name = limiter.register("limiter-test");
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		try {
+			assertEquals(5, server.getAttribute(name, "Limit"));
+			assertEquals(0L, server.getAttribute(name, "RejectedCount"));
+		} finally {
+			limiter.unregister();
+		}
+		assertFalse(server.isRegistered(name));
+	}
+
+	/**
+	 * Fills the limit and releases all the requests with the same latency, several times.
+	 */
+	private static void load(AdaptiveConcurrencyLimiter limiter, long latencyNanos, int rounds) {
+		for (int round = 0; round < rounds; round++) {
+			int admitted = 0;
+			while (limiter.tryAcquire()) {
+				admitted++;
+			}
+			for (int i = 0; i < admitted; i++) {
+				limiter.release(latencyNanos);
+			}
+		}
+	}
+
+	public interface EchoInterface {
+		String echo(String value);
+
+		@JsonRpcExecutor("echo")
+		String echoOnExecutor(String value);
+	}
+
+	private static class Echo implements EchoInterface {
+		@Override
+		public String echo(String value) {
+			return value;
+		}
+
+		@Override
+		public String echoOnExecutor(String value) {
+			return value;
+		}
+	}
+}
@@ -1,5 +1,7 @@
 package com.googlecode.jsonrpc4j.server;
 
+import com.googlecode.jsonrpc4j.AdaptiveConcurrencyLimiter;
+import com.googlecode.jsonrpc4j.JsonRpcDeadline;
 import com.googlecode.jsonrpc4j.JsonRpcServer;
 import org.easymock.EasyMockRunner;
 import org.easymock.Mock;
@@ -90,4 +92,37 @@ public class DefaultHttpStatusCodeProviderTest {
 		assertHttpStatusCodeForJsonRpcRequest(messageWithListParamsStream(1, "testMethod"), 500, server);
 	}
 	
+	@Test
+	public void http503ForOverload() throws Exception {
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 1, 1);
+		jsonRpcServer.setConcurrencyLimiter(limiter);
+		assertHttpStatusCodeForJsonRpcRequest(messageWithListParamsStream(1, "testMethod", param1), 200, jsonRpcServer);
+		limiter.tryAcquire();
+		assertHttpStatusCodeForJsonRpcRequest(messageWithListParamsStream(1, "testMethod", param1), 503, jsonRpcServer);
+	}
+	
+	@Test
+	public void http504ForExpiredDeadline() throws Exception {
+		jsonRpcServer.setAcceptRequestDeadlines(true);
+		MockHttpServletRequest req = new MockHttpServletRequest();
+		MockHttpServletResponse res = new MockHttpServletResponse();
+		req.setMethod(HttpMethod.POST.name());
+		req.addHeader(JsonRpcDeadline.TIMEOUT_HEADER, "0");
+		req.setContent(convertInputStreamToByteArray(messageWithListParamsStream(1, "testMethod", param1)));
+		jsonRpcServer.handle(req, res);
+		Assert.assertEquals(504, res.getStatus());
+		Assert.assertFalse(JsonRpcDeadline.hasDeadline());
+	}
+	
+	@Test
+	public void deadlineHeaderIgnoredByDefault() throws Exception {
+		MockHttpServletRequest req = new MockHttpServletRequest();
+		MockHttpServletResponse res = new MockHttpServletResponse();
+		req.setMethod(HttpMethod.POST.name());
+		req.addHeader(JsonRpcDeadline.TIMEOUT_HEADER, "0");
+		req.setContent(convertInputStreamToByteArray(messageWithListParamsStream(1, "testMethod", param1)));
+		jsonRpcServer.handle(req, res);
+		Assert.assertEquals(200, res.getStatus());
+	}
+	
 }
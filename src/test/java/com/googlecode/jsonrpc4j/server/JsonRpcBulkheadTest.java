@@ -0,0 +1,172 @@
+package com.googlecode.jsonrpc4j.server;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.googlecode.jsonrpc4j.ErrorResolver;
+import com.googlecode.jsonrpc4j.JsonRpcBasicServer;
+import com.googlecode.jsonrpc4j.JsonRpcExecutor;
+import com.googlecode.jsonrpc4j.JsonRpcMaxConcurrent;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Collections;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static com.googlecode.jsonrpc4j.JsonRpcBasicServer.RESULT;
+import static com.googlecode.jsonrpc4j.util.Util.decodeAnswer;
+import static com.googlecode.jsonrpc4j.util.Util.errorCode;
+import static com.googlecode.jsonrpc4j.util.Util.mapper;
+import static com.googlecode.jsonrpc4j.util.Util.messageWithListParamsStream;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * For testing the @JsonRpcExecutor and @JsonRpcMaxConcurrent annotations
+ */
+public class JsonRpcBulkheadTest {
+
+	private final CountDownLatch started = new CountDownLatch(1);
+	private final CountDownLatch release = new CountDownLatch(1);
+	private ExecutorService callers;
+	private ExecutorService reports;
+	private JsonRpcBasicServer server;
+
+	@Before
+	public void setUp() {
+		callers = Executors.newCachedThreadPool();
+		reports = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<Runnable>(1), new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable r) {
+				return new Thread(r, "reports");
+			}
+		});
+		server = new JsonRpcBasicServer(mapper, new Service(), ServiceInterface.class);
+		server.setExecutors(Collections.singletonMap("reports", reports));
+	}
+
+	@After
+	public void tearDown() {
+		release.countDown();
+		callers.shutdownNow();
+		reports.shutdownNow();
+	}
+
+	@Test
+	public void testFailFast() throws Exception {
+		Future<JsonNode> blocked = call("blocking");
+		assertTrue(started.await(5, TimeUnit.SECONDS));
+		assertEquals(ErrorResolver.JsonError.SERVER_OVERLOADED.code, errorCode(call("blocking").get().get("error")).intValue());
+		assertTrue(call("threadName").get().has(RESULT));
+		release.countDown();
+		assertEquals("done", blocked.get().get(RESULT).textValue());
+		assertEquals("done", call("blocking").get().get(RESULT).textValue());
+	}
+
+	@Test
+	public void testBoundedWait() throws Exception {
+		Future<JsonNode> blocked = call("waiting");
+		assertTrue(started.await(5, TimeUnit.SECONDS));
+		Future<JsonNode> waiting = call("waiting");
+		Thread.sleep(50);
+		release.countDown();
+		assertEquals("done", blocked.get().get(RESULT).textValue());
+		assertEquals("done", waiting.get().get(RESULT).textValue());
+	}
+
+	@Test
+	public void testRunsOnExecutor() throws Exception {
+		assertEquals("reports", call("report").get().get(RESULT).textValue());
+		assertEquals(Thread.currentThread().getName(), handle("threadName").get(RESULT).textValue());
+	}
+
+	@Test
+	public void testExecutorRejects() throws Exception {
+		Future<JsonNode> running = call("blockingReport");
+		assertTrue(started.await(5, TimeUnit.SECONDS));
+		Future<JsonNode> queued = call("report");
+		while (((ThreadPoolExecutor) reports).getQueue().isEmpty()) {
+			Thread.sleep(1);
+		}
+		assertEquals(ErrorResolver.JsonError.SERVER_OVERLOADED.code, errorCode(handle("report").get("error")).intValue());
+		release.countDown();
+		assertEquals("done", running.get().get(RESULT).textValue());
+		assertEquals("reports", queued.get().get(RESULT).textValue());
+	}
+
+	@Test
+	public void testMissingExecutor() throws Exception {
+		server.setExecutors(null);
+		assertEquals(ErrorResolver.JsonError.ERROR_NOT_HANDLED.code, errorCode(handle("report").get("error")).intValue());
+	}
+
+	private Future<JsonNode> call(final String method) {
+		return callers.submit(new Callable<JsonNode>() {
+			@Override
+			public JsonNode call() throws Exception {
+				return handle(method);
+			}
+		});
+	}
+
+	private JsonNode handle(String method) throws Exception {
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		server.handleRequest(messageWithListParamsStream(1, method), output);
+		return decodeAnswer(output);
+	}
+
+	public interface ServiceInterface {
+
+		@JsonRpcMaxConcurrent(1)
+		String blocking() throws InterruptedException;
+
+		@JsonRpcMaxConcurrent(value = 1, maxWait = 5, unit = TimeUnit.SECONDS)
+		String waiting() throws InterruptedException;
+
+		@JsonRpcExecutor("reports")
+		String report();
+
+		@JsonRpcExecutor("reports")
+		String blockingReport() throws InterruptedException;
+
+		String threadName();
+	}
+
+	private class Service implements ServiceInterface {
+
+		@Override
+		public String blocking() throws InterruptedException {
+			started.countDown();
+			release.await();
+			return "done";
+		}
+
+		@Override
+		public String waiting() throws InterruptedException {
+			return blocking();
+		}
+
+		@Override
+		public String report() {
+			return Thread.currentThread().getName();
+		}
+
+		@Override
+		public String blockingReport() throws InterruptedException {
+			return blocking();
+		}
+
+		@Override
+		public String threadName() {
+			return Thread.currentThread().getName();
+		}
+	}
+}
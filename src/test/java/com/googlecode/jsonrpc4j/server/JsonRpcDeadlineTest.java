@@ -0,0 +1,205 @@
+package com.googlecode.jsonrpc4j.server;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.googlecode.jsonrpc4j.ErrorResolver;
+import com.googlecode.jsonrpc4j.JsonRpcBasicServer;
+import com.googlecode.jsonrpc4j.JsonRpcClient;
+import com.googlecode.jsonrpc4j.JsonRpcDeadline;
+import com.googlecode.jsonrpc4j.JsonRpcExecutor;
+import com.googlecode.jsonrpc4j.JsonRpcTimeout;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static com.googlecode.jsonrpc4j.JsonRpcBasicServer.RESULT;
+import static com.googlecode.jsonrpc4j.util.Util.createStream;
+import static com.googlecode.jsonrpc4j.util.Util.decodeAnswer;
+import static com.googlecode.jsonrpc4j.util.Util.errorCode;
+import static com.googlecode.jsonrpc4j.util.Util.mapper;
+import static com.googlecode.jsonrpc4j.util.Util.messageWithListParams;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * For testing the deadlines of the requests and the @JsonRpcTimeout annotation
+ */
+public class JsonRpcDeadlineTest {
+
+	private ExecutorService executor;
+	private JsonRpcBasicServer server;
+	private Service service;
+
+	@Before
+	public void setUp() {
+		executor = Executors.newSingleThreadExecutor();
+		service = new Service();
+		server = new JsonRpcBasicServer(mapper, service, ServiceInterface.class);
+		server.setExecutors(Collections.singletonMap("slow", executor));
+		server.setAcceptRequestDeadlines(true);
+	}
+
+	@After
+	public void tearDown() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void testExpiredRequestNotDispatched() throws Exception {
+		JsonNode response = handle("remaining", 0);
+		assertEquals(ErrorResolver.JsonError.DEADLINE_EXCEEDED.code, errorCode(response.get("error")).intValue());
+		assertEquals(0, service.calls);
+	}
+
+	@Test
+	public void testRequestDeadlineIgnoredByDefault() throws Exception {
+		server.setAcceptRequestDeadlines(false);
+		assertEquals(Long.MAX_VALUE, handle("remaining", 0).get(RESULT).longValue());
+		assertEquals(1, service.calls);
+		assertTrue(handle("limited", 0).get(RESULT).longValue() <= 100);
+	}
+
+	@Test
+	public void testRemainingBudget() throws Exception {
+		long remaining = handle("remaining", 5000).get(RESULT).longValue();
+		assertTrue(remaining > 0 && remaining <= 5000);
+		assertEquals(Long.MAX_VALUE, handle("remaining", -1).get(RESULT).longValue());
+		assertFalse(JsonRpcDeadline.hasDeadline());
+	}
+
+	@Test
+	public void testMethodTimeoutNarrowsDeadline() throws Exception {
+		assertTrue(handle("limited", -1).get(RESULT).longValue() <= 100);
+		assertTrue(handle("limited", 50).get(RESULT).longValue() <= 50);
+	}
+
+	@Test
+	public void testCooperativeCheck() throws Exception {
+		JsonNode response = handle("checking", -1);
+		assertEquals(ErrorResolver.JsonError.DEADLINE_EXCEEDED.code, errorCode(response.get("error")).intValue());
+	}
+
+	@Test
+	public void testInterruptOnDeadline() throws Exception {
+		server.setInterruptOnDeadline(true);
+		JsonNode response = handle("sleeping", 50);
+		assertEquals(ErrorResolver.JsonError.DEADLINE_EXCEEDED.code, errorCode(response.get("error")).intValue());
+		assertFalse(Thread.currentThread().isInterrupted());
+		assertEquals("awake", handle("awake", 1000).get(RESULT).textValue());
+	}
+
+	@Test
+	public void testExecutorInvocationCancelled() throws Exception {
+		long start = System.currentTimeMillis();
+		JsonNode response = handle("sleepingOnExecutor", 50);
+		assertEquals(ErrorResolver.JsonError.DEADLINE_EXCEEDED.code, errorCode(response.get("error")).intValue());
+		assertTrue(System.currentTimeMillis() - start < 5000);
+		assertTrue(handle("remainingOnExecutor", 5000).get(RESULT).longValue() <= 5000);
+	}
+
+	@Test
+	public void testClientSendsDeadline() throws Exception {
+		JsonRpcClient client = new JsonRpcClient(mapper);
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		client.invoke("remaining", new Object[0], output);
+		assertFalse(mapper.readTree(output.toByteArray()).has(JsonRpcDeadline.TIMEOUT));
+
+		client.setPropagateDeadline(true);
+		output.reset();
+		client.invoke("remaining", new Object[0], output);
+		assertFalse(mapper.readTree(output.toByteArray()).has(JsonRpcDeadline.TIMEOUT));
+
+		Long previous = JsonRpcDeadline.setTimeout(2000);
+		try {
+			output.reset();
+			client.invoke("remaining", new Object[0], output);
+			long timeout = mapper.readTree(output.toByteArray()).get(JsonRpcDeadline.TIMEOUT).longValue();
+			assertTrue(timeout > 0 && timeout <= 2000);
+		} finally {
+			JsonRpcDeadline.restore(previous);
+		}
+	}
+
+	private JsonNode handle(String method, long timeout) throws Exception {
+		HashMap<String, Object> request = messageWithListParams(1, method);
+		if (timeout >= 0) {
+			request.put(JsonRpcDeadline.TIMEOUT, timeout);
+		}
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		server.handleRequest(createStream(request), output);
+		return decodeAnswer(output);
+	}
+
+	public interface ServiceInterface {
+
+		long remaining();
+
+		@JsonRpcTimeout(100)
+		long limited();
+
+		@JsonRpcTimeout(50)
+		String checking();
+
+		String sleeping() throws InterruptedException;
+
+		String awake() throws InterruptedException;
+
+		@JsonRpcExecutor("slow")
+		String sleepingOnExecutor() throws InterruptedException;
+
+		@JsonRpcExecutor("slow")
+		long remainingOnExecutor();
+	}
+
+	private static class Service implements ServiceInterface {
+
+		private int calls = 0;
+
+		@Override
+		public long remaining() {
+			calls++;
+			return JsonRpcDeadline.getRemainingMillis();
+		}
+
+		@Override
+		public long limited() {
+			return JsonRpcDeadline.getRemainingMillis();
+		}
+
+		@Override
+		public String checking() {
+			while (true) {
+				JsonRpcDeadline.checkDeadline();
+				Thread.yield();
+			}
+		}
+
+		@Override
+		public String sleeping() throws InterruptedException {
+			Thread.sleep(10000);
+			return "slept";
+		}
+
+		@Override
+		public String awake() throws InterruptedException {
+			Thread.sleep(100);
+			return "awake";
+		}
+
+		@Override
+		public String sleepingOnExecutor() throws InterruptedException {
+			return sleeping();
+		}
+
+		@Override
+		public long remainingOnExecutor() {
+			return limited();
+		}
+	}
+}
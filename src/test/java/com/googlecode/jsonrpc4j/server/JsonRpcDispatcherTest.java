@@ -0,0 +1,248 @@
+package com.googlecode.jsonrpc4j.server;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.googlecode.jsonrpc4j.InvocationListener;
+import com.googlecode.jsonrpc4j.JsonRpcBasicServer;
+import com.googlecode.jsonrpc4j.JsonRpcDispatcher;
+import com.googlecode.jsonrpc4j.JsonRpcMethod;
+import com.googlecode.jsonrpc4j.JsonRpcParam;
+import com.googlecode.jsonrpc4j.JsonRpcService;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static com.googlecode.jsonrpc4j.JsonRpcBasicServer.RESULT;
+import static com.googlecode.jsonrpc4j.util.Util.decodeAnswer;
+import static com.googlecode.jsonrpc4j.util.Util.errorCode;
+import static com.googlecode.jsonrpc4j.util.Util.errorMessage;
+import static com.googlecode.jsonrpc4j.util.Util.error;
+import static com.googlecode.jsonrpc4j.util.Util.mapper;
+import static com.googlecode.jsonrpc4j.util.Util.messageWithListParamsStream;
+import static com.googlecode.jsonrpc4j.util.Util.messageWithMapParamsStream;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * The server dispatches the calls of {@link JsonRpcService} interfaces
+ * through the dispatchers generated by the annotation processor.
+ */
+public class JsonRpcDispatcherTest {
+
+	private ByteArrayOutputStream output;
+	private JsonRpcBasicServer server;
+	private final List<Method> invoked = new ArrayList<>();
+
+	@Before
+	public void setUp() {
+		output = new ByteArrayOutputStream();
+		server = new JsonRpcBasicServer(mapper, new CalculatorImpl(), Calculator.class);
+		server.setInvocationListener(new InvocationListener() {
+			@Override
+			public void willInvoke(Method method, List<JsonNode> arguments) {
+				invoked.add(method);
+			}
+
+			@Override
+			public void didInvoke(Method method, List<JsonNode> arguments, Object result, Throwable t, long duration) {
+			}
+		});
+	}
+
+	@Test
+	public void testDispatcherGenerated() throws Exception {
+		JsonRpcDispatcher dispatcher = JsonRpcDispatcher.create(Calculator.class, mapper);
+		assertNotNull(dispatcher);
+		assertEquals(Calculator.class, dispatcher.getServiceInterface());
+		assertEquals(2, dispatcher.findMethods("add").size());
+		assertEquals(1, dispatcher.findMethods("calc.multiply").size());
+		assertEquals(1, dispatcher.findMethods("multiply").size());
+		assertEquals(1, dispatcher.findMethods("calc.negate").size());
+		assertTrue(dispatcher.findMethods("negate").isEmpty());
+		assertTrue(dispatcher.findMethods("missing").isEmpty());
+		assertNull(JsonRpcDispatcher.create(Runnable.class, mapper));
+	}
+
+	@Test
+	public void testPrimitives() throws Exception {
+		server.handleRequest(messageWithListParamsStream(1, "add", 2, 3), output);
+		assertEquals(5, result().intValue());
+		assertEquals(Calculator.class.getMethod("add", int.class, int.class), invoked.get(0));
+	}
+
+	@Test
+	public void testOverload() throws Exception {
+		server.handleRequest(messageWithListParamsStream(1, "add", 1, 2, 3), output);
+		assertEquals(6, result().intValue());
+	}
+
+	@Test
+	public void testGenericsAndNamedParams() throws Exception {
+		server.handleRequest(messageWithMapParamsStream("sum", "values", Arrays.asList(1L, 2L, 3L)), output);
+		assertEquals(6, result().longValue());
+	}
+
+	@Test
+	public void testCustomNames() throws Exception {
+		server.handleRequest(messageWithListParamsStream(1, "calc.multiply", 2, 4), output);
+		assertEquals(8, result().intValue());
+		output.reset();
+		server.handleRequest(messageWithListParamsStream(1, "calc.negate", 2), output);
+		assertEquals(-2, result().intValue());
+		output.reset();
+		server.handleRequest(messageWithListParamsStream(1, "negate", 2), output);
+		assertEquals(-32601, errorCode(error(output)).intValue());
+	}
+
+	@Test
+	public void testVoidAndObjects() throws Exception {
+		server.handleRequest(messageWithListParamsStream(1, "describe", new Pair(1, 2)), output);
+		assertEquals("(1, 2)", result().textValue());
+		output.reset();
+		server.handleRequest(messageWithListParamsStream(1, "reset"), output);
+		assertTrue(decodeAnswer(output).get(RESULT).isNull());
+	}
+
+	@Test
+	public void testVarargs() throws Exception {
+		server.handleRequest(messageWithListParamsStream(1, "concat", "a", "b", "c"), output);
+		assertEquals("abc", result().textValue());
+	}
+
+	@Test
+	public void testException() throws Exception {
+		server.handleRequest(messageWithListParamsStream(1, "divide", 1, 0), output);
+		JsonNode error = error(output);
+		assertEquals(-32001, errorCode(error).intValue());
+		assertEquals("division by zero", errorMessage(error).textValue());
+	}
+
+	@Test
+	public void testSameAnswersWithoutDispatcher() throws Exception {
+		JsonRpcBasicServer reflective = new JsonRpcBasicServer(mapper, new CalculatorImpl(), Calculator.class);
+		reflective.setUseGeneratedDispatchers(false);
+		ByteArrayOutputStream reflectiveOutput = new ByteArrayOutputStream();
+		server.handleRequest(messageWithListParamsStream(1, "divide", 1, 0), output);
+		reflective.handleRequest(messageWithListParamsStream(1, "divide", 1, 0), reflectiveOutput);
+		assertEquals(decodeAnswer(reflectiveOutput), decodeAnswer(output));
+		output.reset();
+		reflectiveOutput.reset();
+		server.handleRequest(messageWithMapParamsStream("describe", "pair", new Pair(3, 4)), output);
+		reflective.handleRequest(messageWithMapParamsStream("describe", "pair", new Pair(3, 4)), reflectiveOutput);
+		assertEquals(decodeAnswer(reflectiveOutput), decodeAnswer(output));
+	}
+
+	private JsonNode result() throws IOException {
+		return decodeAnswer(output).get(RESULT);
+	}
+
+	public interface Named {
+		String describe(@JsonRpcParam("pair") Pair pair);
+	}
+
+	@JsonRpcService("/calculator")
+	public interface Calculator extends Named {
+		int add(int a, int b);
+
+		int add(int a, int b, int c);
+
+		long sum(@JsonRpcParam("values") List<Long> values);
+
+		@JsonRpcMethod("calc.multiply")
+		int multiply(int a, int b);
+
+		@JsonRpcMethod(value = "calc.negate", required = true)
+		int negate(int a);
+
+		String concat(String... parts);
+
+		int divide(int a, int b) throws DivisionException;
+
+		void reset();
+	}
+
+	public static class Pair {
+		public int left;
+		public int right;
+
+		public Pair() {
+		}
+
+		Pair(int left, int right) {
+			this.left = left;
+			this.right = right;
+		}
+	}
+
+	public static class DivisionException extends Exception {
+		DivisionException(String message) {
+			super(message);
+		}
+	}
+
+	private static class CalculatorImpl implements Calculator {
+
+		@Override
+		public int add(int a, int b) {
+			return a + b;
+		}
+
+		@Override
+		public int add(int a, int b, int c) {
+			return a + b + c;
+		}
+
+		@Override
+		public long sum(List<Long> values) {
+			long sum = 0;
+			for (Long value : values) {
+				sum += value;
+			}
+			return sum;
+		}
+
+		@Override
+		public int multiply(int a, int b) {
+			return a * b;
+		}
+
+		@Override
+		public int negate(int a) {
+			return -a;
+		}
+
+		@Override
+		public String concat(String... parts) {
+			StringBuilder builder = new StringBuilder();
+			for (String part : parts) {
+				builder.append(part);
+			}
+			return builder.toString();
+		}
+
+		@Override
+		public int divide(int a, int b) throws DivisionException {
+			if (b == 0) {
+				throw new DivisionException("division by zero");
+			}
+			return a / b;
+		}
+
+		@Override
+		public void reset() {
+		}
+
+		@Override
+		public String describe(Pair pair) {
+			return "(" + pair.left + ", " + pair.right + ")";
+		}
+	}
+}
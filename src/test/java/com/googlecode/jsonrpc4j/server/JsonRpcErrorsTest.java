@@ -1,15 +1,21 @@
 package com.googlecode.jsonrpc4j.server;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import com.googlecode.jsonrpc4j.AnnotationsErrorResolver;
+import com.googlecode.jsonrpc4j.DefaultErrorResolver;
 import com.googlecode.jsonrpc4j.ErrorResolver;
 import com.googlecode.jsonrpc4j.JsonRpcBasicServer;
 import com.googlecode.jsonrpc4j.JsonRpcError;
 import com.googlecode.jsonrpc4j.JsonRpcErrors;
+import com.googlecode.jsonrpc4j.LogRateLimiter;
+import com.googlecode.jsonrpc4j.MultipleErrorResolver;
 import com.googlecode.jsonrpc4j.util.CustomTestException;
 import org.junit.Before;
 import org.junit.Test;
 
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Method;
 
 import static com.googlecode.jsonrpc4j.util.Util.error;
 import static com.googlecode.jsonrpc4j.util.Util.errorCode;
@@ -19,7 +25,11 @@ import static com.googlecode.jsonrpc4j.util.Util.exceptionType;
 import static com.googlecode.jsonrpc4j.util.Util.mapper;
 import static com.googlecode.jsonrpc4j.util.Util.messageWithListParamsStream;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 /**
  * For testing the @JsonRpcErrors and @JsonRpcError annotations
@@ -93,6 +103,62 @@ public class JsonRpcErrorsTest {
 		assertEquals(CustomTestException.class.getName(), exceptionType(data).textValue());
 	}
 	
+	@Test
+	public void fixedMessageErrorReused() throws Exception {
+		Method method = ServiceInterfaceWithAnnotationMessageAndData.class.getMethod("testMethod");
+		ErrorResolver.JsonError first = AnnotationsErrorResolver.INSTANCE.resolveError(testException, method, null);
+		assertTrue(first.isReusable());
+		assertSame(first, AnnotationsErrorResolver.INSTANCE.resolveError(testExceptionWithMessage, method, null));
+		
+		JsonRpcBasicServer jsonRpcServer = new JsonRpcBasicServer(mapper, new Service(), ServiceInterfaceWithAnnotationMessageAndData.class);
+		for (int i = 0; i < 2; i++) {
+			byteArrayOutputStream.reset();
+			jsonRpcServer.handleRequest(messageWithListParamsStream(1, "testMethod"), byteArrayOutputStream);
+			JsonNode error = error(byteArrayOutputStream);
+			assertEquals(-5678, errorCode(error).intValue());
+			assertEquals("The message", errorMessage(errorData(error)).textValue());
+		}
+	}
+	
+	@Test
+	public void firstMatchingErrorPerExceptionClass() throws Exception {
+		Method method = ServiceInterfaceWithSeveralErrors.class.getMethod("testMethod");
+		ErrorResolver resolver = AnnotationsErrorResolver.INSTANCE;
+		for (int i = 0; i < 2; i++) {
+			assertEquals(1, resolver.resolveError(new IllegalArgumentException("argument"), method, null).code);
+			ErrorResolver.JsonError error = resolver.resolveError(new IllegalStateException("state"), method, null);
+			assertEquals(2, error.code);
+			assertEquals("state", error.message);
+			assertFalse(error.isReusable());
+			assertNull(resolver.resolveError(new IOException("io"), method, null));
+		}
+		assertNull(resolver.resolveError(testException, ServiceInterfaceWithoutAnnotation.class.getMethod("testMethod"), null));
+	}
+	
+	@Test
+	public void multipleErrorResolverChain() throws Exception {
+		Method method = ServiceInterfaceWithSeveralErrors.class.getMethod("testMethod");
+		MultipleErrorResolver resolver = new MultipleErrorResolver(AnnotationsErrorResolver.INSTANCE);
+		assertNull(resolver.resolveError(new IOException("io"), method, null));
+		resolver.addErrorResolver(DefaultErrorResolver.INSTANCE);
+		assertEquals(ErrorResolver.JsonError.ERROR_NOT_HANDLED.code, resolver.resolveError(new IOException("io"), method, null).code);
+		assertEquals(1, resolver.resolveError(new IllegalArgumentException("argument"), method, null).code);
+	}
+	
+	@Test
+	public void invocationErrorLogsLimited() {
+		LogRateLimiter limiter = new LogRateLimiter(2);
+		assertEquals(0, limiter.acquire());
+		assertEquals(0, limiter.acquire());
+		assertEquals(-1, limiter.acquire());
+		assertEquals(-1, limiter.acquire());
+		assertEquals(2, limiter.getSuppressed());
+		LogRateLimiter unlimited = new LogRateLimiter(0);
+		for (int i = 0; i < 1000; i++) {
+			assertEquals(0, unlimited.acquire());
+		}
+	}
+	
 	@SuppressWarnings({"unused", "WeakerAccess"})
 	public interface ServiceInterfaceWithoutAnnotation {
 		Object testMethod();
@@ -110,6 +176,15 @@ public class JsonRpcErrorsTest {
 		Object testMethod();
 	}
 	
+	@SuppressWarnings({"unused", "WeakerAccess"})
+	public interface ServiceInterfaceWithSeveralErrors {
+		@JsonRpcErrors({
+				@JsonRpcError(exception = IllegalArgumentException.class, code = 1, message = "invalid argument"),
+				@JsonRpcError(exception = RuntimeException.class, code = 2)
+		})
+		Object testMethod();
+	}
+	
 	private class Service implements ServiceInterfaceWithoutAnnotation, ServiceInterfaceWithAnnotation, ServiceInterfaceWithAnnotationMessageAndData {
 		public Object testMethod() {
 			throw testException;
@@ -0,0 +1,224 @@
+package com.googlecode.jsonrpc4j.server;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.googlecode.jsonrpc4j.JsonRpcBasicServer;
+import com.googlecode.jsonrpc4j.JsonRpcExecutor;
+import com.googlecode.jsonrpc4j.JsonRpcPriority;
+import com.googlecode.jsonrpc4j.JsonRpcPriorityExecutor;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static com.googlecode.jsonrpc4j.JsonRpcBasicServer.RESULT;
+import static com.googlecode.jsonrpc4j.util.Util.createStream;
+import static com.googlecode.jsonrpc4j.util.Util.decodeAnswer;
+import static com.googlecode.jsonrpc4j.util.Util.mapper;
+import static com.googlecode.jsonrpc4j.util.Util.messageWithListParams;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * For testing the {@link JsonRpcPriorityExecutor} and the @JsonRpcPriority annotation
+ */
+public class JsonRpcPriorityTest {
+
+	private final CountDownLatch started = new CountDownLatch(1);
+	private final CountDownLatch release = new CountDownLatch(1);
+	private final List<String> order = new CopyOnWriteArrayList<>();
+	private ExecutorService callers;
+	private JsonRpcPriorityExecutor executor;
+
+	@Before
+	public void setUp() {
+		callers = Executors.newCachedThreadPool();
+	}
+
+	@After
+	public void tearDown() {
+		release.countDown();
+		callers.shutdownNow();
+		if (executor != null) {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testHighestPriorityFirst() throws Exception {
+		executor = new JsonRpcPriorityExecutor(1, TimeUnit.MINUTES.toMillis(1));
+		block();
+		executor.execute(record("low"), 0);
+		executor.execute(record("high"), 5);
+		executor.execute(record("medium"), 1);
+		executor.execute(record("high again"), 5);
+		awaitOrder(4);
+		assertEquals(Arrays.asList("high", "high again", "medium", "low"), order);
+	}
+
+	@Test
+	public void testAging() throws Exception {
+		executor = new JsonRpcPriorityExecutor(1, 10);
+		block();
+		executor.execute(record("old"), 0);
+		Thread.sleep(50);
+		executor.execute(record("new"), 2);
+		awaitOrder(2);
+		assertEquals(Arrays.asList("old", "new"), order);
+	}
+
+	@Test
+	public void testCurrentPriority() throws Exception {
+		executor = new JsonRpcPriorityExecutor(1, TimeUnit.MINUTES.toMillis(1));
+		block();
+		Future<?> low = executor.submit(record("low"));
+		Integer previous = JsonRpcPriorityExecutor.setCurrentPriority(3);
+		try {
+			assertEquals(3, JsonRpcPriorityExecutor.getCurrentPriority());
+			executor.execute(record("high"));
+		} finally {
+			JsonRpcPriorityExecutor.setCurrentPriority(previous);
+		}
+		assertEquals(0, JsonRpcPriorityExecutor.getCurrentPriority());
+		release.countDown();
+		low.get(5, TimeUnit.SECONDS);
+		assertEquals(Arrays.asList("high", "low"), order);
+	}
+
+	@Test
+	public void testServerPriorities() throws Exception {
+		executor = new JsonRpcPriorityExecutor(1, TimeUnit.MINUTES.toMillis(1));
+		JsonRpcBasicServer server = new JsonRpcBasicServer(mapper, new Service(), ServiceInterface.class);
+		server.setExecutors(Collections.<String, ExecutorService>singletonMap("work", executor));
+		server.setAcceptRequestPriorities(true);
+		Future<JsonNode> blocked = call(server, createStream(messageWithListParams(1, "block")));
+		assertTrue(started.await(5, TimeUnit.SECONDS));
+		Future<JsonNode> background = call(server, createStream(messageWithListParams(2, "background", "background")));
+		awaitQueued(1);
+		Future<JsonNode> urgent = call(server, createStream(messageWithListParams(3, "urgent")));
+		awaitQueued(2);
+		HashMap<String, Object> prioritized = messageWithListParams(4, "background", "prioritized");
+		prioritized.put(JsonRpcPriorityExecutor.PRIORITY, 20);
+		Future<JsonNode> requested = call(server, createStream(prioritized));
+		awaitQueued(3);
+		release.countDown();
+		assertEquals("done", blocked.get().get(RESULT).textValue());
+		assertEquals("background", background.get().get(RESULT).textValue());
+		assertEquals("urgent", urgent.get().get(RESULT).textValue());
+		assertEquals("prioritized", requested.get().get(RESULT).textValue());
+		assertEquals(Arrays.asList("prioritized", "urgent", "background"), order);
+	}
+
+	@Test
+	public void testRequestPriorityIgnoredByDefault() throws Exception {
+		executor = new JsonRpcPriorityExecutor(1, TimeUnit.MINUTES.toMillis(1));
+		JsonRpcBasicServer server = new JsonRpcBasicServer(mapper, new Service(), ServiceInterface.class);
+		server.setExecutors(Collections.<String, ExecutorService>singletonMap("work", executor));
+		Future<JsonNode> blocked = call(server, createStream(messageWithListParams(1, "block")));
+		assertTrue(started.await(5, TimeUnit.SECONDS));
+		Future<JsonNode> urgent = call(server, createStream(messageWithListParams(2, "urgent")));
+		awaitQueued(1);
+		HashMap<String, Object> prioritized = messageWithListParams(3, "background", "prioritized");
+		prioritized.put(JsonRpcPriorityExecutor.PRIORITY, 20);
+		Future<JsonNode> requested = call(server, createStream(prioritized));
+		awaitQueued(2);
+		release.countDown();
+		assertEquals("done", blocked.get().get(RESULT).textValue());
+		assertEquals("urgent", urgent.get().get(RESULT).textValue());
+		assertEquals("prioritized", requested.get().get(RESULT).textValue());
+		assertEquals(Arrays.asList("urgent", "prioritized"), order);
+	}
+
+	private void block() throws InterruptedException {
+		executor.execute(new Runnable() {
+			@Override
+			public void run() {
+				started.countDown();
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		}, Integer.MAX_VALUE);
+		assertTrue(started.await(5, TimeUnit.SECONDS));
+	}
+
+	private Runnable record(final String name) {
+		return new Runnable() {
+			@Override
+			public void run() {
+				order.add(name);
+			}
+		};
+	}
+
+	private void awaitOrder(int size) throws InterruptedException {
+		release.countDown();
+		for (int i = 0; i < 500 && order.size() < size; i++) {
+			Thread.sleep(10);
+		}
+	}
+
+	private void awaitQueued(int size) throws InterruptedException {
+		while (executor.getQueue().size() < size) {
+			Thread.sleep(1);
+		}
+	}
+
+	private Future<JsonNode> call(final JsonRpcBasicServer server, final InputStream request) {
+		return callers.submit(new Callable<JsonNode>() {
+			@Override
+			public JsonNode call() throws Exception {
+				ByteArrayOutputStream output = new ByteArrayOutputStream();
+				server.handleRequest(request, output);
+				return decodeAnswer(output);
+			}
+		});
+	}
+
+	@JsonRpcExecutor("work")
+	public interface ServiceInterface {
+
+		String block() throws InterruptedException;
+
+		@JsonRpcPriority(10)
+		String urgent();
+
+		String background(String name);
+	}
+
+	private class Service implements ServiceInterface {
+
+		@Override
+		public String block() throws InterruptedException {
+			started.countDown();
+			release.await();
+			return "done";
+		}
+
+		@Override
+		public String urgent() {
+			order.add("urgent");
+			return "urgent";
+		}
+
+		@Override
+		public String background(String name) {
+			order.add(name);
+			return name;
+		}
+	}
+}